@@ -0,0 +1,82 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.SnelParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聚合性能（辅助方法 vs 内置聚合函数）
+ */
+public class AggregateTest {
+    public static void main(String[] args) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        long[] amounts = new long[1000];
+        for (int i = 0; i < 1000; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("price", i % 50);
+            items.add(item);
+            amounts[i] = i;
+        }
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("items", items);
+        context.put("amounts", amounts);
+        context.put("Helper", Helper.class);
+
+        run("projection", context, "Helper.sumPrice(items)", "sum(items.![price])");
+        run("long[]", context, "Helper.sum(amounts)", "sum(amounts)");
+    }
+
+    private static void run(String name, Map<String, Object> context, String source1, String source2) {
+        Expression expr1 = SnEL.parse(source1);
+        SnelParser parser = new SnelParser(64);
+        parser.getFunctions().registerStandard();
+        Expression expr2 = parser.forEval().parse(source2);
+
+        int count = 100_000;
+
+        for (int i = 0; i < count / 10; i++) {
+            expr1.eval(context::get);
+            expr2.eval(context::get);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr1.eval(context::get);
+        }
+        long span1 = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr2.eval(context::get);
+        }
+        long span2 = System.currentTimeMillis() - start;
+
+        System.out.println(name + ": " + expr1.eval(context::get) + " / " + expr2.eval(context::get));
+        System.out.println("  helper x" + count + ": " + span1 + "ms");
+        System.out.println("  aggregate x" + count + ": " + span2 + "ms");
+    }
+
+    public static class Helper {
+        public static long sumPrice(List<Map<String, Object>> list) {
+            long sum = 0;
+            for (Map<String, Object> item : list) {
+                sum += ((Number) item.get("price")).longValue();
+            }
+            return sum;
+        }
+
+        public static long sum(long[] array) {
+            long sum = 0;
+            for (long v : array) {
+                sum += v;
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.ClosureExpression;
+import org.noear.solon.expression.snel.InstructionExpression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 闭包执行、指令执行与语法树解释执行的性能对比（分层执行的热点目标；每项取多轮中的最小耗时）
+ */
+public class ClosureTest {
+    public static void main(String[] args) {
+        String[] exprs = {
+                "a + b * 2 > 10 AND c == 'x'",
+                "(a + b) * (a - b) >= 0 ? a * 2 : b / 2",
+                "m.k1 + m.k2 > 5 AND (c IN ['x', 'y'] OR a < 0)",
+                "user.name == 'noear' AND user.age >= 18",
+        };
+
+        Map<String, Object> m = new HashMap<>();
+        m.put("k1", 2);
+        m.put("k2", 4);
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 10);
+        context.put("b", 3);
+        context.put("c", "x");
+        context.put("m", m);
+        context.put("user", new User("noear", 20));
+
+        Function<String, Object> ctx = context::get;
+
+        int count = 1_000_000;
+        int rounds = 7;
+
+        for (String str : exprs) {
+            Expression tree = SnEL.parse(str);
+            //先解释执行（完成类型特化），与分层执行的编译时机一致
+            run(tree, ctx, count);
+
+            Expression vm = InstructionExpression.compile(tree);
+            Expression closure = ClosureExpression.compile(tree);
+
+            long treeMs = Long.MAX_VALUE;
+            long vmMs = Long.MAX_VALUE;
+            long closureMs = Long.MAX_VALUE;
+
+            for (int i = 0; i < rounds; i++) {
+                treeMs = Math.min(treeMs, run(tree, ctx, count));
+                vmMs = Math.min(vmMs, run(vm, ctx, count));
+                closureMs = Math.min(closureMs, run(closure, ctx, count));
+            }
+
+            System.out.println(str);
+            System.out.println("  tree   : " + treeMs + "ms");
+            System.out.println("  vm     : " + vmMs + "ms");
+            System.out.println("  closure: " + closureMs + "ms");
+        }
+    }
+
+    private static long run(Expression expr, Function<String, Object> context, int count) {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr.eval(context);
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    public static class User {
+        private final String name;
+        private final int age;
+
+        public User(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 集合选择性能（辅助方法物化过滤列表 vs 选择运算符命中即停止）
+ */
+public class CollectionTest {
+    public static void main(String[] args) {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Map<String, Object> order = new HashMap<>();
+            order.put("amount", i % 200);
+            order.put("paid", i % 3 == 0);
+            orders.add(order);
+        }
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("orders", orders);
+        context.put("Helper", Helper.class);
+
+        Expression expr1 = SnEL.parse("Helper.filterPaid(Helper.filterAmount(orders, 100)).size() > 0");
+        Expression expr2 = SnEL.parse("orders.?[amount > 100].?[paid].size() > 0");
+
+        int count = 100_000;
+
+        for (int i = 0; i < count / 10; i++) {
+            expr1.eval(context::get);
+            expr2.eval(context::get);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr1.eval(context::get);
+        }
+        long span1 = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr2.eval(context::get);
+        }
+        long span2 = System.currentTimeMillis() - start;
+
+        System.out.println(expr1.eval(context::get) + " / " + expr2.eval(context::get));
+        System.out.println("helper x" + count + ": " + span1 + "ms");
+        System.out.println("selection x" + count + ": " + span2 + "ms");
+    }
+
+    public static class Helper {
+        public static List<Map<String, Object>> filterAmount(List<Map<String, Object>> list, int min) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Map<String, Object> item : list) {
+                if ((Integer) item.get("amount") > min) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+
+        public static List<Map<String, Object>> filterPaid(List<Map<String, Object>> list) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Map<String, Object> item : list) {
+                if ((Boolean) item.get("paid")) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+    }
+}
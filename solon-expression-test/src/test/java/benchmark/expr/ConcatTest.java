@@ -0,0 +1,37 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字符串拼接链性能（缓存键构建）
+ */
+public class ConcatTest {
+    public static void main(String[] args) {
+        Expression expr = SnEL.parse("'user:' + id + ':' + region + ':' + ts + ':' + lang");
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("id", 10001L);
+        context.put("region", "cn-hangzhou");
+        context.put("ts", 1700000000);
+        context.put("lang", "zh");
+
+        int count = 1_000_000;
+
+        for (int i = 0; i < count / 10; i++) {
+            expr.eval(context::get);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr.eval(context::get);
+        }
+        long span = System.currentTimeMillis() - start;
+
+        System.out.println(expr.eval(context::get));
+        System.out.println("eval x" + count + ": " + span + "ms");
+    }
+}
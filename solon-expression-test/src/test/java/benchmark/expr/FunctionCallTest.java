@@ -0,0 +1,48 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.SnelParser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 函数调用性能（反射方法调用 vs 注册函数）
+ */
+public class FunctionCallTest {
+    public static void main(String[] args) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("Math", Math.class);
+        context.put("name", "Noear");
+        context.put("n", -5);
+
+        Expression expr1 = SnEL.parse("Math.abs(n) + Math.max(n, 3) + name.toLowerCase().length()");
+        SnelParser parser = new SnelParser(64);
+        parser.getFunctions().registerStandard();
+        Expression expr2 = parser.forEval().parse("abs(n) + max(n, 3) + length(lower(name))");
+
+        int count = 1_000_000;
+
+        for (int i = 0; i < count / 10; i++) {
+            expr1.eval(context::get);
+            expr2.eval(context::get);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr1.eval(context::get);
+        }
+        long span1 = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr2.eval(context::get);
+        }
+        long span2 = System.currentTimeMillis() - start;
+
+        System.out.println(expr1.eval(context::get) + " / " + expr2.eval(context::get));
+        System.out.println("reflection x" + count + ": " + span1 + "ms");
+        System.out.println("function x" + count + ": " + span2 + "ms");
+    }
+}
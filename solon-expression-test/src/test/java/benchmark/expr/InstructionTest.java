@@ -0,0 +1,54 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.InstructionExpression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 指令执行与语法树解释执行的性能对比
+ */
+public class InstructionTest {
+    public static void main(String[] args) {
+        String[] exprs = {
+                "a + b * 2 > 10 AND c == 'x'",
+                "(a + b) * (a - b) >= 0 ? a * 2 : b / 2",
+                "m.k1 + m.k2 > 5 AND (c IN ['x', 'y'] OR a < 0)",
+        };
+
+        Map<String, Object> m = new HashMap<>();
+        m.put("k1", 2);
+        m.put("k2", 4);
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 10);
+        context.put("b", 3);
+        context.put("c", "x");
+        context.put("m", m);
+
+        int count = 1_000_000;
+
+        for (String str : exprs) {
+            Expression tree = SnEL.parse(str);
+            Expression vm = InstructionExpression.compile(tree);
+
+            System.out.println(str);
+            System.out.println("  tree: " + run(tree, context, count) + "ms");
+            System.out.println("  vm  : " + run(vm, context, count) + "ms");
+        }
+    }
+
+    private static long run(Expression expr, Map<String, Object> context, int count) {
+        for (int i = 0; i < count / 10; i++) {
+            expr.eval(context::get);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr.eval(context::get);
+        }
+        return System.currentTimeMillis() - start;
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.util.LRUCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 哈希冲突下的缓存填充（模拟大表达式解析时的慢计算）
+ */
+public class LRUCacheCollisionTest {
+    public static void main(String[] args) throws InterruptedException {
+        int threadCount = 16;
+        int keysPerThread = 50;
+        long computeNanos = TimeUnit.MILLISECONDS.toNanos(2);
+
+        LRUCache<CollidingKey, String> cache = new LRUCache<>(threadCount * keysPerThread);
+        AtomicInteger computeCount = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < threadCount; i++) {
+            int base = i * keysPerThread;
+            executor.execute(() -> {
+                try {
+                    for (int j = 0; j < keysPerThread; j++) {
+                        //一半 key 各线程独有，一半 key 全线程共享（验证在途去重）
+                        int id = (j % 2 == 0) ? base + j : j;
+                        cache.computeIfAbsent(new CollidingKey(id), k -> {
+                            computeCount.incrementAndGet();
+                            LockSupport.parkNanos(computeNanos);
+                            return "v" + k.id;
+                        });
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        latch.await();
+        executor.shutdown();
+        long span = System.currentTimeMillis() - start;
+
+        //串行下限约为：独有 key 数 * computeNanos（全部冲突的 key 若在锁内计算会退化为完全串行）
+        System.out.println("threads: " + threadCount + ", keys/thread: " + keysPerThread);
+        System.out.println("computes: " + computeCount.get() + ", size: " + cache.size());
+        System.out.println("span: " + span + "ms");
+    }
+
+    static class CollidingKey {
+        final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 7; //故意全部冲突
+        }
+    }
+}
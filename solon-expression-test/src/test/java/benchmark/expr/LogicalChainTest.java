@@ -0,0 +1,42 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 长逻辑链求值性能（生成式过滤条件，5千项）
+ */
+public class LogicalChainTest {
+    public static void main(String[] args) {
+        int terms = 5_000;
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                buf.append(" OR ");
+            }
+            buf.append("a == ").append(i);
+        }
+
+        Expression<Boolean> expr = SnEL.parse(buf.toString());
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", terms - 1);
+
+        int count = 2_000;
+
+        for (int i = 0; i < 200; i++) {
+            expr.eval(context::get);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr.eval(context::get);
+        }
+        long span = System.currentTimeMillis() - start;
+
+        System.out.println("terms: " + terms);
+        System.out.println("eval x" + count + ": " + span + "ms");
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 正则匹配性能（String.matches 方法调用 vs MATCHES 运算符）
+ */
+public class MatchesTest {
+    public static void main(String[] args) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("code", "order-20250301");
+        context.put("color", "green");
+
+        run("regex", context, "code.matches('[a-z]+-\\d{8}')", "code MATCHES '[a-z]+-\\d{8}'");
+        run("prefix", context, "code.matches('order-.*')", "code MATCHES 'order-.*'");
+        run("alternation", context, "color.matches('red|green|blue')", "color MATCHES 'red|green|blue'");
+    }
+
+    private static void run(String name, Map<String, Object> context, String source1, String source2) {
+        Expression expr1 = SnEL.parse(source1);
+        Expression expr2 = SnEL.parse(source2);
+
+        int count = 1_000_000;
+
+        for (int i = 0; i < count / 10; i++) {
+            expr1.eval(context::get);
+            expr2.eval(context::get);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr1.eval(context::get);
+        }
+        long span1 = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr2.eval(context::get);
+        }
+        long span2 = System.currentTimeMillis() - start;
+
+        System.out.println(name + ": " + expr1.eval(context::get) + " / " + expr2.eval(context::get));
+        System.out.println("  String.matches x" + count + ": " + span1 + "ms");
+        System.out.println("  MATCHES x" + count + ": " + span2 + "ms");
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.snel.EvaluateParser;
+import org.noear.solon.expression.snel.SnelParser;
+
+/**
+ * 大表达式解析性能（生成式过滤条件，1万项）
+ */
+public class ParseLargeTest {
+    public static void main(String[] args) {
+        EvaluateParser parser = SnelParser.getInstance().forEval();
+        int terms = 10_000;
+
+        // 平铺：a0 == 0 AND a1 > 1 OR ...
+        StringBuilder flat = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                flat.append(i % 3 == 0 ? " OR " : " AND ");
+            }
+            flat.append("a").append(i).append(i % 2 == 0 ? " == " : " > ").append(i);
+        }
+
+        // 嵌套：(a0 == 0 AND (a1 > 1 OR (...)))
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                nested.append(i % 3 == 0 ? " OR " : " AND ");
+            }
+            nested.append("(a").append(i).append(" == ").append(i);
+        }
+        for (int i = 0; i < terms; i++) {
+            nested.append(")");
+        }
+
+        // 三元链：a0 ? 0 : a1 ? 1 : ...
+        StringBuilder ternary = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            ternary.append("a").append(i).append(" ? ").append(i).append(" : ");
+        }
+        ternary.append("-1");
+
+        execDo(parser, "flat", flat.toString());
+        execDo(parser, "nested", nested.toString());
+        execDo(parser, "ternary", ternary.toString());
+    }
+
+    private static void execDo(EvaluateParser parser, String name, String expr) {
+        int count = 100;
+
+        for (int i = 0; i < 20; i++) {
+            parser.parse(expr, false);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            parser.parse(expr, false);
+        }
+        long span = System.currentTimeMillis() - start;
+
+        System.out.println("----------------------------");
+        System.out.println(name + ": " + expr.length() + " chars");
+        System.out.println("parse x" + count + ": " + span + "ms");
+    }
+}
@@ -0,0 +1,35 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.snel.EvaluateParser;
+import org.noear.solon.expression.snel.SnelParser;
+
+/**
+ * 冷路径解析性能（不走缓存）
+ */
+public class ParseTest {
+    public static void main(String[] args) {
+        EvaluateParser parser = SnelParser.getInstance().forEval();
+
+        execDo(parser, "userId == 1234 && score > 0.75");
+        execDo(parser, "user.name == 'solon' AND order['items'][0].price * 2 >= 100 OR tags IN ['a', 'b', 'c']");
+        execDo(parser, "(a + 1) > 2 ? T(java.lang.Math).max(a, b) : user?.name ?: 'none'");
+    }
+
+    private static void execDo(EvaluateParser parser, String expr) {
+        int count = 1_000_000;
+
+        for (int i = 0; i < 100_000; i++) {
+            parser.parse(expr, false);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            parser.parse(expr, false);
+        }
+        long span = System.currentTimeMillis() - start;
+
+        System.out.println("----------------------------");
+        System.out.println("expr: " + expr);
+        System.out.println("parse x" + count + ": " + span + "ms");
+    }
+}
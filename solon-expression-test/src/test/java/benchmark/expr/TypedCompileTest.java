@@ -0,0 +1,101 @@
+package benchmark.expr;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.TypedExpression;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 类型化编译性能（POJO 路径：动态反射查找 vs 预绑定访问器）
+ */
+public class TypedCompileTest {
+    public static void main(String[] args) {
+        String source = "order.customer.level > 1 && order.items[0].price < 100";
+        Expression expr = SnEL.parse(source);
+        TypedExpression<Root> typed = SnEL.compile(source, Root.class);
+
+        Root root = new Root(new Order(new Customer(2), Arrays.asList(new Item(10))));
+        Map<String, Object> context = Collections.singletonMap("order", root.getOrder());
+
+        int count = 1_000_000;
+
+        for (int i = 0; i < count / 10; i++) {
+            expr.eval(context::get);
+            typed.evalRoot(root);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            expr.eval(context::get);
+        }
+        long span1 = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            typed.evalRoot(root);
+        }
+        long span2 = System.currentTimeMillis() - start;
+
+        System.out.println(expr.eval(context::get) + " / " + typed.evalRoot(root));
+        System.out.println("dynamic x" + count + ": " + span1 + "ms");
+        System.out.println("typed x" + count + ": " + span2 + "ms");
+    }
+
+    public static class Root {
+        private final Order order;
+
+        public Root(Order order) {
+            this.order = order;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+    }
+
+    public static class Order {
+        private final Customer customer;
+        private final List<Item> items;
+
+        public Order(Customer customer, List<Item> items) {
+            this.customer = customer;
+            this.items = items;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+    }
+
+    public static class Customer {
+        private final int level;
+
+        public Customer(int level) {
+            this.level = level;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+    }
+
+    public static class Item {
+        private final int price;
+
+        public Item(int price) {
+            this.price = price;
+        }
+
+        public int getPrice() {
+            return price;
+        }
+    }
+}
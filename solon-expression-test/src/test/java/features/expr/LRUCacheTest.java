@@ -83,6 +83,38 @@ class LRUCacheTest {
         assertEquals("Result", cache.get(99));
     }
 
+    @Test
+    @DisplayName("锁外计算：哈希冲突的 key 可以在计算中嵌套计算")
+    void testComputeIfAbsentNestedCollision() {
+        LRUCache<CollidingKey, String> cache = new LRUCache<>(CAPACITY);
+        CollidingKey outer = new CollidingKey("outer");
+        CollidingKey inner = new CollidingKey("inner");
+
+        String val = cache.computeIfAbsent(outer, k -> "A" + cache.computeIfAbsent(inner, k2 -> "B"));
+
+        assertEquals("AB", val);
+        assertEquals("B", cache.get(inner));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("在途计算：失败时异常共享，且不进入缓存")
+    void testComputeIfAbsentFailure() {
+        assertThrows(IllegalArgumentException.class, () -> cache.computeIfAbsent(1, k -> {
+            throw new IllegalArgumentException("bad");
+        }));
+
+        assertNull(cache.get(1));
+        assertEquals("A", cache.computeIfAbsent(1, k -> "A"));
+    }
+
+    @Test
+    @DisplayName("在途计算：同一 key 的递归计算应当报错而不是死锁")
+    void testComputeIfAbsentRecursive() {
+        assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent(1, k -> cache.computeIfAbsent(1, k2 -> "A")));
+        assertNull(cache.get(1));
+    }
+
     @Test
     @DisplayName("并发压力测试：验证在高并发下 size 不会失控")
     void testConcurrency() throws InterruptedException {
@@ -120,4 +152,22 @@ class LRUCacheTest {
         assertEquals(0, cache.size());
         assertNull(cache.get(1));
     }
+
+    static class CollidingKey {
+        private final String name;
+
+        CollidingKey(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.EnhanceContext;
+import org.noear.solon.expression.context.MemoizedContext;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 记忆化上下文（单次评估内，每个变量只取一次）
+ */
+public class MemoizedContextTest {
+    @Test
+    public void case1() {
+        Map<String, Object> user = new HashMap<>();
+        user.put("age", 30);
+        user.put("country", "CN");
+
+        Map<String, Integer> calls = new HashMap<>();
+        Expression<Boolean> expr = SnEL.parse("user.age > 18 && user.age < 65 && user.country == 'CN' && nick == null && nick == null");
+
+        Boolean rst = MemoizedContext.eval(expr, name -> {
+            calls.merge(name, 1, Integer::sum);
+            return "user".equals(name) ? user : null;
+        });
+
+        Assertions.assertTrue(rst);
+        Assertions.assertEquals(1, (int) calls.get("user"));
+        Assertions.assertEquals(1, (int) calls.get("nick"));
+    }
+
+    @Test
+    public void case2() {
+        // 指导委托给目标上下文
+        Properties props = new Properties();
+        props.setProperty("app.name", "demo");
+
+        Map<String, Object> beans = new HashMap<>();
+        beans.put("svc", "service");
+
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("a", 1);
+
+        EnhanceContext context = new EnhanceContext(vars);
+        context.forProperties(props);
+        context.forBeans(beans::get);
+
+        Assertions.assertEquals("service", MemoizedContext.eval(SnEL.parse("@svc"), context));
+        Assertions.assertEquals(Math.class, MemoizedContext.eval(SnEL.parse("T(java.lang.Math)"), context));
+        Assertions.assertEquals("demo-1", MemoizedContext.eval(SnEL.parseTmpl("${app.name}-#{a}"), context));
+        Assertions.assertEquals(2, MemoizedContext.eval(SnEL.parse("a + a"), context));
+    }
+
+    @Test
+    public void case3() {
+        // 目标不支持的指导，按节点默认行为
+        Map<String, Object> vars = new HashMap<>();
+
+        Assertions.assertNull(MemoizedContext.eval(SnEL.parse("@svc"), vars::get));
+        Assertions.assertThrows(IllegalStateException.class, () -> MemoizedContext.eval(SnEL.parse("T(java.lang.Math)"), vars::get));
+    }
+
+    @Test
+    public void case4() {
+        // this：记忆命中时也要与目标上下文的最近取值一致
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("a", 1);
+        vars.put("b", 2);
+        vars.put("n", null);
+
+        Expression expr = SnEL.parse("a + b + a + this");
+        Assertions.assertEquals(5, expr.eval(new EnhanceContext(vars)));
+        Assertions.assertEquals(5, MemoizedContext.eval(expr, new EnhanceContext(vars)));
+
+        // 最近取值为 null 时，this 为根对象
+        expr = SnEL.parse("n == null && a == 1 && n == null ? this : 0");
+        Assertions.assertEquals(vars, expr.eval(new EnhanceContext(vars)));
+        Assertions.assertEquals(vars, MemoizedContext.eval(expr, new EnhanceContext(vars)));
+    }
+}
@@ -0,0 +1,137 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnelParser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聚合函数（sum、avg、min、max、count）
+ */
+public class SnelAggregateTest {
+    //启用标准函数库的解析器（默认解析器的注册表为空）
+    private static final SnelParser parser = new SnelParser(128);
+
+    static {
+        parser.getFunctions().registerStandard();
+    }
+
+    private static Object eval(String expr, Map<String, Object> context) {
+        return parser.forEval().parse(expr).eval(context::get);
+    }
+
+    private static Expression parse(String expr) {
+        return parser.forEval().parse(expr);
+    }
+
+    private Map<String, Object> context() {
+        List<Item> items = new ArrayList<>();
+        items.add(new Item(10, 2, true));
+        items.add(new Item(25, 1, false));
+        items.add(new Item(5, 4, true));
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("items", items);
+        context.put("ints", new int[]{3, 1, 4, 1, 5});
+        context.put("longs", new long[]{Long.MAX_VALUE, 1L});
+        context.put("doubles", new double[]{1.5, 2.5});
+        context.put("nums", Arrays.asList(1, 2L, null, 3));
+        return context;
+    }
+
+    @Test
+    public void case1() {
+        //原生数组
+        Map<String, Object> context = context();
+
+        Assertions.assertEquals(14, eval("sum(ints)", context));
+        Assertions.assertEquals(2.8D, eval("avg(ints)", context));
+        Assertions.assertEquals(1, eval("min(ints)", context));
+        Assertions.assertEquals(5, eval("max(ints)", context));
+        Assertions.assertEquals(5, eval("count(ints)", context));
+        Assertions.assertEquals(4.0D, eval("sum(doubles)", context));
+        Assertions.assertEquals(2.5D, eval("max(doubles)", context));
+
+        //long 精确累计（溢出时转为 BigInteger）
+        Assertions.assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), eval("sum(longs)", context));
+        Assertions.assertEquals(Long.MAX_VALUE, eval("max(longs)", context));
+        Assertions.assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE).doubleValue() / 2, eval("avg(longs)", context)); //溢出后按 BigInteger 累计
+    }
+
+    @Test
+    public void case2() {
+        //列表（null 跳过，按类型提升）
+        Map<String, Object> context = context();
+
+        Assertions.assertEquals(6L, eval("sum(nums)", context));
+        Assertions.assertEquals(2.0D, eval("avg(nums)", context));
+        Assertions.assertEquals(1, eval("min(nums)", context));
+        Assertions.assertEquals(3, eval("max(nums)", context));
+        Assertions.assertEquals(4, eval("count(nums)", context));
+
+        context.put("list", Arrays.asList(Integer.MAX_VALUE, 1));
+        Assertions.assertEquals(2147483648L, eval("sum(list)", context));
+
+        context.put("list", Arrays.asList(new BigDecimal("0.1"), 0.2D, 1));
+        Assertions.assertEquals(new BigDecimal("1.3"), eval("sum(list)", context));
+
+        context.put("list", Arrays.asList("b", "a", "c"));
+        Assertions.assertEquals("a", eval("min(list)", context));
+
+        context.put("list", Collections.emptyList());
+        Assertions.assertEquals(0, eval("sum(list)", context));
+        Assertions.assertNull(eval("avg(list)", context));
+        Assertions.assertNull(eval("max(list)", context));
+        Assertions.assertEquals(0, eval("sum(missing)", context));
+    }
+
+    @Test
+    public void case3() {
+        //投影与选择（流式聚合）
+        Map<String, Object> context = context();
+
+        Assertions.assertEquals(40, eval("sum(items.![price])", context));
+        Assertions.assertEquals(65, eval("sum(items.![price * qty])", context));
+        Assertions.assertEquals(2, eval("count(items.?[taxable])", context));
+        Assertions.assertEquals(15, eval("sum(items.?[taxable].![price])", context));
+        Assertions.assertEquals(25, eval("max(items.![price])", context));
+        Assertions.assertEquals(7.5D, eval("avg(items.?[taxable].![price])", context));
+
+        //与双参数的 min / max 共存
+        Assertions.assertEquals(2, eval("min(2, 3)", context));
+        Assertions.assertEquals("sum(items.![price])", parse("sum(items.![price])").toString());
+    }
+
+    public static class Item {
+        private final int price;
+        private final int qty;
+        private final boolean taxable;
+
+        public Item(int price, int qty, boolean taxable) {
+            this.price = price;
+            this.qty = qty;
+            this.taxable = taxable;
+        }
+
+        public int getPrice() {
+            return price;
+        }
+
+        public int getQty() {
+            return qty;
+        }
+
+        public boolean getTaxable() {
+            return taxable;
+        }
+    }
+}
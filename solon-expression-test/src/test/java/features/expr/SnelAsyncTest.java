@@ -0,0 +1,191 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.context.AsyncContext;
+import org.noear.solon.expression.context.EnhanceContext;
+import org.noear.solon.expression.snel.AsyncEvaluator;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 异步评估（变量异步解析，独立子树并发获取，短路取消）
+ */
+public class SnelAsyncTest {
+    private final Map<String, Object> values = new HashMap<>();
+
+    public SnelAsyncTest() {
+        values.put("a", 1);
+        values.put("b", 2);
+        values.put("name", "noear");
+        values.put("flag", false);
+        values.put("user", new SnelInstructionTest.User("solon", 18, null, null));
+    }
+
+    @Test
+    public void case1() throws Exception {
+        //两个变量各需 200ms，并发获取
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            CountDownLatch started = new CountDownLatch(2);
+            AsyncContext context = AsyncContext.of(name -> CompletableFuture.supplyAsync(() -> {
+                started.countDown();
+                try {
+                    //两个获取都已开始，说明是并发的
+                    Assertions.assertTrue(started.await(2, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return values.get(name);
+            }, executor), executor);
+
+            Assertions.assertEquals(true, SnEL.evalAsync("a + 1 < b * 2", context).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void case2() throws Exception {
+        //短路后取消不再需要的获取
+        CompletableFuture<Object> slow = new CompletableFuture<>();
+        CompletableFuture<Object> flag = new CompletableFuture<>();
+        Map<String, CompletableFuture<Object>> futures = new HashMap<>();
+        futures.put("flag", flag);
+        futures.put("slow", slow);
+
+        CompletableFuture<Object> result = SnEL.evalAsync("flag && slow > 1", AsyncContext.of(futures::get, null));
+        Assertions.assertFalse(result.isDone());
+
+        flag.complete(false);
+        Assertions.assertEquals(false, result.get(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    public void case3() throws Exception {
+        //分支共享的变量不会被取消
+        CompletableFuture<Object> a = new CompletableFuture<>();
+        CompletableFuture<Object> b = new CompletableFuture<>();
+        CompletableFuture<Object> c = new CompletableFuture<>();
+        Map<String, CompletableFuture<Object>> futures = new HashMap<>();
+        futures.put("a", a);
+        futures.put("b", b);
+        futures.put("c", c);
+
+        CompletableFuture<Object> result = SnEL.evalAsync("a > 0 ? b + c : c", AsyncContext.of(futures::get, null));
+        a.complete(0);
+        Assertions.assertTrue(b.isCancelled());
+        Assertions.assertFalse(c.isCancelled());
+
+        c.complete(5);
+        Assertions.assertEquals(5, result.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void case4() throws Exception {
+        //每个变量只获取一次；方法调用在执行器上执行
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+            AsyncContext context = AsyncContext.of(name -> {
+                counts.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+                return CompletableFuture.completedFuture(values.get(name));
+            }, executor);
+
+            Assertions.assertEquals("NOEAR-5", SnEL.evalAsync("name.toUpperCase() + '-' + name.length()", context).get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, counts.get("name").get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void case5() {
+        //异常
+        AsyncContext context = AsyncContext.of(name -> CompletableFuture.completedFuture(values.get(name)), null);
+        CompletableFuture<Object> result = SnEL.evalAsync("name.missing()", context);
+        CompletionException e = Assertions.assertThrows(CompletionException.class, result::join);
+        Assertions.assertTrue(e.getCause().getMessage().contains("missing"));
+    }
+
+    @Test
+    public void case6() {
+        //与同步评估一致
+        String[] exprs = {
+                "a + b * 2",
+                "user.name + ':' + user.age",
+                "flag || a < b",
+                "NOT flag AND (x ?: a) > 0",
+                "flag ? a : b",
+                "user?.name == 'solon'",
+                "T(java.lang.Math).max(a, b)",
+                "[1, 2, 3][a]",
+                "a IN [1, 2] && name LIKE 'no%'",
+        };
+
+        EnhanceContext environment = new EnhanceContext(values);
+        AsyncContext context = new AsyncContext() {
+            @Override
+            public CompletionStage<?> getVariable(String name) {
+                return CompletableFuture.completedFuture(values.get(name));
+            }
+
+            @Override
+            public Function<String, Object> getEnvironment() {
+                return environment;
+            }
+        };
+
+        for (String e : exprs) {
+            Assertions.assertEquals(SnEL.eval(e, environment), SnEL.evalAsync(e, context).join(), e);
+        }
+    }
+
+    @Test
+    public void case7() {
+        //集合运算：方括号内的元素属性不作为变量获取，外层变量按需获取
+        Map<String, Object> order1 = new HashMap<>();
+        order1.put("amount", 50);
+        Map<String, Object> order2 = new HashMap<>();
+        order2.put("amount", 150);
+
+        Map<String, Object> remote = new HashMap<>();
+        remote.put("orders", Arrays.asList(order1, order2));
+        remote.put("limit", 10);
+
+        Set<String> requested = ConcurrentHashMap.newKeySet();
+        AsyncContext context = AsyncContext.of(name -> {
+            requested.add(name);
+            if (remote.containsKey(name)) {
+                return CompletableFuture.completedFuture(remote.get(name));
+            } else {
+                throw new IllegalStateException("unknown variable " + name);
+            }
+        }, null);
+
+        Assertions.assertEquals(1, SnEL.evalAsync("orders.?[amount > 100].size()", context).join());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("orders")), requested);
+
+        Assertions.assertEquals(2, SnEL.evalAsync("orders.?[amount > limit].size()", context).join());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("orders", "limit")), requested);
+
+        //同步求值的节点（如模板）：保守预取的名字获取失败，不影响求值
+        Assertions.assertEquals("1", AsyncEvaluator.evalAsync(SnEL.parseTmpl("#{orders.?[amount > 100].size()}"), context).join());
+    }
+}
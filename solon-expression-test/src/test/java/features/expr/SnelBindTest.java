@@ -0,0 +1,123 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.EnhanceContext;
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.snel.BoundExpression;
+import org.noear.solon.expression.snel.ExpressionBinder;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 绑定（@bean、T() 类型、模板指导一次性解析）
+ */
+public class SnelBindTest {
+    @Test
+    public void case1() {
+        int[] calls = {0};
+        EnhanceContext env = new EnhanceContext(null);
+        env.forBeans(name -> {
+            calls[0]++;
+            return "bean".equals(name) ? new StringBuilder("hello") : null;
+        });
+
+        Expression expr = SnEL.bind("@bean.length() + a + T(java.lang.Math).abs(b)", env);
+        Assertions.assertEquals("((@bean.length() + a) + T(java.lang.Math).abs(b))", expr.toString());
+
+        Map<String, Object> vars = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            vars.put("a", i);
+            vars.put("b", -1);
+            Assertions.assertEquals(5 + i + 1, expr.eval(vars));
+        }
+
+        Assertions.assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void case2() {
+        // 找不到的类型：缓存失败，每次评估报错
+        int[] calls = {0};
+        EnhanceContext env = new EnhanceContext(null);
+        env.forTypeGuidance(name -> {
+            calls[0]++;
+            throw new EvaluationException("Class not found: " + name);
+        });
+
+        Expression expr = SnEL.bind("T(x.Missing).go()", env);
+
+        for (int i = 0; i < 3; i++) {
+            EvaluationException e = Assertions.assertThrows(EvaluationException.class, () -> expr.eval(new HashMap<>()));
+            Assertions.assertEquals("Class not found: x.Missing", e.getMessage());
+        }
+
+        Assertions.assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void case3() {
+        // 模板：属性来自环境，变量来自请求
+        Properties props = new Properties();
+        props.setProperty("app.name", "demo");
+
+        EnhanceContext env = new EnhanceContext(null);
+        env.forProperties(props);
+
+        Expression expr = ExpressionBinder.bind(SnEL.parseTmpl("${app.name}:#{id}:${app.none:def}"), env);
+        Assertions.assertTrue(expr instanceof BoundExpression);
+
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("id", 7);
+        Assertions.assertEquals("demo:7:def", expr.eval(vars));
+
+        vars.put("id", 8);
+        Assertions.assertEquals("demo:8:def", expr.eval(vars));
+    }
+
+    @Test
+    public void case4() {
+        // 类型按类型指导缓存（共享的语法树，不同的上下文）
+        Expression expr = SnEL.parse("T(x.Num)");
+
+        EnhanceContext ctx1 = new EnhanceContext(null);
+        ctx1.forTypeGuidance(name -> Integer.class);
+
+        EnhanceContext ctx2 = new EnhanceContext(null);
+        ctx2.forTypeGuidance(name -> Long.class);
+
+        Assertions.assertEquals(Integer.class, expr.eval(ctx1));
+        Assertions.assertEquals(Long.class, expr.eval(ctx2));
+        Assertions.assertEquals(Integer.class, expr.eval(ctx1));
+    }
+
+    @Test
+    public void case5() {
+        // 模板：嵌套属性按值缓存绑定（@bean 只解析一次）
+        int[] calls = {0};
+        Properties props = new Properties();
+        props.setProperty("app.title", "#{@bean.length()}-#{id}");
+
+        EnhanceContext env = new EnhanceContext(null);
+        env.forProperties(props);
+        env.forAllowPropertyNesting(true);
+        env.forBeans(name -> {
+            calls[0]++;
+            return "bean".equals(name) ? new StringBuilder("hello") : null;
+        });
+
+        Expression expr = ExpressionBinder.bind(SnEL.parseTmpl("${app.title}"), env);
+
+        Map<String, Object> vars = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            vars.put("id", i);
+            Assertions.assertEquals("5-" + i, expr.eval(vars));
+        }
+
+        Assertions.assertEquals(1, calls[0]);
+    }
+}
@@ -0,0 +1,138 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+import org.noear.solon.expression.context.DelegatingContext;
+import org.noear.solon.expression.context.MemoizedContext;
+import org.noear.solon.expression.exception.BudgetExceededException;
+import org.noear.solon.expression.exception.CompilationException;
+import org.noear.solon.expression.snel.ComplexityEstimator;
+import org.noear.solon.expression.snel.InstructionExpression;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.SnelParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 评估预算与解析复杂度限制
+ */
+public class SnelBudgetTest {
+    private Map<String, Object> context() {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("list", list);
+        context.put("s", "abcdefghij");
+        context.put("a", 1);
+        return context;
+    }
+
+    @Test
+    public void case1() {
+        //步数
+        Expression expr = SnEL.parse("a + 1 > 0 && a * 2 < 10");
+        BudgetContext budget = new BudgetContext(context()::get).maxSteps(100);
+        Assertions.assertEquals(true, expr.eval(budget));
+        Assertions.assertTrue(budget.getSteps() > 0);
+
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new BudgetContext(context()::get).maxSteps(2)));
+    }
+
+    @Test
+    public void case2() {
+        //IN 扫描按集合大小计步，并检查集合大小
+        Expression expr = SnEL.parse("999 IN list");
+        Assertions.assertEquals(true, expr.eval(new BudgetContext(context()::get).maxSteps(2000)));
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new BudgetContext(context()::get).maxSteps(100)));
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new BudgetContext(context()::get).maxCollectionSize(10)));
+    }
+
+    @Test
+    public void case3() {
+        //字符串长度（拼接与方法返回）
+        Assertions.assertEquals("abcdefghij!", SnEL.parse("s + '!'").eval(new BudgetContext(context()::get).maxStringLength(20)));
+        Assertions.assertThrows(BudgetExceededException.class, () -> SnEL.parse("s + s + s").eval(new BudgetContext(context()::get).maxStringLength(20)));
+        Assertions.assertThrows(BudgetExceededException.class, () -> SnEL.parse("s.concat(s).concat(s)").eval(new BudgetContext(context()::get).maxStringLength(20)));
+    }
+
+    @Test
+    public void case4() {
+        //截止时间
+        Expression expr = SnEL.parse("s.length() > 0");
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new BudgetContext(context()::get).timeout(-1, TimeUnit.MILLISECONDS)));
+        Assertions.assertEquals(true, expr.eval(new BudgetContext(context()::get).timeout(10, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    public void case5() {
+        //指令执行时按语法树检查预算
+        Expression expr = InstructionExpression.compile(SnEL.parse("s + s + s"));
+        Assertions.assertEquals("abcdefghijabcdefghijabcdefghij", expr.eval(context()));
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new BudgetContext(context()::get).maxStringLength(20)));
+    }
+
+    @Test
+    public void case6() {
+        //复杂度限制（不进入缓存）
+        SnelParser parser = new SnelParser(100);
+        parser.forEval().complexityConfig(200, 20);
+
+        Assertions.assertNotNull(parser.forEval().parse("a + 1 > b"));
+
+        StringBuilder buf = new StringBuilder("x");
+        for (int i = 0; i < 20; i++) {
+            buf.append(".m()");
+        }
+        String complex = buf.toString();
+
+        Assertions.assertTrue(ComplexityEstimator.estimate(SnEL.parse(complex)) > 20);
+        Assertions.assertThrows(CompilationException.class, () -> parser.forEval().parse(complex));
+        Assertions.assertThrows(CompilationException.class, () -> parser.forEval().parse(complex));
+
+        StringBuilder buf2 = new StringBuilder("a");
+        for (int i = 0; i < 100; i++) {
+            buf2.append(" + a");
+        }
+        CompilationException e = Assertions.assertThrows(CompilationException.class, () -> parser.forEval().parse(buf2.toString()));
+        Assertions.assertTrue(e.getMessage().contains("too long"));
+
+        //参数化解析
+        Assertions.assertThrows(CompilationException.class, () -> parser.forEval().parseParameterized(complex));
+    }
+
+    @Test
+    public void case7() {
+        //集合运算方括号内的表达式共享外层预算
+        Expression expr = SnEL.parse("list.![s.concat(s)].size()");
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new BudgetContext(context()::get).maxStringLength(15)));
+
+        BudgetContext budget = new BudgetContext(context()::get);
+        Assertions.assertEquals(1000, expr.eval(budget));
+        Assertions.assertTrue(budget.getSteps() >= 2000); //每个元素：迭代一步 + 方法调用一步
+    }
+
+    @Test
+    public void case8() {
+        //被其它上下文包装时，预算仍然生效
+        Expression expr = SnEL.parse("a + 1 > 0 && a * 2 < 10");
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new MemoizedContext(new BudgetContext(context()::get).maxSteps(2))));
+        Assertions.assertThrows(BudgetExceededException.class, () -> expr.eval(new DelegatingContext(new BudgetContext(context()::get).maxSteps(2))));
+
+        BudgetContext budget = new BudgetContext(context()::get).maxStringLength(20);
+        Assertions.assertThrows(BudgetExceededException.class, () -> SnEL.parse("s + s + s").eval(new MemoizedContext(budget)));
+        Assertions.assertThrows(BudgetExceededException.class, () -> InstructionExpression.compile(SnEL.parse("s + s + s")).eval(new MemoizedContext(budget)));
+
+        //没有预算时
+        Assertions.assertNull(BudgetContext.find(new MemoizedContext(context()::get)));
+        Assertions.assertEquals(true, expr.eval(new MemoizedContext(context()::get)));
+    }
+}
@@ -0,0 +1,147 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.ClosureExpression;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.TieredExpression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 闭包执行引擎（与语法树解释执行做差异对比）
+ */
+public class SnelClosureTest {
+    private Map<String, Object> context() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("k1", "v1");
+        map.put("k2", "v2");
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 10);
+        context.put("b", 3);
+        context.put("c", "x");
+        context.put("s", "solon");
+        context.put("list", Arrays.asList("x", "z"));
+        context.put("map", map);
+        context.put("user", new SnelInstructionTest.User("noear", 18, Arrays.asList("java", "kotlin", "go"), new int[]{90, 80, 70}));
+        context.put("Math", Math.class);
+        return context;
+    }
+
+    private Object run(Expression expr, Map<String, Object> context) {
+        try {
+            return expr.eval(context::get);
+        } catch (Throwable e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    @Test
+    public void case1() {
+        // 差异对比：结果与异常一致
+        Map<String, Object> context = context();
+
+        for (String str : SnelInstructionTest.EXPRS) {
+            Expression tree = SnEL.parse(str);
+            ClosureExpression closure = ClosureExpression.compile(tree);
+
+            Assertions.assertEquals(run(tree, context), run(closure, context), str);
+            Assertions.assertEquals(tree.toString(), closure.toString());
+        }
+    }
+
+    @Test
+    public void case2() {
+        // 特化后编译，再换操作数类型（类型守卫失败时与语法树一致）
+        Map<String, Object> context = context();
+
+        for (String str : SnelInstructionTest.EXPRS) {
+            Expression tree = SnEL.parse(str);
+            for (int i = 0; i < 10; i++) {
+                run(tree, context);
+            }
+
+            ClosureExpression closure = ClosureExpression.compile(tree);
+            Assertions.assertEquals(run(tree, context), run(closure, context), str);
+
+            Map<String, Object> changed = context();
+            changed.put("a", 10L);
+            changed.put("b", 3.5D);
+            changed.put("c", 1);
+            changed.put("s", null);
+            changed.put("user", new HashMap<>());
+
+            Assertions.assertEquals(run(SnEL.parse(str), changed), run(closure, changed), str);
+            Assertions.assertEquals(run(tree, changed), run(closure, changed), str);
+        }
+    }
+
+    @Test
+    public void case3() {
+        // 短路：右侧不应被评估
+        int[] calls = {0};
+        Expression closure = ClosureExpression.compile(SnEL.parse("a > 100 AND f.x == 1"));
+
+        Object rst = closure.eval(name -> {
+            if ("f".equals(name)) {
+                calls[0]++;
+            }
+            return "a".equals(name) ? 1 : null;
+        });
+
+        Assertions.assertEquals(false, rst);
+        Assertions.assertEquals(0, calls[0]);
+    }
+
+    @Test
+    public void case4() {
+        // 访问点随目标类型切换（Bean 与 Map、不同参数类型）
+        Expression closure = ClosureExpression.compile(SnEL.parse("x.name + ':' + y.concat(z)"));
+
+        Map<String, Object> bean = new HashMap<>();
+        bean.put("x", new SnelInstructionTest.User("noear", 18, null, null));
+        bean.put("y", "a");
+        bean.put("z", "b");
+
+        Map<String, Object> x = new HashMap<>();
+        x.put("name", "solon");
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("x", x);
+        map.put("y", "c");
+        map.put("z", null);
+
+        Assertions.assertEquals("noear:ab", closure.eval(bean::get));
+        Assertions.assertEquals(run(SnEL.parse("x.name + ':' + y.concat(z)"), map), run(closure, map));
+        Assertions.assertEquals("noear:ab", closure.eval(bean::get));
+    }
+
+    @Test
+    public void case5() {
+        // 长逻辑链
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            if (i > 0) {
+                buf.append(" OR ");
+            }
+            buf.append("a == ").append(i);
+        }
+
+        Expression closure = ClosureExpression.compile(SnEL.parse(buf.toString(), false));
+        Assertions.assertEquals(true, closure.eval(context()::get));
+    }
+
+    @Test
+    public void case6() {
+        // 分层执行的热点目标为闭包树
+        TieredExpression expr = new TieredExpression(SnEL.parse("a + b * 2 > 10"), 1, Runnable::run);
+
+        Assertions.assertEquals(true, expr.eval(context()::get));
+        Assertions.assertTrue(expr.isCompiled());
+        Assertions.assertEquals(true, expr.eval(context()::get));
+    }
+}
@@ -0,0 +1,163 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+import org.noear.solon.expression.exception.BudgetExceededException;
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.snel.CollectionNode;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 集合选择与投影（.?[ ]、.^[ ]、.$[ ]、.![ ]）
+ */
+public class SnelCollectionTest {
+    private Map<String, Object> context() {
+        List<Order> orders = new ArrayList<>();
+        orders.add(new Order("a", 50, "new"));
+        orders.add(new Order("b", 150, "paid"));
+        orders.add(new Order("c", 300, "paid"));
+        orders.add(new Order("d", 80, "paid"));
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("orders", orders);
+        context.put("limit", 100);
+        context.put("status", "global");
+        return context;
+    }
+
+    @Test
+    public void case1() {
+        Map<String, Object> context = context();
+
+        Assertions.assertEquals(Arrays.asList("b", "c"), SnEL.eval("orders.?[amount > 100].![id]", context));
+        Assertions.assertEquals("b", ((Order) SnEL.eval("orders.^[amount > 100]", context)).getId());
+        Assertions.assertEquals("c", ((Order) SnEL.eval("orders.$[amount > 100]", context)).getId());
+        Assertions.assertNull(SnEL.eval("orders.^[amount > 1000]", context));
+        Assertions.assertEquals(Arrays.asList(50, 150, 300, 80), SnEL.eval("orders.![amount]", context));
+
+        //元素属性优先，其次外层变量；#this 为元素本身
+        Assertions.assertEquals(Arrays.asList("b", "c"), SnEL.eval("orders.?[amount > limit].![id]", context));
+        Assertions.assertEquals(Arrays.asList(150, 300), SnEL.eval("orders.![amount].?[#this > limit]", context));
+        Assertions.assertEquals(3, SnEL.eval("orders.?[status == 'paid'].size()", context));
+
+        //计数与判空
+        Assertions.assertEquals(true, SnEL.eval("orders.?[amount > 100].size() > 0", context));
+        Assertions.assertEquals(false, SnEL.eval("orders.?[amount > 1000].size() > 0", context));
+        Assertions.assertEquals(true, SnEL.eval("orders.?[amount > 1000].isEmpty()", context));
+        Assertions.assertEquals(true, SnEL.eval("orders.?[amount > 1000].size() == 0", context));
+
+        //null 源返回 null
+        Assertions.assertNull(SnEL.eval("missing.?[amount > 1]", context));
+    }
+
+    @Test
+    public void case2() {
+        //Map 元素、数组与嵌套
+        Map<String, Object> item1 = new HashMap<>();
+        item1.put("name", "x");
+        item1.put("tags", Arrays.asList("hot", "new"));
+        Map<String, Object> item2 = new HashMap<>();
+        item2.put("name", "y");
+        item2.put("tags", Collections.singletonList("old"));
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("items", Arrays.asList(item1, item2));
+        context.put("nums", new int[]{3, 8, 12});
+
+        Assertions.assertEquals(Arrays.asList("x"), SnEL.eval("items.?[tags.?[#this == 'hot'].size() > 0].![name]", context));
+        Assertions.assertEquals(Arrays.asList(8, 12), SnEL.eval("nums.?[#this > 5]", context));
+        Assertions.assertEquals(Arrays.asList("x!", "y!"), SnEL.eval("items.![name + '!']", context));
+    }
+
+    @Test
+    public void case3() {
+        //连续运算融合为一个节点
+        Expression expr = SnEL.parse("orders.?[amount > 100].?[status == 'paid'].![id]");
+        Assertions.assertTrue(expr instanceof CollectionNode);
+        CollectionNode node = (CollectionNode) expr;
+        Assertions.assertEquals(3, node.getStages().size());
+        Assertions.assertEquals(CollectionNode.Terminal.LIST, node.getTerminal());
+        Assertions.assertEquals("orders.?[(amount > 100)].?[(status == 'paid')].![id]", expr.toString());
+
+        Assertions.assertEquals(CollectionNode.Terminal.FIRST, ((CollectionNode) SnEL.parse("orders.?[amount > 100].^[status == 'paid']")).getTerminal());
+        Assertions.assertEquals(CollectionNode.Terminal.EXISTS, ((CollectionNode) SnEL.parse("orders.?[amount > 100].size() > 0")).getTerminal());
+        Assertions.assertEquals(CollectionNode.Terminal.EMPTY, ((CollectionNode) SnEL.parse("orders.?[amount > 100].isEmpty()")).getTerminal());
+    }
+
+    @Test
+    public void case4() {
+        //命中即停止
+        Map<String, Object> context = context();
+        int[] reads = new int[1];
+        Function<String, Object> counting = name -> {
+            if ("limit".equals(name)) {
+                reads[0]++;
+            }
+            return context.get(name);
+        };
+
+        SnEL.parse("orders.^[amount > limit]").eval(counting);
+        Assertions.assertEquals(2, reads[0]);
+
+        reads[0] = 0;
+        SnEL.parse("orders.?[amount > limit].size() > 0").eval(counting);
+        Assertions.assertEquals(2, reads[0]);
+
+        reads[0] = 0;
+        SnEL.parse("orders.?[amount > limit].size()").eval(counting);
+        Assertions.assertEquals(4, reads[0]);
+    }
+
+    @Test
+    public void case5() {
+        Map<String, Object> context = context();
+
+        //条件必须为布尔
+        Assertions.assertThrows(EvaluationException.class, () -> SnEL.eval("orders.?[amount]", context));
+        Assertions.assertThrows(EvaluationException.class, () -> SnEL.eval("limit.?[amount > 1]", context));
+
+        //每个元素计为一步
+        Assertions.assertThrows(BudgetExceededException.class,
+                () -> SnEL.parse("orders.?[amount > 1].size()").eval(new BudgetContext(context::get).maxSteps(3)));
+
+        //依赖分析保守计入方括号内的名字（#this 除外）
+        Set<String> variables = SnEL.dependencies("orders.?[amount > limit].![#this]").getVariables();
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("orders", "amount", "limit")), variables);
+    }
+
+    public static class Order {
+        private final String id;
+        private final int amount;
+        private final String status;
+
+        public Order(String id, int amount, String status) {
+            this.id = id;
+            this.amount = amount;
+            this.status = status;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+}
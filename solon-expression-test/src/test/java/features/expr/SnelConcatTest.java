@@ -0,0 +1,66 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.ArithmeticNode;
+import org.noear.solon.expression.snel.ConcatNode;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字符串拼接链合并
+ */
+public class SnelConcatTest {
+    private Map<String, Object> context() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("id", 1001L);
+        context.put("region", "cn");
+        context.put("ts", 12);
+        context.put("a", 1);
+        context.put("b", 2);
+        return context;
+    }
+
+    @Test
+    public void case1() {
+        Expression expr = SnEL.parse("'user:' + id + ':' + region + ':' + ts");
+
+        Assertions.assertTrue(expr instanceof ConcatNode);
+        Assertions.assertEquals(6, ((ConcatNode) expr).getParts().size());
+        Assertions.assertEquals("((((('user:' + id) + ':') + region) + ':') + ts)", expr.toString());
+        Assertions.assertEquals("user:1001:cn:12", expr.eval(context()::get));
+    }
+
+    @Test
+    public void case2() {
+        // 字符串常量之前的数值加法保持不变
+        Expression expr = SnEL.parse("a + b + '-' + a + b");
+
+        Assertions.assertTrue(expr instanceof ConcatNode);
+        Assertions.assertEquals("((((a + b) + '-') + a) + b)", expr.toString());
+        Assertions.assertEquals("3-12", expr.eval(context()::get));
+    }
+
+    @Test
+    public void case3() {
+        // 不确定为字符串时，不合并
+        Assertions.assertTrue(SnEL.parse("a + b + ts") instanceof ArithmeticNode);
+        Assertions.assertTrue(SnEL.parse("a + 'x'") instanceof ArithmeticNode);
+        Assertions.assertTrue(SnEL.parse("region + a + b") instanceof ArithmeticNode);
+        Assertions.assertEquals("cn12", SnEL.eval("region + a + b", context()));
+    }
+
+    @Test
+    public void case4() {
+        // null 与括号
+        Map<String, Object> context = context();
+        context.put("region", null);
+
+        Assertions.assertEquals("k:null:x", SnEL.eval("'k:' + region + (':' + 'x')", context));
+        Assertions.assertEquals("k:3", SnEL.eval("'k:' + (a + b)", context));
+        Assertions.assertEquals("k:3!", SnEL.eval("'k:' + (a + b) + '!'", context));
+    }
+}
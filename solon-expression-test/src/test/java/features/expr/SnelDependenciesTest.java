@@ -0,0 +1,64 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.snel.ExpressionDependencies;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/**
+ * 依赖分析（根变量、属性路径、${} 属性键、Bean 与 T() 类型）
+ */
+public class SnelDependenciesTest {
+    @Test
+    public void case1() {
+        ExpressionDependencies deps = SnEL.dependencies("order.customer.tier == 'gold' && order.total > limit");
+
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("order", "limit")), deps.getVariables());
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("order.customer.tier", "order.total", "limit")), deps.getPaths());
+        Assertions.assertTrue(deps.getPropertyKeys().isEmpty());
+    }
+
+    @Test
+    public void case2() {
+        //索引与方法调用截止路径
+        ExpressionDependencies deps = SnEL.dependencies("user.tags[0].name + user.items[i] + user.getName().length() + user?.profile?.city");
+
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("user", "i")), deps.getVariables());
+        Assertions.assertTrue(deps.getPaths().contains("user.tags"));
+        Assertions.assertTrue(deps.getPaths().contains("user.items"));
+        Assertions.assertTrue(deps.getPaths().contains("i"));
+        Assertions.assertTrue(deps.getPaths().contains("user"));
+        Assertions.assertTrue(deps.getPaths().contains("user.profile.city"));
+        Assertions.assertFalse(deps.getPaths().contains("user.tags.0"));
+    }
+
+    @Test
+    public void case3() {
+        ExpressionDependencies deps = SnEL.dependencies("@userService.find(id) + T(java.lang.Math).abs(${app.offset:1})");
+
+        Assertions.assertEquals(Collections.singleton("userService"), deps.getBeans());
+        Assertions.assertEquals(Collections.singleton("java.lang.Math"), deps.getTypes());
+        Assertions.assertEquals(Collections.singleton("app.offset"), deps.getPropertyKeys());
+        Assertions.assertEquals(Collections.singleton("id"), deps.getVariables());
+    }
+
+    @Test
+    public void case4() {
+        ExpressionDependencies deps = SnEL.dependenciesTmpl("Hi #{user.name}, ${app.name} #{order.total * rate}");
+
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("user", "order", "rate")), deps.getVariables());
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("user.name", "order.total", "rate")), deps.getPaths());
+        Assertions.assertEquals(Collections.singleton("app.name"), deps.getPropertyKeys());
+    }
+
+    @Test
+    public void case5() {
+        //结果不可修改
+        ExpressionDependencies deps = SnEL.dependencies("a + 1");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> deps.getVariables().add("b"));
+    }
+}
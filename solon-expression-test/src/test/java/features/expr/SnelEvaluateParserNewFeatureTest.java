@@ -110,4 +110,89 @@ public class SnelEvaluateParserNewFeatureTest {
             customParser.parse("#{x}", false);
         });
     }
+
+    @Test
+    @DisplayName("词法：关键字前缀不应吞掉标识符字符")
+    public void testKeywordPrefixIdentifier() {
+        EvaluateParser parser = SnelParser.getInstance().forEval();
+        Map<String, Object> context = new HashMap<>();
+        context.put("Tom", 1);
+        context.put("om", 2);
+        context.put("trueName", "solon");
+
+        Assertions.assertEquals(1, parser.parse("Tom", false).eval(context));
+        Assertions.assertEquals(true, parser.parse("Tom == 1", false).eval(context));
+        Assertions.assertEquals("solon", parser.parse("trueName", false).eval(context));
+    }
+
+    @Test
+    @DisplayName("词法：未闭合的字符串、列表、参数应当报错")
+    public void testUnterminated() {
+        EvaluateParser parser = SnelParser.getInstance().forEval();
+
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("name == 'solon", false));
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("name IN ['a', 'b'", false));
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("user.getName(1, 2", false));
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("#{", false));
+    }
+
+    @Test
+    @DisplayName("词法：数字字面量")
+    public void testNumberLiteral() {
+        EvaluateParser parser = SnelParser.getInstance().forEval();
+        Map<String, Object> context = new HashMap<>();
+
+        Assertions.assertEquals(123456789, parser.parse("123456789", false).eval(context));
+        Assertions.assertEquals(-12, parser.parse("-12", false).eval(context));
+        Assertions.assertEquals(1234567890123L, parser.parse("1234567890123L", false).eval(context));
+        Assertions.assertEquals(1.5D, parser.parse("1.5", false).eval(context));
+        Assertions.assertEquals(1.5F, parser.parse("1.5F", false).eval(context));
+        Assertions.assertEquals(3, parser.parse("4-1", false).eval(context));
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("12345678901", false));
+    }
+
+    @Test
+    @DisplayName("优先级：深层嵌套不受调用栈限制")
+    public void testDeepNesting() {
+        EvaluateParser parser = SnelParser.getInstance().forEval();
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 1);
+
+        int depth = 20_000;
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            buf.append('(');
+        }
+        buf.append("a + 1");
+        for (int i = 0; i < depth; i++) {
+            buf.append(')');
+        }
+        Assertions.assertEquals(2, parser.parse(buf.toString(), false).eval(context));
+
+        buf.setLength(0);
+        for (int i = 0; i < 1_000; i++) {
+            buf.append("a == ").append(i).append(" ? ").append(i).append(" : ");
+        }
+        buf.append("-1");
+        Assertions.assertEquals(1, parser.parse(buf.toString(), false).eval(context));
+    }
+
+    @Test
+    @DisplayName("优先级：与原递归下降解析的结构一致")
+    public void testPrecedence() {
+        EvaluateParser parser = SnelParser.getInstance().forEval();
+
+        Assertions.assertEquals("((a + (b * c)) > 1)", parser.parse("a + b * c > 1", false).toString());
+        Assertions.assertEquals("(((a > 1) NOT null) OR (b AND c))", parser.parse("NOT a > 1 OR b AND c", false).toString());
+        Assertions.assertEquals("(a ? b : (c ? d : e))", parser.parse("a ? b : c ? d : e", false).toString());
+        Assertions.assertEquals("(x IN (a ? b : c))", parser.parse("x IN a ? b : c", false).toString());
+        Assertions.assertEquals("a ?: (b ? c : d)", parser.parse("a ?: b ? c : d", false).toString());
+        Assertions.assertEquals("(((a - b) - c) > 0)", parser.parse("(a - b - c) > 0", false).toString());
+
+        // 比较不可结合；IN 列表后不接算术
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("a > b > c", false));
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("a IN [1] + 1", false));
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("a ? b ?: c : d", false));
+        Assertions.assertThrows(CompilationException.class, () -> parser.parse("(a ? b)", false));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.snel.ReflectionUtil;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.util.LRUCache;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 评估失败（越界不抛异常、无堆栈异常、不重复包装）
+ */
+public class SnelEvaluationErrorTest {
+    private Map<String, Object> context() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("list", Arrays.asList(1, 2, 3));
+        context.put("arr", new String[]{"a", "b"});
+        context.put("ints", new int[]{1, 2});
+        context.put("user", new SnelInstructionTest.User("noear", 18, null, null));
+        return context;
+    }
+
+    @Test
+    public void case1() {
+        Map<String, Object> context = context();
+
+        Assertions.assertEquals(3, SnEL.eval("list[2]", context));
+        Assertions.assertNull(SnEL.eval("list[3]", context));
+        Assertions.assertNull(SnEL.eval("list[-1]", context));
+
+        Assertions.assertEquals("b", SnEL.eval("arr[1]", context));
+        Assertions.assertNull(SnEL.eval("arr[2]", context));
+        Assertions.assertNull(SnEL.eval("arr[-1]", context));
+
+        Assertions.assertEquals(2, SnEL.eval("ints[1]", context));
+        Assertions.assertNull(SnEL.eval("ints[5]", context));
+    }
+
+    @Test
+    public void case2() {
+        Map<String, Object> context = context();
+
+        // 方法找不到，不再重复包装
+        EvaluationException e1 = Assertions.assertThrows(EvaluationException.class,
+                () -> SnEL.eval("user.getName().nope()", context));
+        Assertions.assertEquals("Method not found: nope", e1.getMessage());
+
+        // 方法内部异常，原因为原始异常
+        EvaluationException e2 = Assertions.assertThrows(EvaluationException.class,
+                () -> SnEL.eval("user.getName().substring(10)", context));
+        Assertions.assertEquals("Failed to invoke method: substring", e2.getMessage());
+        Assertions.assertTrue(e2.getCause() instanceof StringIndexOutOfBoundsException);
+
+        // 属性缺失（缓存后仍然报错）
+        for (int i = 0; i < 2; i++) {
+            EvaluationException e3 = Assertions.assertThrows(EvaluationException.class,
+                    () -> SnEL.eval("user.missing", context));
+            Assertions.assertEquals("Missing property: missing", e3.getMessage());
+        }
+    }
+
+    @Test
+    public void case3() {
+        Map<String, Object> context = context();
+
+        EvaluationException.setStackless(true);
+        try {
+            EvaluationException e1 = Assertions.assertThrows(EvaluationException.class,
+                    () -> SnEL.eval("user.missing", context));
+            Assertions.assertEquals(0, e1.getStackTrace().length);
+
+            EvaluationException e2 = Assertions.assertThrows(EvaluationException.class,
+                    () -> SnEL.eval("user.getName().nope()", context));
+            Assertions.assertEquals(0, e2.getStackTrace().length);
+        } finally {
+            EvaluationException.setStackless(false);
+        }
+
+        EvaluationException e3 = Assertions.assertThrows(EvaluationException.class,
+                () -> SnEL.eval("user.missing", context));
+        Assertions.assertTrue(e3.getStackTrace().length > 0);
+    }
+
+    @Test
+    public void case4() throws Exception {
+        // 缺失缓存有界（大量不同名字的缺失查找），存在项不受影响
+        ReflectionUtil util = new ReflectionUtil();
+        Class<?> type = SnelInstructionTest.User.class;
+
+        for (int i = 0; i < 5000; i++) {
+            Assertions.assertNull(util.findProperty(type, "missing" + i));
+            Assertions.assertNull(util.getMethod(type, "missing" + i, new Class<?>[0]));
+        }
+
+        Assertions.assertTrue(missingSize(util, "PROPERTY_MISSING") <= 1024);
+        Assertions.assertTrue(missingSize(util, "methodMissing") <= 1024);
+
+        Assertions.assertNull(util.findProperty(type, "missing0"));
+        Assertions.assertNull(util.getMethod(type, "missing0", new Class<?>[0]));
+        Assertions.assertNotNull(util.findProperty(type, "name"));
+        Assertions.assertNotNull(util.getMethod(type, "getName", new Class<?>[0]));
+        Assertions.assertSame(util.getMethod(type, "getName", new Class<?>[0]),
+                util.getMethod(type, "getName", new Class<?>[0]));
+    }
+
+    private int missingSize(ReflectionUtil util, String name) throws Exception {
+        Field field = ReflectionUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return ((LRUCache<?, ?>) field.get(util)).size();
+    }
+}
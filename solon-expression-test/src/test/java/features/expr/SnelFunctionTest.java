@@ -0,0 +1,198 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.snel.ExpressionDependencies;
+import org.noear.solon.expression.snel.FunctionNode;
+import org.noear.solon.expression.snel.MethodNode;
+import org.noear.solon.expression.snel.PartialEvaluator;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.SnelFunction;
+import org.noear.solon.expression.snel.SnelParser;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 函数注册表（解析时绑定，直接调用）
+ */
+public class SnelFunctionTest {
+    //启用标准函数库的解析器（默认解析器的注册表为空）
+    private static final SnelParser parser = new SnelParser(128);
+
+    static {
+        parser.getFunctions().registerStandard();
+    }
+
+    private static Object eval(String expr, Map<String, Object> context) {
+        return parser.forEval().parse(expr).eval(context::get);
+    }
+
+    private static Expression parse(String expr) {
+        return parser.forEval().parse(expr);
+    }
+
+    private Map<String, Object> context() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("name", " Noear ");
+        context.put("a", null);
+        context.put("b", "B");
+        context.put("n", -5);
+        context.put("x", -2.5D);
+        context.put("tags", Arrays.asList("a", "b", "c"));
+        return context;
+    }
+
+    @Test
+    public void case1() {
+        //字符串
+        Map<String, Object> context = context();
+
+        Assertions.assertEquals("noear", eval("lower(trim(name))", context));
+        Assertions.assertEquals(" NOEAR ", eval("upper(name)", context));
+        Assertions.assertEquals("oe", eval("substring(trim(name), 1, 3)", context));
+        Assertions.assertEquals(true, eval("startsWith(trim(name), 'No')", context));
+        Assertions.assertEquals(true, eval("contains(name, 'oe')", context));
+        Assertions.assertEquals("x-y-z", eval("replace('x.y.z', '.', '-')", context));
+        Assertions.assertEquals(Arrays.asList("x", "y", "z"), eval("split('x.y.z', '.')", context));
+        Assertions.assertEquals("B1", eval("concat(a, b, 1)", context));
+        Assertions.assertNull(eval("lower(a)", context));
+    }
+
+    @Test
+    public void case2() {
+        //空值与数学（整数走 long 特化，保持 Integer 结果）
+        Map<String, Object> context = context();
+
+        Assertions.assertEquals("B", eval("coalesce(a, b)", context));
+        Assertions.assertEquals("z", eval("coalesce(a, a, 'z')", context));
+        Assertions.assertEquals(5, eval("abs(n)", context));
+        Assertions.assertEquals(2.5D, eval("abs(x)", context));
+        Assertions.assertEquals(2147483648L, eval("abs(-2147483647 - 1)", context));
+        Assertions.assertEquals(-5, eval("min(n, 3)", context));
+        Assertions.assertEquals(3L, eval("max(n, 3L)", context));
+        Assertions.assertEquals(-5.0D, eval("min(n, x)", context));
+        Assertions.assertEquals(-2L, eval("round(x)", context));
+        Assertions.assertEquals(8.0D, eval("pow(2, 3)", context));
+        Assertions.assertEquals(-3.0D, eval("floor(x)", context));
+    }
+
+    @Test
+    public void case3() {
+        //日期与集合
+        Map<String, Object> context = context();
+        context.put("day", LocalDate.of(2025, 3, 1));
+
+        Assertions.assertEquals("2025-03-01", eval("formatDate(day, 'yyyy-MM-dd')", context));
+        Assertions.assertEquals("2025/03/01", eval("formatDate(parseDate('2025-03-01', 'yyyy-MM-dd'), 'yyyy/MM/dd')", context));
+        Assertions.assertTrue(eval("now()", context) instanceof java.util.Date);
+
+        Assertions.assertEquals(3, eval("size(tags)", context));
+        Assertions.assertEquals(6, eval("length(trim(name)) + 1", context));
+        Assertions.assertEquals("a", eval("first(tags)", context));
+        Assertions.assertEquals("c", eval("last(tags)", context));
+        Assertions.assertEquals("a,b,c", eval("join(tags, ',')", context));
+        Assertions.assertEquals(true, eval("contains(tags, 'b') && isEmpty(list()) && !isBlank(b)", context));
+    }
+
+    @Test
+    public void case4() {
+        //解析时绑定
+        Expression expr = parse("lower(name)");
+        Assertions.assertTrue(expr instanceof FunctionNode);
+        Assertions.assertEquals("lower(name)", expr.toString());
+
+        //参数个数不匹配时，保持原有的变量方法调用
+        Assertions.assertTrue(parse("lower(a, b, c, d)") instanceof MethodNode);
+        Assertions.assertTrue(parse("foo(a)") instanceof MethodNode);
+
+        //未注册的名字按变量处理
+        Assertions.assertEquals("B", eval("b", context()));
+
+        ExpressionDependencies deps = ExpressionDependencies.analyze(parse("lower(name) + coalesce(a, 1)"));
+        Assertions.assertEquals(Arrays.asList("lower", "coalesce"), Arrays.asList(deps.getFunctions().toArray()));
+        Assertions.assertEquals(Arrays.asList("name", "a"), Arrays.asList(deps.getVariables().toArray()));
+    }
+
+    @Test
+    public void case5() {
+        //自定义注册（独立解析器）
+        SnelParser parser = new SnelParser(64);
+        parser.getFunctions().register("discount", SnelFunction.of((p, r) -> ((Number) p).doubleValue() * (1 - ((Number) r).doubleValue())));
+        parser.getFunctions().register("sign", SnelFunction.ofNumber((long v) -> Long.signum(v), (double v) -> Math.signum(v)));
+
+        Expression expr = parser.forEval().parse("discount(price, 0.2) + sign(n)");
+        Map<String, Object> context = new HashMap<>();
+        context.put("price", 100);
+        context.put("n", -3);
+        Assertions.assertEquals(79.0D, expr.eval(context::get));
+
+        //移除后按变量方法调用解析
+        parser.getFunctions().remove("discount");
+        Assertions.assertTrue(parser.forEval().parse("discount(price, 0.2)", false) instanceof MethodNode);
+
+        //默认解析器不受影响
+        Assertions.assertTrue(SnEL.parse("sign(n)") instanceof MethodNode);
+    }
+
+    @Test
+    public void case6() {
+        //函数内部异常包装为评估异常
+        Assertions.assertThrows(EvaluationException.class, () -> eval("abs('x')", Collections.emptyMap()));
+
+        //部分求值折叠纯函数，保留非纯函数
+        Map<String, Object> known = new HashMap<>();
+        known.put("name", "ABC");
+        Assertions.assertEquals("'abc'", PartialEvaluator.partialEval(parse("lower(name)"), known).toString());
+        Assertions.assertEquals("now()", PartialEvaluator.partialEval(parse("now()"), known).toString());
+    }
+
+    @Test
+    public void case7() {
+        //默认解析器：同名的上下文变量仍按变量方法调用（不被标准函数遮蔽）
+        Map<String, Object> context = new HashMap<>();
+        context.put("lower", new Lower());
+        context.put("x", "ABC");
+
+        Assertions.assertTrue(SnEL.parse("lower(x)") instanceof MethodNode);
+        Assertions.assertEquals("custom:ABC", SnEL.eval("lower(x)", context));
+
+        //启用标准函数库后，按函数绑定
+        Assertions.assertEquals("abc", eval("lower(x)", context));
+    }
+
+    @Test
+    public void case8() {
+        //未实现对应参数个数的调用时，报告函数名与参数个数（不互相委托）
+        SnelParser parser = new SnelParser(64);
+        parser.getFunctions().register("pair", new SnelFunction(2) {
+        });
+        parser.getFunctions().register("sum4", new SnelFunction(4) {
+            @Override
+            public Object call(Object[] args) {
+                return (int) args[0] + (int) args[1] + (int) args[2] + (int) args[3];
+            }
+        });
+        parser.getFunctions().register("none4", new SnelFunction(4) {
+        });
+
+        EvaluationException e = Assertions.assertThrows(EvaluationException.class, () -> parser.forEval().parse("pair(1, 2)").eval(Collections.emptyMap()::get));
+        Assertions.assertEquals("Function 'pair' does not accept 2 argument(s)", e.getMessage());
+
+        Assertions.assertEquals(10, parser.forEval().parse("sum4(1, 2, 3, 4)").eval(Collections.emptyMap()::get));
+
+        e = Assertions.assertThrows(EvaluationException.class, () -> parser.forEval().parse("none4(1, 2, 3, 4)").eval(Collections.emptyMap()::get));
+        Assertions.assertEquals("Function 'none4' does not accept 4 argument(s)", e.getMessage());
+    }
+
+    public static class Lower {
+        public String lower(String str) {
+            return "custom:" + str;
+        }
+    }
+}
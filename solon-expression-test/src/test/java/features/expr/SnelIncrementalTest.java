@@ -0,0 +1,123 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.snel.IncrementalEvaluator;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * 增量求值（变量变更后只重算受影响的节点）
+ */
+public class SnelIncrementalTest {
+    @Test
+    public void case1() {
+        Map<String, Object> state = new HashMap<>();
+        state.put("price", 10);
+        state.put("qty", 3);
+        state.put("rate", 2);
+        state.put("name", "noear");
+
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(state::get);
+        evaluator.add("total", SnEL.parse("price * qty * rate"))
+                .add("title", SnEL.parse("'Hi ' + name"))
+                .add("big", SnEL.parse("price * qty > 20"));
+
+        //首次全部求值
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("total", "title", "big")), evaluator.update(Collections.emptyList()));
+        Assertions.assertEquals(60, evaluator.getValue("total"));
+        Assertions.assertEquals("Hi noear", evaluator.getValue("title"));
+        Assertions.assertEquals(true, evaluator.getValue("big"));
+
+        //只有 rate 变化：只重算 rate 及其祖先（price * qty 取缓存）
+        state.put("rate", 3);
+        Assertions.assertEquals(Collections.singleton("total"), evaluator.update(Collections.singleton("rate")));
+        Assertions.assertEquals(90, evaluator.getValue("total"));
+        Assertions.assertEquals(2, evaluator.getRecomputeCount());
+
+        //值不变时不报告
+        state.put("name", "noear");
+        Assertions.assertTrue(evaluator.update(Collections.singleton("name")).isEmpty());
+
+        state.put("qty", 1);
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("total", "big")), evaluator.update(Collections.singleton("qty")));
+        Assertions.assertEquals(30, evaluator.getValue("total"));
+        Assertions.assertEquals(false, evaluator.getValue("big"));
+
+        //没有变更，不重算
+        Assertions.assertTrue(evaluator.update(Collections.emptyList()).isEmpty());
+        Assertions.assertEquals(0, evaluator.getRecomputeCount());
+    }
+
+    @Test
+    public void case2() {
+        //短路时跳过的分支，之后需要时再求值
+        Map<String, Object> state = new HashMap<>();
+        state.put("a", true);
+        state.put("b", 1);
+        state.put("c", 2);
+
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(state::get);
+        evaluator.add("x", SnEL.parse("a ? b : c + 1"));
+        evaluator.update(Collections.emptyList());
+        Assertions.assertEquals(1, evaluator.getValue("x"));
+
+        state.put("c", 5);
+        Assertions.assertTrue(evaluator.update(Collections.singleton("c")).isEmpty());
+
+        state.put("a", false);
+        Assertions.assertEquals(Collections.singleton("x"), evaluator.update(Collections.singleton("a")));
+        Assertions.assertEquals(6, evaluator.getValue("x"));
+    }
+
+    @Test
+    public void case3() {
+        //方法调用每次重算（纯方法名单内的除外）
+        Map<String, Object> state = new HashMap<>();
+        StringBuilder buf = new StringBuilder("a");
+        state.put("buf", buf);
+        state.put("s", "abc");
+
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(state::get, Collections.singleton("toUpperCase"));
+        evaluator.add("len", SnEL.parse("buf.length()"));
+        evaluator.add("upper", SnEL.parse("s.toUpperCase()"));
+        evaluator.update(Collections.emptyList());
+
+        buf.append("b");
+        Assertions.assertEquals(Collections.singleton("len"), evaluator.update(Collections.emptyList()));
+        Assertions.assertEquals(2, evaluator.getValue("len"));
+        Assertions.assertEquals("ABC", evaluator.getValue("upper"));
+    }
+
+    @Test
+    public void case4() {
+        //与直接求值一致
+        String[] exprs = {"a + b * 2 > 10 && flag", "(a ?: 0) + b", "flag OR a > b", "'v' + a + b"};
+
+        Map<String, Object> state = new HashMap<>();
+        state.put("a", 1);
+        state.put("b", 2);
+        state.put("flag", true);
+
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(state::get);
+        for (String e : exprs) {
+            evaluator.add(e, SnEL.parse(e));
+        }
+        evaluator.update(Collections.emptyList());
+
+        Object[][] steps = {{"a", 9}, {"flag", false}, {"b", 0}, {"a", 4}, {"flag", true}};
+        for (Object[] step : steps) {
+            state.put((String) step[0], step[1]);
+            evaluator.update(Collections.singleton((String) step[0]));
+
+            for (String e : exprs) {
+                Assertions.assertEquals(SnEL.eval(e, state), evaluator.getValue(e), e);
+            }
+        }
+    }
+}
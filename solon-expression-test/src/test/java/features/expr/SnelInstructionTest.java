@@ -0,0 +1,196 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.InstructionExpression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 指令执行引擎（与语法树解释执行做差异对比）
+ */
+public class SnelInstructionTest {
+    static final String[] EXPRS = {
+            "1 + 2 * 3 - 4 / 2",
+            "a + b * 2 > 10 AND c == 'x'",
+            "a > 5 OR b < 0 OR c LIKE 'x'",
+            "!(a > 5) && b != null",
+            "a % 3 == 1 ? 'one' : (a % 3 == 2 ? 'two' : 'zero')",
+            "n ?: 'def'",
+            "n ?: s ?: 'def'",
+            "user.name + '-' + user.age",
+            "user.tags[1]",
+            "user.tags[a - 9]",
+            "user.scores[0] + user.scores[2]",
+            "map['k1'] + map.k2",
+            "map.k3?.name",
+            "user?.name",
+            "n?.name",
+            "n.name",
+            "n[a]",
+            "user.name.length() + 1",
+            "user.name.substring(1, 3).toUpperCase()",
+            "n.substring(1)",
+            "Math.max(a, b)",
+            "a IN [1, 10, 100]",
+            "c NOT IN ['x', 'y']",
+            "c IN list",
+            "a IN list",
+            "s LIKE 'lo'",
+            "s NOT LIKE 'x'",
+            "'a' + 1 + 2",
+            "a / 3.0",
+            "1.5 * 2",
+            "a + n",
+            "n == null",
+            "n != null AND n.x == 1",
+            "n == null OR n.x == 1",
+            "a ? 1 : 2",
+            "n ? 1 : 2",
+            "user.missing",
+            "user.name.nope()",
+            "a > 1 AND b > 1 AND c > 1",
+            "s AND a",
+            "(a + b) * (a - b) >= 0 ? user.tags[0] : user.tags[2]",
+            "T(java.lang.Math).abs(-3)",
+            "user.tags.size() > 2 AND user.tags[0] == 'java'",
+            "NOT n",
+            "-3 + a",
+            "'k:' + a + ':' + c + ':' + n",
+            "a + b + '-' + user.name + user.tags[0]",
+    };
+
+    private Map<String, Object> context() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("k1", "v1");
+        map.put("k2", "v2");
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 10);
+        context.put("b", 3);
+        context.put("c", "x");
+        context.put("s", "solon");
+        context.put("list", Arrays.asList("x", "z"));
+        context.put("map", map);
+        context.put("user", new User("noear", 18, Arrays.asList("java", "kotlin", "go"), new int[]{90, 80, 70}));
+        context.put("Math", Math.class);
+        return context;
+    }
+
+    private Object run(Expression expr, Map<String, Object> context) {
+        try {
+            return expr.eval(context::get);
+        } catch (Throwable e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    @Test
+    public void case1() {
+        // 差异对比：结果与异常一致
+        Map<String, Object> context = context();
+
+        for (String str : EXPRS) {
+            Expression tree = SnEL.parse(str);
+            InstructionExpression vm = InstructionExpression.compile(tree);
+
+            Assertions.assertEquals(run(tree, context), run(vm, context), str);
+            Assertions.assertEquals(tree.toString(), vm.toString());
+        }
+    }
+
+    @Test
+    public void case2() {
+        // 短路：右侧不应被评估
+        int[] calls = {0};
+        Expression vm = InstructionExpression.compile(SnEL.parse("a > 100 AND f.x == 1"));
+
+        Object rst = vm.eval(name -> {
+            if ("f".equals(name)) {
+                calls[0]++;
+            }
+            return "a".equals(name) ? 1 : null;
+        });
+
+        Assertions.assertEquals(false, rst);
+        Assertions.assertEquals(0, calls[0]);
+    }
+
+    @Test
+    public void case3() {
+        // 寄存器帧复用与重入
+        Expression inner = InstructionExpression.compile(SnEL.parse("a * 2"));
+        Expression outer = InstructionExpression.compile(SnEL.parse("fn.eval(ctx) + a"));
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 5);
+        context.put("fn", inner);
+        context.put("ctx", (java.util.function.Function<String, Object>) context::get);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(15, outer.eval(context::get));
+        }
+    }
+
+    @Test
+    public void case4() {
+        // 参数化表达式：参数直接绑定为常量
+        Expression tree = SnEL.parseParameterized("a + 5 > 12 AND c == 'x'");
+        InstructionExpression vm = InstructionExpression.compile(tree);
+
+        Assertions.assertEquals(true, vm.eval(context()::get));
+        Assertions.assertEquals(tree.toString(), vm.toString());
+    }
+
+    @Test
+    public void case5() {
+        // 长逻辑链
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            if (i > 0) {
+                buf.append(" OR ");
+            }
+            buf.append("a == ").append(i);
+        }
+
+        InstructionExpression vm = InstructionExpression.compile(SnEL.parse(buf.toString(), false));
+
+        Assertions.assertEquals(1, vm.getRegisters() - 1);
+        Assertions.assertEquals(true, vm.eval(context()::get));
+    }
+
+    public static class User {
+        private String name;
+        private int age;
+        private List<String> tags;
+        private int[] scores;
+
+        public User(String name, int age, List<String> tags, int[] scores) {
+            this.name = name;
+            this.age = age;
+            this.tags = tags;
+            this.scores = scores;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public int[] getScores() {
+            return scores;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 多元逻辑链（AND / OR）
+ */
+public class SnelLogicalChainTest {
+    @Test
+    public void case1() {
+        LogicalNode node = (LogicalNode) SnEL.parse("a == 1 OR a == 2 OR a == 3");
+
+        Assertions.assertEquals(3, node.getOperands().size());
+        Assertions.assertEquals("(((a == 1) OR (a == 2)) OR (a == 3))", node.toString());
+
+        // 左侧为前缀视图，与原二叉结构一致
+        Assertions.assertEquals("((a == 1) OR (a == 2))", node.getLeft().toString());
+        Assertions.assertEquals("(a == 3)", node.getRight().toString());
+        Assertions.assertEquals("(a == 1)", ((LogicalNode) node.getLeft()).getLeft().toString());
+    }
+
+    @Test
+    public void case2() {
+        // 不同运算符、括号不合并
+        LogicalNode node = (LogicalNode) SnEL.parse("a OR b AND c OR (d OR e)");
+
+        Assertions.assertEquals(3, node.getOperands().size());
+        Assertions.assertEquals("((a OR (b AND c)) OR (d OR e))", node.toString());
+    }
+
+    @Test
+    public void case3() {
+        // 超长链：求值为循环，不会栈溢出
+        int terms = 50_000;
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                buf.append(" OR ");
+            }
+            buf.append("a == ").append(i);
+        }
+
+        Expression<Boolean> expr = SnEL.parse(buf.toString());
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", terms - 1);
+        Assertions.assertTrue(expr.eval(context::get));
+
+        context.put("a", -1);
+        Assertions.assertFalse(expr.eval(context::get));
+    }
+
+    @Test
+    public void case4() {
+        // 短路
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 1);
+
+        Assertions.assertEquals(false, SnEL.eval("a == 2 AND a.foo() > 1", context));
+        Assertions.assertEquals(true, SnEL.eval("a == 1 OR a.foo() > 1", context));
+    }
+
+    @Test
+    public void case5() {
+        ConditionBuilder cb = new ConditionBuilder();
+
+        LogicalNode node = cb.and(cb.eq("a", 1), cb.gt("b", 2), cb.lt("c", 3));
+        Assertions.assertEquals(3, node.getOperands().size());
+        Assertions.assertEquals("(((a == 1) AND (b > 2)) AND (c < 3))", node.toString());
+
+        // 左侧同运算符时展开
+        node = cb.and(node, cb.neq("d", 4));
+        Assertions.assertEquals(4, node.getOperands().size());
+        Assertions.assertEquals("((((a == 1) AND (b > 2)) AND (c < 3)) AND (d != 4))", node.toString());
+
+        node = cb.or(node, cb.eq("e", 5));
+        Assertions.assertEquals(2, node.getOperands().size());
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 1);
+        context.put("b", 3);
+        context.put("c", 2);
+        context.put("d", 0);
+        context.put("e", 0);
+        Assertions.assertTrue(node.eval(context::get));
+    }
+}
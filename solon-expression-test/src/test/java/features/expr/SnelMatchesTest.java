@@ -0,0 +1,74 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.exception.CompilationException;
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.snel.ComparisonNode;
+import org.noear.solon.expression.snel.ComparisonOp;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MATCHES 正则匹配（完整匹配，与 String.matches 一致；字符串字面量不转义）
+ */
+public class SnelMatchesTest {
+    private Map<String, Object> context(String value) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("v", value);
+        context.put("p", "[a-z]+\\d");
+        return context;
+    }
+
+    private void check(String regex, String... inputs) {
+        for (String input : inputs) {
+            Assertions.assertEquals(input.matches(regex), SnEL.eval("v MATCHES '" + regex + "'", context(input)),
+                    regex + " / " + input);
+        }
+    }
+
+    @Test
+    public void case1() {
+        //与 String.matches 一致（含快速路径）
+        check("abc", "abc", "abcd", "xabc", "");
+        check("^abc$", "abc", "abcd");
+        check("abc.*", "abc", "abcdef", "ab", "abc\nx");
+        check(".*abc", "abc", "xxabc", "abcx", "x\nabc");
+        check(".*abc.*", "abc", "xabcx", "xab", "x\nabc");
+        check("red|green|blue", "red", "green", "blu", "redgreen");
+        check("(red|green)", "red", "green", "blue");
+        check("(?:red|green)", "red", "blue");
+        check("a\\.b", "a.b", "axb");
+        check("a\\.*", "a", "a...", "ab");
+        check("[a-z]+\\d", "abc1", "abc", "ABC1");
+        check("\\d{3}-\\d{4}", "555-1234", "5551234");
+        check("(?i)abc", "ABC", "abc", "abd");
+    }
+
+    @Test
+    public void case2() {
+        Map<String, Object> context = context("abc1");
+
+        Assertions.assertEquals(true, SnEL.eval("v MATCHES p", context));
+        Assertions.assertEquals(false, SnEL.eval("v NOT MATCHES p", context));
+        Assertions.assertEquals(true, SnEL.eval("v NOT MATCHES 'x.*' && v MATCHES 'abc.*'", context));
+        Assertions.assertEquals(false, SnEL.eval("x MATCHES 'abc'", context));
+
+        ComparisonNode node = (ComparisonNode) SnEL.parse("v MATCHES 'a+'");
+        Assertions.assertEquals(ComparisonOp.mt, node.getOperator());
+        Assertions.assertEquals("(v MATCHES 'a+')", node.toString());
+        Assertions.assertEquals(ComparisonOp.nmt, ComparisonOp.parse("NOT MATCHES"));
+    }
+
+    @Test
+    public void case3() {
+        //常量模式在解析时编译，动态模式在评估时报错
+        Assertions.assertThrows(CompilationException.class, () -> SnEL.parse("v MATCHES '[a-'"));
+
+        Map<String, Object> context = context("abc");
+        context.put("p", "[a-");
+        Assertions.assertThrows(EvaluationException.class, () -> SnEL.eval("v MATCHES p", context));
+    }
+}
@@ -0,0 +1,81 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.MemoizedExpression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * 记忆化表达式（纯表达式按变量值组合缓存）
+ */
+public class SnelMemoizedTest {
+    @Test
+    public void case1() {
+        Expression expr = MemoizedExpression.of(SnEL.parse("tier == 'gold' && score > 80 ? 'A' : (tier ?: 'none')"), 16);
+        Assertions.assertTrue(expr instanceof MemoizedExpression);
+        Assertions.assertEquals(Arrays.asList("tier", "score"), ((MemoizedExpression) expr).getVariables());
+
+        int[] calls = {0};
+        Map<String, Object> context = new HashMap<>();
+        context.put("tier", "gold");
+        context.put("score", 90);
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals("A", expr.eval(name -> {
+                calls[0]++;
+                return context.get(name);
+            }));
+        }
+
+        // 每次只取键（首次未命中时，源表达式复用已取的值，不再二次读取）
+        Assertions.assertEquals(1, ((MemoizedExpression) expr).getCacheSize());
+        Assertions.assertEquals(5 * 2, calls[0]);
+
+        context.put("score", 50);
+        Assertions.assertEquals("gold", expr.eval(context::get));
+
+        context.put("tier", null);
+        Assertions.assertEquals("none", expr.eval(context::get));
+        Assertions.assertEquals(3, ((MemoizedExpression) expr).getCacheSize());
+    }
+
+    @Test
+    public void case2() {
+        // 非纯表达式：原样返回
+        Expression expr1 = SnEL.parse("@rule.check(a)");
+        Assertions.assertSame(expr1, MemoizedExpression.of(expr1, 16));
+
+        Expression expr2 = SnEL.parse("name.toUpperCase() == 'X'");
+        Assertions.assertSame(expr2, MemoizedExpression.of(expr2, 16));
+
+        // 方法在纯方法名单内
+        Expression expr3 = MemoizedExpression.of(expr2, 16, new HashSet<>(Collections.singletonList("toUpperCase")));
+        Assertions.assertTrue(expr3 instanceof MemoizedExpression);
+        Assertions.assertEquals(true, expr3.eval(Collections.singletonMap("name", "x")::get));
+    }
+
+    @Test
+    public void case3() {
+        // null 结果也缓存，容量有界
+        Expression expr = MemoizedExpression.of(SnEL.parse("m[k]"), 2);
+        Map<String, Object> m = new HashMap<>();
+        m.put("a", 1);
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("m", m);
+
+        for (String k : new String[]{"a", "b", "c", "d"}) {
+            context.put("k", k);
+            Assertions.assertEquals(m.get(k), expr.eval(context::get));
+        }
+
+        Assertions.assertTrue(((MemoizedExpression) expr).getCacheSize() <= 2);
+    }
+}
@@ -0,0 +1,76 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 数字精确比较（大整数、BigDecimal）
+ */
+public class SnelNumberCompareTest {
+    @Test
+    public void case1() {
+        // 超过 2^53 的 long（double 下相等）
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 1234567890123456789L);
+        context.put("b", 1234567890123456788L);
+
+        Assertions.assertEquals(false, SnEL.eval("a == b", context));
+        Assertions.assertEquals(true, SnEL.eval("a != b", context));
+        Assertions.assertEquals(true, SnEL.eval("a > b", context));
+        Assertions.assertEquals(false, SnEL.eval("a <= b", context));
+        Assertions.assertEquals(true, SnEL.eval("a == 1234567890123456789L", context));
+    }
+
+    @Test
+    public void case2() {
+        // 特化后依然精确（含 int 与 long 混合）
+        Expression<Boolean> expr = SnEL.parse("a == b", false);
+        Map<String, Object> context = new HashMap<>();
+
+        context.put("a", 1);
+        context.put("b", 1L);
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(expr.eval(context::get));
+        }
+
+        context.put("a", 9007199254740993L);
+        context.put("b", 9007199254740992L);
+        Assertions.assertFalse(expr.eval(context::get));
+    }
+
+    @Test
+    public void case3() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("x", new BigDecimal("0.10"));
+        context.put("y", 0.1D);
+        context.put("z", new BigInteger("123456789012345678901234567890"));
+        context.put("w", new BigInteger("123456789012345678901234567891"));
+
+        Assertions.assertEquals(true, SnEL.eval("x == y", context));
+        Assertions.assertEquals(true, SnEL.eval("x == 0.1", context));
+        Assertions.assertEquals(true, SnEL.eval("x < 1", context));
+        Assertions.assertEquals(true, SnEL.eval("z < w", context));
+        Assertions.assertEquals(false, SnEL.eval("z == w", context));
+    }
+
+    @Test
+    public void case4() {
+        // 其它仍按 double 比较
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 1);
+        context.put("b", 1.0D);
+        context.put("n", Double.NaN);
+
+        Assertions.assertEquals(true, SnEL.eval("a == b", context));
+        Assertions.assertEquals(true, SnEL.eval("a >= 0.5", context));
+        Assertions.assertEquals(false, SnEL.eval("n == n", context));
+        Assertions.assertEquals(true, SnEL.eval("n != n", context));
+    }
+}
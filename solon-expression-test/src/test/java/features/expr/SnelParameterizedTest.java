@@ -0,0 +1,137 @@
+package features.expr;
+
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.CompilationException;
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.snel.ClosureExpression;
+import org.noear.solon.expression.snel.EvaluateParser;
+import org.noear.solon.expression.snel.InstructionExpression;
+import org.noear.solon.expression.snel.ParameterizedExpression;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.SnelParser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 参数化解析（按表达式形态缓存）
+ */
+public class SnelParameterizedTest {
+    private Map<String, Object> context() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("userId", 1234);
+        context.put("score", 0.8);
+        context.put("name", "solon");
+        context.put("tags", new String[]{"a", "b"});
+        return context;
+    }
+
+    @Test
+    public void case1() {
+        EvaluateParser parser = new SnelParser(100).forEval();
+
+        Expression expr1 = parser.parseParameterized("userId == 1234 && score > 0.75");
+        Expression expr2 = parser.parseParameterized("userId  ==  99 && score > 0.1");
+
+        assertTrue(expr1 instanceof ParameterizedExpression);
+        assertSame(((ParameterizedExpression) expr1).getShape(), ((ParameterizedExpression) expr2).getShape());
+
+        assertEquals(true, expr1.eval(context()));
+        assertEquals(false, expr2.eval(context()));
+
+        assertEquals("((userId == 1234) AND (score > 0.75))", expr1.toString());
+        assertEquals("((userId == 99) AND (score > 0.1))", expr2.toString());
+    }
+
+    @Test
+    public void case2() {
+        EvaluateParser parser = new SnelParser(100).forEval();
+
+        //字面量类型不同，形态不同
+        Expression expr1 = parser.parseParameterized("name + 1");
+        Expression expr2 = parser.parseParameterized("name + 'x'");
+        assertNotSame(((ParameterizedExpression) expr1).getShape(), ((ParameterizedExpression) expr2).getShape());
+
+        assertEquals("solon1", expr1.eval(context()));
+        assertEquals("solonx", expr2.eval(context()));
+
+        //负数与减号
+        assertEquals(1233, parser.parseParameterized("userId - 1").eval(context()));
+        assertEquals(1235, parser.parseParameterized("userId - -1").eval(context()));
+        assertEquals(-1, parser.parseParameterized("-1").eval(context()));
+    }
+
+    @Test
+    public void case3() {
+        EvaluateParser parser = new SnelParser(100).forEval();
+
+        Expression expr1 = parser.parseParameterized("name IN ['solon', 'noear']");
+        Expression expr2 = parser.parseParameterized("name IN ['java']");
+        assertSame(((ParameterizedExpression) expr1).getShape(), ((ParameterizedExpression) expr2).getShape());
+
+        assertEquals(true, expr1.eval(context()));
+        assertEquals(false, expr2.eval(context()));
+
+        //索引与方法参数
+        assertEquals("b", parser.parseParameterized("tags[1]").eval(context()));
+        assertEquals("ol", parser.parseParameterized("name.substring(1, 3)").eval(context()));
+    }
+
+    @Test
+    public void case4() {
+        EvaluateParser parser = new SnelParser(100).forEval();
+
+        //不能参数化的，回退为普通解析
+        Expression expr = parser.parseParameterized("#{userId + 1}");
+        assertFalse(expr instanceof ParameterizedExpression);
+        assertEquals(1235, expr.eval(context()));
+
+        //没有字面量的，直接返回语法树
+        expr = parser.parseParameterized("userId > score");
+        assertFalse(expr instanceof ParameterizedExpression);
+        assertEquals(true, expr.eval(context()));
+
+        assertThrows(CompilationException.class, () -> parser.parseParameterized("userId == 1 )"));
+    }
+
+    @Test
+    public void case5() {
+        assertEquals(true, SnEL.parseParameterized("score > 0.5 ? true : false").eval(context()));
+    }
+
+    @Test
+    public void case6() {
+        // 参数经上下文传递：形态树单独评估时未绑定，bind() 得到可单独评估与转换的普通语法树
+        EvaluateParser parser = new SnelParser(100).forEval();
+        ParameterizedExpression expr = (ParameterizedExpression) parser.parseParameterized("userId == 1234 && score > 0.75");
+
+        assertEquals("((userId == ?0) AND (score > ?1))", expr.getShape().toString());
+        assertEquals("((userId == 1234) AND (score > 0.75))", expr.toString());
+        assertThrows(EvaluationException.class, () -> expr.getShape().eval(context()));
+
+        Expression bound = expr.bind();
+        assertSame(bound, expr.bind());
+        assertEquals(true, bound.eval(context()));
+        assertEquals(expr.toString(), bound.toString());
+
+        assertEquals(true, ClosureExpression.compile(expr).eval(context()));
+        assertEquals(true, InstructionExpression.compile(expr).eval(context()));
+    }
+
+    @Test
+    public void case7() {
+        // 重入：内层参数化表达式使用自己的参数，返回后外层参数不受影响
+        EvaluateParser parser = new SnelParser(100).forEval();
+        Expression inner = parser.parseParameterized("userId + 1");
+        Expression outer = parser.parseParameterized("fn.eval(ctx) + 100 + userId");
+
+        Map<String, Object> context = context();
+        context.put("fn", inner);
+        context.put("ctx", (java.util.function.Function<String, Object>) context::get);
+
+        assertEquals(1235 + 100 + 1234, outer.eval(context));
+    }
+}
@@ -0,0 +1,131 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.ConstantNode;
+import org.noear.solon.expression.snel.PartialEvaluator;
+import org.noear.solon.expression.snel.SnEL;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 部分求值（已知变量替换为常量，折叠并剪除确定分支）
+ */
+public class SnelPartialEvalTest {
+    public static class Tenant {
+        public String getPlan() {
+            return "pro";
+        }
+
+        public int getLimit() {
+            return 100;
+        }
+    }
+
+    private Map<String, Object> known() {
+        Map<String, Object> known = new HashMap<>();
+        known.put("tenant", new Tenant());
+        known.put("beta", false);
+        known.put("region", null);
+        return known;
+    }
+
+    @Test
+    public void case1() {
+        //逻辑剪枝
+        Expression expr = SnEL.partialEval("tenant.plan == 'pro' && amount > tenant.limit", known());
+        Assertions.assertEquals("(amount > 100)", expr.toString());
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("amount", 120);
+        Assertions.assertEquals(true, expr.eval(request::get));
+    }
+
+    @Test
+    public void case2() {
+        Expression expr = SnEL.partialEval("beta || tenant.plan == 'free' || vip", known());
+        Assertions.assertEquals("(vip OR false)", expr.toString());
+        Assertions.assertEquals(false, expr.eval(Collections.singletonMap("vip", null)::get));
+        Assertions.assertEquals(true, expr.eval(Collections.singletonMap("vip", "yes")::get));
+
+        Assertions.assertEquals("true", SnEL.partialEval("!beta || vip", known()).toString());
+        Assertions.assertEquals("(vip AND false)", SnEL.partialEval("vip && beta", known()).toString());
+    }
+
+    @Test
+    public void case3() {
+        //三元与 Elvis
+        Expression expr = SnEL.partialEval("beta ? a : b * tenant.limit", known());
+        Assertions.assertEquals("(b * 100)", expr.toString());
+
+        Assertions.assertEquals("name", SnEL.partialEval("region ?: name", known()).toString());
+        Assertions.assertEquals("name", SnEL.partialEval("name ?: region", known()).toString());
+        Assertions.assertEquals("'pro'", SnEL.partialEval("tenant.plan ?: name", known()).toString());
+    }
+
+    @Test
+    public void case4() {
+        //全部已知
+        Expression expr = SnEL.partialEval("tenant.limit * 2 + 1 > 200 ? 'big' : 'small'", known());
+        Assertions.assertTrue(expr instanceof ConstantNode);
+        Assertions.assertEquals("big", expr.eval(Collections.emptyMap()));
+    }
+
+    @Test
+    public void case5() {
+        //方法调用不折叠；折叠出错的节点保留
+        Expression expr = SnEL.partialEval("tenant.getPlan() == plan", known());
+        Assertions.assertTrue(expr.toString().contains("getPlan()"));
+        Assertions.assertEquals(true, expr.eval(Collections.singletonMap("plan", "pro")::get));
+
+        Expression expr2 = PartialEvaluator.partialEval(SnEL.parse("tenant.missing + x"), known());
+        Assertions.assertTrue(expr2.toString().contains("missing"));
+    }
+
+    @Test
+    public void case6() {
+        //与原表达式结果一致
+        String[] exprs = {
+                "tenant.plan == 'pro' && (amount > 10 || beta)",
+                "beta ? 1 : (amount ?: 0) + tenant.limit",
+                "NOT beta AND amount IN [1, 2, 120]",
+                "region ?: 'cn' + amount",
+        };
+
+        Map<String, Object> all = known();
+        all.put("amount", 120);
+
+        for (String e : exprs) {
+            Expression residual = SnEL.partialEval(e, known());
+            Assertions.assertEquals(SnEL.eval(e, all), residual.eval(all::get), e);
+        }
+    }
+
+    @Test
+    public void case7() {
+        //确定常量之前的非常量操作数（可能有副作用）保留，之后的截断
+        Counter svc = new Counter();
+        Map<String, Object> all = known();
+        all.put("svc", svc);
+
+        Expression expr = SnEL.partialEval("svc.hit() && beta && svc.hit()", known());
+        Assertions.assertEquals("(svc.hit() AND false)", expr.toString());
+        Assertions.assertEquals(false, expr.eval(all::get));
+        Assertions.assertEquals(1, svc.calls);
+
+        Assertions.assertEquals(false, SnEL.eval("svc.hit() && beta && svc.hit()", all));
+        Assertions.assertEquals(2, svc.calls);
+    }
+
+    public static class Counter {
+        int calls;
+
+        public boolean hit() {
+            calls++;
+            return true;
+        }
+    }
+}
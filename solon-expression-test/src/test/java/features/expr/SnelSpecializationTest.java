@@ -0,0 +1,110 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.snel.ArithmeticNode;
+import org.noear.solon.expression.snel.ComparisonNode;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.Specialization;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 节点按操作数类型自我特化
+ */
+public class SnelSpecializationTest {
+    @Test
+    public void case1() {
+        ArithmeticNode node = (ArithmeticNode) SnEL.parse("a + b", false);
+        Map<String, Object> context = new HashMap<>();
+
+        context.put("a", 1);
+        context.put("b", 2);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(3, node.eval(context::get));
+        }
+        Assertions.assertEquals(Specialization.INT, node.getSpecialization()); //int
+
+        // 守卫失败：退回通用路径
+        context.put("b", 2.5D);
+        Assertions.assertEquals(3.5D, node.eval(context::get));
+        Assertions.assertEquals(Specialization.GENERIC, node.getSpecialization());
+
+        context.put("b", 2);
+        Assertions.assertEquals(3, node.eval(context::get));
+    }
+
+    @Test
+    public void case2() {
+        ArithmeticNode node = (ArithmeticNode) SnEL.parse("a + b", false);
+        Map<String, Object> context = new HashMap<>();
+
+        context.put("a", "user:");
+        context.put("b", 12L);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals("user:12", node.eval(context::get));
+        }
+        Assertions.assertEquals(Specialization.STRING, node.getSpecialization()); //拼接
+
+        context.put("b", null);
+        Assertions.assertEquals("user:null", node.eval(context::get));
+
+        context.put("a", 1L);
+        context.put("b", "x");
+        Assertions.assertEquals("1x", node.eval(context::get));
+        Assertions.assertEquals(Specialization.GENERIC, node.getSpecialization());
+    }
+
+    @Test
+    public void case3() {
+        // 观察期内类型不一致：不特化
+        ArithmeticNode node = (ArithmeticNode) SnEL.parse("a * b", false);
+        Map<String, Object> context = new HashMap<>();
+
+        context.put("a", 2L);
+        context.put("b", 3L);
+        Assertions.assertEquals(6L, node.eval(context::get));
+
+        context.put("a", 2);
+        context.put("b", 3);
+        Assertions.assertEquals(6, node.eval(context::get));
+        Assertions.assertEquals(Specialization.GENERIC, node.getSpecialization());
+    }
+
+    @Test
+    public void case4() {
+        ComparisonNode node = (ComparisonNode) SnEL.parse("a >= b", false);
+        Map<String, Object> context = new HashMap<>();
+
+        context.put("a", 5D);
+        context.put("b", 5D);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(node.eval(context::get));
+        }
+        Assertions.assertEquals(Specialization.DOUBLE, node.getSpecialization()); //double
+
+        context.put("b", 6);
+        Assertions.assertFalse(node.eval(context::get));
+        Assertions.assertEquals(Specialization.GENERIC, node.getSpecialization());
+    }
+
+    @Test
+    public void case5() {
+        ComparisonNode node = (ComparisonNode) SnEL.parse("a == 'vip'", false);
+        Map<String, Object> context = new HashMap<>();
+
+        context.put("a", "vip");
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(node.eval(context::get));
+        }
+        Assertions.assertEquals(Specialization.STRING, node.getSpecialization()); //字符串
+
+        context.put("a", null);
+        Assertions.assertFalse(node.eval(context::get));
+        Assertions.assertEquals(Specialization.GENERIC, node.getSpecialization());
+
+        // 模板与 IN 等不特化
+        Assertions.assertEquals(Specialization.GENERIC, ((ComparisonNode) SnEL.parse("a IN list", false)).getSpecialization());
+    }
+}
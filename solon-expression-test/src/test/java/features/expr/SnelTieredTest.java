@@ -0,0 +1,82 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.snel.EvaluateParser;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.SnelParser;
+import org.noear.solon.expression.snel.TieredExpression;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 分层执行（解释执行计数，达到阈值后编译切换）
+ */
+public class SnelTieredTest {
+    @Test
+    public void case1() {
+        // 同步执行器：达到阈值即编译
+        TieredExpression expr = new TieredExpression(SnEL.parse("a + b * 2 > 10"), 3, Runnable::run);
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 5);
+        context.put("b", 3);
+
+        Assertions.assertEquals(true, expr.eval(context::get));
+        Assertions.assertEquals(true, expr.eval(context::get));
+        Assertions.assertFalse(expr.isCompiled());
+
+        Assertions.assertEquals(true, expr.eval(context::get));
+        Assertions.assertTrue(expr.isCompiled());
+
+        context.put("a", 1);
+        Assertions.assertEquals(false, expr.eval(context::get));
+        Assertions.assertEquals(3, expr.getCount());
+        Assertions.assertEquals("((a + (b * 2)) > 10)", expr.toString());
+    }
+
+    @Test
+    public void case2() {
+        // 执行器拒绝时，保持解释执行并重新计数
+        TieredExpression expr = new TieredExpression(SnEL.parse("a * 2"), 2, r -> {
+            throw new RejectedExecutionException();
+        });
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 4);
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(8, expr.eval(context::get));
+        }
+
+        Assertions.assertFalse(expr.isCompiled());
+        Assertions.assertEquals(1, expr.getCount());
+    }
+
+    @Test
+    public void case3() throws Exception {
+        // 默认后台执行器
+        EvaluateParser parser = new SnelParser(16).forEval();
+        parser.tieredConfig(10, null);
+
+        Expression expr = parser.parseTiered("a + 1");
+        Assertions.assertSame(expr, parser.parseTiered("a + 1"));
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("a", 1);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(2, expr.eval(context::get));
+        }
+
+        for (int i = 0; i < 100 && ((TieredExpression) expr).isCompiled() == false; i++) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertTrue(((TieredExpression) expr).isCompiled());
+        Assertions.assertEquals(2, expr.eval(context::get));
+    }
+}
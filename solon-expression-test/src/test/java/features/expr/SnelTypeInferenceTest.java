@@ -0,0 +1,106 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.CompilationException;
+import org.noear.solon.expression.snel.ArithmeticNode;
+import org.noear.solon.expression.snel.ComparisonNode;
+import org.noear.solon.expression.snel.LogicalNode;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.Specialization;
+import org.noear.solon.expression.snel.TypeInference;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 静态类型推断（推断节点类型、报告不匹配的运算、选择特化节点）
+ */
+public class SnelTypeInferenceTest {
+    private Map<String, Type> schema() {
+        Map<String, Type> schema = new HashMap<>();
+        schema.put("age", Integer.class);
+        schema.put("total", Long.class);
+        schema.put("rate", Double.class);
+        schema.put("name", String.class);
+        schema.put("vip", Boolean.class);
+        schema.put("user", SnelTypedCompileTest.Customer.class);
+        return schema;
+    }
+
+    @Test
+    public void case1() {
+        Expression expr = SnEL.parse("age + 1");
+        TypeInference inference = TypeInference.infer(expr, schema());
+        Assertions.assertEquals(Integer.class, inference.getResultType());
+
+        Assertions.assertEquals(Long.class, TypeInference.infer(SnEL.parse("total * age"), schema()).getResultType());
+        Assertions.assertEquals(Double.class, TypeInference.infer(SnEL.parse("rate * age"), schema()).getResultType());
+        Assertions.assertEquals(String.class, TypeInference.infer(SnEL.parse("name + age"), schema()).getResultType());
+        Assertions.assertEquals(Integer.class, TypeInference.infer(SnEL.parse("name.length()"), schema()).getResultType());
+        Assertions.assertEquals(Integer.class, TypeInference.infer(SnEL.parse("user.level"), schema()).getResultType());
+        Assertions.assertEquals(String.class, TypeInference.infer(SnEL.parse("vip ? name : user.name"), schema()).getResultType());
+        Assertions.assertEquals(Boolean.class, TypeInference.infer(SnEL.parse("age > 18 && vip"), schema()).getResultType());
+        Assertions.assertEquals(Object.class, TypeInference.infer(SnEL.parse("unknown + 1"), schema()).getResultType());
+
+        //节点类型
+        Assertions.assertEquals(Integer.class, inference.getType(((ArithmeticNode) expr).getLeft()));
+    }
+
+    @Test
+    public void case2() {
+        //不匹配的运算
+        Assertions.assertTrue(TypeInference.infer(SnEL.parse("age > 18"), schema()).getProblems().isEmpty());
+
+        List<String> problems = TypeInference.infer(SnEL.parse("name > 1 || vip - 1 > 0 || age == 'x' || age IN name"), schema()).getProblems();
+        Assertions.assertEquals(4, problems.size(), problems.toString());
+
+        Assertions.assertFalse(TypeInference.infer(SnEL.parse("age ? 1 : 2"), schema()).getProblems().isEmpty());
+        Assertions.assertFalse(TypeInference.infer(SnEL.parse("user.nmae"), schema()).getProblems().isEmpty());
+
+        CompilationException e = Assertions.assertThrows(CompilationException.class, () -> SnEL.compile("name * 2", schema()));
+        Assertions.assertTrue(e.getMessage().contains("'*'"));
+    }
+
+    @Test
+    public void case3() {
+        //选择特化节点（不再采样）
+        Expression expr = SnEL.compile("age + 1 > 18 && name == 'noear' && vip", schema());
+        Assertions.assertTrue(expr instanceof LogicalNode);
+
+        List<Expression> operands = ((LogicalNode) expr).getOperands();
+        ComparisonNode cmp = (ComparisonNode) operands.get(0);
+        Assertions.assertEquals(Specialization.INT, cmp.getSpecialization());
+        Assertions.assertEquals(Specialization.INT, ((ArithmeticNode) cmp.getLeft()).getSpecialization());
+        Assertions.assertEquals(Specialization.STRING, ((ComparisonNode) operands.get(1)).getSpecialization());
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("age", 20);
+        context.put("name", "noear");
+        context.put("vip", true);
+        Assertions.assertEquals(true, expr.eval(context));
+
+        context.put("vip", false);
+        Assertions.assertEquals(false, expr.eval(context));
+
+        //源表达式不变
+        Assertions.assertEquals(LogicalNode.class, SnEL.parse("age + 1 > 18 && name == 'noear' && vip").getClass());
+    }
+
+    @Test
+    public void case4() {
+        //实际值与声明不符时，退回通用路径
+        Expression expr = SnEL.compile("age + 1", schema());
+        Map<String, Object> context = new HashMap<>();
+        context.put("age", 20L);
+        Assertions.assertEquals(21L, expr.eval(context));
+        Assertions.assertEquals(Specialization.GENERIC, ((ArithmeticNode) expr).getSpecialization());
+
+        Expression expr2 = SnEL.compile("vip || age > 1", schema());
+        context.put("vip", "yes");
+        Assertions.assertEquals(true, expr2.eval(context));
+    }
+}
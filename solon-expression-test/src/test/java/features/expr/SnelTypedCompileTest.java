@@ -0,0 +1,143 @@
+package features.expr;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.noear.solon.expression.exception.CompilationException;
+import org.noear.solon.expression.snel.SnEL;
+import org.noear.solon.expression.snel.TypedExpression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 类型化编译（按根类型静态解析路径）
+ */
+public class SnelTypedCompileTest {
+    public static class Customer {
+        private final String name;
+        public int level;
+
+        public Customer(String name, int level) {
+            this.name = name;
+            this.level = level;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int bonus(int rate) {
+            return rate * 2;
+        }
+    }
+
+    public static class VipCustomer extends Customer {
+        public VipCustomer(String name) {
+            super(name, 9);
+        }
+
+        @Override
+        public String getName() {
+            return "VIP " + super.getName();
+        }
+    }
+
+    public static class Item {
+        private final int price;
+
+        public Item(int price) {
+            this.price = price;
+        }
+
+        public int getPrice() {
+            return price;
+        }
+    }
+
+    public static class Order {
+        private Customer customer;
+        private List<Item> items;
+        private Map<String, Integer> stock = new HashMap<>();
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public Map<String, Integer> getStock() {
+            return stock;
+        }
+    }
+
+    private Order order(Customer customer) {
+        Order order = new Order();
+        order.customer = customer;
+        order.items = Arrays.asList(new Item(10), new Item(20));
+        order.stock.put("apple", 3);
+        return order;
+    }
+
+    @Test
+    public void case1() {
+        TypedExpression<Order> expr = SnEL.compile("customer.name.toUpperCase()", Order.class);
+        Assertions.assertEquals(String.class, expr.getResultType());
+        Assertions.assertEquals("NOEAR", expr.evalRoot(order(new Customer("noear", 1))));
+        Assertions.assertEquals(SnEL.parse("customer.name.toUpperCase()").toString(), expr.toString());
+
+        //运行时为子类时，按实际类型调用
+        Assertions.assertEquals("VIP SOLON", expr.evalRoot(order(new VipCustomer("solon"))));
+    }
+
+    @Test
+    public void case2() {
+        //公共字段、泛型元素与 Map 值类型
+        Assertions.assertEquals(Integer.class, SnEL.compile("customer.level", Order.class).getResultType());
+        Assertions.assertEquals(Item.class, SnEL.compile("items[1]", Order.class).getResultType());
+        Assertions.assertEquals(Integer.class, SnEL.compile("items[1].price", Order.class).getResultType());
+        Assertions.assertEquals(Integer.class, SnEL.compile("stock.apple", Order.class).getResultType());
+        Assertions.assertEquals(Integer.class, SnEL.compile("customer.bonus(customer.level)", Order.class).getResultType());
+        Assertions.assertEquals(Boolean.class, SnEL.compile("customer.level > 1", Order.class).getResultType());
+
+        Order order = order(new Customer("noear", 2));
+        Assertions.assertEquals(20, SnEL.compile("items[1].price", Order.class).evalRoot(order));
+        Assertions.assertEquals(4, SnEL.compile("stock.apple + 1", Order.class).evalRoot(order));
+        Assertions.assertEquals(true, SnEL.compile("customer?.level > 1 && items[0].price == 10", Order.class).evalRoot(order));
+        Assertions.assertEquals(4, SnEL.compile("customer.bonus(customer.level)", Order.class).evalRoot(order));
+    }
+
+    @Test
+    public void case3() {
+        //路径不存在时，编译期报告
+        CompilationException e = Assertions.assertThrows(CompilationException.class, () -> SnEL.compile("customer.nmae == 'x'", Order.class));
+        Assertions.assertTrue(e.getMessage().contains("nmae"));
+
+        Assertions.assertThrows(CompilationException.class, () -> SnEL.compile("totle > 1", Order.class));
+        Assertions.assertThrows(CompilationException.class, () -> SnEL.compile("customer.getName().lenght()", Order.class));
+        Assertions.assertThrows(CompilationException.class, () -> SnEL.compile("customer.bonus('x')", Order.class));
+    }
+
+    @Test
+    public void case4() {
+        //静态类型未知的路径保留动态访问；空值安全
+        TypedExpression<Map> expr = SnEL.compile("a.b + 1", Map.class);
+        Map<String, Object> root = new HashMap<>();
+        root.put("a", java.util.Collections.singletonMap("b", 1));
+        Assertions.assertEquals(2, expr.evalRoot(root));
+        Assertions.assertEquals(Object.class, expr.getResultType());
+
+        Assertions.assertNull(SnEL.compile("customer.name", Order.class).evalRoot(order(null)));
+        Assertions.assertNull(SnEL.compile("customer.name", Order.class).evalRoot(null));
+    }
+
+    @Test
+    public void case5() {
+        //作为普通表达式评估时，变量从上下文获取
+        TypedExpression<Order> expr = SnEL.compile("customer.name", Order.class);
+        Assertions.assertEquals("noear", expr.eval(java.util.Collections.singletonMap("customer", new Customer("noear", 1))));
+    }
+}
@@ -21,6 +21,7 @@ import org.noear.solon.expression.snel.*;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -164,25 +165,37 @@ public class ChromaFilterTransformer implements Transformer<Boolean, Map<String,
 
             if (rightExpr != null) {
                 // 二元逻辑操作符 (AND, OR)
-                Map<String, Object> leftMap2 = new HashMap<>();
-                parseFilterExpression(leftExpr, leftMap2);
-
-                Map<String, Object> rightMap2 = new HashMap<>();
-                parseFilterExpression(rightExpr, rightMap2);
-
+                String opKey;
                 switch (logicalOp) {
                     case AND:
                         // AND操作 - 使用$and操作符
-                        result.put("$and", Arrays.asList(leftMap2, rightMap2));
+                        opKey = "$and";
                         break;
                     case OR:
                         // OR操作 - 使用$or操作符
-                        result.put("$or", Arrays.asList(leftMap2, rightMap2));
+                        opKey = "$or";
                         break;
                     default:
                         // 未识别的操作符，忽略
+                        opKey = null;
                         break;
                 }
+
+                // 多元链按左结合嵌套：{$and: [{$and: [a, b]}, c]}
+                List<Expression> operands = ((LogicalNode) filterExpression).getOperands();
+                Map<String, Object> leftMap2 = new HashMap<>();
+                parseFilterExpression(operands.get(0), leftMap2);
+
+                for (int i = 1; i < operands.size(); i++) {
+                    Map<String, Object> rightMap2 = new HashMap<>();
+                    parseFilterExpression(operands.get(i), rightMap2);
+
+                    Map<String, Object> target = (i == operands.size() - 1) ? result : new HashMap<>();
+                    if (opKey != null) {
+                        target.put(opKey, Arrays.asList(leftMap2, rightMap2));
+                    }
+                    leftMap2 = target;
+                }
             } else if (leftExpr != null) {
                 // 一元逻辑操作符 (NOT)
                 Map<String, Object> leftMap2 = new HashMap<>();
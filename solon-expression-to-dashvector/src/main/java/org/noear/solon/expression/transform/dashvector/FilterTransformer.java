@@ -20,6 +20,7 @@ import org.noear.solon.expression.Transformer;
 import org.noear.solon.expression.snel.*;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.StringJoiner;
 
 /**
@@ -92,16 +93,27 @@ public class FilterTransformer implements Transformer<Boolean, String> {
             }
         } else if (filterExpression instanceof LogicalNode) {
             LogicalNode logicalNode = (LogicalNode) filterExpression;
-            String left = parseFilterExpression(logicalNode.getLeft());
-            
+
             if (logicalNode.getOperator() == LogicalOp.NOT) {
-                return "not (" + left + ")";
+                return "not (" + parseFilterExpression(logicalNode.getLeft()) + ")";
             }
-            
-            String right = parseFilterExpression(logicalNode.getRight());
+
+            // 多元链按左结合输出：((a and b) and c)
+            List<Expression> operands = logicalNode.getOperands();
             String op = logicalNode.getOperator() == LogicalOp.AND ? " and " : " or ";
-            
-            return "(" + left + op + right + ")";
+            StringBuilder buf = new StringBuilder();
+
+            for (int i = 1; i < operands.size(); i++) {
+                buf.append("(");
+            }
+
+            buf.append(parseFilterExpression(operands.get(0)));
+
+            for (int i = 1; i < operands.size(); i++) {
+                buf.append(op).append(parseFilterExpression(operands.get(i))).append(")");
+            }
+
+            return buf.toString();
         }
 
         throw new IllegalArgumentException("Unsupported expression type: " + filterExpression.getClass());
@@ -133,31 +133,39 @@ public class ElasticsearchFilterTransformer implements Transformer<Boolean, Map<
 
             if (right != null) {
                 // 二元逻辑运算符 (AND, OR)
-                Map<String, Object> leftQuery = transform(left);
-                Map<String, Object> rightQuery = transform(right);
-
-                if (leftQuery == null || rightQuery == null) {
-                    return null;
-                }
-
-                Map<String, Object> boolQuery = new HashMap<>();
-                List<Map<String, Object>> conditions = new ArrayList<>();
-                conditions.add(leftQuery);
-                conditions.add(rightQuery);
-
+                String occur;
                 switch (operator) {
                     case AND:
-                        boolQuery.put("must", conditions);
+                        occur = "must";
                         break;
                     case OR:
-                        boolQuery.put("should", conditions);
+                        occur = "should";
                         break;
                     default:
                         return null;
                 }
 
-                Map<String, Object> result = new HashMap<>();
-                result.put("bool", boolQuery);
+                // 多元链按左结合嵌套：bool(bool(a, b), c)
+                List<Expression> operands = node.getOperands();
+                Map<String, Object> result = transform(operands.get(0));
+
+                for (int i = 1; i < operands.size(); i++) {
+                    Map<String, Object> rightQuery = transform(operands.get(i));
+
+                    if (result == null || rightQuery == null) {
+                        return null;
+                    }
+
+                    Map<String, Object> boolQuery = new HashMap<>();
+                    List<Map<String, Object>> conditions = new ArrayList<>();
+                    conditions.add(result);
+                    conditions.add(rightQuery);
+                    boolQuery.put(occur, conditions);
+
+                    result = new HashMap<>();
+                    result.put("bool", boolQuery);
+                }
+
                 return result;
             } else if (left != null) {
                 // 一元逻辑运算符 (NOT)
@@ -22,6 +22,8 @@ import org.noear.solon.expression.snel.ConstantNode;
 import org.noear.solon.expression.snel.LogicalNode;
 import org.noear.solon.expression.snel.VariableNode;
 
+import java.util.List;
+
 /**
  * 过滤转换器
  *
@@ -76,16 +78,28 @@ public class MilvusFilterTransformer implements Transformer<Boolean, String> {
             buf.append(")");
         } else if (filterExpression instanceof LogicalNode) {
             LogicalNode opNode = (LogicalNode) filterExpression;
-            buf.append("(");
             if (opNode.getRight() != null) {
-                parseFilterExpression(opNode.getLeft(), buf);
-                buf.append(" ").append(opNode.getOperator().getCode().toLowerCase()).append(" ");
-                parseFilterExpression(opNode.getRight(), buf);
+                // 多元链按左结合输出：((a and b) and c)
+                List<Expression> operands = opNode.getOperands();
+                String separator = " " + opNode.getOperator().getCode().toLowerCase() + " ";
+
+                for (int i = 1; i < operands.size(); i++) {
+                    buf.append("(");
+                }
+
+                parseFilterExpression(operands.get(0), buf);
+
+                for (int i = 1; i < operands.size(); i++) {
+                    buf.append(separator);
+                    parseFilterExpression(operands.get(i), buf);
+                    buf.append(")");
+                }
             } else {
+                buf.append("(");
                 buf.append(opNode.getOperator().getCode()).append(" ");
                 parseFilterExpression(opNode.getLeft(), buf);
+                buf.append(")");
             }
-            buf.append(")");
         }
     }
 }
\ No newline at end of file
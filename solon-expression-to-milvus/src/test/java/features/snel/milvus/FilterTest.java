@@ -22,4 +22,15 @@ public class FilterTest {
 
         Assertions.assertEquals("((metadata[\"age\"] > 18) and (metadata[\"status\"] == \"active\"))", tmp.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void case2() {
+        Expression<Boolean> expr = SnEL.parse("age > 18 OR age < 10 OR status=='active'");
+
+        String tmp = MilvusFilterTransformer.getInstance().transform(expr);
+
+        System.out.println(tmp);
+
+        Assertions.assertEquals("(((metadata[\"age\"] > 18) or (metadata[\"age\"] < 10)) or (metadata[\"status\"] == \"active\"))", tmp.toString());
+    }
+}
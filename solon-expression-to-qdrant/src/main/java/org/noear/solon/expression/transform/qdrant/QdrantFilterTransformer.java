@@ -21,6 +21,7 @@ import org.noear.solon.expression.Transformer;
 import org.noear.solon.expression.snel.ComparisonNode;
 import org.noear.solon.expression.snel.ConstantNode;
 import org.noear.solon.expression.snel.LogicalNode;
+import org.noear.solon.expression.snel.LogicalOp;
 import org.noear.solon.expression.snel.VariableNode;
 
 import java.util.ArrayList;
@@ -58,13 +59,20 @@ public class QdrantFilterTransformer implements Transformer<Boolean, Points.Filt
                     mustNotClauses.add(io.qdrant.client.ConditionFactory.filter(transformDo(logicalNode.getLeft())));
                     break;
                 case AND:
-                    mustClauses.add(io.qdrant.client.ConditionFactory.filter(transformDo(logicalNode.getLeft())));
-                    mustClauses.add(io.qdrant.client.ConditionFactory.filter(transformDo(logicalNode.getRight())));
-                    break;
-                case OR:
-                    shouldClauses.add(io.qdrant.client.ConditionFactory.filter(transformDo(logicalNode.getLeft())));
-                    shouldClauses.add(io.qdrant.client.ConditionFactory.filter(transformDo(logicalNode.getRight())));
+                case OR: {
+                    // 多元链按左结合嵌套：filter(filter(a, b), c)
+                    List<Expression> operands = logicalNode.getOperands();
+                    Points.Filter left = transformDo(operands.get(0));
+
+                    for (int i = 1; i < operands.size() - 1; i++) {
+                        left = transformChain(logicalNode.getOperator(), left, transformDo(operands.get(i)));
+                    }
+
+                    List<Points.Condition> clauses = (logicalNode.getOperator() == LogicalOp.AND) ? mustClauses : shouldClauses;
+                    clauses.add(io.qdrant.client.ConditionFactory.filter(left));
+                    clauses.add(io.qdrant.client.ConditionFactory.filter(transformDo(operands.get(operands.size() - 1))));
                     break;
+                }
             }
         } else if (operand instanceof ComparisonNode) {
             ComparisonNode comparisonNode = (ComparisonNode) operand;
@@ -79,6 +87,21 @@ public class QdrantFilterTransformer implements Transformer<Boolean, Points.Filt
         return context.addAllMust(mustClauses).addAllShould(shouldClauses).addAllMustNot(mustNotClauses).build();
     }
 
+    /**
+     * 连接逻辑链的前缀（与二元节点的转换结果一致）
+     */
+    private Points.Filter transformChain(LogicalOp operator, Points.Filter left, Points.Filter right) {
+        List<Points.Condition> clauses = new ArrayList<Points.Condition>();
+        clauses.add(io.qdrant.client.ConditionFactory.filter(left));
+        clauses.add(io.qdrant.client.ConditionFactory.filter(right));
+
+        if (operator == LogicalOp.AND) {
+            return Points.Filter.newBuilder().addAllMust(clauses).build();
+        } else {
+            return Points.Filter.newBuilder().addAllShould(clauses).build();
+        }
+    }
+
     protected Points.Condition parseComparison(ComparisonNode expr) {
         VariableNode left = (VariableNode) expr.getLeft();
         ConstantNode right = (ConstantNode) expr.getRight();
@@ -20,6 +20,7 @@ import org.noear.solon.expression.Transformer;
 import org.noear.solon.expression.snel.*;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * 过滤转换器
@@ -156,30 +157,35 @@ public class RedisFilterTransformer implements Transformer<Boolean, String> {
         } else if (filterExpression instanceof LogicalNode) {
             LogicalNode node = (LogicalNode) filterExpression;
             LogicalOp operator = node.getOperator();
-            Expression left = node.getLeft();
-            Expression right = node.getRight();
-
-            buf.append("(");
 
-            if (right != null) {
-                // 二元操作符 (AND, OR)
-                parseFilterExpression(left, buf);
+            if (node.getRight() != null) {
+                // 二元操作符 (AND, OR)，多元链按左结合输出：((a b) c)
+                List<Expression> operands = node.getOperands();
+                String separator;
 
                 switch (operator) {
-                    case AND:
-                        buf.append(" "); // Redis Search 使用空格表示 AND
-                        break;
                     case OR:
-                        buf.append(" | "); // Redis Search 使用 | 表示 OR
+                        separator = " | "; // Redis Search 使用 | 表示 OR
                         break;
                     default:
-                        // 其他操作符，默认用空格
-                        buf.append(" ");
+                        separator = " "; // Redis Search 使用空格表示 AND（其他操作符，默认用空格）
                         break;
                 }
 
-                parseFilterExpression(right, buf);
+                for (int i = 1; i < operands.size(); i++) {
+                    buf.append("(");
+                }
+
+                parseFilterExpression(operands.get(0), buf);
+
+                for (int i = 1; i < operands.size(); i++) {
+                    buf.append(separator);
+                    parseFilterExpression(operands.get(i), buf);
+                    buf.append(")");
+                }
             } else {
+                buf.append("(");
+
                 // 一元操作符 (NOT)
                 switch (operator) {
                     case NOT:
@@ -189,10 +195,10 @@ public class RedisFilterTransformer implements Transformer<Boolean, String> {
                         // 其他一元操作符，不添加前缀
                         break;
                 }
-                parseFilterExpression(left, buf);
-            }
+                parseFilterExpression(node.getLeft(), buf);
 
-            buf.append(")");
+                buf.append(")");
+            }
         }
     }
 }
\ No newline at end of file
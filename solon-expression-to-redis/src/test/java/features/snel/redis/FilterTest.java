@@ -20,4 +20,15 @@ public class FilterTest {
 
         Assertions.assertEquals("(@age:[18 +inf] @status:{active})", tmp.toString());
     }
+
+    @Test
+    public void case2() {
+        Expression<Boolean> expr = SnEL.parse("age > 18 OR age < 10 OR status=='active'");
+
+        String tmp = RedisFilterTransformer.getInstance().transform(expr);
+
+        System.out.println(tmp);
+
+        Assertions.assertEquals("((@age:[18 +inf] | @age:[-inf 10]) | @status:{active})", tmp.toString());
+    }
 }
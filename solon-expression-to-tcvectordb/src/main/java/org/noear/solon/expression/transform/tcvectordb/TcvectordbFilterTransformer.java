@@ -20,6 +20,8 @@ import org.noear.solon.expression.Expression;
 import org.noear.solon.expression.Transformer;
 import org.noear.solon.expression.snel.*;
 
+import java.util.List;
+
 /**
  * 过滤转换器
  *
@@ -190,34 +192,36 @@ public class TcvectordbFilterTransformer implements Transformer<Boolean,Filter>
             Expression rightExpr = logicalNode.getRight();
 
             if (rightExpr != null) {
-                // 二元逻辑操作符 (AND, OR)
+                // 二元逻辑操作符 (AND, OR)，多元链按左结合处理：((a and b) and c)
                 boolean needParentheses = !(buf.length() == 0);
+                List<Expression> operands = logicalNode.getOperands();
 
                 if (needParentheses) {
-                    buf.append("(");
+                    for (int i = 1; i < operands.size(); i++) {
+                        buf.append("(");
+                    }
                 }
 
                 // 处理左侧表达式
-                parseFilterExpressionToString(leftExpr, buf);
-
-                // 处理操作符
-                switch (logicalOp) {
-                    case AND:
-                        buf.append(" and ");
-                        break;
-                    case OR:
-                        buf.append(" or ");
-                        break;
-                    default:
-                        buf.append(" and ");
-                        break;
-                }
+                parseFilterExpressionToString(operands.get(0), buf);
+
+                for (int i = 1; i < operands.size(); i++) {
+                    // 处理操作符
+                    switch (logicalOp) {
+                        case OR:
+                            buf.append(" or ");
+                            break;
+                        default:
+                            buf.append(" and ");
+                            break;
+                    }
 
-                // 处理右侧表达式
-                parseFilterExpressionToString(rightExpr, buf);
+                    // 处理右侧表达式
+                    parseFilterExpressionToString(operands.get(i), buf);
 
-                if (needParentheses) {
-                    buf.append(")");
+                    if (needParentheses) {
+                        buf.append(")");
+                    }
                 }
             } else if (leftExpr != null && logicalOp == LogicalOp.NOT) {
                 // 一元逻辑操作符 (NOT)
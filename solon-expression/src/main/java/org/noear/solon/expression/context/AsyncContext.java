@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.context;
+
+import org.noear.solon.expression.guidance.BeanGuidance;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * 异步上下文（变量与 Bean 以 CompletionStage 异步解析）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public interface AsyncContext {
+    /**
+     * 获取变量（返回 null 视为值为 null）
+     *
+     * @param name 变量名
+     */
+    CompletionStage<?> getVariable(String name);
+
+    /**
+     * 获取 Bean（默认从同步环境获取）
+     *
+     * @param name Bean 名字
+     */
+    default CompletionStage<?> getBean(String name) {
+        Function<String, Object> environment = getEnvironment();
+        if (environment instanceof BeanGuidance) {
+            return CompletableFuture.completedFuture(((BeanGuidance) environment).getBean(name));
+        } else {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * 获取执行器（用于方法调用等同步计算；null 表示在完成回调的线程上执行）
+     */
+    default Executor getExecutor() {
+        return null;
+    }
+
+    /**
+     * 获取同步环境（提供 T() 类型、${} 属性等指导，一般为 EnhanceContext；可以为 null）
+     */
+    default Function<String, Object> getEnvironment() {
+        return null;
+    }
+
+    /**
+     * 构建
+     *
+     * @param variables 变量解析函数
+     * @param executor  执行器（可以为 null）
+     */
+    static AsyncContext of(Function<String, ? extends CompletionStage<?>> variables, Executor executor) {
+        return new AsyncContext() {
+            @Override
+            public CompletionStage<?> getVariable(String name) {
+                return variables.apply(name);
+            }
+
+            @Override
+            public Executor getExecutor() {
+                return executor;
+            }
+        };
+    }
+}
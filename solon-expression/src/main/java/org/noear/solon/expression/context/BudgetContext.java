@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.context;
+
+import org.noear.solon.expression.exception.BudgetExceededException;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 预算上下文（单次评估的步数、字符串长度、集合大小与截止时间限制；超出时抛出 BudgetExceededException）
+ *
+ * <p>节点在评估时检查（沿委托上下文查找，没有预算时没有检查开销）。可被其它委托上下文包装（如 MemoizedContext），每次评估新建。非线程安全</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class BudgetContext extends DelegatingContext {
+    private static final int CLOCK_INTERVAL = 64; //每多少步检查一次时间
+
+    private long maxSteps = Long.MAX_VALUE;
+    private int maxStringLength = Integer.MAX_VALUE;
+    private int maxCollectionSize = Integer.MAX_VALUE;
+    private long deadline;
+    private boolean hasDeadline;
+
+    private long steps;
+    private int clockCountdown = CLOCK_INTERVAL;
+
+    public BudgetContext(Function<String, Object> delegate) {
+        super(delegate);
+    }
+
+    /**
+     * 查找上下文的预算（上下文本身或沿委托上下文包装的预算；没有时为 null）
+     *
+     * @param context 上下文
+     */
+    public static BudgetContext find(Function context) {
+        if (context instanceof DelegatingContext) {
+            return ((DelegatingContext) context).budget();
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public BudgetContext budget() {
+        return this;
+    }
+
+    /**
+     * 最大步数（节点评估次数，IN 扫描按集合大小计）
+     */
+    public BudgetContext maxSteps(long maxSteps) {
+        this.maxSteps = maxSteps;
+        return this;
+    }
+
+    /**
+     * 最大字符串长度（拼接及方法返回的字符串）
+     */
+    public BudgetContext maxStringLength(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+        return this;
+    }
+
+    /**
+     * 最大集合大小（IN 扫描的集合及方法返回的集合、Map、数组）
+     */
+    public BudgetContext maxCollectionSize(int maxCollectionSize) {
+        this.maxCollectionSize = maxCollectionSize;
+        return this;
+    }
+
+    /**
+     * 超时（从现在开始计时）
+     *
+     * @param timeout 超时时长
+     * @param unit    单位
+     */
+    public BudgetContext timeout(long timeout, TimeUnit unit) {
+        this.deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.hasDeadline = true;
+        return this;
+    }
+
+    /**
+     * 获取已用步数
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * 记一步
+     */
+    public void step() {
+        step(1);
+    }
+
+    /**
+     * 记多步
+     */
+    public void step(long count) {
+        steps += count;
+        if (steps > maxSteps) {
+            throw new BudgetExceededException("Evaluation step budget exceeded: " + maxSteps);
+        }
+
+        if (hasDeadline) {
+            clockCountdown -= count;
+            if (clockCountdown <= 0) {
+                clockCountdown = CLOCK_INTERVAL;
+                checkDeadline();
+            }
+        }
+    }
+
+    /**
+     * 检查截止时间
+     */
+    public void checkDeadline() {
+        if (hasDeadline && System.nanoTime() - deadline > 0) {
+            throw new BudgetExceededException("Evaluation deadline exceeded");
+        }
+    }
+
+    /**
+     * 检查字符串长度
+     */
+    public void checkString(int length) {
+        if (length > maxStringLength) {
+            throw new BudgetExceededException("Evaluation string length budget exceeded: " + length + " > " + maxStringLength);
+        }
+    }
+
+    /**
+     * 检查值的大小（字符串、集合、Map、数组；其它值忽略）
+     */
+    public void checkValue(Object value) {
+        int size;
+        if (value instanceof CharSequence) {
+            checkString(((CharSequence) value).length());
+            return;
+        } else if (value instanceof Collection) {
+            size = ((Collection<?>) value).size();
+        } else if (value instanceof Map) {
+            size = ((Map<?, ?>) value).size();
+        } else if (value != null && value.getClass().isArray()) {
+            size = Array.getLength(value);
+        } else {
+            return;
+        }
+
+        if (size > maxCollectionSize) {
+            throw new BudgetExceededException("Evaluation collection size budget exceeded: " + size + " > " + maxCollectionSize);
+        }
+    }
+}
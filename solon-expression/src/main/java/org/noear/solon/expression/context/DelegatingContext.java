@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.context;
+
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.guidance.*;
+
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * 委托上下文（变量与各指导均委托给目标上下文；目标不支持的指导，按节点的默认行为处理）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class DelegatingContext implements Function<String, Object>, TypeGuidance, PropertiesGuidance, ReturnGuidance, BeanGuidance {
+    protected final Function<String, Object> delegate;
+    private final BudgetContext budget;
+
+    public DelegatingContext(Function<String, Object> delegate) {
+        this.delegate = delegate;
+        this.budget = BudgetContext.find(delegate);
+    }
+
+    /**
+     * 获取目标上下文
+     */
+    public Function<String, Object> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 获取预算（沿目标上下文查找，包装不会关闭预算检查；没有时为 null）
+     */
+    public BudgetContext budget() {
+        return budget;
+    }
+
+    @Override
+    public Object apply(String name) {
+        return delegate.apply(name);
+    }
+
+    //TypeGuidance
+    @Override
+    public Class<?> getType(String typeName) throws EvaluationException {
+        if (delegate instanceof TypeGuidance) {
+            return ((TypeGuidance) delegate).getType(typeName);
+        } else {
+            throw new IllegalStateException("The current context is not supported: 'T(.)'");
+        }
+    }
+
+    //PropertiesGuidance
+    @Override
+    public Properties getProperties() {
+        if (delegate instanceof PropertiesGuidance) {
+            return ((PropertiesGuidance) delegate).getProperties();
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean allowPropertyDefault() {
+        if (delegate instanceof PropertiesGuidance) {
+            return ((PropertiesGuidance) delegate).allowPropertyDefault();
+        } else {
+            return true;
+        }
+    }
+
+    @Override
+    public boolean allowPropertyNesting() {
+        if (delegate instanceof PropertiesGuidance) {
+            return ((PropertiesGuidance) delegate).allowPropertyNesting();
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean allowTextAsProperty() {
+        if (delegate instanceof PropertiesGuidance) {
+            return ((PropertiesGuidance) delegate).allowTextAsProperty();
+        } else {
+            return false;
+        }
+    }
+
+    //ReturnGuidance
+    @Override
+    public boolean allowReturnNull() {
+        if (delegate instanceof ReturnGuidance) {
+            return ((ReturnGuidance) delegate).allowReturnNull();
+        } else {
+            return false;
+        }
+    }
+
+    //BeanGuidance
+    @Override
+    public Object getBean(String name) {
+        if (delegate instanceof BeanGuidance) {
+            return ((BeanGuidance) delegate).getBean(name);
+        } else {
+            return null;
+        }
+    }
+}
@@ -112,7 +112,7 @@ public class EnhanceContext<T extends Object, Slf extends EnhanceContext> implem
             try {
                 lastValue = tmp.getValue(target);
             } catch (Throwable e) {
-                throw new EvaluationException("Failed to access property: " + name, e);
+                throw EvaluationException.expected("Failed to access property: " + name, e);
             }
         }
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.context;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 记忆化上下文（单次评估内，每个变量只向目标上下文取一次；适合远程或计算型的上下文）
+ *
+ * <p>不可跨评估复用，也不是线程安全的。`this`（最近取值）按本上下文的取值顺序应答，`root` 不做记忆</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class MemoizedContext extends DelegatingContext {
+    private static final Object NULL = new Object();
+
+    private final Map<String, Object> values = new HashMap<>();
+
+    //最近取值（记忆命中时目标上下文不知情，`this` 需由这里应答）
+    private String lastName;
+    private Object lastValue;
+    private boolean lastHit;
+
+    public MemoizedContext(Function<String, Object> delegate) {
+        super(delegate);
+    }
+
+    /**
+     * 评估（单次评估内记忆变量）
+     *
+     * @param expression 表达式
+     * @param context    上下文
+     */
+    public static <T> T eval(Expression<T> expression, Function<String, Object> context) {
+        return expression.eval(new MemoizedContext(context));
+    }
+
+    @Override
+    public Object apply(String name) {
+        if ("this".equals(name)) {
+            if (lastHit) {
+                if (lastValue != null) {
+                    return lastValue;
+                }
+
+                //最近取值为 null 时，`this` 的含义由目标上下文决定：先让它重新取一次最近变量
+                lastHit = false;
+                delegate.apply(lastName);
+            }
+
+            return delegate.apply(name);
+        }
+
+        if ("root".equals(name)) {
+            return delegate.apply(name);
+        }
+
+        Object value = values.get(name);
+        if (value == null) {
+            value = delegate.apply(name);
+            values.put(name, value == null ? NULL : value);
+            lastHit = false;
+        } else {
+            value = (value == NULL ? null : value);
+            lastHit = true;
+        }
+
+        lastName = name;
+        lastValue = value;
+        return value;
+    }
+
+    /**
+     * 获取已取过的变量数量
+     */
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.exception;
+
+/**
+ * 评估预算超出异常（步数、字符串长度、集合大小或截止时间；不填充堆栈）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class BudgetExceededException extends EvaluationException {
+    private static final long serialVersionUID = 1L;
+
+    public BudgetExceededException(String message) {
+        super(message, null, false);
+    }
+}
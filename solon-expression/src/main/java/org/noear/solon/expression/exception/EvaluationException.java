@@ -22,6 +22,41 @@ package org.noear.solon.expression.exception;
  * @since 3.1
  */
 public class EvaluationException extends ExpressionException {
+    private static volatile boolean stackless = false;
+
+    /**
+     * 设置预期失败（属性缺失、访问或调用失败等）是否使用无堆栈异常
+     *
+     * <p>规则经常命中缺失数据时，可避免大量的堆栈填充</p>
+     *
+     * @since 4.1
+     */
+    public static void setStackless(boolean stackless) {
+        EvaluationException.stackless = stackless;
+    }
+
+    /**
+     * 预期失败是否使用无堆栈异常
+     *
+     * @since 4.1
+     */
+    public static boolean isStackless() {
+        return stackless;
+    }
+
+    /**
+     * 创建预期失败的异常（无堆栈模式时，不填充堆栈）
+     *
+     * @since 4.1
+     */
+    public static EvaluationException expected(String message, Throwable cause) {
+        if (stackless) {
+            return new EvaluationException(message, cause, false);
+        } else {
+            return new EvaluationException(message, cause);
+        }
+    }
+
     public EvaluationException(String message, Throwable cause) {
         super(message, cause);
     }
@@ -33,4 +68,12 @@ public class EvaluationException extends ExpressionException {
     public EvaluationException(Throwable cause) {
         super(cause);
     }
+
+    /**
+     * @param writableStackTrace 是否填充堆栈
+     * @since 4.1
+     */
+    protected EvaluationException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, writableStackTrace);
+    }
 }
@@ -33,4 +33,12 @@ public class ExpressionException extends RuntimeException {
     public ExpressionException(Throwable cause) {
         super(cause);
     }
+
+    /**
+     * @param writableStackTrace 是否填充堆栈（为 false 时，构建成本很低）
+     * @since 4.1
+     */
+    protected ExpressionException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,462 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 聚合函数（sum、avg、min、max、count）
+ *
+ * <p>int[] / long[] / double[] 按原生类型循环，不装箱；集合按元素累计；参数为集合节点（如 list.![price]）时流式聚合，不产生中间列表。
+ * 整数求和是精确的：int 结果溢出时转为 Long，long 结果溢出时转为 BigInteger；含 BigDecimal 时按 BigDecimal 累计。null 元素跳过（count 为元素个数）；
+ * 参数为 null 时 sum 与 count 返回 0，其它返回 null</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+class AggregateFunction extends SnelFunction {
+    static final int SUM = 1;
+    static final int AVG = 2;
+    static final int MIN = 3;
+    static final int MAX = 4;
+    static final int COUNT = 5;
+
+    private final int kind;
+
+    AggregateFunction(int kind) {
+        super(1);
+        this.kind = kind;
+    }
+
+    @Override
+    public Object call1(Object x) {
+        if (x == null) {
+            return kind == SUM || kind == COUNT ? 0 : null;
+        } else if (x instanceof int[]) {
+            return aggregate((int[]) x);
+        } else if (x instanceof long[]) {
+            return aggregate((long[]) x);
+        } else if (x instanceof double[]) {
+            return aggregate((double[]) x);
+        }
+
+        if (kind == COUNT) {
+            if (x instanceof Collection) {
+                return ((Collection<?>) x).size();
+            } else if (x instanceof Map) {
+                return ((Map<?, ?>) x).size();
+            } else if (x.getClass().isArray()) {
+                return Array.getLength(x);
+            }
+        }
+
+        Accumulator acc = new Accumulator(kind);
+        if (x instanceof Object[]) {
+            for (Object item : (Object[]) x) {
+                acc.add(item);
+            }
+        } else if (x instanceof Iterable) {
+            for (Object item : (Iterable<?>) x) {
+                acc.add(item);
+            }
+        } else if (x instanceof Map) {
+            for (Object item : ((Map<?, ?>) x).values()) {
+                acc.add(item);
+            }
+        } else if (x.getClass().isArray()) {
+            for (int i = 0, len = Array.getLength(x); i < len; i++) {
+                acc.add(Array.get(x, i));
+            }
+        } else {
+            throw new IllegalArgumentException("Not a collection: " + x.getClass().getName());
+        }
+
+        return acc.result();
+    }
+
+    /**
+     * 流式聚合集合节点（不产生中间列表）
+     */
+    Object aggregate(CollectionNode node, Function context) {
+        Object sourceValue = node.getSource().eval(context);
+        if (sourceValue == null) {
+            return call1(null);
+        }
+
+        Accumulator acc = new Accumulator(kind);
+        node.each(context, sourceValue, item -> {
+            acc.add(item);
+            return true;
+        });
+        return acc.result();
+    }
+
+    /// /////////////////
+
+    private Object aggregate(int[] array) {
+        switch (kind) {
+            case COUNT:
+                return array.length;
+            case MIN:
+            case MAX: {
+                if (array.length == 0) {
+                    return null;
+                }
+
+                int m = array[0];
+                if (kind == MIN) {
+                    for (int v : array) {
+                        if (v < m) {
+                            m = v;
+                        }
+                    }
+                } else {
+                    for (int v : array) {
+                        if (v > m) {
+                            m = v;
+                        }
+                    }
+                }
+                return m;
+            }
+            default: {
+                //int 累计到 long 不会溢出
+                long sum = 0;
+                for (int v : array) {
+                    sum += v;
+                }
+
+                if (kind == AVG) {
+                    return array.length == 0 ? null : (double) sum / array.length;
+                } else {
+                    return sum == (int) sum ? (Object) (int) sum : (Object) sum;
+                }
+            }
+        }
+    }
+
+    private Object aggregate(long[] array) {
+        switch (kind) {
+            case COUNT:
+                return array.length;
+            case MIN:
+            case MAX: {
+                if (array.length == 0) {
+                    return null;
+                }
+
+                long m = array[0];
+                if (kind == MIN) {
+                    for (long v : array) {
+                        if (v < m) {
+                            m = v;
+                        }
+                    }
+                } else {
+                    for (long v : array) {
+                        if (v > m) {
+                            m = v;
+                        }
+                    }
+                }
+                return m;
+            }
+            default: {
+                long sum = 0;
+                for (int i = 0; i < array.length; i++) {
+                    long v = array[i];
+                    long r = sum + v;
+                    if (((sum ^ r) & (v ^ r)) < 0) {
+                        //溢出，余下的按 BigInteger 累计
+                        Accumulator acc = new Accumulator(kind);
+                        acc.addLong(sum, false);
+                        for (int j = i; j < array.length; j++) {
+                            acc.addLong(array[j], false);
+                        }
+                        acc.count = array.length; //直接累计未经 add，平均值需要元素数量
+                        return acc.result();
+                    }
+                    sum = r;
+                }
+
+                if (kind == AVG) {
+                    return array.length == 0 ? null : (double) sum / array.length;
+                } else {
+                    return sum;
+                }
+            }
+        }
+    }
+
+    private Object aggregate(double[] array) {
+        switch (kind) {
+            case COUNT:
+                return array.length;
+            case MIN:
+            case MAX: {
+                if (array.length == 0) {
+                    return null;
+                }
+
+                double m = array[0];
+                for (double v : array) {
+                    m = (kind == MIN ? Math.min(m, v) : Math.max(m, v));
+                }
+                return m;
+            }
+            default: {
+                double sum = 0;
+                for (double v : array) {
+                    sum += v;
+                }
+
+                if (kind == AVG) {
+                    return array.length == 0 ? null : sum / array.length;
+                } else {
+                    return sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * 累加器（按观察到的元素类型逐级提升：int -> long -> BigInteger / double -> BigDecimal）
+     */
+    static class Accumulator {
+        private static final int ACC_LONG = 0;
+        private static final int ACC_BIG_INTEGER = 1;
+        private static final int ACC_DOUBLE = 2;
+        private static final int ACC_BIG_DECIMAL = 3;
+
+        private final int kind;
+
+        private int acc = ACC_LONG;
+        private boolean intOnly = true;
+        private long longSum;
+        private BigInteger bigIntegerSum;
+        private double doubleSum;
+        private BigDecimal bigDecimalSum;
+
+        private int count;
+        private Object extreme; // min / max
+
+        Accumulator(int kind) {
+            this.kind = kind;
+        }
+
+        void add(Object item) {
+            if (kind == COUNT) {
+                count++;
+                return;
+            }
+
+            if (item == null) {
+                return;
+            }
+
+            count++;
+
+            if (kind == MIN || kind == MAX) {
+                if (extreme == null) {
+                    extreme = item;
+                } else {
+                    int c = compare(item, extreme);
+                    if (kind == MIN ? c < 0 : c > 0) {
+                        extreme = item;
+                    }
+                }
+                return;
+            }
+
+            if (item instanceof Integer || item instanceof Short || item instanceof Byte) {
+                addLong(((Number) item).longValue(), true);
+            } else if (item instanceof Long) {
+                addLong((Long) item, false);
+            } else if (item instanceof BigDecimal) {
+                addBigDecimal((BigDecimal) item);
+            } else if (item instanceof BigInteger) {
+                addBigInteger((BigInteger) item);
+            } else if (item instanceof Number) {
+                addDouble(((Number) item).doubleValue());
+            } else {
+                throw new IllegalArgumentException("Not a number: " + item);
+            }
+        }
+
+        void addLong(long v, boolean isInt) {
+            intOnly &= isInt;
+
+            switch (acc) {
+                case ACC_LONG: {
+                    long r = longSum + v;
+                    if (((longSum ^ r) & (v ^ r)) < 0) {
+                        acc = ACC_BIG_INTEGER;
+                        bigIntegerSum = BigInteger.valueOf(longSum).add(BigInteger.valueOf(v));
+                    } else {
+                        longSum = r;
+                    }
+                    break;
+                }
+                case ACC_BIG_INTEGER:
+                    bigIntegerSum = bigIntegerSum.add(BigInteger.valueOf(v));
+                    break;
+                case ACC_DOUBLE:
+                    doubleSum += v;
+                    break;
+                default:
+                    bigDecimalSum = bigDecimalSum.add(BigDecimal.valueOf(v));
+                    break;
+            }
+        }
+
+        private void addBigInteger(BigInteger v) {
+            intOnly = false;
+
+            switch (acc) {
+                case ACC_LONG:
+                    acc = ACC_BIG_INTEGER;
+                    bigIntegerSum = BigInteger.valueOf(longSum).add(v);
+                    break;
+                case ACC_BIG_INTEGER:
+                    bigIntegerSum = bigIntegerSum.add(v);
+                    break;
+                case ACC_DOUBLE:
+                    doubleSum += v.doubleValue();
+                    break;
+                default:
+                    bigDecimalSum = bigDecimalSum.add(new BigDecimal(v));
+                    break;
+            }
+        }
+
+        private void addDouble(double v) {
+            intOnly = false;
+
+            switch (acc) {
+                case ACC_LONG:
+                    acc = ACC_DOUBLE;
+                    doubleSum = longSum + v;
+                    break;
+                case ACC_BIG_INTEGER:
+                    acc = ACC_DOUBLE;
+                    doubleSum = bigIntegerSum.doubleValue() + v;
+                    break;
+                case ACC_DOUBLE:
+                    doubleSum += v;
+                    break;
+                default:
+                    bigDecimalSum = bigDecimalSum.add(new BigDecimal(Double.toString(v)));
+                    break;
+            }
+        }
+
+        private void addBigDecimal(BigDecimal v) {
+            intOnly = false;
+
+            switch (acc) {
+                case ACC_LONG:
+                    bigDecimalSum = BigDecimal.valueOf(longSum).add(v);
+                    break;
+                case ACC_BIG_INTEGER:
+                    bigDecimalSum = new BigDecimal(bigIntegerSum).add(v);
+                    break;
+                case ACC_DOUBLE:
+                    bigDecimalSum = new BigDecimal(Double.toString(doubleSum)).add(v);
+                    break;
+                default:
+                    bigDecimalSum = bigDecimalSum.add(v);
+                    break;
+            }
+
+            acc = ACC_BIG_DECIMAL;
+        }
+
+        Object result() {
+            switch (kind) {
+                case COUNT:
+                    return count;
+                case MIN:
+                case MAX:
+                    return extreme;
+                case AVG:
+                    if (count == 0) {
+                        return null;
+                    } else if (acc == ACC_BIG_DECIMAL) {
+                        return bigDecimalSum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+                    } else {
+                        return sum().doubleValue() / count;
+                    }
+                default:
+                    return sum();
+            }
+        }
+
+        private Number sum() {
+            switch (acc) {
+                case ACC_LONG:
+                    if (intOnly && longSum == (int) longSum) {
+                        return (int) longSum;
+                    } else {
+                        return longSum;
+                    }
+                case ACC_BIG_INTEGER:
+                    return bigIntegerSum;
+                case ACC_DOUBLE:
+                    return doubleSum;
+                default:
+                    return bigDecimalSum;
+            }
+        }
+
+        /**
+         * 比较（数字按数值比较，其它按 Comparable 比较）
+         */
+        @SuppressWarnings("unchecked")
+        private static int compare(Object a, Object b) {
+            if (a instanceof Number && b instanceof Number) {
+                if (SnelFunction.isIntegral((Number) a) && SnelFunction.isIntegral((Number) b)) {
+                    return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+                } else if (a instanceof BigDecimal || a instanceof BigInteger || b instanceof BigDecimal || b instanceof BigInteger) {
+                    return toBigDecimal((Number) a).compareTo(toBigDecimal((Number) b));
+                } else {
+                    return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+                }
+            } else if (a instanceof Comparable) {
+                return ((Comparable<Object>) a).compareTo(b);
+            } else {
+                throw new IllegalArgumentException("Not comparable: " + a.getClass().getName());
+            }
+        }
+
+        private static BigDecimal toBigDecimal(Number n) {
+            if (n instanceof BigDecimal) {
+                return (BigDecimal) n;
+            } else if (n instanceof BigInteger) {
+                return new BigDecimal((BigInteger) n);
+            } else if (SnelFunction.isIntegral(n)) {
+                return BigDecimal.valueOf(n.longValue());
+            } else {
+                return new BigDecimal(n.toString());
+            }
+        }
+    }
+}
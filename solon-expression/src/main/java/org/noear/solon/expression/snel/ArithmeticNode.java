@@ -16,6 +16,7 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
 import org.noear.solon.expression.exception.EvaluationException;
 
 import java.util.function.Function;
@@ -24,22 +25,73 @@ import java.util.function.Function;
 /**
  * 算数表达式节点
  *
+ * <p>会按观察到的操作数类型自我特化（连续几次类型一致时，改走 int / long / double / 字符串拼接专用路径；
+ * 类型守卫失败时，退回通用路径且不再特化）</p>
+ *
  * @author noear
  * @since 3.1
  */
 public class ArithmeticNode implements Expression {
+    //特化状态
+    static final int SPEC_UNINIT = 0;
+    static final int SPEC_INT = 1;
+    static final int SPEC_LONG = 2;
+    static final int SPEC_DOUBLE = 3;
+    static final int SPEC_CONCAT = 4;
+    static final int SPEC_GENERIC = 5;
+
+    //连续观察到几次相同类型后特化
+    private static final int SPEC_SAMPLES = 3;
+
     private final ArithmeticOp operator;
     private final Expression left;
     private final Expression right;
     private final boolean leftIsTemplate;
     private final boolean rightIsTemplate;
 
+    //允许多线程竞争（任一状态对任何输入都正确）
+    private int spec;
+    private int specKind;
+    private int specCount;
+
     public ArithmeticNode(ArithmeticOp operator, Expression left, Expression right) {
         this.operator = operator;
         this.left = left;
         this.right = right;
         this.leftIsTemplate = left instanceof TemplateNode;
         this.rightIsTemplate = right instanceof TemplateNode;
+
+        if (leftIsTemplate || rightIsTemplate) {
+            //模板值需要转换，不特化
+            this.spec = SPEC_GENERIC;
+        }
+    }
+
+    /**
+     * 获取操作符
+     *
+     * @since 4.1
+     */
+    public ArithmeticOp getOperator() {
+        return operator;
+    }
+
+    /**
+     * 获取左侧
+     *
+     * @since 4.1
+     */
+    public Expression getLeft() {
+        return left;
+    }
+
+    /**
+     * 获取右侧
+     *
+     * @since 4.1
+     */
+    public Expression getRight() {
+        return right;
     }
 
     @Override
@@ -47,6 +99,105 @@ public class ArithmeticNode implements Expression {
         Object leftValue = left.eval(context);
         Object rightValue = right.eval(context);
 
+        BudgetContext budget = BudgetContext.find(context);
+        if (budget != null) {
+            budget.step();
+
+            Object result = compute(leftValue, rightValue);
+            if (result instanceof String) {
+                budget.checkString(((String) result).length());
+            }
+            return result;
+        } else {
+            return compute(leftValue, rightValue);
+        }
+    }
+
+    /**
+     * 计算（左右两侧已求值）
+     *
+     * @since 4.1
+     */
+    public Object compute(Object leftValue, Object rightValue) {
+        switch (spec) {
+            case SPEC_INT:
+                if (leftValue instanceof Integer && rightValue instanceof Integer) {
+                    return calculateAsInt((Integer) leftValue, (Integer) rightValue);
+                }
+                break;
+            case SPEC_LONG:
+                if (leftValue instanceof Long && rightValue instanceof Long) {
+                    return calculateAsLong((Long) leftValue, (Long) rightValue);
+                }
+                break;
+            case SPEC_DOUBLE:
+                if (leftValue instanceof Double && rightValue instanceof Double) {
+                    return calculateAsDouble((Double) leftValue, (Double) rightValue);
+                }
+                break;
+            case SPEC_CONCAT:
+                if (leftValue instanceof String) {
+                    return (String) leftValue + rightValue;
+                }
+                break;
+            case SPEC_UNINIT:
+                observe(leftValue, rightValue);
+                return computeGeneric(leftValue, rightValue);
+            default:
+                return computeGeneric(leftValue, rightValue);
+        }
+
+        //类型守卫失败
+        spec = SPEC_GENERIC;
+        return computeGeneric(leftValue, rightValue);
+    }
+
+    /**
+     * 获取特化状态
+     *
+     * @since 4.1
+     */
+    public Specialization getSpecialization() {
+        return Specialization.of(spec);
+    }
+
+    /**
+     * 预设特化状态（静态类型推断已确定操作数类型时使用；类型守卫仍然保留）
+     */
+    void presetSpecialization(int kind) {
+        if (spec == SPEC_UNINIT) {
+            spec = kind;
+        }
+    }
+
+    /**
+     * 观察操作数类型（连续一致时特化，不一致时转为通用）
+     */
+    private void observe(Object leftValue, Object rightValue) {
+        int kind;
+        if (operator == ArithmeticOp.ADD && leftValue instanceof String) {
+            kind = SPEC_CONCAT;
+        } else if (leftValue instanceof Integer && rightValue instanceof Integer) {
+            kind = SPEC_INT;
+        } else if (leftValue instanceof Long && rightValue instanceof Long) {
+            kind = SPEC_LONG;
+        } else if (leftValue instanceof Double && rightValue instanceof Double) {
+            kind = SPEC_DOUBLE;
+        } else {
+            kind = SPEC_GENERIC;
+        }
+
+        if (kind == SPEC_GENERIC || (specCount > 0 && kind != specKind)) {
+            spec = SPEC_GENERIC;
+        } else {
+            specKind = kind;
+            if (++specCount >= SPEC_SAMPLES) {
+                spec = kind;
+            }
+        }
+    }
+
+    private Object computeGeneric(Object leftValue, Object rightValue) {
         if (leftIsTemplate) {
             leftValue = getOptimizeValue(leftValue, rightValue);
         } else if (rightIsTemplate) {
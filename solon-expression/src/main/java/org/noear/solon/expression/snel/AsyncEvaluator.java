@@ -0,0 +1,538 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.AsyncContext;
+import org.noear.solon.expression.context.DelegatingContext;
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * 异步求值器（变量与 Bean 异步解析；相互独立的子树并发获取，短路后取消不再需要的获取）
+ *
+ * <p>同一次求值中，每个变量（及 Bean）只获取一次。比较、算术、拼接的两侧及方法参数并发求值；AND / OR、三元、Elvis
+ * 中不含方法调用的后续分支会提前启动，结果确定后取消（只被取消分支使用的获取才会被取消）。方法调用在执行器上执行（可使用虚拟线程执行器）；
+ * 模板、T() 类型等节点先并发获取所读变量，再在执行器上同步求值</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public final class AsyncEvaluator {
+    private final AsyncContext context;
+    private final Executor executor;
+    private final Map<String, Fetch> variables = new HashMap<>();
+    private final Map<String, Fetch> beans = new HashMap<>();
+    private final Map<Expression, Boolean> speculative = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private AsyncEvaluator(AsyncContext context) {
+        this.context = context;
+        this.executor = context.getExecutor();
+    }
+
+    /**
+     * 异步求值（失败时以 CompletionException 包装原始异常）
+     *
+     * @param expression 表达式
+     * @param context    异步上下文
+     */
+    public static CompletableFuture<Object> evalAsync(Expression expression, AsyncContext context) {
+        return new AsyncEvaluator(context).eval(expression, new Scope());
+    }
+
+    private CompletableFuture<Object> eval(Expression node, Scope scope) {
+        try {
+            return doEval(node, scope);
+        } catch (Throwable e) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private CompletableFuture<Object> doEval(Expression node, Scope scope) {
+        if (node == null) {
+            return CompletableFuture.completedFuture(null);
+        } else if (node instanceof ConstantNode) {
+            return CompletableFuture.completedFuture(((ConstantNode) node).getValue());
+        } else if (node instanceof VariableNode) {
+            return fetch(variables, ((VariableNode) node).getName(), scope, false);
+        } else if (node instanceof BeanNode) {
+            return fetch(beans, ((BeanNode) node).getBeanName(), scope, true);
+        }
+
+        Class<?> type = node.getClass();
+        if (type == PropertyNode.class) {
+            return evalProperty((PropertyNode) node, scope);
+        } else if (type == SafeNavigationNode.class) {
+            String name = ((SafeNavigationNode) node).getPropertyName();
+            return eval(((SafeNavigationNode) node).getTarget(), scope)
+                    .thenApply(targetValue -> PropertyNode.getValue(targetValue, name));
+        } else if (type == MethodNode.class) {
+            return evalMethod((MethodNode) node, scope);
+        } else if (type == FunctionNode.class) {
+            FunctionNode n = (FunctionNode) node;
+            CompletableFuture<Object>[] args = evalAll(n.getArgs(), scope);
+            return CompletableFuture.allOf(args).thenApply(v -> n.invoke(join(args)));
+        } else if (type == ArithmeticNode.class) {
+            ArithmeticNode n = (ArithmeticNode) node;
+            return eval(n.getLeft(), scope).thenCombine(eval(n.getRight(), scope), n::compute);
+        } else if (type == ComparisonNode.class) {
+            ComparisonNode n = (ComparisonNode) node;
+            return eval(n.getLeft(), scope).thenCombine(eval(n.getRight(), scope), n::compare);
+        } else if (type == ConcatNode.class) {
+            CompletableFuture<Object>[] parts = evalAll(((ConcatNode) node).getParts(), scope);
+            return CompletableFuture.allOf(parts).thenApply(v -> ConcatNode.concat(join(parts), 0, parts.length));
+        } else if (type == CollectionNode.class) {
+            return evalCollection((CollectionNode) node, scope);
+        } else if (type == LogicalNode.class) {
+            return evalLogical((LogicalNode) node, scope);
+        } else if (type == TernaryNode.class) {
+            return evalTernary((TernaryNode) node, scope);
+        } else if (type == ElvisNode.class) {
+            return evalElvis((ElvisNode) node, scope);
+        } else if (node instanceof InstructionExpression || node instanceof ClosureExpression || node instanceof TieredExpression
+                || node instanceof MemoizedExpression || node instanceof BoundExpression) {
+            //包装表达式，按源表达式求值
+            return eval(NodeUtil.children(node).get(0), scope);
+        } else {
+            return evalSync(node, scope);
+        }
+    }
+
+    private CompletableFuture<Object> evalProperty(PropertyNode node, Scope scope) {
+        CompletableFuture<Object> target = eval(node.getTarget(), scope);
+        Expression property = node.getProperty();
+
+        if (property instanceof ConstantNode) {
+            Object propertyValue = ((ConstantNode) property).getValue();
+            return target.thenApply(targetValue -> PropertyNode.getValue(targetValue, propertyValue));
+        } else if (isSpeculative(property)) {
+            return target.thenCombine(eval(property, scope), PropertyNode::getValue);
+        } else {
+            return target.thenCompose(targetValue -> {
+                if (targetValue == null) {
+                    return CompletableFuture.completedFuture(null);
+                } else {
+                    return eval(property, scope).thenApply(propertyValue -> PropertyNode.getValue(targetValue, propertyValue));
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<Object> evalMethod(MethodNode node, Scope scope) {
+        CompletableFuture<Object> target = eval(node.getTarget(), scope);
+        List<Expression> args = node.getArgs();
+
+        boolean eager = true;
+        for (Expression arg : args) {
+            if (isSpeculative(arg) == false) {
+                eager = false;
+                break;
+            }
+        }
+
+        //参数含方法调用时，按同步语义在目标非 null 后才求值
+        CompletableFuture<Object>[] argValues = eager ? evalAll(args, scope) : null;
+
+        return target.thenCompose(targetValue -> {
+            if (targetValue == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            CompletableFuture<Object>[] values = (argValues == null ? evalAll(args, scope) : argValues);
+            return apply(CompletableFuture.allOf(values), v -> node.invoke(targetValue, join(values)));
+        });
+    }
+
+    private CompletableFuture<Object> evalLogical(LogicalNode node, Scope scope) {
+        List<Expression> operands = node.getOperands();
+
+        if (node.getOperator() == LogicalOp.NOT) {
+            return eval(operands.get(0), scope).thenApply(v -> LogicalNode.toBoolean(v) == false);
+        }
+
+        LogicalChain chain = new LogicalChain(operands, node.getOperator() == LogicalOp.OR, scope);
+        for (int i = 0; i < operands.size(); i++) {
+            if (i == 0 || isSpeculative(operands.get(i))) {
+                chain.start(i);
+            }
+        }
+
+        chain.next(0);
+        return chain.result;
+    }
+
+    private CompletableFuture<Object> evalTernary(TernaryNode node, Scope scope) {
+        CompletableFuture<Object> condition = eval(node.getCondition(), scope);
+        Branch whenTrue = startBranch(node.getTrueExpression(), scope);
+        Branch whenFalse = startBranch(node.getFalseExpression(), scope);
+
+        return condition.thenCompose(value -> {
+            if (value == null) {
+                throw new EvaluationException("Ternary condition is null");
+            }
+
+            if ((Boolean) value) {
+                whenFalse.cancel();
+                return whenTrue.get();
+            } else {
+                whenTrue.cancel();
+                return whenFalse.get();
+            }
+        });
+    }
+
+    private CompletableFuture<Object> evalElvis(ElvisNode node, Scope scope) {
+        CompletableFuture<Object> left = eval(node.getLeft(), scope);
+        Branch right = startBranch(node.getRight(), scope);
+
+        return left.thenCompose(value -> {
+            if (value != null) {
+                right.cancel();
+                return CompletableFuture.completedFuture(value);
+            } else {
+                return right.get();
+            }
+        });
+    }
+
+    /**
+     * 集合运算（源集合异步求值；方括号内的名字多为元素属性，不预取，落到外层的变量再按需获取）
+     */
+    private CompletableFuture<Object> evalCollection(CollectionNode node, Scope scope) {
+        return apply(eval(node.getSource(), scope),
+                sourceValue -> node.evalWith(new ResolvedContext(context.getEnvironment(),
+                        name -> fetch(variables, name, scope, false).join()), sourceValue));
+    }
+
+    /**
+     * 同步求值（先并发获取所读变量，再在执行器上求值；未预取的变量阻塞等待）
+     *
+     * <p>依赖分析是保守的（可能含实际不读取的名字），预取失败不影响求值，只在真正读取时报告</p>
+     */
+    private CompletableFuture<Object> evalSync(Expression node, Scope scope) {
+        Set<String> names = ExpressionDependencies.analyze(node).getVariables();
+        Map<String, CompletableFuture<Object>> prefetch = new HashMap<>();
+        CompletableFuture<?>[] settled = new CompletableFuture[names.size()];
+        int i = 0;
+        for (String name : names) {
+            CompletableFuture<Object> future = fetch(variables, name, scope, false);
+            prefetch.put(name, future);
+            settled[i++] = future.handle((r, e) -> null);
+        }
+
+        return apply(CompletableFuture.allOf(settled),
+                v -> node.eval(new ResolvedContext(context.getEnvironment(), name -> {
+                    CompletableFuture<Object> future = prefetch.get(name);
+                    if (future == null) {
+                        future = fetch(variables, name, scope, false);
+                    }
+                    return future.join();
+                })));
+    }
+
+    private CompletableFuture<Object> apply(CompletableFuture<?> future, Function<Object, Object> function) {
+        if (executor == null) {
+            return future.thenApply(function);
+        } else {
+            return future.thenApplyAsync(function, executor);
+        }
+    }
+
+    private CompletableFuture<Object>[] evalAll(List<Expression> nodes, Scope scope) {
+        CompletableFuture<Object>[] futures = new CompletableFuture[nodes.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = eval(nodes.get(i), scope);
+        }
+        return futures;
+    }
+
+    private static Object[] join(CompletableFuture<Object>[] futures) {
+        Object[] values = new Object[futures.length];
+        for (int i = 0; i < futures.length; i++) {
+            values[i] = futures[i].join();
+        }
+        return values;
+    }
+
+    /**
+     * 是否可提前启动（不含方法调用、非纯函数、集合运算及非内置节点，提前求值没有副作用）
+     */
+    private boolean isSpeculative(Expression node) {
+        if (node == null || node instanceof ConstantNode || node instanceof VariableNode || node instanceof BeanNode) {
+            return true;
+        }
+
+        Boolean cached = speculative.get(node);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean result = node.getClass() != MethodNode.class && NodeUtil.isRebuildable(node)
+                && (node instanceof FunctionNode == false || ((FunctionNode) node).getFunction().isPure())
+                && node instanceof CollectionNode == false;
+        if (result) {
+            for (Expression child : NodeUtil.children(node)) {
+                if (isSpeculative(child) == false) {
+                    result = false;
+                    break;
+                }
+            }
+        }
+
+        speculative.put(node, result);
+        return result;
+    }
+
+    private Branch startBranch(Expression node, Scope scope) {
+        if (isSpeculative(node)) {
+            Scope branchScope = newScope(scope);
+            return new Branch(node, scope, branchScope, eval(node, branchScope));
+        } else {
+            return new Branch(node, scope, null, null);
+        }
+    }
+
+    /// /////////////////
+
+    /**
+     * 获取变量或 Bean（同一次求值中只获取一次；已被取消的重新获取）
+     */
+    private CompletableFuture<Object> fetch(Map<String, Fetch> cache, String name, Scope scope, boolean bean) {
+        Fetch fetch;
+        boolean orphan;
+
+        synchronized (this) {
+            fetch = cache.get(name);
+            if (fetch == null || fetch.future.isCancelled()) {
+                CompletableFuture<Object> future;
+                try {
+                    CompletionStage<?> stage = bean ? context.getBean(name) : context.getVariable(name);
+                    future = (stage == null ? CompletableFuture.completedFuture(null) : (CompletableFuture<Object>) stage.toCompletableFuture());
+                } catch (Throwable e) {
+                    //获取失败按失败的结果处理（预取的名字可能并不会被读取）
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                }
+                fetch = new Fetch(future);
+                cache.put(name, fetch);
+            }
+
+            orphan = scope.cancelled && fetch.owners.isEmpty();
+            if (scope.cancelled == false) {
+                fetch.owners.add(scope);
+                scope.fetches.add(fetch);
+            }
+        }
+
+        if (orphan) {
+            fetch.future.cancel(true);
+        }
+
+        return fetch.future;
+    }
+
+    private Scope newScope(Scope parent) {
+        Scope scope = new Scope();
+
+        synchronized (this) {
+            if (parent.cancelled) {
+                scope.cancelled = true;
+            } else {
+                parent.children.add(scope);
+            }
+        }
+
+        return scope;
+    }
+
+    /**
+     * 取消作用域（只被已取消作用域使用的获取才取消）
+     */
+    private void cancel(Scope scope) {
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+
+        synchronized (this) {
+            List<Scope> stack = new ArrayList<>();
+            stack.add(scope);
+
+            while (stack.size() > 0) {
+                Scope s = stack.remove(stack.size() - 1);
+                if (s.cancelled) {
+                    continue;
+                }
+
+                s.cancelled = true;
+                for (Fetch fetch : s.fetches) {
+                    fetch.owners.remove(s);
+                    if (fetch.owners.isEmpty() && fetch.future.isDone() == false) {
+                        futures.add(fetch.future);
+                    }
+                }
+                stack.addAll(s.children);
+            }
+        }
+
+        for (CompletableFuture<Object> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static class Fetch {
+        final CompletableFuture<Object> future;
+        final Set<Scope> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Fetch(CompletableFuture<Object> future) {
+            this.future = future;
+        }
+    }
+
+    /**
+     * 作用域（提前启动的分支各自一个，取消时一并取消其获取）
+     */
+    private static class Scope {
+        final List<Fetch> fetches = new ArrayList<>();
+        final List<Scope> children = new ArrayList<>();
+        boolean cancelled;
+    }
+
+    /**
+     * 分支（可提前启动）
+     */
+    private class Branch {
+        final Expression node;
+        final Scope parent;
+        final Scope scope;
+        final CompletableFuture<Object> future;
+
+        Branch(Expression node, Scope parent, Scope scope, CompletableFuture<Object> future) {
+            this.node = node;
+            this.parent = parent;
+            this.scope = scope;
+            this.future = future;
+        }
+
+        CompletableFuture<Object> get() {
+            return future == null ? eval(node, parent) : future;
+        }
+
+        void cancel() {
+            if (scope != null) {
+                AsyncEvaluator.this.cancel(scope);
+            }
+        }
+    }
+
+    /**
+     * AND / OR 链（按顺序消费运算数结果，结果确定后取消其余运算数）
+     */
+    private class LogicalChain {
+        final List<Expression> operands;
+        final boolean decisive; //确定结果的值（AND 为 false，OR 为 true）
+        final Scope parent;
+        final Scope[] scopes;
+        final CompletableFuture<Object>[] futures;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        LogicalChain(List<Expression> operands, boolean decisive, Scope parent) {
+            this.operands = operands;
+            this.decisive = decisive;
+            this.parent = parent;
+            this.scopes = new Scope[operands.size()];
+            this.futures = new CompletableFuture[operands.size()];
+        }
+
+        void start(int i) {
+            scopes[i] = newScope(parent);
+            futures[i] = eval(operands.get(i), scopes[i]);
+        }
+
+        void next(int i) {
+            for (; i < futures.length; i++) {
+                if (futures[i] == null) {
+                    start(i);
+                }
+
+                CompletableFuture<Object> future = futures[i];
+                if (future.isDone() == false) {
+                    int k = i;
+                    future.whenComplete((v, e) -> next(k));
+                    return;
+                }
+
+                Object value;
+                try {
+                    value = future.join();
+                } catch (CompletionException e) {
+                    cancelFrom(i + 1);
+                    result.completeExceptionally(e.getCause());
+                    return;
+                } catch (CancellationException e) {
+                    cancelFrom(i + 1);
+                    result.completeExceptionally(e);
+                    return;
+                }
+
+                if (LogicalNode.toBoolean(value) == decisive) {
+                    cancelFrom(i + 1);
+                    result.complete(decisive);
+                    return;
+                }
+            }
+
+            result.complete(decisive == false);
+        }
+
+        void cancelFrom(int start) {
+            for (int i = start; i < scopes.length; i++) {
+                if (scopes[i] != null) {
+                    cancel(scopes[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 已解析的同步上下文（指导委托给同步环境）
+     */
+    private static class ResolvedContext extends DelegatingContext {
+        private final Function<String, Object> resolver;
+
+        ResolvedContext(Function<String, Object> environment, Function<String, Object> resolver) {
+            super(environment == null ? name -> null : environment);
+            this.resolver = resolver;
+        }
+
+        @Override
+        public Object apply(String name) {
+            return resolver.apply(name);
+        }
+    }
+}
@@ -33,6 +33,15 @@ public class BeanNode implements Expression<Object> {
         this.beanName = beanName;
     }
 
+    /**
+     * 获取 Bean 名字
+     *
+     * @since 4.1
+     */
+    public String getBeanName() {
+        return beanName;
+    }
+
     @Override
     public Object eval(Function context) {
         if (context instanceof BeanGuidance) {
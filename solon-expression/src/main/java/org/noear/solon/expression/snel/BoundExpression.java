@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.function.Function;
+
+/**
+ * 已绑定的表达式（@bean、T() 类型已解析为常量，模板已绑定指导标记）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class BoundExpression implements Expression {
+    private final Expression source;
+    private final Expression bound;
+
+    public BoundExpression(Expression source, Expression bound) {
+        this.source = source;
+        this.bound = bound;
+    }
+
+    /**
+     * 获取源表达式
+     */
+    public Expression getSource() {
+        return source;
+    }
+
+    /**
+     * 获取绑定后的表达式
+     */
+    public Expression getBound() {
+        return bound;
+    }
+
+    @Override
+    public Object eval(Function context) {
+        return bound.eval(context);
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 闭包编译器（把语法树编译为闭包树；按节点已观察到的特化状态选用专用闭包，并内联常量与变量操作数）
+ *
+ * <p>闭包不做预算检查（有预算时由 ClosureExpression 改用语法树评估）；类型守卫失败时交回节点的通用逻辑。
+ * 不认识的节点按语法树评估</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+final class ClosureCompiler {
+    /**
+     * 值闭包
+     */
+    interface Closure {
+        Object eval(Function context);
+    }
+
+    /**
+     * 条件闭包（逻辑值，不装箱）
+     */
+    interface Condition {
+        boolean test(Function context);
+    }
+
+    private ClosureCompiler() {
+    }
+
+    /**
+     * 编译为值闭包
+     */
+    static Closure compile(Expression node) {
+        Class<?> type = node.getClass();
+
+        if (type == ConstantNode.class) {
+            Object value = ((ConstantNode) node).getValue();
+            return c -> value;
+        } else if (type == VariableNode.class) {
+            String name = ((VariableNode) node).getName();
+            return c -> c.apply(name);
+        } else if (type == PropertyNode.class) {
+            return compileProperty((PropertyNode) node);
+        } else if (type == MethodNode.class) {
+            return compileMethod((MethodNode) node);
+        } else if (type == ArithmeticNode.class) {
+            return compileArithmetic((ArithmeticNode) node);
+        } else if (type == ComparisonNode.class) {
+            ComparisonNode n = (ComparisonNode) node;
+            Closure left = compile(n.getLeft());
+            Closure right = compile(n.getRight());
+            return c -> n.compare(left.eval(c), right.eval(c));
+        } else if (type == LogicalNode.class) {
+            Condition condition = condition(node);
+            return c -> condition.test(c);
+        } else if (type == TernaryNode.class) {
+            TernaryNode n = (TernaryNode) node;
+            Closure condition = compile(n.getCondition());
+            Closure whenTrue = compile(n.getTrueExpression());
+            Closure whenFalse = compile(n.getFalseExpression());
+            return c -> {
+                Boolean value = (Boolean) condition.eval(c);
+                if (value == null) {
+                    throw new EvaluationException("Ternary condition is null");
+                }
+                return value ? whenTrue.eval(c) : whenFalse.eval(c);
+            };
+        } else if (type == ElvisNode.class) {
+            ElvisNode n = (ElvisNode) node;
+            Closure left = compile(n.getLeft());
+            Closure right = compile(n.getRight());
+            return c -> {
+                Object value = left.eval(c);
+                return value != null ? value : right.eval(c);
+            };
+        } else if (type == ConcatNode.class) {
+            Closure[] parts = compileAll(((ConcatNode) node).getParts());
+            return c -> {
+                Object[] values = new Object[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    values[i] = parts[i].eval(c);
+                }
+                return ConcatNode.concat(values, 0, values.length);
+            };
+        } else if (type == ParameterizedExpression.class) {
+            //参数化表达式：参数直接绑定为常量
+            return compile(((ParameterizedExpression) node).bind());
+        } else {
+            //其它节点（函数、集合运算、模板、Bean、类型等）按语法树评估
+            return node::eval;
+        }
+    }
+
+    /**
+     * 编译为条件闭包（逻辑运算的操作数）
+     */
+    static Condition condition(Expression node) {
+        Class<?> type = node.getClass();
+
+        if (type == LogicalNode.class) {
+            LogicalNode n = (LogicalNode) node;
+            List<Expression> operands = n.getOperands();
+
+            if (n.getOperator() == LogicalOp.NOT) {
+                Condition operand = condition(operands.get(0));
+                return c -> operand.test(c) == false;
+            }
+
+            Condition[] items = new Condition[operands.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = condition(operands.get(i));
+            }
+
+            if (n.getOperator() == LogicalOp.AND) {
+                if (items.length == 2) {
+                    Condition a = items[0];
+                    Condition b = items[1];
+                    return c -> a.test(c) && b.test(c);
+                }
+
+                return c -> {
+                    for (Condition item : items) {
+                        if (item.test(c) == false) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            } else {
+                if (items.length == 2) {
+                    Condition a = items[0];
+                    Condition b = items[1];
+                    return c -> a.test(c) || b.test(c);
+                }
+
+                return c -> {
+                    for (Condition item : items) {
+                        if (item.test(c)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+        } else if (type == ComparisonNode.class) {
+            return compileComparison((ComparisonNode) node);
+        } else if (type == ConstantNode.class) {
+            boolean value = LogicalNode.toBoolean(((ConstantNode) node).getValue());
+            return c -> value;
+        } else {
+            Closure closure = compile(node);
+            return c -> LogicalNode.toBoolean(closure.eval(c));
+        }
+    }
+
+    private static Closure[] compileAll(List<Expression> nodes) {
+        Closure[] closures = new Closure[nodes.size()];
+        for (int i = 0; i < closures.length; i++) {
+            closures[i] = compile(nodes.get(i));
+        }
+        return closures;
+    }
+
+    /// /////////////////
+
+    private static Closure compileProperty(PropertyNode node) {
+        Closure target = compile(node.getTarget());
+        Expression property = node.getProperty();
+
+        if (property.getClass() == ConstantNode.class && ((ConstantNode) property).getValue() instanceof String) {
+            //属性名常量：Map 直接取值，Bean 按类型缓存访问器
+            PropertySite site = new PropertySite((String) ((ConstantNode) property).getValue());
+            return c -> {
+                Object targetValue = target.eval(c);
+                if (targetValue == null) {
+                    return null;
+                } else if (targetValue instanceof Map) {
+                    return ((Map<?, ?>) targetValue).get(site.name);
+                } else {
+                    return site.get(targetValue);
+                }
+            };
+        }
+
+        Closure index = compile(property);
+        return c -> {
+            Object targetValue = target.eval(c);
+            if (targetValue == null) {
+                return null;
+            }
+            return PropertyNode.getValue(targetValue, index.eval(c));
+        };
+    }
+
+    private static Closure compileMethod(MethodNode node) {
+        Closure target = compile(node.getTarget());
+        Closure[] args = compileAll(node.getArgs());
+        MethodSite site = new MethodSite(node);
+
+        return c -> {
+            Object targetValue = target.eval(c);
+            if (targetValue == null) {
+                return null;
+            }
+
+            Object[] argValues = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argValues[i] = args[i].eval(c);
+            }
+
+            return site.invoke(targetValue, argValues);
+        };
+    }
+
+    private static Closure compileArithmetic(ArithmeticNode node) {
+        Closure left = compile(node.getLeft());
+        Expression rightNode = node.getRight();
+
+        if (rightNode.getClass() == ConstantNode.class) {
+            Object rightValue = ((ConstantNode) rightNode).getValue();
+
+            if (node.getSpecialization() == Specialization.INT && rightValue instanceof Integer) {
+                //int 特化且右侧为常量（除法、取模保留节点逻辑）
+                int k = (Integer) rightValue;
+                switch (node.getOperator()) {
+                    case ADD:
+                        return c -> {
+                            Object v = left.eval(c);
+                            return v instanceof Integer ? (Object) ((Integer) v + k) : node.compute(v, rightValue);
+                        };
+                    case SUB:
+                        return c -> {
+                            Object v = left.eval(c);
+                            return v instanceof Integer ? (Object) ((Integer) v - k) : node.compute(v, rightValue);
+                        };
+                    case MUL:
+                        return c -> {
+                            Object v = left.eval(c);
+                            return v instanceof Integer ? (Object) ((Integer) v * k) : node.compute(v, rightValue);
+                        };
+                    default:
+                        break;
+                }
+            }
+
+            return c -> node.compute(left.eval(c), rightValue);
+        }
+
+        Closure right = compile(rightNode);
+
+        if (node.getSpecialization() == Specialization.INT) {
+            switch (node.getOperator()) {
+                case ADD:
+                    return c -> {
+                        Object a = left.eval(c);
+                        Object b = right.eval(c);
+                        return a instanceof Integer && b instanceof Integer ? (Object) ((Integer) a + (Integer) b) : node.compute(a, b);
+                    };
+                case SUB:
+                    return c -> {
+                        Object a = left.eval(c);
+                        Object b = right.eval(c);
+                        return a instanceof Integer && b instanceof Integer ? (Object) ((Integer) a - (Integer) b) : node.compute(a, b);
+                    };
+                case MUL:
+                    return c -> {
+                        Object a = left.eval(c);
+                        Object b = right.eval(c);
+                        return a instanceof Integer && b instanceof Integer ? (Object) ((Integer) a * (Integer) b) : node.compute(a, b);
+                    };
+                default:
+                    break;
+            }
+        }
+
+        return c -> node.compute(left.eval(c), right.eval(c));
+    }
+
+    private static Condition compileComparison(ComparisonNode node) {
+        Closure left = compile(node.getLeft());
+        Closure right = compile(node.getRight());
+        Specialization spec = node.getSpecialization();
+        ComparisonOp op = node.getOperator();
+
+        if (spec == Specialization.INT || spec == Specialization.LONG) {
+            LongTest test = longTest(op);
+            if (test != null) {
+                return c -> {
+                    Object a = left.eval(c);
+                    Object b = right.eval(c);
+                    if (a instanceof Integer && b instanceof Integer) {
+                        return test.test((Integer) a, (Integer) b);
+                    } else if (a instanceof Long && b instanceof Long) {
+                        return test.test((Long) a, (Long) b);
+                    } else {
+                        return LogicalNode.toBoolean(node.compare(a, b));
+                    }
+                };
+            }
+        } else if (spec == Specialization.STRING && (op == ComparisonOp.eq || op == ComparisonOp.neq)) {
+            boolean eq = (op == ComparisonOp.eq);
+            return c -> {
+                Object a = left.eval(c);
+                Object b = right.eval(c);
+                if (a instanceof String && b instanceof String) {
+                    return a.equals(b) == eq;
+                } else {
+                    return LogicalNode.toBoolean(node.compare(a, b));
+                }
+            };
+        }
+
+        return c -> LogicalNode.toBoolean(node.compare(left.eval(c), right.eval(c)));
+    }
+
+    interface LongTest {
+        boolean test(long a, long b);
+    }
+
+    private static LongTest longTest(ComparisonOp op) {
+        switch (op) {
+            case eq:
+                return (a, b) -> a == b;
+            case neq:
+                return (a, b) -> a != b;
+            case gt:
+                return (a, b) -> a > b;
+            case gte:
+                return (a, b) -> a >= b;
+            case lt:
+                return (a, b) -> a < b;
+            case lte:
+                return (a, b) -> a <= b;
+            default:
+                return null;
+        }
+    }
+
+    /// /////////////////
+
+    /**
+     * 属性访问点（单态缓存：目标类型不变时复用访问器）
+     */
+    static class PropertySite {
+        private final String name;
+        private volatile Entry entry;
+
+        PropertySite(String name) {
+            this.name = name;
+        }
+
+        Object get(Object target) {
+            Class<?> type = (target instanceof Class ? (Class<?>) target : target.getClass());
+
+            Entry tmp = entry;
+            if (tmp == null || tmp.type != type) {
+                tmp = new Entry(type, ReflectionUtil.getInstance().getProperty(type, name));
+                entry = tmp;
+            }
+
+            try {
+                return tmp.holder.getValue(target);
+            } catch (Throwable e) {
+                throw EvaluationException.expected("Failed to access property: " + name, e);
+            }
+        }
+
+        static class Entry {
+            final Class<?> type;
+            final PropertyHolder holder;
+
+            Entry(Class<?> type, PropertyHolder holder) {
+                this.type = type;
+                this.holder = holder;
+            }
+        }
+    }
+
+    /**
+     * 方法调用点（单态缓存：目标类型与参数类型不变时复用查找结果）
+     */
+    static class MethodSite {
+        private final MethodNode node;
+        private volatile Entry entry;
+
+        MethodSite(MethodNode node) {
+            this.node = node;
+        }
+
+        Object invoke(Object targetValue, Object[] argValues) {
+            Entry tmp = entry;
+            if (tmp == null || tmp.matches(targetValue, argValues) == false) {
+                tmp = Entry.of(node, targetValue, argValues);
+                if (tmp == null) {
+                    //找不到方法等情况，交回节点（报告一致的异常）
+                    return node.invoke(targetValue, argValues);
+                }
+                entry = tmp;
+            }
+
+            try {
+                Object[] invokeArgs = ReflectionUtil.getInstance().prepareInvokeArgs(tmp.method, argValues);
+                return tmp.method.invoke(tmp.isStatic ? null : targetValue, invokeArgs);
+            } catch (InvocationTargetException e) {
+                throw EvaluationException.expected("Failed to invoke method: " + node.getMethodName(), e.getTargetException());
+            } catch (EvaluationException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw EvaluationException.expected("Failed to invoke method: " + node.getMethodName(), e);
+            }
+        }
+
+        static class Entry {
+            final Class<?> targetType;
+            final boolean isStatic;
+            final Class<?>[] argTypes;
+            final Method method;
+
+            Entry(Class<?> targetType, boolean isStatic, Class<?>[] argTypes, Method method) {
+                this.targetType = targetType;
+                this.isStatic = isStatic;
+                this.argTypes = argTypes;
+                this.method = method;
+            }
+
+            static Entry of(MethodNode node, Object targetValue, Object[] argValues) {
+                boolean isStatic = targetValue instanceof Class;
+                Class<?> targetType = isStatic ? (Class<?>) targetValue : targetValue.getClass();
+
+                Class<?>[] argTypes = new Class<?>[argValues.length];
+                for (int i = 0; i < argValues.length; i++) {
+                    argTypes[i] = (argValues[i] == null ? Void.class : argValues[i].getClass());
+                }
+
+                Method method = ReflectionUtil.getInstance().getMethod(targetType, node.getMethodName(), argTypes);
+                return method == null ? null : new Entry(targetType, isStatic, argTypes, method);
+            }
+
+            boolean matches(Object targetValue, Object[] argValues) {
+                if (isStatic) {
+                    if (targetValue != targetType) {
+                        return false;
+                    }
+                } else if (targetValue.getClass() != targetType || targetValue instanceof Class) {
+                    return false;
+                }
+
+                for (int i = 0; i < argValues.length; i++) {
+                    Object v = argValues[i];
+                    if ((v == null ? Void.class : v.getClass()) != argTypes[i]) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+
+import java.util.function.Function;
+
+/**
+ * 闭包表达式（由语法树编译的闭包树；按节点特化状态选用专用闭包，与语法树解释执行结果一致）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class ClosureExpression implements Expression {
+    private final Expression source;
+    private final ClosureCompiler.Closure closure;
+
+    ClosureExpression(Expression source, ClosureCompiler.Closure closure) {
+        this.source = source;
+        this.closure = closure;
+    }
+
+    /**
+     * 编译（将语法树编译为闭包树；宜在语法树完成类型特化后进行）
+     *
+     * @param expression 语法树
+     */
+    public static ClosureExpression compile(Expression expression) {
+        if (expression instanceof ClosureExpression) {
+            return (ClosureExpression) expression;
+        }
+
+        return new ClosureExpression(expression, ClosureCompiler.compile(expression));
+    }
+
+    /**
+     * 获取源语法树
+     */
+    public Expression getSource() {
+        return source;
+    }
+
+    @Override
+    public Object eval(Function context) {
+        if (BudgetContext.find(context) != null) {
+            //预算检查在语法树节点上进行
+            return source.eval(context);
+        }
+
+        return closure.eval(context);
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+}
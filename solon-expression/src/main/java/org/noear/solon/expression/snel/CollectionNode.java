@@ -0,0 +1,390 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+import org.noear.solon.expression.context.DelegatingContext;
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 集合表达式节点（选择 .?[cond]、首个 .^[cond]、末个 .$[cond]、投影 .![expr]）
+ *
+ * <p>连续的选择与投影融合为一个节点，单趟迭代且不产生中间列表；首个、计数判断（如 .size() > 0）命中即停止。
+ * 方括号内的名字先按当前元素解析（Map 的键或对象属性，#this 为元素本身），解析不到时再按外层上下文解析</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class CollectionNode implements Expression {
+    private final Expression source;
+    private final List<Stage> stages;
+    private final Terminal terminal;
+
+    public CollectionNode(Expression source, List<Stage> stages, Terminal terminal) {
+        this.source = source;
+        this.stages = stages;
+        this.terminal = terminal;
+    }
+
+    /**
+     * 获取源集合
+     */
+    public Expression getSource() {
+        return source;
+    }
+
+    /**
+     * 获取阶段（按顺序执行）
+     */
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    /**
+     * 获取终止操作
+     */
+    public Terminal getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * 以新的终止操作重建
+     */
+    public CollectionNode withTerminal(Terminal terminal) {
+        return new CollectionNode(source, stages, terminal);
+    }
+
+    /**
+     * 添加阶段（目标为列表结果的集合节点时融合，否则新建）
+     */
+    static CollectionNode append(Expression target, Stage stage, Terminal terminal) {
+        if (target.getClass() == CollectionNode.class && ((CollectionNode) target).terminal == Terminal.LIST) {
+            CollectionNode node = (CollectionNode) target;
+            List<Stage> list = new ArrayList<>(node.stages.size() + 1);
+            list.addAll(node.stages);
+            list.add(stage);
+            return new CollectionNode(node.source, list, terminal);
+        } else {
+            return new CollectionNode(target, Collections.singletonList(stage), terminal);
+        }
+    }
+
+    @Override
+    public Object eval(Function context) {
+        return evalWith(context, source.eval(context));
+    }
+
+    /**
+     * 评估（源集合已求值）
+     *
+     * @param context     上下文
+     * @param sourceValue 源集合
+     */
+    Object evalWith(Function context, Object sourceValue) {
+        if (sourceValue == null) {
+            return null;
+        }
+
+        switch (terminal) {
+            case FIRST: {
+                Object[] found = new Object[1];
+                each(context, sourceValue, item -> {
+                    found[0] = item;
+                    return false;
+                });
+                return found[0];
+            }
+            case LAST: {
+                Object[] found = new Object[1];
+                each(context, sourceValue, item -> {
+                    found[0] = item;
+                    return true;
+                });
+                return found[0];
+            }
+            case COUNT: {
+                int[] count = new int[1];
+                each(context, sourceValue, item -> {
+                    count[0]++;
+                    return true;
+                });
+                return count[0];
+            }
+            case EXISTS:
+                return each(context, sourceValue, item -> false) == false;
+            case EMPTY:
+                return each(context, sourceValue, item -> false);
+            default: {
+                List<Object> list = new ArrayList<>();
+                each(context, sourceValue, list::add);
+
+                BudgetContext budget = BudgetContext.find(context);
+                if (budget != null) {
+                    budget.checkValue(list);
+                }
+                return list;
+            }
+        }
+    }
+
+    /**
+     * 迭代经过各阶段后的元素（源集合已求值）
+     *
+     * @param context     上下文
+     * @param sourceValue 源集合（数组、Iterable 或 Map 的值）
+     * @param visitor     访问者（返回 false 时停止）
+     * @return 是否完整迭代（未被访问者中止）
+     */
+    boolean each(Function context, Object sourceValue, Visitor visitor) {
+        //元素上下文包装外层上下文，方括号内的表达式同样受外层预算约束
+        ElementContext elementContext = new ElementContext(context);
+        BudgetContext budget = elementContext.budget();
+
+        if (sourceValue instanceof Object[]) {
+            for (Object item : (Object[]) sourceValue) {
+                if (accept(elementContext, budget, item, visitor) == false) {
+                    return false;
+                }
+            }
+        } else if (sourceValue instanceof Iterable) {
+            for (Object item : (Iterable<?>) sourceValue) {
+                if (accept(elementContext, budget, item, visitor) == false) {
+                    return false;
+                }
+            }
+        } else if (sourceValue instanceof Map) {
+            for (Object item : ((Map<?, ?>) sourceValue).values()) {
+                if (accept(elementContext, budget, item, visitor) == false) {
+                    return false;
+                }
+            }
+        } else if (sourceValue.getClass().isArray()) {
+            for (int i = 0, len = Array.getLength(sourceValue); i < len; i++) {
+                if (accept(elementContext, budget, Array.get(sourceValue, i), visitor) == false) {
+                    return false;
+                }
+            }
+        } else {
+            throw EvaluationException.expected("Not a collection: " + sourceValue.getClass().getName() + " in " + this, null);
+        }
+
+        return true;
+    }
+
+    private boolean accept(ElementContext elementContext, BudgetContext budget, Object item, Visitor visitor) {
+        if (budget != null) {
+            budget.step();
+        }
+
+        for (int i = 0, size = stages.size(); i < size; i++) {
+            Stage stage = stages.get(i);
+            elementContext.current = item;
+
+            Object value = stage.expression.eval(elementContext);
+            if (stage.projection) {
+                item = value;
+            } else if (value instanceof Boolean) {
+                if ((Boolean) value == false) {
+                    return true;
+                }
+            } else if (value == null) {
+                return true;
+            } else {
+                throw EvaluationException.expected("Selection criteria is not boolean: " + stage.expression, null);
+            }
+        }
+
+        return visitor.visit(item);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(source);
+
+        int last = stages.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            Stage stage = stages.get(i);
+            if (stage.projection) {
+                buf.append(".![");
+            } else if (i == last && terminal == Terminal.FIRST) {
+                buf.append(".^[");
+            } else if (i == last && terminal == Terminal.LAST) {
+                buf.append(".$[");
+            } else {
+                buf.append(".?[");
+            }
+            buf.append(stage.expression).append("]");
+        }
+
+        switch (terminal) {
+            case COUNT:
+                return buf.append(".size()").toString();
+            case EXISTS:
+                return "(" + buf + ".size() > 0)";
+            case EMPTY:
+                return buf.append(".isEmpty()").toString();
+            default:
+                return buf.toString();
+        }
+    }
+
+    /**
+     * 阶段（选择或投影）
+     */
+    public static class Stage {
+        private final boolean projection;
+        private final Expression expression;
+
+        private Stage(boolean projection, Expression expression) {
+            this.projection = projection;
+            this.expression = expression;
+        }
+
+        /**
+         * 选择（条件为 true 的元素通过）
+         */
+        public static Stage select(Expression condition) {
+            return new Stage(false, condition);
+        }
+
+        /**
+         * 投影（元素替换为表达式的值）
+         */
+        public static Stage project(Expression expression) {
+            return new Stage(true, expression);
+        }
+
+        public boolean isProjection() {
+            return projection;
+        }
+
+        public Expression getExpression() {
+            return expression;
+        }
+    }
+
+    /**
+     * 终止操作
+     */
+    public enum Terminal {
+        /**
+         * 列表
+         */
+        LIST,
+        /**
+         * 首个元素（命中即停止）
+         */
+        FIRST,
+        /**
+         * 末个元素
+         */
+        LAST,
+        /**
+         * 元素个数
+         */
+        COUNT,
+        /**
+         * 是否有元素（命中即停止）
+         */
+        EXISTS,
+        /**
+         * 是否没有元素（命中即停止）
+         */
+        EMPTY
+    }
+
+    /**
+     * 元素访问者
+     */
+    interface Visitor {
+        boolean visit(Object item);
+    }
+
+    /**
+     * 元素上下文（名字先按当前元素解析，再按外层上下文解析）
+     */
+    static class ElementContext extends DelegatingContext {
+        private static final Object MISSING = new Object();
+
+        private Object current;
+        private Class<?> currentType;
+        private Map<String, Object> holders;
+
+        ElementContext(Function<String, Object> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Object apply(String name) {
+            Object item = current;
+
+            if ("this".equals(name)) {
+                return item;
+            } else if (item instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) item;
+                Object value = map.get(name);
+                if (value != null || map.containsKey(name)) {
+                    return value;
+                }
+            } else if (item != null) {
+                PropertyHolder holder = findProperty(item.getClass(), name);
+                if (holder != null) {
+                    try {
+                        return holder.getValue(item);
+                    } catch (Throwable e) {
+                        throw EvaluationException.expected("Failed to access property: " + name, e);
+                    }
+                }
+            }
+
+            return delegate.apply(name);
+        }
+
+        /**
+         * 查找属性（元素类型不变时复用查找结果）
+         */
+        private PropertyHolder findProperty(Class<?> type, String name) {
+            if (type != currentType) {
+                currentType = type;
+                if (holders != null) {
+                    holders.clear();
+                }
+            }
+
+            if (holders == null) {
+                holders = new HashMap<>();
+            }
+
+            Object holder = holders.get(name);
+            if (holder == null) {
+                holder = ReflectionUtil.getInstance().findProperty(type, name);
+                holders.put(name, holder == null ? MISSING : holder);
+            }
+
+            return holder == MISSING ? null : (PropertyHolder) holder;
+        }
+    }
+}
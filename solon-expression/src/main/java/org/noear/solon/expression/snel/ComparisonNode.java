@@ -16,23 +16,53 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+import org.noear.solon.expression.exception.CompilationException;
+import org.noear.solon.expression.exception.EvaluationException;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * 比较表达式节点（如 >, <, ==）
  *
+ * <p>==、!=、>、>=、<、<= 会按观察到的操作数类型自我特化（连续几次类型一致时，改走 int / long / double / 字符串专用路径；
+ * 类型守卫失败时，退回通用路径且不再特化）</p>
+ *
+ * <p>数字比较按类型精确进行：两侧均为整数时按 long 比较，任一侧为 BigDecimal / BigInteger 时按 BigDecimal 比较，其它按 double 比较</p>
+ *
+ * <p>MATCHES 为正则完整匹配：常量模式在构建时编译，动态模式经有界缓存复用；简单模式（字面量、前缀、字面量分支等）不经过正则引擎</p>
+ *
  * @author noear
  * @since 3.1
  */
 public class ComparisonNode implements Expression<Boolean> {
+    //特化状态
+    static final int SPEC_UNINIT = 0;
+    static final int SPEC_INT = 1;
+    static final int SPEC_LONG = 2;
+    static final int SPEC_DOUBLE = 3;
+    static final int SPEC_STRING = 4;
+    static final int SPEC_GENERIC = 5;
+
+    //连续观察到几次相同类型后特化
+    private static final int SPEC_SAMPLES = 3;
+
     private final ComparisonOp operator; // 比较运算符，如 ">", "<", "=="
     private final Expression left;
     private final Expression right;
     private final boolean leftIsTemplate;
     private final boolean rightIsTemplate;
+    private final PatternMatcher matcher; // 常量模式（MATCHES）
+
+    //允许多线程竞争（任一状态对任何输入都正确）
+    private int spec;
+    private int specKind;
+    private int specCount;
 
     /**
      * 获取操作符
@@ -62,6 +92,43 @@ public class ComparisonNode implements Expression<Boolean> {
 
         this.leftIsTemplate = left instanceof TemplateNode;
         this.rightIsTemplate = right instanceof TemplateNode;
+        this.matcher = compileMatcher(operator, right);
+
+        if (leftIsTemplate || rightIsTemplate) {
+            //模板值需要转换，不特化
+            this.spec = SPEC_GENERIC;
+        } else {
+            switch (operator) {
+                case eq:
+                case neq:
+                case gt:
+                case gte:
+                case lt:
+                case lte:
+                    break;
+                default:
+                    this.spec = SPEC_GENERIC;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 编译常量模式（非 MATCHES 或非常量时返回 null）
+     */
+    private static PatternMatcher compileMatcher(ComparisonOp operator, Expression right) {
+        if ((operator == ComparisonOp.mt || operator == ComparisonOp.nmt) && right instanceof ConstantNode) {
+            Object pattern = ((ConstantNode) right).getValue();
+            if (pattern instanceof String) {
+                try {
+                    return PatternMatcher.compile((String) pattern);
+                } catch (PatternSyntaxException e) {
+                    throw new CompilationException("Invalid pattern: " + pattern, e);
+                }
+            }
+        }
+
+        return null;
     }
 
     @Override
@@ -69,6 +136,197 @@ public class ComparisonNode implements Expression<Boolean> {
         Object leftValue = left.eval(context);
         Object rightValue = right.eval(context);
 
+        BudgetContext budget = BudgetContext.find(context);
+        if (budget != null) {
+            if ((operator == ComparisonOp.in || operator == ComparisonOp.nin) && rightValue instanceof Collection) {
+                budget.checkValue(rightValue);
+                budget.step(((Collection<?>) rightValue).size());
+            } else {
+                budget.step();
+            }
+        }
+
+        return compare(leftValue, rightValue);
+    }
+
+    /**
+     * 比较（左右两侧已求值）
+     *
+     * @since 4.1
+     */
+    public Boolean compare(Object leftValue, Object rightValue) {
+        switch (spec) {
+            case SPEC_INT:
+                if (leftValue instanceof Integer && rightValue instanceof Integer) {
+                    return compareAsLong((Integer) leftValue, (Integer) rightValue);
+                }
+                break;
+            case SPEC_LONG:
+                if (isIntegral(leftValue) && isIntegral(rightValue)) {
+                    return compareAsLong(((Number) leftValue).longValue(), ((Number) rightValue).longValue());
+                }
+                break;
+            case SPEC_DOUBLE:
+                if (leftValue instanceof Double && rightValue instanceof Double) {
+                    return compareAsDouble((Double) leftValue, (Double) rightValue);
+                }
+                break;
+            case SPEC_STRING:
+                if (leftValue instanceof String && rightValue instanceof String) {
+                    return compareAsString((String) leftValue, (String) rightValue);
+                }
+                break;
+            case SPEC_UNINIT:
+                observe(leftValue, rightValue);
+                return compareGeneric(leftValue, rightValue);
+            default:
+                return compareGeneric(leftValue, rightValue);
+        }
+
+        //类型守卫失败
+        spec = SPEC_GENERIC;
+        return compareGeneric(leftValue, rightValue);
+    }
+
+    /**
+     * 获取特化状态
+     *
+     * @since 4.1
+     */
+    public Specialization getSpecialization() {
+        return Specialization.of(spec);
+    }
+
+    /**
+     * 预设特化状态（静态类型推断已确定操作数类型时使用；类型守卫仍然保留）
+     */
+    void presetSpecialization(int kind) {
+        if (spec == SPEC_UNINIT) {
+            spec = kind;
+        }
+    }
+
+    /**
+     * 观察操作数类型（连续一致时特化，不一致时转为通用）
+     */
+    private void observe(Object leftValue, Object rightValue) {
+        int kind;
+        if (leftValue instanceof Integer && rightValue instanceof Integer) {
+            kind = SPEC_INT;
+        } else if (isIntegral(leftValue) && isIntegral(rightValue)) {
+            kind = SPEC_LONG;
+        } else if (leftValue instanceof Double && rightValue instanceof Double) {
+            kind = SPEC_DOUBLE;
+        } else if (leftValue instanceof String && rightValue instanceof String
+                && (operator == ComparisonOp.eq || operator == ComparisonOp.neq)) {
+            kind = SPEC_STRING;
+        } else {
+            kind = SPEC_GENERIC;
+        }
+
+        if (kind == SPEC_GENERIC || (specCount > 0 && kind != specKind)) {
+            spec = SPEC_GENERIC;
+        } else {
+            specKind = kind;
+            if (++specCount >= SPEC_SAMPLES) {
+                spec = kind;
+            }
+        }
+    }
+
+    /**
+     * 是否为整数（可无损转为 long）
+     */
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * 数字比较（按类型精确比较）
+     */
+    private boolean compareNumbers(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return compareAsLong(a.longValue(), b.longValue());
+        }
+
+        if (a instanceof BigDecimal || a instanceof BigInteger || b instanceof BigDecimal || b instanceof BigInteger) {
+            BigDecimal x = toBigDecimal(a);
+            BigDecimal y = toBigDecimal(b);
+
+            if (x != null && y != null) {
+                return compareAsLong(x.compareTo(y), 0);
+            }
+        }
+
+        return compareAsDouble(a.doubleValue(), b.doubleValue());
+    }
+
+    /**
+     * 转为 BigDecimal（NaN、无穷大及未知数字类型时返回 null）
+     */
+    private static BigDecimal toBigDecimal(Number n) {
+        if (n instanceof BigDecimal) {
+            return (BigDecimal) n;
+        } else if (n instanceof BigInteger) {
+            return new BigDecimal((BigInteger) n);
+        } else if (isIntegral(n)) {
+            return BigDecimal.valueOf(n.longValue());
+        } else if (n instanceof Double || n instanceof Float) {
+            double d = n.doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                return null;
+            } else {
+                //按十进制文本转换（0.1D 与 0.1 相等）
+                return new BigDecimal(n.toString());
+            }
+        } else {
+            return null;
+        }
+    }
+
+    private boolean compareAsLong(long a, long b) {
+        switch (operator) {
+            case eq:
+                return a == b;
+            case neq:
+                return a != b;
+            case gt:
+                return a > b;
+            case gte:
+                return a >= b;
+            case lt:
+                return a < b;
+            default:
+                return a <= b;
+        }
+    }
+
+    private boolean compareAsDouble(double a, double b) {
+        switch (operator) {
+            case eq:
+                return a == b;
+            case neq:
+                return a != b;
+            case gt:
+                return a > b;
+            case gte:
+                return a >= b;
+            case lt:
+                return a < b;
+            default:
+                return a <= b;
+        }
+    }
+
+    private boolean compareAsString(String a, String b) {
+        if (operator == ComparisonOp.eq) {
+            return a.equals(b);
+        } else {
+            return a.equals(b) == false;
+        }
+    }
+
+    private Boolean compareGeneric(Object leftValue, Object rightValue) {
         if (leftIsTemplate) {
             leftValue = getOptimizeValue(leftValue, rightValue);
         } else if (rightIsTemplate) {
@@ -78,14 +336,14 @@ public class ComparisonNode implements Expression<Boolean> {
         if (operator == ComparisonOp.eq) {
             // ==
             if (leftValue instanceof Number && rightValue instanceof Number) {
-                return ((Number) leftValue).doubleValue() == ((Number) rightValue).doubleValue();
+                return compareNumbers((Number) leftValue, (Number) rightValue);
             } else {
                 return Objects.equals(leftValue, rightValue);
             }
         } else if (operator == ComparisonOp.neq) {
             // !=
             if (leftValue instanceof Number && rightValue instanceof Number) {
-                return ((Number) leftValue).doubleValue() != ((Number) rightValue).doubleValue();
+                return compareNumbers((Number) leftValue, (Number) rightValue);
             } else {
                 return Objects.equals(leftValue, rightValue) == false;
             }
@@ -108,23 +366,37 @@ public class ComparisonNode implements Expression<Boolean> {
 
             switch (operator) {
                 case gt:
-                    return ((Number) leftValue).doubleValue() > ((Number) rightValue).doubleValue();
                 case gte:
-                    return ((Number) leftValue).doubleValue() >= ((Number) rightValue).doubleValue();
                 case lt:
-                    return ((Number) leftValue).doubleValue() < ((Number) rightValue).doubleValue();
                 case lte:
-                    return ((Number) leftValue).doubleValue() <= ((Number) rightValue).doubleValue();
+                    return compareNumbers((Number) leftValue, (Number) rightValue);
                 case lk:
                     return (leftValue.toString()).contains(rightValue.toString());
                 case nlk:
                     return (leftValue.toString()).contains(rightValue.toString()) == false;
+                case mt:
+                    return matches(leftValue, rightValue);
+                case nmt:
+                    return matches(leftValue, rightValue) == false;
                 default:
                     throw new IllegalArgumentException("Unknown operator: " + operator);
             }
         }
     }
 
+    private boolean matches(Object value, Object pattern) {
+        PatternMatcher m = matcher;
+        if (m == null) {
+            try {
+                m = PatternMatcher.cached(pattern.toString());
+            } catch (PatternSyntaxException e) {
+                throw EvaluationException.expected("Invalid pattern: " + pattern, e);
+            }
+        }
+
+        return m.matches(value.toString());
+    }
+
     /**
      * 获取优化值
      */
@@ -32,6 +32,8 @@ public enum ComparisonOp {
     nlk("NOT LIKE"), // not like
     in("IN"),  // in
     nin("NO IN"), // not in
+    mt("MATCHES"), // matches（正则完整匹配）
+    nmt("NOT MATCHES"), // not matches
     ;
 
     ComparisonOp(String code) {
@@ -72,6 +74,10 @@ public enum ComparisonOp {
                 return in;
             case "NOT IN":
                 return nin;
+            case "MATCHES":
+                return mt;
+            case "NOT MATCHES":
+                return nmt;
             default:
                 throw new IllegalArgumentException("Invalid comparison operator: " + op);
         }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.Collection;
+
+/**
+ * 复杂度估算（按节点加权累计：方法调用、Bean、类型、模板片段较重，常量集合按大小计）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public final class ComplexityEstimator {
+    private static final int COST_NODE = 1;
+    private static final int COST_INDEX = 2;
+    private static final int COST_METHOD = 8;
+    private static final int COST_LOOKUP = 4;
+    private static final int COST_FRAGMENT = 2;
+    private static final int COST_ITERATE = 4;
+
+    private ComplexityEstimator() {
+    }
+
+    /**
+     * 估算复杂度
+     *
+     * @param expression 表达式
+     */
+    public static long estimate(Expression expression) {
+        long cost = 0;
+
+        for (Expression node : NodeUtil.flatten(expression)) {
+            if (node instanceof MethodNode) {
+                cost += COST_METHOD;
+            } else if (node instanceof CollectionNode) {
+                //方括号内的表达式按元素重复求值
+                cost += COST_NODE;
+                for (CollectionNode.Stage stage : ((CollectionNode) node).getStages()) {
+                    cost += COST_ITERATE * estimate(stage.getExpression());
+                }
+            } else if (node instanceof BeanNode || node instanceof TypeNode) {
+                cost += COST_LOOKUP;
+            } else if (node instanceof TemplateNode) {
+                cost += COST_FRAGMENT * ((TemplateNode) node).getFragments().size();
+            } else if (node instanceof ConstantNode && ((ConstantNode) node).getValue() instanceof Collection) {
+                cost += COST_NODE + ((Collection<?>) ((ConstantNode) node).getValue()).size();
+            } else if (node instanceof PropertyNode && ((PropertyNode) node).getProperty() instanceof ConstantNode == false) {
+                cost += COST_INDEX;
+            } else {
+                cost += COST_NODE;
+            }
+        }
+
+        return cost;
+    }
+}
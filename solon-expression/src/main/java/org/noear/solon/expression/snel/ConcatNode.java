@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 字符串拼接表达式节点（由连续的 + 链合并而成：'user:' + id + ':' + region）
+ *
+ * <p>第二个操作数起均为字符串拼接（首个为字符串，或第二个为字符串常量），一次求值全部操作数后按总长度一次构建</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class ConcatNode implements Expression<String> {
+    private final List<Expression> parts;
+
+    /**
+     * @param parts 操作数（至少两个）
+     */
+    public ConcatNode(List<? extends Expression> parts) {
+        if (parts.size() < 2) {
+            throw new IllegalArgumentException("Invalid concat parts: x" + parts.size());
+        }
+
+        this.parts = new ArrayList<>(parts);
+    }
+
+    /**
+     * 获取操作数
+     */
+    public List<Expression> getParts() {
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * 追加操作数（仅限解析期，节点发布之前）
+     */
+    ConcatNode append(Expression part) {
+        parts.add(part);
+        return this;
+    }
+
+    @Override
+    public String eval(Function context) {
+        Object[] values = new Object[parts.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = parts.get(i).eval(context);
+        }
+
+        BudgetContext budget = BudgetContext.find(context);
+        if (budget != null) {
+            budget.step(values.length);
+
+            String result = concat(values, 0, values.length);
+            budget.checkString(result.length());
+            return result;
+        } else {
+            return concat(values, 0, values.length);
+        }
+    }
+
+    /**
+     * 拼接（操作数已求值）
+     */
+    static String concat(Object[] values, int offset, int count) {
+        String[] strs = new String[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            strs[i] = String.valueOf(values[offset + i]);
+            length += strs[i].length();
+        }
+
+        StringBuilder buf = new StringBuilder(length);
+        for (String str : strs) {
+            buf.append(str);
+        }
+
+        return buf.toString();
+    }
+
+    @Override
+    public String toString() {
+        //按左结合的二元结构输出：(('a' + b) + c)
+        StringBuilder buf = new StringBuilder();
+        for (int i = 1; i < parts.size(); i++) {
+            buf.append("(");
+        }
+
+        buf.append(parts.get(0));
+        for (int i = 1; i < parts.size(); i++) {
+            buf.append(" + ").append(parts.get(i)).append(")");
+        }
+
+        return buf.toString();
+    }
+}
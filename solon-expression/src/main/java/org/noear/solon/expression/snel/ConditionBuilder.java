@@ -17,7 +17,9 @@ package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * 条件表达式构建器
@@ -27,11 +29,42 @@ import java.util.Arrays;
  */
 public class ConditionBuilder {
     public LogicalNode and(Expression<Boolean> left, Expression<Boolean> right) {
-        return new LogicalNode(LogicalOp.AND, left, right);
+        return chain(LogicalOp.AND, left, right);
+    }
+
+    /**
+     * 多条件 AND（构建为一个多元节点）
+     *
+     * @since 4.1
+     */
+    public LogicalNode and(Expression... conditions) {
+        return new LogicalNode(LogicalOp.AND, Arrays.asList(conditions));
     }
 
     public LogicalNode or(Expression<Boolean> left, Expression<Boolean> right) {
-        return new LogicalNode(LogicalOp.OR, left, right);
+        return chain(LogicalOp.OR, left, right);
+    }
+
+    /**
+     * 多条件 OR（构建为一个多元节点）
+     *
+     * @since 4.1
+     */
+    public LogicalNode or(Expression... conditions) {
+        return new LogicalNode(LogicalOp.OR, Arrays.asList(conditions));
+    }
+
+    /**
+     * 连接条件（左侧为同一运算符时，展开为多元节点；结构与左结合的二元树等价）
+     */
+    private LogicalNode chain(LogicalOp operator, Expression<Boolean> left, Expression<Boolean> right) {
+        if (left instanceof LogicalNode && ((LogicalNode) left).getOperator() == operator) {
+            List<Expression> operands = new ArrayList<>(((LogicalNode) left).getOperands());
+            operands.add(right);
+            return new LogicalNode(operator, operands);
+        } else {
+            return new LogicalNode(operator, left, right);
+        }
     }
 
     public LogicalNode not(Expression<Boolean> left) {
@@ -16,7 +16,9 @@
 package org.noear.solon.expression.snel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.noear.solon.expression.Expression;
 import org.noear.solon.expression.Parser;
@@ -40,6 +42,7 @@ import org.noear.solon.expression.util.LRUCache;
  * 9. 支持 ${} 属性表达式（带默认值）
  * 10. 支持安全导航操作符 `?.`
  * 11. 支持 Elvis 操作符 `?:`
+ * 12. 运算符优先级基于显式栈解析，深层嵌套不受调用栈限制
  * </p>
  *
  * @author noear
@@ -47,38 +50,169 @@ import org.noear.solon.expression.util.LRUCache;
  * @since 3.8
  * */
 public class EvaluateParser implements Parser {
+    private static final Expression UNSHAPED = new ConstantNode(null);
+
     private final LRUCache<String, Expression> exprCached;
+    private final LRUCache<String, Expression> shapeCached;
+    private final LRUCache<String, TieredExpression> tieredCached;
+    private final NamePool namePool = new NamePool();
     private final SnelParser parser;
 
+    private volatile int tieredThreshold = 1000;
+    private volatile Executor tieredExecutor;
+    private volatile int maxLength;
+    private volatile long maxComplexity;
+
     EvaluateParser(SnelParser parser, int cahceCapacity) {
         this.exprCached = new LRUCache<>(cahceCapacity);
+        this.shapeCached = new LRUCache<>(cahceCapacity);
+        this.tieredCached = new LRUCache<>(cahceCapacity);
         this.parser = parser;
     }
 
+    /**
+     * 配置分层执行（仅对之后新建的分层表达式有效）
+     *
+     * @param threshold 编译阈值（评估次数）
+     * @param executor  编译执行器（为 null 时，使用默认的有界执行器）
+     * @since 4.1
+     */
+    public void tieredConfig(int threshold, Executor executor) {
+        this.tieredThreshold = threshold;
+        this.tieredExecutor = executor;
+    }
+
+    /**
+     * 配置复杂度限制（超出时抛出 CompilationException，不进入缓存；0 表示不限制）
+     *
+     * @param maxLength     最大长度（解析前检查）
+     * @param maxComplexity 最大复杂度（解析后按 ComplexityEstimator 估算）
+     * @since 4.1
+     */
+    public void complexityConfig(int maxLength, long maxComplexity) {
+        this.maxLength = maxLength;
+        this.maxComplexity = maxComplexity;
+    }
+
     @Override
     public Expression parse(String expr, boolean cached) {
         if (cached) {
-            return exprCached.computeIfAbsent(expr, this::parseDo);
+            return exprCached.computeIfAbsent(expr, this::parseChecked);
         } else {
-            return parseDo(expr);
+            return parseChecked(expr);
+        }
+    }
+
+    /**
+     * 解析并检查复杂度
+     */
+    private Expression parseChecked(String expr) {
+        checkLength(expr);
+        return checkComplexity(parseDo(expr));
+    }
+
+    private void checkLength(String expr) {
+        int limit = maxLength;
+        if (limit > 0 && expr.length() > limit) {
+            throw new CompilationException("Expression too long: " + expr.length() + " > " + limit);
+        }
+    }
+
+    private Expression checkComplexity(Expression result) {
+        long limit = maxComplexity;
+        if (limit > 0) {
+            long cost = ComplexityEstimator.estimate(result);
+            if (cost > limit) {
+                throw new CompilationException("Expression too complex: " + cost + " > " + limit);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 参数化解析（剥离数字、字符串、列表字面量后，按表达式形态缓存）
+     *
+     * <p>适用于字面量多变的生成式表达式，如 `userId == 1234 && score > 0.75`。相同形态的表达式共享同一棵语法树，
+     * 返回的是绑定了本次字面量的轻量实例。不能参数化的表达式（如含 `${}`、`#{}`）自动回退为普通的缓存解析</p>
+     *
+     * @param expr 表达式
+     */
+    public Expression parseParameterized(String expr) {
+        checkLength(expr);
+
+        ExpressionShape shape = ExpressionShape.of(parser, expr);
+        if (shape == null) {
+            return parse(expr, true);
+        }
+
+        Expression tree = shapeCached.computeIfAbsent(shape.getKey(), k -> parseShapeDo(expr, shape));
+        if (tree == UNSHAPED) {
+            return parse(expr, true);
+        }
+
+        if (shape.getParams().length == 0) {
+            return tree;
+        } else {
+            return new ParameterizedExpression(tree, shape.getParams());
+        }
+    }
+
+    /**
+     * 分层解析（带缓存；先解释执行，评估次数达到阈值后在后台编译为闭包树）
+     *
+     * <p>适用于反复评估的表达式：多数冷表达式不付出编译成本，少数热表达式自动提升</p>
+     *
+     * @param expr 表达式
+     * @since 4.1
+     */
+    public Expression parseTiered(String expr) {
+        return tieredCached.computeIfAbsent(expr, k -> new TieredExpression(parse(k, true), tieredThreshold, tieredExecutor));
+    }
+
+    /**
+     * 解析形态树（字面量解析为参数节点，并与形态参数核对；不一致时标记为不可参数化）
+     */
+    private Expression parseShapeDo(String expr, ExpressionShape shape) {
+        char[] buf = expr.toCharArray();
+        ParserState state = new ParserState(buf, 0, buf.length, namePool);
+        state.params = new ArrayList<>();
+
+        Expression result = parseRoot(state);
+
+        if (Arrays.equals(state.params.toArray(), shape.getParams())) {
+            return checkComplexity(result);
+        } else {
+            return UNSHAPED;
         }
     }
 
     protected Expression parseDo(String expr) {
+        char[] buf = expr.toCharArray();
+        return parseDo(buf, 0, buf.length);
+    }
+
+    /**
+     * 解析源码区间（嵌套的包装表达式直接按区间解析，不再复制子串）
+     */
+    private Expression parseDo(char[] buf, int start, int end) {
         // 检查是否是整体包装的属性表达式 (例如 "${...}")
-        if (isFullMarkerExpression(expr, parser.MARK_START_PROPERTIES)) {
-            return parsePropertyExpression(expr);
+        if (isFullMarkerExpression(buf, start, end, parser.MARK_START_PROPERTIES)) {
+            return parsePropertyExpression(new String(buf, start, end - start));
         }
 
         // 检查是否是整体包装的解析表达式 (例如 "#{...}" 或 "{...}")
-        if (isFullMarkerExpression(expr, parser.MARK_START_EXPRESSION) || isFullMarkerExpression(expr, (char) 0)) {
+        if (isFullMarkerExpression(buf, start, end, parser.MARK_START_EXPRESSION) || isFullMarkerExpression(buf, start, end, (char) 0)) {
             // 剥离外壳，递归解析内部内容。如果是 { 开头则偏移1，如果是 #{ 开头则偏移2
-            int markerLen = (expr.charAt(0) == parser.MARK_BRACE_OPEN) ? 1 : 2;
-            return parseDo(expr.substring(markerLen, expr.length() - 1));
+            int markerLen = (buf[start] == parser.MARK_BRACE_OPEN) ? 1 : 2;
+            return parseDo(buf, start + markerLen, end - 1);
         }
 
-        ParserState state = new ParserState(expr);
-        Expression result = parseElvisExpression(state);
+        return parseRoot(new ParserState(buf, start, end, namePool));
+    }
+
+    private Expression parseRoot(ParserState state) {
+        Expression result = parseExpression(state, true);
         if (state.getCurrentChar() != -1) {
             throw new CompilationException("Unexpected trailing character: " + (char) state.getCurrentChar());
         }
@@ -88,43 +222,24 @@ public class EvaluateParser implements Parser {
     /**
      * 检查是否是整体被标记包裹的表达式
      */
-    private boolean isFullMarkerExpression(String expr, char marker) {
-        int len = expr.length();
+    private boolean isFullMarkerExpression(char[] buf, int start, int end, char marker) {
+        int len = end - start;
         if (len < 2) return false;
 
-        if (marker != 0 && expr.charAt(0) == marker) {
+        if (marker != 0 && buf[start] == marker) {
             // 情况：#{...} 或 ${...}
-            return len > 2 && expr.charAt(1) == parser.MARK_BRACE_OPEN && expr.charAt(len - 1) == parser.MARK_BRACE_CLOSE;
-        } else if (marker == 0 && expr.charAt(0) == parser.MARK_BRACE_OPEN) {
+            return len > 2 && buf[start + 1] == parser.MARK_BRACE_OPEN && buf[end - 1] == parser.MARK_BRACE_CLOSE;
+        } else if (marker == 0 && buf[start] == parser.MARK_BRACE_OPEN) {
             // 情况：{...}
-            return expr.charAt(len - 1) == parser.MARK_BRACE_CLOSE;
+            return buf[end - 1] == parser.MARK_BRACE_CLOSE;
         }
         return false;
     }
 
-    /**
-     * 解析 Elvis 操作符 ?:
-     */
-    private Expression parseElvisExpression(ParserState state) {
-        Expression left = parseTernaryExpression(state);
-        state.skipWhitespace();
-
-        // 检查 Elvis 操作符 ?: (注意：这里要区分三元表达式中的 ?)
-        if (state.getCurrentChar() == '?' && state.peekNextChar() == ':') {
-            state.nextChar(); // 跳过 ?
-            state.nextChar(); // 跳过 :
-            Expression right = parseElvisExpression(state);
-            return new ElvisNode(left, right);
-        }
-        return left;
-    }
-
     /**
      * 解析安全导航操作符 ?.
      */
-    private Expression parseSafeNavigationExpression(ParserState state) {
-        Expression left = parsePrimaryExpression(state);
-
+    private Expression parseSafeNavigationExpression(ParserState state, Expression left) {
         // 处理安全导航操作符 ?.
         while (state.getCurrentChar() == '?' && state.peekNextChar() == '.') {
             state.nextChar(); // 跳过 ?
@@ -151,7 +266,7 @@ public class EvaluateParser implements Parser {
                 require(state, ')', "Expected ')' after arguments");
                 expr = new MethodNode((SafeNavigationNode) expr, args);
             } else if (eat(state, '[')) {
-                Expression indexExpr = parseLogicalOrExpression(state);
+                Expression indexExpr = parseExpression(state, false);
                 require(state, ']', "Expected ']' after index");
                 expr = new PropertyNode((SafeNavigationNode) expr, indexExpr);
             } else {
@@ -198,131 +313,295 @@ public class EvaluateParser implements Parser {
         return new TemplateNode(parser, fragments);
     }
 
-    // 以下为递归下降解析器的核心方法 ----------------------------
+    // 以下为运算符优先级解析（显式栈） ----------------------------
+
+    /*
+     * 运算符栈条目的右结合力（越大越先归约；-1 为括号、三元等屏障，不参与归约）
+     *
+     * 优先级由低到高：Elvis < 三元 < OR < AND < NOT < 比较 < 加减 < 乘除
+     * */
+    private static final int OP_BOTTOM = 0;   // 栈底
+    private static final int OP_PAREN = 1;    // 左括号 (
+    private static final int OP_QUESTION = 2; // 三元 ?（等待 :）
+    private static final int OP_COLON = 3;    // 三元 :（等待假值分支）
+    private static final int OP_ELVIS = 4;    // ?:
+    private static final int OP_IN = 5;       // IN / NOT IN（非列表，右侧为三元级表达式）
+    private static final int OP_OR = 6;
+    private static final int OP_AND = 7;
+    private static final int OP_NOT = 8;      // 前置 NOT
+    private static final int OP_CMP = 9;      // 比较（不可结合）
+    private static final int OP_ADD = 10;
+    private static final int OP_MUL = 11;
+
+    private static final int[] OP_RBP = {-1, -1, -1, 3, 1, 3, 6, 8, 10, 12, 14, 16};
+
+    /*
+     * 中缀记号及其左结合力
+     * */
+    private static final int TK_END = 0;
+    private static final int TK_MUL = 1;
+    private static final int TK_ADD = 2;
+    private static final int TK_CMP = 3;      // > < = ! 开头的比较符
+    private static final int TK_IN = 4;
+    private static final int TK_LIKE = 5;     // LIKE / MATCHES
+    private static final int TK_NOT = 6;      // NOT IN / NOT LIKE / NOT MATCHES
+    private static final int TK_AND = 7;
+    private static final int TK_OR = 8;
+    private static final int TK_QUESTION = 9;
+    private static final int TK_COLON = 10;
+    private static final int TK_ELVIS = 11;
+
+    private static final int[] TK_LBP = {0, 16, 14, 12, 12, 12, 12, 8, 6, 4, 3, 2};
 
     /**
-     * 解析三元表达式：condition ? trueExpr : falseExpr
+     * 解析表达式（表驱动的优先级爬升；括号、三元、Elvis 均使用显式栈，解析深度与嵌套层数无关）
+     *
+     * @param full 是否为完整表达式（否则为逻辑 OR 级别，不含三元与 Elvis；用于方法参数与索引）
      */
-    private Expression parseTernaryExpression(ParserState state) {
-        Expression condition = parseLogicalOrExpression(state);
-        state.skipWhitespace();
+    private Expression parseExpression(ParserState state, boolean full) {
+        OperatorStack stack = new OperatorStack();
+        boolean notAllowed = true; // 当前位置是否允许前置 NOT
 
-        // 检查三元操作符 ? :
-        if (state.getCurrentChar() == '?' && state.peekNextChar() != '.' && state.peekNextChar() != ':') {
-            state.nextChar(); // 跳过 ?
-            state.skipWhitespace();
-            Expression<Object> trueExpr = parseTernaryExpression(state);
-            require(state, ':', "Expected ':' in ternary expression");
-            Expression<Object> falseExpr = parseTernaryExpression(state);
-            return new TernaryNode((Expression<Boolean>) condition, trueExpr, falseExpr);
+        while (true) {
+            // 操作数位置：前置 NOT、左括号
+            if (notAllowed && (eat(state, "NOT") || eat(state, "!"))) {
+                stack.push(OP_NOT, LogicalOp.NOT);
+                notAllowed = false;
+                continue;
+            }
+
+            if (eat(state, '(')) {
+                stack.push(OP_PAREN, null);
+                notAllowed = true;
+                continue;
+            }
+
+            Expression operand = parsePrimaryExpression(state);
+            stack.pushOperand(parseSafeNavigationExpression(state, operand));
+
+            // 运算符位置
+            boolean closed = false; // IN 列表之后，不再接受算术与比较
+            while (true) {
+                state.skipWhitespace();
+                int token = peekOperator(state);
+
+                if (closed && TK_LBP[token] >= TK_LBP[TK_CMP]) {
+                    token = TK_END;
+                }
+
+                if (token != TK_END) {
+                    // 比较不可结合、AND / OR 合并为多元链，只归约更高优先级的运算
+                    if (isComparisonToken(token) || token == TK_AND || token == TK_OR) {
+                        stack.reduce(TK_LBP[token] + 1);
+                    } else {
+                        stack.reduce(TK_LBP[token]);
+                    }
+
+                    if (acceptOperator(stack, token, full) == false) {
+                        token = TK_END;
+                    }
+                }
+
+                if (token == TK_END) {
+                    stack.reduce(0);
+
+                    if (stack.top() == OP_QUESTION) {
+                        throw new CompilationException("Expected ':' in ternary expression");
+                    } else if (stack.top() == OP_PAREN) {
+                        require(state, ')', "Expected ')' after expression");
+                        stack.pop();
+                        Expression inner = stack.popOperand();
+                        inner = parsePostfix(state, inner);
+                        stack.pushOperand(parseSafeNavigationExpression(state, inner));
+                        closed = false;
+                        continue;
+                    } else {
+                        return stack.popOperand();
+                    }
+                }
+
+                if (token == TK_IN || token == TK_NOT) {
+                    ComparisonOp op;
+                    if (token == TK_NOT) {
+                        state.skip(3);
+                        if (eat(state, "IN")) {
+                            op = ComparisonOp.nin;
+                        } else if (eat(state, "LIKE")) {
+                            stack.push(OP_CMP, ComparisonOp.nlk);
+                            notAllowed = false;
+                            break;
+                        } else if (eat(state, "MATCHES")) {
+                            stack.push(OP_CMP, ComparisonOp.nmt);
+                            notAllowed = false;
+                            break;
+                        } else {
+                            throw new CompilationException("Invalid NOT expression");
+                        }
+                    } else {
+                        state.skip(2);
+                        op = ComparisonOp.in;
+                    }
+
+                    state.skipWhitespace();
+                    if (state.isArray()) {
+                        Expression left = stack.popOperand();
+                        stack.pushOperand(new ComparisonNode(op, left, parseListExpression(state)));
+                        closed = true;
+                        continue;
+                    } else {
+                        stack.push(OP_IN, op);
+                        notAllowed = true;
+                        break;
+                    }
+                }
+
+                pushOperator(state, stack, token);
+                notAllowed = (token != TK_MUL && token != TK_ADD && token != TK_CMP && token != TK_LIKE);
+                break;
+            }
         }
-        return condition;
     }
 
     /**
-     * 解析逻辑 OR（|| 或 OR）
+     * 查看当前位置的中缀记号（不消费字符）
      */
-    private Expression parseLogicalOrExpression(ParserState state) {
-        Expression left = parseLogicalAndExpression(state);
-        state.skipWhitespace();
-        while (eat(state, "OR") || eat(state, "||")) {
-            left = new LogicalNode(LogicalOp.OR, left, parseLogicalAndExpression(state));
+    private int peekOperator(ParserState state) {
+        int c = state.getCurrentChar();
+
+        switch (c) {
+            case '*':
+            case '/':
+            case '%':
+                return TK_MUL;
+            case '+':
+            case '-':
+                return TK_ADD;
+            case '>':
+            case '<':
+            case '=':
+            case '!':
+                return TK_CMP;
+            case '?': {
+                int next = state.peekNextChar();
+                if (next == ':') {
+                    return TK_ELVIS;
+                } else if (next != '.') {
+                    return TK_QUESTION;
+                } else {
+                    return TK_END;
+                }
+            }
+            case ':':
+                return TK_COLON;
+            default:
+                break;
         }
-        return left;
-    }
 
-    /**
-     * 解析逻辑 AND（&& 或 AND）
-     */
-    private Expression parseLogicalAndExpression(ParserState state) {
-        Expression left = parseLogicalNotExpression(state);
-        state.skipWhitespace();
-        while (eat(state, "AND") || eat(state, "&&")) {
-            left = new LogicalNode(LogicalOp.AND, left, parseLogicalNotExpression(state));
+        if (state.lookingAt("IN")) {
+            return TK_IN;
+        } else if (state.lookingAt("LIKE") || state.lookingAt("MATCHES")) {
+            return TK_LIKE;
+        } else if (state.lookingAt("NOT")) {
+            return TK_NOT;
+        } else if (state.lookingAt("AND") || state.lookingAt("&&")) {
+            return TK_AND;
+        } else if (state.lookingAt("OR") || state.lookingAt("||")) {
+            return TK_OR;
+        } else {
+            return TK_END;
         }
-        return left;
     }
 
-    /**
-     * 解析逻辑 NOT（前置 NOT 运算符）
-     */
-    private Expression parseLogicalNotExpression(ParserState state) {
-        if (eat(state, "NOT") || eat(state, "!")) {
-            return new LogicalNode(LogicalOp.NOT, parseComparisonExpression(state), null);
-        }
-        return parseComparisonExpression(state);
+    private boolean isComparisonToken(int token) {
+        return token == TK_CMP || token == TK_IN || token == TK_LIKE || token == TK_NOT;
     }
 
     /**
-     * 解析比较表达式（包括 IN/LIKE 等高级操作符）
+     * 检查归约后当前位置是否接受该运算符（不接受时，作为表达式结束）
      */
-    private Expression parseComparisonExpression(ParserState state) {
-        Expression left = parseAdditiveExpression(state);
-        state.skipWhitespace();
-
-        if (isComparisonOperatorStart(state.getCurrentChar())) {
-            String op = parseComparisonOperator(state);
-            return new ComparisonNode(ComparisonOp.parse(op), left, parseAdditiveExpression(state));
-        } else if (eat(state, "IN")) {
-            return new ComparisonNode(ComparisonOp.in, left, parseListExpression(state));
-        } else if (eat(state, "LIKE")) {
-            return new ComparisonNode(ComparisonOp.lk, left, parseAdditiveExpression(state));
-        } else if (eat(state, "NOT")) {
-            if (eat(state, "IN")) {
-                return new ComparisonNode(ComparisonOp.nin, left, parseListExpression(state));
-            } else if (eat(state, "LIKE")) {
-                return new ComparisonNode(ComparisonOp.nlk, left, parseAdditiveExpression(state));
-            }
-            throw new CompilationException("Invalid NOT expression");
+    private boolean acceptOperator(OperatorStack stack, int token, boolean full) {
+        switch (token) {
+            case TK_CMP:
+            case TK_IN:
+            case TK_LIKE:
+            case TK_NOT:
+                return stack.top() != OP_CMP;
+            case TK_QUESTION:
+                return full || stack.top() != OP_BOTTOM;
+            case TK_COLON:
+                return stack.top() == OP_QUESTION;
+            case TK_ELVIS:
+                if (stack.top() == OP_QUESTION) {
+                    throw new CompilationException("Expected ':' in ternary expression");
+                }
+                return full || stack.top() != OP_BOTTOM;
+            default:
+                return true;
         }
-        return left;
     }
 
     /**
-     * 解析加减法表达式
+     * 消费运算符并入栈（IN / NOT 除外）
      */
-    private Expression parseAdditiveExpression(ParserState state) {
-        Expression left = parseMultiplicativeExpression(state);
-        while (true) {
-            if (eat(state, '+')) {
-                left = new ArithmeticNode(ArithmeticOp.ADD, left, parseMultiplicativeExpression(state));
-            } else if (eat(state, '-')) {
-                left = new ArithmeticNode(ArithmeticOp.SUB, left, parseMultiplicativeExpression(state));
-            } else {
+    private void pushOperator(ParserState state, OperatorStack stack, int token) {
+        switch (token) {
+            case TK_MUL: {
+                int c = state.getCurrentChar();
+                state.nextChar();
+                stack.push(OP_MUL, c == '*' ? ArithmeticOp.MUL : (c == '/' ? ArithmeticOp.DIV : ArithmeticOp.MOD));
                 break;
             }
-        }
-        return left;
-    }
-
-    /**
-     * 解析乘除法表达式
-     */
-    private Expression parseMultiplicativeExpression(ParserState state) {
-        Expression left = parseSafeNavigationExpression(state);
-        while (true) {
-            if (eat(state, '*')) {
-                left = new ArithmeticNode(ArithmeticOp.MUL, left, parseSafeNavigationExpression(state));
-            } else if (eat(state, '/')) {
-                left = new ArithmeticNode(ArithmeticOp.DIV, left, parseSafeNavigationExpression(state));
-            } else if (eat(state, '%')) {
-                left = new ArithmeticNode(ArithmeticOp.MOD, left, parseSafeNavigationExpression(state));
-            } else {
+            case TK_ADD: {
+                int c = state.getCurrentChar();
+                state.nextChar();
+                stack.push(OP_ADD, c == '+' ? ArithmeticOp.ADD : ArithmeticOp.SUB);
                 break;
             }
+            case TK_CMP:
+                stack.push(OP_CMP, parseComparisonOperator(state));
+                break;
+            case TK_LIKE:
+                if (state.lookingAt("LIKE")) {
+                    state.skip(4);
+                    stack.push(OP_CMP, ComparisonOp.lk);
+                } else {
+                    state.skip(7);
+                    stack.push(OP_CMP, ComparisonOp.mt);
+                }
+                break;
+            case TK_AND:
+                state.skip(state.getCurrentChar() == '&' ? 2 : 3);
+                stack.pushLogical(OP_AND);
+                break;
+            case TK_OR:
+                state.skip(2);
+                stack.pushLogical(OP_OR);
+                break;
+            case TK_QUESTION:
+                state.nextChar();
+                stack.push(OP_QUESTION, null);
+                break;
+            case TK_COLON:
+                state.nextChar();
+                stack.replaceTop(OP_COLON);
+                break;
+            case TK_ELVIS:
+                state.skip(2);
+                stack.push(OP_ELVIS, null);
+                break;
+            default:
+                throw state.error("Unexpected operator");
         }
-        return left;
     }
 
     /**
-     * 解析基本表达式单元：
-     * 1. 括号表达式 ( ... )
-     * 2. 数字字面量（如 123, 45.67）
-     * 3. 字符串字面量（如 'hello'）
-     * 4. 布尔常量（true/false）
-     * 5. 变量或属性访问（如 user.name）
-     * 6. 方法调用（如 Math.add(1, 2)）
-     * 7. ${} 属性表达式 或 #{} 包装表达式
+     * 解析基本表达式单元（括号由运算符栈处理）：
+     * 1. 数字字面量（如 123, 45.67）
+     * 2. 字符串字面量（如 'hello'）
+     * 3. 布尔常量（true/false）
+     * 4. 变量或属性访问（如 user.name）
+     * 5. 方法调用（如 Math.add(1, 2)）
+     * 6. ${} 属性表达式 或 #{} 包装表达式
      */
     private Expression parsePrimaryExpression(ParserState state) {
         state.skipWhitespace();
@@ -341,22 +620,23 @@ public class EvaluateParser implements Parser {
             expr = new TypeNode(className);
         } else if (isPropertyStart(state)) {
             // 检查是否是 ${} 属性表达式
-            String propertyExpr = parseMarkerExpressionContent(state);
-            expr = parsePropertyExpression(propertyExpr);
+            int start = state.getPosition();
+            int end = scanMarkerExpression(state);
+            expr = parsePropertyExpression(state.substring(start, end));
         } else if (isExpressionStart(state)) {
             // 检查是否是 #{} 或 {} 包装表达式
-            String innerExprStr = parseMarkerExpressionContent(state);
-            // 核心修正：根据起始字符剥离外壳，递归解析内部纯算术/逻辑内容
-            int markerLen = (innerExprStr.charAt(0) == parser.MARK_BRACE_OPEN) ? 1 : 2;
-            String rawContent = innerExprStr.substring(markerLen, innerExprStr.length() - 1);
-            expr = parseDo(rawContent);
-        } else if (eat(state, '(')) {
-            expr = parseElvisExpression(state);
-            require(state, ')', "Expected ')' after expression");
+            int start = state.getPosition();
+            int end = scanMarkerExpression(state);
+            // 根据起始字符剥离外壳，按区间递归解析内部纯算术/逻辑内容
+            int markerLen = (state.charAt(start) == parser.MARK_BRACE_OPEN) ? 1 : 2;
+            if (end - 1 < start + markerLen) {
+                throw state.error("Unclosed expression");
+            }
+            expr = parseDo(state.buffer(), start + markerLen, end - 1);
         } else if (state.isNumber()) {
-            expr = new ConstantNode(parseNumber(state));
+            expr = parseLiteral(state, parseNumber(state));
         } else if (state.isString()) {
-            expr = new ConstantNode(parseString(state));
+            expr = parseLiteral(state, parseString(state));
         } else if (state.isArray()) {
             expr = parseListExpression(state);
         } else if (checkKeyword(state, "true")) {
@@ -369,7 +649,7 @@ public class EvaluateParser implements Parser {
             String identifier = parseIdentifier(state);
 
             if(identifier != null && identifier.length() > 0) {
-                expr = new VariableNode(identifier);
+                expr = parseFunctionCall(state, identifier);
             } else {
                 throw state.error("Expression is invalid");
             }
@@ -378,36 +658,52 @@ public class EvaluateParser implements Parser {
         return parsePostfix(state, expr);
     }
 
+    /**
+     * 解析函数调用（已注册且参数个数匹配时，绑定为函数节点；否则保持原有的变量方法调用语义）
+     */
+    private Expression parseFunctionCall(ParserState state, String identifier) {
+        if (parser.getFunctions().contains(identifier)) {
+            if (eat(state, '(')) {
+                List<Expression> args = parseMethodArguments(state);
+                require(state, ')', "Expected ')' after arguments");
+
+                SnelFunction function = parser.getFunctions().get(identifier, args.size());
+                if (function != null) {
+                    return new FunctionNode(identifier, function, args);
+                } else {
+                    return new MethodNode(new VariableNode(identifier), identifier, args);
+                }
+            }
+        }
+
+        return new VariableNode(identifier);
+    }
+
     /**
      * 解析类名（允许点分隔的标识符）
      */
     private String parseClassName(ParserState state) {
-        StringBuilder sb = new StringBuilder();
+        int start = state.getPosition();
         while (state.isIdentifierStart() || state.getCurrentChar() == '.') {
-            sb.append((char) state.getCurrentChar());
             state.nextChar();
         }
-        return sb.toString();
+        return state.name(start, state.getPosition());
     }
 
     /**
-     * 解析带标记的表达式（如 ${xxx} 或 #{xxx} 或 {xxx}）
+     * 扫描带标记的表达式（如 ${xxx} 或 #{xxx} 或 {xxx}），返回结束位置（不含）
      */
-    private String parseMarkerExpressionContent(ParserState state) {
-        StringBuilder sb = new StringBuilder();
+    private int scanMarkerExpression(ParserState state) {
         int first = state.getCurrentChar();
-        sb.append((char) first); // marker char (# / $ / {)
-        state.nextChar();
+        state.nextChar(); // marker char (# / $ / {)
 
         if (first != parser.MARK_BRACE_OPEN) {
-            sb.append((char) state.getCurrentChar()); // { char
-            state.nextChar();
+            state.nextChar(); // { char
         }
 
         int braceCount = 1; // 已经进入一个大括号
         while (state.getCurrentChar() != -1 && braceCount > 0) {
-            char c = (char) state.getCurrentChar();
-            sb.append(c);
+            int c = state.getCurrentChar();
             state.nextChar();
 
             if (c == parser.MARK_BRACE_OPEN) {
@@ -417,7 +713,7 @@ public class EvaluateParser implements Parser {
             }
         }
 
-        return sb.toString();
+        return state.getPosition();
     }
 
     /**
@@ -428,10 +724,15 @@ public class EvaluateParser implements Parser {
         while (true) {
             state.skipWhitespace();
             if (eat(state, '.')) {
+                if (isCollectionOperator(state)) {
+                    expr = parseCollectionOperator(state, expr);
+                    continue;
+                }
+
                 String prop = parseIdentifier(state);
                 expr = new PropertyNode(expr, prop);
             } else if (eat(state, '[')) {
-                Expression indexExpr = parseLogicalOrExpression(state);
+                Expression indexExpr = parseExpression(state, false);
                 require(state, ']', "Expected ']' after index");
                 expr = new PropertyNode(expr, indexExpr);
             } else if (eat(state, '(')) {
@@ -439,7 +740,7 @@ public class EvaluateParser implements Parser {
                 require(state, ')', "Expected ')' after arguments");
                 if (expr instanceof PropertyNode) {
                     PropertyNode propNode = (PropertyNode) expr;
-                    expr = new MethodNode(propNode.getTarget(), propNode.getPropertyName(), args);
+                    expr = parseCollectionCall(propNode, args);
                 } else if (expr instanceof VariableNode) {
                     VariableNode varNode = (VariableNode) expr;
                     expr = new MethodNode(varNode, varNode.getName(), args);
@@ -453,6 +754,73 @@ public class EvaluateParser implements Parser {
         return expr;
     }
 
+    /**
+     * 是否为集合运算符（?[ ![ ^[ $[）
+     */
+    private boolean isCollectionOperator(ParserState state) {
+        int c = state.getCurrentChar();
+        return (c == '?' || c == '!' || c == '^' || c == '$') && state.peekNextChar() == '[';
+    }
+
+    /**
+     * 解析集合运算符（选择、首个、末个、投影；连续的运算融合为一个节点）
+     */
+    private Expression parseCollectionOperator(ParserState state, Expression target) {
+        int c = state.getCurrentChar();
+        state.skip(2);
+
+        Expression inner = parseExpression(state, true);
+        require(state, ']', "Expected ']' after collection expression");
+
+        switch (c) {
+            case '!':
+                return CollectionNode.append(target, CollectionNode.Stage.project(inner), CollectionNode.Terminal.LIST);
+            case '^':
+                return CollectionNode.append(target, CollectionNode.Stage.select(inner), CollectionNode.Terminal.FIRST);
+            case '$':
+                return CollectionNode.append(target, CollectionNode.Stage.select(inner), CollectionNode.Terminal.LAST);
+            default:
+                return CollectionNode.append(target, CollectionNode.Stage.select(inner), CollectionNode.Terminal.LIST);
+        }
+    }
+
+    /**
+     * 解析属性上的方法调用（集合节点的 size() 与 isEmpty() 转为计数与判空，不产生列表）
+     */
+    private Expression parseCollectionCall(PropertyNode propNode, List<Expression> args) {
+        Expression target = propNode.getTarget();
+        String name = propNode.getPropertyName();
+
+        if (args.isEmpty() && target.getClass() == CollectionNode.class
+                && ((CollectionNode) target).getTerminal() == CollectionNode.Terminal.LIST) {
+            if ("size".equals(name)) {
+                return ((CollectionNode) target).withTerminal(CollectionNode.Terminal.COUNT);
+            } else if ("isEmpty".equals(name)) {
+                return ((CollectionNode) target).withTerminal(CollectionNode.Terminal.EMPTY);
+            }
+        }
+
+        return new MethodNode(target, name, args);
+    }
+
+    /**
+     * 构建比较（集合计数与 0、1 比较时，转为命中即停止的判断）
+     */
+    private static Expression newComparison(ComparisonOp op, Expression left, Expression right) {
+        if (left.getClass() == CollectionNode.class && ((CollectionNode) left).getTerminal() == CollectionNode.Terminal.COUNT
+                && right instanceof ConstantNode && ((ConstantNode) right).getValue() instanceof Integer) {
+            int n = (Integer) ((ConstantNode) right).getValue();
+
+            if ((n == 0 && (op == ComparisonOp.gt || op == ComparisonOp.neq)) || (n == 1 && op == ComparisonOp.gte)) {
+                return ((CollectionNode) left).withTerminal(CollectionNode.Terminal.EXISTS);
+            } else if ((n == 0 && (op == ComparisonOp.eq || op == ComparisonOp.lte)) || (n == 1 && op == ComparisonOp.lt)) {
+                return ((CollectionNode) left).withTerminal(CollectionNode.Terminal.EMPTY);
+            }
+        }
+
+        return new ComparisonNode(op, left, right);
+    }
+
     /**
      * 解析变量、属性访问或方法调用
      */
@@ -469,7 +837,7 @@ public class EvaluateParser implements Parser {
                 expr = new PropertyNode(expr, prop);
             } else if (eat(state, '[')) {
                 // 解析方括号属性访问：obj['property'] 或 obj[0]
-                Expression propExpr = parseLogicalOrExpression(state);
+                Expression propExpr = parseExpression(state, false);
                 eat(state, ']');
                 expr = new PropertyNode(expr, propExpr);
             } else if (eat(state, '(')) {
@@ -500,7 +868,11 @@ public class EvaluateParser implements Parser {
     private List<Expression> parseMethodArguments(ParserState state) {
         List<Expression> args = new ArrayList<>();
         while (state.getCurrentChar() != ')') {
-            args.add(parseLogicalOrExpression(state));
+            if (state.getCurrentChar() == -1) {
+                throw state.error("Expected ')' after arguments");
+            }
+
+            args.add(parseExpression(state, false));
             if (eat(state, ',')) continue;
         }
         return args;
@@ -508,41 +880,57 @@ public class EvaluateParser implements Parser {
 
     // 以下为工具方法 --------------------------------
 
-    /**
-     * 检查字符是否是比较操作符的起始字符（>、<、=、!）
-     */
-    private boolean isComparisonOperatorStart(int c) {
-        return c == '>' || c == '<' || c == '=' || c == '!';
-    }
-
     /**
      * 解析比较操作符（支持 ==、!=、>=、<=）
      */
-    private String parseComparisonOperator(ParserState state) {
-        StringBuilder sb = new StringBuilder();
-        sb.append((char) state.getCurrentChar());
+    private ComparisonOp parseComparisonOperator(ParserState state) {
+        int c = state.getCurrentChar();
         state.nextChar();
-        if (state.getCurrentChar() == '=') {
-            sb.append((char) state.getCurrentChar());
+        boolean withEq = (state.getCurrentChar() == '=');
+        if (withEq) {
             state.nextChar();
         }
-        return sb.toString();
+
+        switch (c) {
+            case '>':
+                return withEq ? ComparisonOp.gte : ComparisonOp.gt;
+            case '<':
+                return withEq ? ComparisonOp.lte : ComparisonOp.lt;
+            case '=':
+                return withEq ? ComparisonOp.eq : ComparisonOp.parse("=");
+            default:
+                return withEq ? ComparisonOp.neq : ComparisonOp.parse(String.valueOf((char) c));
+        }
     }
 
     /**
-     * 解析列表（用于 IN 操作符）
+     * 解析列表（如 [1, 2, 3]，用于 IN 操作符）
      */
     private Expression parseListExpression(ParserState state) {
-        if (eat(state, '[')) {
-            List<Object> list = new ArrayList<>();
-            while (state.getCurrentChar() != ']') {
-                list.add(parseValue(state));
-                if (eat(state, ',')) continue;
-            }
-            eat(state, ']');
-            return new ConstantNode(list);
+        require(state, '[', "Expected '[' before list");
+
+        List<Object> list = new ArrayList<>();
+        while (state.getCurrentChar() != ']') {
+            if (state.getCurrentChar() == -1) {
+                throw state.error("Expected ']' after list");
+            }
+
+            list.add(parseValue(state));
+            if (eat(state, ',')) continue;
+        }
+        eat(state, ']');
+        return parseLiteral(state, list);
+    }
+
+    /**
+     * 解析字面量（参数化解析时，转为参数节点）
+     */
+    private Expression parseLiteral(ParserState state, Object value) {
+        if (state.params == null) {
+            return new ConstantNode(value);
         } else {
-            return parseTernaryExpression(state);
+            state.params.add(value);
+            return new ParameterNode(state.params.size() - 1);
         }
     }
 
@@ -570,45 +958,48 @@ public class EvaluateParser implements Parser {
      * 解析字符串
      */
     private String parseString(ParserState state) {
-        char quote = (char) state.getCurrentChar();
+        int quote = state.getCurrentChar();
         state.nextChar();
-        StringBuilder sb = new StringBuilder();
+        int start = state.getPosition();
         while (state.getCurrentChar() != quote) {
-            sb.append((char) state.getCurrentChar());
+            if (state.getCurrentChar() == -1) {
+                throw state.error("Unterminated string");
+            }
             state.nextChar();
         }
+        String str = state.substring(start, state.getPosition());
         state.nextChar();
-        return sb.toString();
+        return str;
     }
 
     /**
      * 解析数字
      */
     private Number parseNumber(ParserState state) {
-        StringBuilder sb = new StringBuilder();
+        final int start = state.getPosition();
         boolean isFloat = false;
         boolean isDouble = false;
         boolean isLong = false;
+        boolean isPlain = true; // 纯 ascii 整数（可直接计算）
 
         while (state.isNumber() || state.getCurrentChar() == '.') {
-            if (state.getCurrentChar() == '.') {
+            int c = state.getCurrentChar();
+            if (c == '.') {
                 isDouble = true;
-            }
-
-            if (state.getCurrentChar() == '-') {
-                if (sb.length() > 0) {
-                    //识别："4.56e-3"（科学表示法） 或 "1-3"（算数）
-                    char c2 = sb.charAt(sb.length() - 1);
-                    if ((c2 != 'E' || c2 != 'e')) {
-                        break;
-                    }
+            } else if (c == '-') {
+                //识别："-3"（负数） 或 "1-3"（算数）
+                if (state.getPosition() > start) {
+                    break;
                 }
+            } else if (c > '9') {
+                isPlain = false;
             }
 
-            sb.append((char) state.getCurrentChar());
             state.nextChar();
         }
 
+        final int end = state.getPosition();
+
         if (Character.toUpperCase(state.getCurrentChar()) == 'L') {
             isLong = true;
             state.nextChar();
@@ -621,7 +1012,26 @@ public class EvaluateParser implements Parser {
             state.nextChar();
         }
 
-        String numberStr = sb.toString();
+        if (isPlain && isDouble == false && isFloat == false && isLong == false) {
+            //快速路径：不超过 9 位的整数，直接计算（避免创建字符串）
+            int digitStart = (state.charAt(start) == '-') ? start + 1 : start;
+            int digits = end - digitStart;
+            if (digits > 0 && digits <= 9) {
+                int val = 0;
+                for (int i = digitStart; i < end; i++) {
+                    val = val * 10 + (state.charAt(i) - '0');
+                }
+                return (digitStart > start) ? -val : val;
+            }
+        }
+
+        return toNumber(state.substring(start, end), isDouble, isFloat, isLong);
+    }
+
+    /**
+     * 数字文本转为数字
+     */
+    static Number toNumber(String numberStr, boolean isDouble, boolean isFloat, boolean isLong) {
         try {
             if (isDouble) {
                 return Double.parseDouble(numberStr);
@@ -641,26 +1051,23 @@ public class EvaluateParser implements Parser {
      * 解析标识符 (排除 $)
      */
     private String parseIdentifier(ParserState state) {
-        StringBuilder sb = new StringBuilder();
+        int start = state.getPosition();
         while (state.isIdentifierStart()) {
-            sb.append((char) state.getCurrentChar());
             state.nextChar();
         }
-        return sb.toString();
+        return state.name(start, state.getPosition());
     }
 
     /**
-     * 检查并跳过指定字符串
+     * 检查并跳过指定字符串（不匹配时不消费任何字符）
      */
     private boolean eat(ParserState state, String expected) {
         state.skipWhitespace();
-        for (int i = 0; i < expected.length(); i++) {
-            if (state.getCurrentChar() != expected.charAt(i)) {
-                return false;
-            }
-            state.nextChar();
+        if (state.lookingAt(expected)) {
+            state.skip(expected.length());
+            return true;
         }
-        return true;
+        return false;
     }
 
     /**
@@ -687,39 +1094,276 @@ public class EvaluateParser implements Parser {
     }
 
     /**
-     * 检查当前是否是关键字（如 true/false）
+     * 检查当前是否是关键字（如 true/false），是则跳过
      */
     private boolean checkKeyword(ParserState state, String keyword) {
-        state.mark();
-        for (int i = 0; i < keyword.length(); i++) {
-            if (state.getCurrentChar() != keyword.charAt(i)) {
-                state.reset();
-                return false;
+        if (state.lookingAt(keyword) && isIdentifierChar(state.charAtOffset(keyword.length())) == false) {
+            state.skip(keyword.length());
+            return true;
+        }
+        return false;
+    }
+
+    // 字符分类表 ----------------------------
+
+    private static final byte CC_WHITESPACE = 1;
+    private static final byte CC_DIGIT = 2;
+    private static final byte CC_IDENTIFIER = 4;
+    private static final byte[] CHAR_CLASS = new byte[128];
+
+    static {
+        for (int c = 0; c < CHAR_CLASS.length; c++) {
+            if (Character.isWhitespace(c)) {
+                CHAR_CLASS[c] |= CC_WHITESPACE;
+            }
+            if (c >= '0' && c <= '9') {
+                CHAR_CLASS[c] |= CC_DIGIT | CC_IDENTIFIER;
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_') {
+                CHAR_CLASS[c] |= CC_IDENTIFIER;
             }
-            state.nextChar();
         }
-        if (state.isIdentifierStart()) {
-            state.reset();
+    }
+
+    private static boolean isWhitespace(int c) {
+        if (c < 0) {
             return false;
+        } else if (c < 128) {
+            return (CHAR_CLASS[c] & CC_WHITESPACE) != 0;
+        } else {
+            return Character.isWhitespace(c);
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        if (c < 0) {
+            return false;
+        } else if (c < 128) {
+            return (CHAR_CLASS[c] & CC_DIGIT) != 0;
+        } else {
+            return Character.isDigit(c);
+        }
+    }
+
+    /**
+     * 是否为标识符字符（排除 $，仅限字母/数字/下划线）
+     */
+    private static boolean isIdentifierChar(int c) {
+        if (c < 0) {
+            return false;
+        } else if (c < 128) {
+            return (CHAR_CLASS[c] & CC_IDENTIFIER) != 0;
+        } else {
+            return Character.isLetterOrDigit(c);
+        }
+    }
+
+    // 内部类：标识符池 ----------------------------
+
+    /**
+     * 标识符池（无锁的覆盖式缓存；命中时不创建新字符串，同名标识符共享同一实例）
+     */
+    private static class NamePool {
+        private static final int SIZE = 1024;
+        private static final int MAX_LENGTH = 64;
+        private final String[] table = new String[SIZE];
+
+        String intern(char[] buf, int start, int end) {
+            final int len = end - start;
+            if (len == 0) {
+                return "";
+            } else if (len > MAX_LENGTH) {
+                return new String(buf, start, len);
+            }
+
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + buf[i];
+            }
+
+            int idx = (h ^ (h >>> 16)) & (SIZE - 1);
+            String name = table[idx];
+            if (name != null && name.length() == len && name.hashCode() == h && regionEquals(name, buf, start)) {
+                return name;
+            }
+
+            name = new String(buf, start, len);
+            table[idx] = name;
+            return name;
+        }
+
+        private static boolean regionEquals(String name, char[] buf, int start) {
+            for (int i = 0, len = name.length(); i < len; i++) {
+                if (name.charAt(i) != buf[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // 内部类：运算符栈 ----------------------------
+
+    private static class OperatorStack {
+        private int[] kinds = new int[16];
+        private Object[] ops = new Object[16];
+        private int size;
+        private Expression[] operands = new Expression[16];
+        private int operandSize;
+
+        public OperatorStack() {
+            kinds[0] = OP_BOTTOM;
+            size = 1;
+        }
+
+        /**
+         * 栈顶运算符种类
+         */
+        public int top() {
+            return kinds[size - 1];
+        }
+
+        public void push(int kind, Object op) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                ops = Arrays.copyOf(ops, size * 2);
+            }
+
+            kinds[size] = kind;
+            ops[size] = op;
+            size++;
+        }
+
+        /**
+         * 入栈 AND / OR（栈顶为同一运算符时，当前操作数并入其链）
+         */
+        public void pushLogical(int kind) {
+            if (top() == kind) {
+                ((List<Expression>) ops[size - 1]).add(popOperand());
+            } else {
+                List<Expression> chain = new ArrayList<>();
+                chain.add(popOperand());
+                push(kind, chain);
+            }
+        }
+
+        public void pop() {
+            size--;
+            ops[size] = null;
+        }
+
+        /**
+         * 替换栈顶运算符种类（三元 ? 遇到 : 时）
+         */
+        public void replaceTop(int kind) {
+            kinds[size - 1] = kind;
+        }
+
+        public void pushOperand(Expression operand) {
+            if (operandSize == operands.length) {
+                operands = Arrays.copyOf(operands, operandSize * 2);
+            }
+
+            operands[operandSize++] = operand;
+        }
+
+        public Expression popOperand() {
+            Expression operand = operands[--operandSize];
+            operands[operandSize] = null;
+            return operand;
+        }
+
+        /**
+         * 归约右结合力不小于 lbp 的运算符（遇到屏障停止）
+         */
+        public void reduce(int lbp) {
+            while (OP_RBP[top()] >= lbp) {
+                int kind = kinds[size - 1];
+                Object op = ops[size - 1];
+                pop();
+
+                Expression right = popOperand();
+
+                switch (kind) {
+                    case OP_NOT:
+                        pushOperand(new LogicalNode(LogicalOp.NOT, right, null));
+                        break;
+                    case OP_AND:
+                    case OP_OR: {
+                        List<Expression> chain = (List<Expression>) op;
+                        chain.add(right);
+                        pushOperand(new LogicalNode(kind == OP_AND ? LogicalOp.AND : LogicalOp.OR, chain));
+                        break;
+                    }
+                    case OP_CMP:
+                    case OP_IN:
+                        pushOperand(newComparison((ComparisonOp) op, popOperand(), right));
+                        break;
+                    case OP_ADD:
+                        pushOperand(buildAdd((ArithmeticOp) op, popOperand(), right));
+                        break;
+                    case OP_MUL:
+                        pushOperand(new ArithmeticNode((ArithmeticOp) op, popOperand(), right));
+                        break;
+                    case OP_ELVIS:
+                        pushOperand(new ElvisNode(popOperand(), right));
+                        break;
+                    case OP_COLON: {
+                        Expression trueExpr = popOperand();
+                        Expression condition = popOperand();
+                        pushOperand(new TernaryNode((Expression<Boolean>) condition, trueExpr, right));
+                        break;
+                    }
+                    default:
+                        throw new CompilationException("Unexpected operator stack state");
+                }
+            }
+        }
+
+        /**
+         * 构建加减节点（左侧已确定为字符串拼接时，合并为拼接节点）
+         */
+        private Expression buildAdd(ArithmeticOp op, Expression left, Expression right) {
+            if (op == ArithmeticOp.ADD) {
+                if (left instanceof ConcatNode) {
+                    return ((ConcatNode) left).append(right);
+                }
+
+                if (left.getClass() == ArithmeticNode.class) {
+                    ArithmeticNode add = (ArithmeticNode) left;
+                    if (add.getOperator() == ArithmeticOp.ADD && (isStringConstant(add.getLeft()) || isStringConstant(add.getRight()))) {
+                        return new ConcatNode(Arrays.asList(add.getLeft(), add.getRight(), right));
+                    }
+                }
+            }
+
+            return new ArithmeticNode(op, left, right);
+        }
+
+        private boolean isStringConstant(Expression expr) {
+            return expr.getClass() == ConstantNode.class && ((ConstantNode) expr).getValue() instanceof String;
         }
-        return true;
     }
 
     // 内部类：封装解析状态 ----------------------------
 
     /**
-     * 解析器状态跟踪器
+     * 解析器状态跟踪器（基于 char[] 与偏移量扫描，标记与子表达式均以区间引用源码）
      */
     private static class ParserState {
-        private final String reader;
-        private int ch;      // 当前字符
-        private int position = 0;
-        private int markedCh = 0;
-        private int markedPosition = 0;
-
-        public ParserState(String reader) {
-            this.reader = reader;
-            nextChar(); // 初始化读取第一个字符
+        private final char[] buf;
+        private final int end;
+        private final NamePool names;
+        private List<Object> params; // 参数化解析时收集字面量
+        private int position; // 当前字符位置
+        private int ch;       // 当前字符
+
+        public ParserState(char[] buf, int start, int end, NamePool names) {
+            this.buf = buf;
+            this.end = end;
+            this.names = names;
+            this.position = start;
+            this.ch = (start < end) ? buf[start] : -1;
         }
 
         /**
@@ -729,27 +1373,89 @@ public class EvaluateParser implements Parser {
             return ch;
         }
 
+        /**
+         * 获取当前位置
+         */
+        public int getPosition() {
+            return position;
+        }
+
         /**
          * 前进到下一个字符
          */
         public void nextChar() {
-            if (position < reader.length()) {
-                ch = reader.charAt(position);
+            if (position < end) {
                 position++;
-            } else {
-                ch = -1;
             }
+            ch = (position < end) ? buf[position] : -1;
+        }
+
+        /**
+         * 前进 n 个字符
+         */
+        public void skip(int n) {
+            position = Math.min(position + n, end);
+            ch = (position < end) ? buf[position] : -1;
         }
 
         /**
          * 查看下一个字符（不移动指针）
          */
         public int peekNextChar() {
-            if (position < reader.length()) {
-                return reader.charAt(position);
-            } else {
-                return -1;
+            return charAtOffset(1);
+        }
+
+        /**
+         * 查看相对当前位置的字符（不移动指针）
+         */
+        public int charAtOffset(int offset) {
+            int idx = position + offset;
+            return (idx < end) ? buf[idx] : -1;
+        }
+
+        /**
+         * 获取指定位置的字符
+         */
+        public char charAt(int idx) {
+            return buf[idx];
+        }
+
+        /**
+         * 当前位置是否以指定文本开始（不移动指针）
+         */
+        public boolean lookingAt(String text) {
+            int len = text.length();
+            if (position + len > end) {
+                return false;
             }
+
+            for (int i = 0; i < len; i++) {
+                if (buf[position + i] != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 源码缓冲
+         */
+        public char[] buffer() {
+            return buf;
+        }
+
+        /**
+         * 截取源码区间
+         */
+        public String substring(int start, int end) {
+            return new String(buf, start, end - start);
+        }
+
+        /**
+         * 截取源码区间作为标识符（池化）
+         */
+        public String name(int start, int end) {
+            return names.intern(buf, start, end);
         }
 
         public CompilationException error(String message) {
@@ -761,7 +1467,7 @@ public class EvaluateParser implements Parser {
          * 跳过空白字符
          */
         public void skipWhitespace() {
-            while (Character.isWhitespace(ch)) nextChar();
+            while (isWhitespace(ch)) nextChar();
         }
 
         /**
@@ -775,14 +1481,7 @@ public class EvaluateParser implements Parser {
          * 检查当前是否是数字起始字符
          */
         public boolean isNumber() {
-            return Character.isDigit(ch) || ch == '-';
-        }
-
-        /**
-         * 检查当前是否是数字字符
-         */
-        public boolean isDigit() {
-            return Character.isDigit(ch);
+            return isDigit(ch) || ch == '-';
         }
 
         /**
@@ -796,23 +1495,7 @@ public class EvaluateParser implements Parser {
          * 检查当前是否是标识符字符（排除 $，仅限字母/数字/下划线）
          */
         public boolean isIdentifierStart() {
-            return Character.isLetterOrDigit(ch) || ch == '_';
-        }
-
-        /**
-         * 获取当前读取位置
-         */
-        public void mark() {
-            markedCh = ch;
-            markedPosition = position;
-        }
-
-        /**
-         * 设置读取位置（用于回滚）
-         */
-        public void reset() {
-            ch = markedCh;
-            position = markedPosition;
+            return isIdentifierChar(ch);
         }
 
         @Override
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.guidance.BeanGuidance;
+import org.noear.solon.expression.guidance.TypeGuidance;
+
+import java.util.function.Function;
+
+/**
+ * 表达式绑定器（按环境一次性解析 @bean、T() 类型与模板的指导标记，之后只需提供每次请求的变量）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public final class ExpressionBinder {
+    private ExpressionBinder() {
+    }
+
+    /**
+     * 绑定
+     *
+     * @param expression  表达式
+     * @param environment 环境（实现 BeanGuidance、TypeGuidance、PropertiesGuidance、ReturnGuidance 的对象，一般为 EnhanceContext）
+     */
+    public static Expression bind(Expression expression, Object environment) {
+        if (expression instanceof BoundExpression) {
+            expression = ((BoundExpression) expression).getSource();
+        }
+
+        Expression bound = NodeUtil.transform(expression, node -> bindNode(node, environment));
+        return new BoundExpression(expression, bound);
+    }
+
+    private static Expression bindNode(Expression node, Object environment) {
+        if (node instanceof BeanNode) {
+            if (environment instanceof BeanGuidance) {
+                return new ConstantNode(((BeanGuidance) environment).getBean(((BeanNode) node).getBeanName()));
+            } else {
+                return new ConstantNode(null);
+            }
+        } else if (node instanceof TypeNode) {
+            if (environment instanceof TypeGuidance) {
+                String className = ((TypeNode) node).getClassName();
+                try {
+                    return new ConstantNode(((TypeGuidance) environment).getType(className));
+                } catch (EvaluationException e) {
+                    //找不到也缓存（评估时报错）
+                    return new FailedNode(node, e);
+                }
+            } else {
+                return node;
+            }
+        } else if (node instanceof TemplateNode) {
+            return ((TemplateNode) node).bind(environment);
+        } else {
+            return node;
+        }
+    }
+
+    /**
+     * 绑定失败的节点（评估时报错）
+     */
+    private static class FailedNode implements Expression {
+        private final Expression source;
+        private final EvaluationException error;
+
+        FailedNode(Expression source, EvaluationException error) {
+            this.source = source;
+            this.error = error;
+        }
+
+        @Override
+        public Object eval(Function context) {
+            throw EvaluationException.expected(error.getMessage(), error.getCause());
+        }
+
+        @Override
+        public String toString() {
+            return source.toString();
+        }
+    }
+}
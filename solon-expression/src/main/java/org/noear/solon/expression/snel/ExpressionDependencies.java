@@ -0,0 +1,221 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 表达式依赖（根变量、属性路径、${} 属性键、Bean 名字与 T() 类型；可用于只加载表达式读取的字段）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class ExpressionDependencies {
+    private final Set<String> variables = new LinkedHashSet<>();
+    private final Set<String> paths = new LinkedHashSet<>();
+    private final Set<String> propertyKeys = new LinkedHashSet<>();
+    private final Set<String> beans = new LinkedHashSet<>();
+    private final Set<String> types = new LinkedHashSet<>();
+    private final Set<String> functions = new LinkedHashSet<>();
+
+    private ExpressionDependencies() {
+    }
+
+    /**
+     * 分析（求值表达式或模板）
+     *
+     * @param expression 表达式
+     */
+    public static ExpressionDependencies analyze(Expression expression) {
+        ExpressionDependencies deps = new ExpressionDependencies();
+        deps.collect(expression);
+        return deps;
+    }
+
+    /**
+     * 根变量（如 order）
+     */
+    public Set<String> getVariables() {
+        return Collections.unmodifiableSet(variables);
+    }
+
+    /**
+     * 属性路径（最长的静态路径，如 order.customer.tier；整体使用的变量即为变量名；遇到数字或动态索引时截止）
+     */
+    public Set<String> getPaths() {
+        return Collections.unmodifiableSet(paths);
+    }
+
+    /**
+     * ${} 属性键
+     */
+    public Set<String> getPropertyKeys() {
+        return Collections.unmodifiableSet(propertyKeys);
+    }
+
+    /**
+     * Bean 名字
+     */
+    public Set<String> getBeans() {
+        return Collections.unmodifiableSet(beans);
+    }
+
+    /**
+     * T() 类型
+     */
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(types);
+    }
+
+    /**
+     * 注册函数名（如 lower）
+     */
+    public Set<String> getFunctions() {
+        return Collections.unmodifiableSet(functions);
+    }
+
+    private void collect(Expression root) {
+        List<Expression> nodes = NodeUtil.flatten(root);
+
+        //被静态路径延伸的目标（不是最长路径）
+        Set<Expression> extended = Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        for (Expression node : nodes) {
+            if (node instanceof PropertyNode && getStaticName((PropertyNode) node) != null) {
+                extended.add(((PropertyNode) node).getTarget());
+            } else if (node instanceof SafeNavigationNode) {
+                extended.add(((SafeNavigationNode) node).getTarget());
+            }
+        }
+
+        for (Expression node : nodes) {
+            if (node instanceof VariableNode) {
+                variables.add(((VariableNode) node).getName());
+            } else if (node instanceof BeanNode) {
+                beans.add(((BeanNode) node).getBeanName());
+            } else if (node instanceof TypeNode) {
+                types.add(((TypeNode) node).getClassName());
+            } else if (node instanceof FunctionNode) {
+                functions.add(((FunctionNode) node).getName());
+            } else if (node instanceof TemplateNode) {
+                collectTemplate((TemplateNode) node);
+            } else if (node instanceof CollectionNode) {
+                collectStages((CollectionNode) node);
+            }
+
+            if (extended.contains(node) == false) {
+                String path = getPath(node);
+                if (path != null) {
+                    paths.add(path);
+                }
+            }
+        }
+    }
+
+    private void collectTemplate(TemplateNode node) {
+        for (TemplateFragment fragment : node.getFragments()) {
+            if (fragment.getMarker() == TemplateMarker.PROPERTIES) {
+                propertyKeys.add(fragment.getPropertyKey());
+            } else if (fragment.getMarker() == TemplateMarker.EXPRESSION) {
+                collect(node.getParser().forEval().parse(fragment.getContent()));
+            }
+        }
+    }
+
+    /**
+     * 收集集合运算方括号内的依赖（名字可能是元素属性，按外层变量保守计入；#this 除外）
+     */
+    private void collectStages(CollectionNode node) {
+        for (CollectionNode.Stage stage : node.getStages()) {
+            ExpressionDependencies scoped = analyze(stage.getExpression());
+
+            for (String name : scoped.variables) {
+                if ("this".equals(name) == false) {
+                    variables.add(name);
+                }
+            }
+
+            for (String path : scoped.paths) {
+                if ("this".equals(path) == false && path.startsWith("this.") == false) {
+                    paths.add(path);
+                }
+            }
+
+            propertyKeys.addAll(scoped.propertyKeys);
+            beans.addAll(scoped.beans);
+            types.addAll(scoped.types);
+            functions.addAll(scoped.functions);
+        }
+    }
+
+    /**
+     * 获取静态路径（非静态时返回 null）
+     */
+    private static String getPath(Expression node) {
+        StringBuilder buf = new StringBuilder();
+        Set<Expression> visited = new HashSet<>();
+
+        while (true) {
+            if (node instanceof VariableNode) {
+                buf.insert(0, ((VariableNode) node).getName());
+                return buf.toString();
+            } else if (node instanceof PropertyNode) {
+                String name = getStaticName((PropertyNode) node);
+                if (name == null) {
+                    return null;
+                }
+
+                buf.insert(0, name).insert(0, '.');
+                node = ((PropertyNode) node).getTarget();
+            } else if (node instanceof SafeNavigationNode) {
+                buf.insert(0, ((SafeNavigationNode) node).getPropertyName()).insert(0, '.');
+                node = ((SafeNavigationNode) node).getTarget();
+            } else {
+                return null;
+            }
+
+            if (visited.add(node) == false) {
+                return null;
+            }
+        }
+    }
+
+    private static String getStaticName(PropertyNode node) {
+        Expression property = node.getProperty();
+        if (property instanceof ConstantNode && ((ConstantNode) property).getValue() instanceof String) {
+            return (String) ((ConstantNode) property).getValue();
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExpressionDependencies{" +
+                "variables=" + variables +
+                ", paths=" + paths +
+                ", propertyKeys=" + propertyKeys +
+                ", beans=" + beans +
+                ", types=" + types +
+                ", functions=" + functions +
+                '}';
+    }
+}
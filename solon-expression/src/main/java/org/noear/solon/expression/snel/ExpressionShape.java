@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 表达式形态（剥离数字、字符串、列表字面量，并规整空白后的结构键）
+ *
+ * <p>例：`userId == 1234 && score > 0.75` 与 `userId == 99 && score > 0.1` 有相同的形态</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+class ExpressionShape {
+    static final char PARAM_NUMBER = '\u0001';
+    static final char PARAM_STRING = '\u0002';
+    static final char PARAM_LIST = '\u0003';
+
+    private final String key;
+    private final Object[] params;
+
+    private ExpressionShape(String key, Object[] params) {
+        this.key = key;
+        this.params = params;
+    }
+
+    /**
+     * 形态键
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 字面量参数（按源码顺序）
+     */
+    public Object[] getParams() {
+        return params;
+    }
+
+    /**
+     * 分析表达式形态（不能参数化时返回 null）
+     */
+    public static ExpressionShape of(SnelParser parser, String expr) {
+        final int len = expr.length();
+        StringBuilder key = new StringBuilder(len);
+        List<Object> params = new ArrayList<>();
+        boolean expectOperand = true;
+        boolean pendingSpace = false;
+        int i = 0;
+
+        while (i < len) {
+            char c = expr.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (c == parser.MARK_BRACE_OPEN || c < ' ') {
+                //包装表达式或属性表达式（内容不是求值语法），或控制字符
+                return null;
+            }
+
+            if (pendingSpace) {
+                if (key.length() > 0) {
+                    key.append(' ');
+                }
+                pendingSpace = false;
+            }
+
+            if (c == '\'' || c == '"') {
+                int end = expr.indexOf(c, i + 1);
+                if (end < 0) {
+                    return null;
+                }
+
+                params.add(expr.substring(i + 1, end));
+                key.append(PARAM_STRING);
+                expectOperand = false;
+                i = end + 1;
+            } else if (isNumberStart(expr, i, expectOperand)) {
+                i = scanNumber(expr, i, params);
+                if (i < 0) {
+                    return null;
+                }
+
+                key.append(PARAM_NUMBER);
+                expectOperand = false;
+            } else if (c == '[' && expectOperand) {
+                i = scanList(expr, i, params);
+                if (i < 0) {
+                    return null;
+                }
+
+                key.append(PARAM_LIST);
+                expectOperand = false;
+            } else if (isWordChar(c)) {
+                int start = i;
+                while (i < len && isWordChar(expr.charAt(i))) {
+                    i++;
+                }
+
+                key.append(expr, start, i);
+                expectOperand = isOperatorWord(expr, start, i);
+            } else {
+                key.append(c);
+                expectOperand = (c != ')' && c != ']');
+                i++;
+            }
+        }
+
+        return new ExpressionShape(key.toString(), params.toArray());
+    }
+
+    /**
+     * 是否为数字字面量的开始（与求值解析器一致：数字或负号开头；紧跟在 `.`、`#`、`@` 后的数字属于标识符）
+     */
+    private static boolean isNumberStart(String expr, int i, boolean expectOperand) {
+        char c = expr.charAt(i);
+
+        if (Character.isDigit(c)) {
+            if (i > 0) {
+                char p = expr.charAt(i - 1);
+                return p != '.' && p != '#' && p != '@';
+            }
+            return true;
+        }
+
+        return c == '-' && expectOperand && i + 1 < expr.length() && Character.isDigit(expr.charAt(i + 1));
+    }
+
+    /**
+     * 扫描数字（规则与 EvaluateParser::parseNumber 一致）
+     */
+    private static int scanNumber(String expr, int i, List<Object> params) {
+        final int len = expr.length();
+        final int start = i;
+        boolean isDouble = false;
+        boolean isFloat = false;
+        boolean isLong = false;
+
+        while (i < len) {
+            char c = expr.charAt(i);
+            if (c == '.') {
+                isDouble = true;
+            } else if (c == '-') {
+                if (i > start) {
+                    break;
+                }
+            } else if (Character.isDigit(c) == false) {
+                break;
+            }
+            i++;
+        }
+
+        String numberStr = expr.substring(start, i);
+
+        if (i < len) {
+            char s = Character.toUpperCase(expr.charAt(i));
+            if (s == 'L') {
+                isLong = true;
+                i++;
+            } else if (s == 'F') {
+                isFloat = true;
+                isDouble = false;
+                i++;
+            } else if (s == 'D') {
+                isDouble = true;
+                i++;
+            }
+        }
+
+        try {
+            params.add(EvaluateParser.toNumber(numberStr, isDouble, isFloat, isLong));
+            return i;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 扫描列表字面量（仅支持数字、字符串、true、false、null 元素）
+     */
+    private static int scanList(String expr, int i, List<Object> params) {
+        final int len = expr.length();
+        List<Object> list = new ArrayList<>();
+        i++; // [
+
+        if (i < len && expr.charAt(i) == ']') {
+            params.add(list);
+            return i + 1;
+        }
+
+        while (true) {
+            i = skipWhitespace(expr, i);
+            if (i >= len) {
+                return -1;
+            }
+
+            char c = expr.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = expr.indexOf(c, i + 1);
+                if (end < 0) {
+                    return -1;
+                }
+                list.add(expr.substring(i + 1, end));
+                i = end + 1;
+            } else if (Character.isDigit(c) || c == '-') {
+                i = scanNumber(expr, i, list);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (expr.startsWith("true", i) && isWordEnd(expr, i + 4)) {
+                list.add(true);
+                i += 4;
+            } else if (expr.startsWith("false", i) && isWordEnd(expr, i + 5)) {
+                list.add(false);
+                i += 5;
+            } else if (expr.startsWith("null", i) && isWordEnd(expr, i + 4)) {
+                list.add(null);
+                i += 4;
+            } else {
+                return -1;
+            }
+
+            i = skipWhitespace(expr, i);
+            if (i >= len) {
+                return -1;
+            }
+
+            c = expr.charAt(i);
+            if (c == ',') {
+                i++;
+            } else if (c == ']') {
+                params.add(list);
+                return i + 1;
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    private static int skipWhitespace(String expr, int i) {
+        while (i < expr.length() && Character.isWhitespace(expr.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWordEnd(String expr, int i) {
+        return i >= expr.length() || isWordChar(expr.charAt(i)) == false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * 是否为操作符单词（其后期望操作数）
+     */
+    private static boolean isOperatorWord(String expr, int start, int end) {
+        switch (end - start) {
+            case 2:
+                return expr.startsWith("OR", start) || expr.startsWith("IN", start);
+            case 3:
+                return expr.startsWith("AND", start) || expr.startsWith("NOT", start);
+            case 4:
+                return expr.startsWith("LIKE", start);
+            default:
+                return false;
+        }
+    }
+}
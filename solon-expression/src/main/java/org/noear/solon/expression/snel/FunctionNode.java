@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 函数表达式节点（如 lower(name)、coalesce(a, b)；解析时已绑定函数，评估时直接调用）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class FunctionNode implements Expression {
+    private final String name;
+    private final SnelFunction function;
+    private final List<Expression> args;
+    private final Expression[] argArray;
+    private final CollectionNode streamed; // 聚合函数的集合参数（流式聚合，不产生中间列表）
+
+    public FunctionNode(String name, SnelFunction function, List<Expression> args) {
+        this.name = name;
+        this.function = function;
+        this.args = args;
+        this.argArray = args.toArray(new Expression[0]);
+
+        if (function instanceof AggregateFunction && argArray.length == 1 && argArray[0].getClass() == CollectionNode.class
+                && ((CollectionNode) argArray[0]).getTerminal() == CollectionNode.Terminal.LIST) {
+            this.streamed = (CollectionNode) argArray[0];
+        } else {
+            this.streamed = null;
+        }
+    }
+
+    /**
+     * 获取函数名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取函数
+     */
+    public SnelFunction getFunction() {
+        return function;
+    }
+
+    /**
+     * 获取参数
+     */
+    public List<Expression> getArgs() {
+        return args;
+    }
+
+    @Override
+    public Object eval(Function context) {
+        Object result;
+
+        try {
+            if (streamed != null) {
+                result = ((AggregateFunction) function).aggregate(streamed, context);
+            } else if (function.getArity() == SnelFunction.VARARGS) {
+                Object[] values = new Object[argArray.length];
+                for (int i = 0; i < argArray.length; i++) {
+                    values[i] = argArray[i].eval(context);
+                }
+                result = function.call(values);
+            } else {
+                switch (argArray.length) {
+                    case 0:
+                        result = function.call0();
+                        break;
+                    case 1:
+                        result = function.call1(argArray[0].eval(context));
+                        break;
+                    case 2:
+                        result = function.call2(argArray[0].eval(context), argArray[1].eval(context));
+                        break;
+                    case 3:
+                        result = function.call3(argArray[0].eval(context), argArray[1].eval(context), argArray[2].eval(context));
+                        break;
+                    default: {
+                        Object[] values = new Object[argArray.length];
+                        for (int i = 0; i < argArray.length; i++) {
+                            values[i] = argArray[i].eval(context);
+                        }
+                        result = function.call(values);
+                    }
+                }
+            }
+        } catch (EvaluationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw EvaluationException.expected("Failed to invoke function: " + name, e);
+        }
+
+        BudgetContext budget = BudgetContext.find(context);
+        if (budget != null) {
+            budget.step();
+            budget.checkDeadline();
+            budget.checkValue(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * 调用（参数已求值）
+     */
+    public Object invoke(Object[] argValues) {
+        try {
+            return function.invoke(argValues);
+        } catch (EvaluationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw EvaluationException.expected("Failed to invoke function: " + name, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(name).append("(");
+
+        for (Expression arg1 : args) {
+            buf.append(arg1).append(",");
+        }
+
+        if (args.size() > 0) {
+            buf.setLength(buf.length() - 1);
+        }
+        buf.append(")");
+
+        return buf.toString();
+    }
+}
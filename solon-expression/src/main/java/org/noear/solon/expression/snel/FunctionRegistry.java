@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 函数注册表（解析时按名字与参数个数查找；先匹配固定参数个数，再匹配可变参数）
+ *
+ * <p>注册应在解析前完成，已缓存的表达式不会重新绑定</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class FunctionRegistry {
+    private final Map<String, SnelFunction> functions = new ConcurrentHashMap<>();
+    private final Set<String> names = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * 注册函数（同名同参数个数时覆盖）
+     *
+     * @param name     函数名
+     * @param function 函数
+     */
+    public FunctionRegistry register(String name, SnelFunction function) {
+        function.named(name);
+        functions.put(key(name, function.getArity()), function);
+        names.add(name);
+        return this;
+    }
+
+    /**
+     * 注册标准函数库（字符串、数学、日期、集合、聚合；同名的上下文变量不再按变量方法调用）
+     */
+    public FunctionRegistry registerStandard() {
+        StandardFunctions.register(this);
+        return this;
+    }
+
+    /**
+     * 移除函数（所有参数个数）
+     *
+     * @param name 函数名
+     */
+    public void remove(String name) {
+        names.remove(name);
+        functions.keySet().removeIf(k -> k.startsWith(name + "/"));
+    }
+
+    /**
+     * 清空
+     */
+    public void clear() {
+        names.clear();
+        functions.clear();
+    }
+
+    /**
+     * 是否有该名字的函数
+     */
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * 获取函数名
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(names));
+    }
+
+    /**
+     * 查找函数（没有时返回 null）
+     *
+     * @param name  函数名
+     * @param arity 参数个数
+     */
+    public SnelFunction get(String name, int arity) {
+        if (names.contains(name) == false) {
+            return null;
+        }
+
+        SnelFunction function = functions.get(key(name, arity));
+        if (function == null) {
+            function = functions.get(key(name, SnelFunction.VARARGS));
+        }
+
+        return function;
+    }
+
+    private static String key(String name, int arity) {
+        return name + "/" + (arity < 0 ? "*" : String.valueOf(arity));
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 增量求值器（缓存各节点的结果；变量变更后只重算读取它的节点及其祖先，并报告值有变化的顶层表达式）
+ *
+ * <p>方法调用（纯方法名单外）、Bean、模板及非内置节点每次更新都会重算。变量对象被原地修改时，也需要作为变更变量报告。非线程安全</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class IncrementalEvaluator {
+    private static final Object UNSET = new Object();
+
+    private final Function context;
+    private final Set<String> pureMethods;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Map<String, List<Slot>> dependencies = new HashMap<>();
+    private final List<Slot> volatiles = new ArrayList<>();
+    private int nodeCount;
+    private int recomputeCount;
+
+    /**
+     * @param context 上下文（变量的当前值）
+     */
+    public IncrementalEvaluator(Function context) {
+        this(context, Collections.emptySet());
+    }
+
+    /**
+     * @param context     上下文（变量的当前值）
+     * @param pureMethods 纯方法名单（方法名；名单内的方法调用按参数变化重算）
+     */
+    public IncrementalEvaluator(Function context, Set<String> pureMethods) {
+        this.context = context;
+        this.pureMethods = pureMethods;
+    }
+
+    /**
+     * 添加顶层表达式（在下次更新时求值）
+     *
+     * @param key        键
+     * @param expression 表达式
+     */
+    public IncrementalEvaluator add(String key, Expression expression) {
+        if (entries.containsKey(key)) {
+            throw new IllegalArgumentException("Duplicate expression key: " + key);
+        }
+
+        Expression root = NodeUtil.transform(expression, this::link);
+        entries.put(key, new Entry(root));
+        return this;
+    }
+
+    /**
+     * 更新（首次调用时全部求值）
+     *
+     * @param changedVars 变更的变量名
+     * @return 值有变化的顶层表达式键
+     */
+    public Set<String> update(Collection<String> changedVars) {
+        recomputeCount = 0;
+
+        for (String name : changedVars) {
+            List<Slot> slots = dependencies.get(name);
+            if (slots != null) {
+                for (Slot slot : slots) {
+                    slot.invalidate();
+                }
+            }
+        }
+
+        for (Slot slot : volatiles) {
+            slot.invalidate();
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, Entry> kv : entries.entrySet()) {
+            Entry entry = kv.getValue();
+            if (entry.root instanceof Slot && ((Slot) entry.root).dirty == false && entry.value != UNSET) {
+                continue;
+            }
+
+            Object value = entry.root.eval(context);
+            if (entry.value == UNSET || Objects.equals(entry.value, value) == false) {
+                changed.add(kv.getKey());
+            }
+            entry.value = value;
+        }
+
+        return changed;
+    }
+
+    /**
+     * 全部重算
+     *
+     * @return 值有变化的顶层表达式键
+     */
+    public Set<String> updateAll() {
+        return update(dependencies.keySet());
+    }
+
+    /**
+     * 获取顶层表达式的当前值
+     *
+     * @param key 键
+     */
+    public Object getValue(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.value == UNSET) {
+            return null;
+        } else {
+            return entry.value;
+        }
+    }
+
+    /**
+     * 获取所有顶层表达式的当前值
+     */
+    public Map<String, Object> getValues() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String key : entries.keySet()) {
+            values.put(key, getValue(key));
+        }
+        return values;
+    }
+
+    /**
+     * 获取缓存节点数量
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 获取最近一次更新重算的节点数量
+     */
+    public int getRecomputeCount() {
+        return recomputeCount;
+    }
+
+    /**
+     * 包装节点（子节点已包装，建立父子与变量依赖关系；常量不包装）
+     */
+    private Expression link(Expression node) {
+        if (node instanceof ConstantNode || node instanceof TemplateNode) {
+            //模板作为运算数时需要原样保留（值需要转换），由父节点每次重算
+            return node;
+        }
+
+        Slot slot = new Slot(node);
+        nodeCount++;
+
+        boolean isVolatile = isVolatile(node);
+        List<Expression> children = NodeUtil.isRebuildable(node) ? NodeUtil.children(node) : null;
+        if (children != null) {
+            for (Expression child : children) {
+                if (child instanceof Slot) {
+                    ((Slot) child).parent = slot;
+                } else if (child instanceof TemplateNode) {
+                    isVolatile = true;
+                }
+            }
+        }
+
+        if (node instanceof VariableNode) {
+            dependencies.computeIfAbsent(((VariableNode) node).getName(), k -> new ArrayList<>()).add(slot);
+        } else if (isVolatile) {
+            volatiles.add(slot);
+        }
+
+        return slot;
+    }
+
+    private boolean isVolatile(Expression node) {
+        if (node instanceof MethodNode) {
+            return pureMethods.contains(((MethodNode) node).getMethodName()) == false;
+        } else if (node instanceof FunctionNode) {
+            return ((FunctionNode) node).getFunction().isPure() == false;
+        } else if (node instanceof CollectionNode) {
+            //方括号内的表达式可能读取外层变量（不在依赖跟踪内）
+            return true;
+        } else if (node instanceof VariableNode || node instanceof ParameterNode || node instanceof TypeNode) {
+            return false;
+        } else {
+            return NodeUtil.isRebuildable(node) == false;
+        }
+    }
+
+    private static class Entry {
+        final Expression root;
+        Object value = UNSET;
+
+        Entry(Expression root) {
+            this.root = root;
+        }
+    }
+
+    /**
+     * 结果缓存节点（脏时求值并缓存）
+     */
+    private class Slot implements Expression {
+        final Expression node;
+        Slot parent;
+        boolean dirty = true;
+        Object value;
+
+        Slot(Expression node) {
+            this.node = node;
+        }
+
+        void invalidate() {
+            //祖先已脏时，不必再往上标记
+            for (Slot s = this; s != null && s.dirty == false; s = s.parent) {
+                s.dirty = true;
+            }
+        }
+
+        @Override
+        public Object eval(Function context) {
+            if (dirty) {
+                recomputeCount++;
+                value = node.eval(context);
+                dirty = false;
+            }
+
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return node.toString();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.noear.solon.expression.snel.InstructionExpression.*;
+
+/**
+ * 指令编译器（语法树到寄存器指令；不能直接翻译的节点，以 EVAL 指令回退到语法树评估）
+ *
+ * @author noear
+ * @since 4.1
+ */
+class InstructionCompiler {
+    private int[] code = new int[64];
+    private int size;
+    private final List<Object> consts = new ArrayList<>();
+    private final List<Object> sites = new ArrayList<>();
+    private int top;
+    private int registers;
+    private Object[] params;
+
+    /**
+     * 编译
+     */
+    InstructionExpression compile(Expression source) {
+        Expression root = source;
+        if (source instanceof ParameterizedExpression) {
+            //参数化表达式：参数直接绑定为常量
+            root = ((ParameterizedExpression) source).getShape();
+            params = ((ParameterizedExpression) source).getParams();
+        }
+
+        int reg = alloc();
+        emitNode(root, reg);
+        emit(RET, reg, 0, 0);
+
+        return new InstructionExpression(source, Arrays.copyOf(code, size), consts.toArray(), sites.toArray(), registers);
+    }
+
+    private void emitNode(Expression node, int reg) {
+        if (node == null) {
+            emit(CONST, reg, constant(null), 0);
+            return;
+        }
+
+        //只翻译确切的内置节点类型（子类可能改写了评估逻辑）
+        Class<?> type = node.getClass();
+
+        if (type == ConstantNode.class) {
+            emit(CONST, reg, constant(((ConstantNode) node).getValue()), 0);
+        } else if (type == ParameterNode.class && params != null) {
+            emit(CONST, reg, constant(params[((ParameterNode) node).getIndex()]), 0);
+        } else if (type == VariableNode.class) {
+            emit(VAR, reg, constant(((VariableNode) node).getName()), 0);
+        } else if (type == PropertyNode.class) {
+            emitProperty((PropertyNode) node, reg);
+        } else if (type == SafeNavigationNode.class) {
+            SafeNavigationNode safe = (SafeNavigationNode) node;
+            emitNode(safe.getTarget(), reg);
+            emit(PROP, reg, constant(safe.getPropertyName()), 0);
+        } else if (type == MethodNode.class) {
+            emitMethod((MethodNode) node, reg);
+        } else if (type == ArithmeticNode.class) {
+            ArithmeticNode arith = (ArithmeticNode) node;
+            emitBinary(ARITH, arith, arith.getLeft(), arith.getRight(), reg);
+        } else if (type == ComparisonNode.class) {
+            ComparisonNode cmp = (ComparisonNode) node;
+            emitBinary(CMP, cmp, cmp.getLeft(), cmp.getRight(), reg);
+        } else if (type == ConcatNode.class) {
+            List<Expression> parts = ((ConcatNode) node).getParts();
+            int base = top;
+            for (int i = 0; i < parts.size(); i++) {
+                alloc();
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                emitNode(parts.get(i), base + i);
+            }
+            emit(CONCAT, reg, base, parts.size());
+            free(base);
+        } else if (type == LogicalNode.class) {
+            emitLogical((LogicalNode) node, reg);
+        } else if (type == TernaryNode.class) {
+            TernaryNode ternary = (TernaryNode) node;
+            emitNode(ternary.getCondition(), reg);
+            int jcond = emit(JCOND, reg, 0, 0);
+            emitNode(ternary.getTrueExpression(), reg);
+            int jmp = emit(JMP, 0, 0, 0);
+            patch(jcond);
+            emitNode(ternary.getFalseExpression(), reg);
+            patch(jmp);
+        } else if (type == ElvisNode.class) {
+            ElvisNode elvis = (ElvisNode) node;
+            emitNode(elvis.getLeft(), reg);
+            int jmp = emit(JNONNULL, reg, 0, 0);
+            emitNode(elvis.getRight(), reg);
+            patch(jmp);
+        } else {
+            //回退（模板、类型、托管对象及自定义节点）
+            if (params != null) {
+                node = new ParameterizedExpression(node, params);
+            }
+            emit(EVAL, reg, 0, site(node));
+        }
+    }
+
+    private void emitProperty(PropertyNode node, int reg) {
+        emitNode(node.getTarget(), reg);
+
+        Expression property = node.getProperty();
+        if (property != null && property.getClass() == ConstantNode.class) {
+            emit(PROP, reg, constant(((ConstantNode) property).getValue()), 0);
+        } else {
+            //目标为 null 时，不再评估属性
+            int jmp = emit(JNULL, reg, 0, 0);
+            int tmp = alloc();
+            emitNode(property, tmp);
+            emit(INDEX, reg, tmp, 0);
+            free(tmp);
+            patch(jmp);
+        }
+    }
+
+    private void emitMethod(MethodNode node, int reg) {
+        emitNode(node.getTarget(), reg);
+
+        //目标为 null 时，不再评估参数
+        int jmp = emit(JNULL, reg, 0, 0);
+        List<Expression> args = node.getArgs();
+        int base = top;
+        for (int i = 0; i < args.size(); i++) {
+            alloc();
+        }
+        for (int i = 0; i < args.size(); i++) {
+            emitNode(args.get(i), base + i);
+        }
+        emit(CALL, reg, base, site(node));
+        free(base);
+        patch(jmp);
+    }
+
+    private void emitBinary(int op, Expression site, Expression left, Expression right, int reg) {
+        emitNode(left, reg);
+        int tmp = alloc();
+        emitNode(right, tmp);
+        emit(op, reg, tmp, site(site));
+        free(tmp);
+    }
+
+    private void emitLogical(LogicalNode node, int reg) {
+        List<Expression> operands = node.getOperands();
+
+        if (node.getOperator() == LogicalOp.NOT) {
+            emitNode(operands.get(0), reg);
+            emit(NOT, reg, 0, 0);
+            return;
+        }
+
+        //短路：AND 遇假、OR 遇真，直接跳到结尾
+        int jop = (node.getOperator() == LogicalOp.AND ? JFALSE : JTRUE);
+        int[] jumps = new int[operands.size() - 1];
+        for (int i = 0; i < operands.size(); i++) {
+            emitNode(operands.get(i), reg);
+            if (i < jumps.length) {
+                jumps[i] = emit(jop, reg, 0, 0);
+            }
+        }
+        for (int j : jumps) {
+            patch(j);
+        }
+        emit(BOOL, reg, 0, 0);
+    }
+
+    /// /////////////////
+
+    private int emit(int op, int a, int b, int c) {
+        if (size + 4 > code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+
+        int pc = size;
+        code[size++] = op;
+        code[size++] = a;
+        code[size++] = b;
+        code[size++] = c;
+        return pc;
+    }
+
+    /**
+     * 回填跳转目标为当前位置
+     */
+    private void patch(int pc) {
+        code[pc + 3] = size;
+    }
+
+    private int constant(Object value) {
+        consts.add(value);
+        return consts.size() - 1;
+    }
+
+    private int site(Expression node) {
+        sites.add(node);
+        return sites.size() - 1;
+    }
+
+    private int alloc() {
+        int reg = top++;
+        if (top > registers) {
+            registers = top;
+        }
+        return reg;
+    }
+
+    private void free(int reg) {
+        top = reg;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * 指令表达式（由语法树编译的寄存器指令程序；与语法树解释执行结果一致，可作为替代执行引擎）
+ *
+ * <p>指令为定长 4 个 int（操作码, a, b, c），操作数为寄存器、常量池或调用点表的位置</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class InstructionExpression implements Expression {
+    static final int CONST = 0;     // r[a] = consts[b]
+    static final int VAR = 1;       // r[a] = context(consts[b])
+    static final int PROP = 2;      // r[a] = r[a].consts[b]
+    static final int INDEX = 3;     // r[a] = r[a][r[b]]
+    static final int CALL = 4;      // r[a] = r[a].method(r[b...])，调用点 sites[c]
+    static final int ARITH = 5;     // r[a] = r[a] op r[b]，调用点 sites[c]
+    static final int CMP = 6;       // r[a] = r[a] op r[b]，调用点 sites[c]
+    static final int NOT = 7;       // r[a] = !r[a]
+    static final int BOOL = 8;      // r[a] = (boolean) r[a]
+    static final int JMP = 9;       // goto c
+    static final int JNULL = 10;    // if r[a] == null goto c
+    static final int JNONNULL = 11; // if r[a] != null goto c
+    static final int JFALSE = 12;   // if !r[a] goto c（逻辑值）
+    static final int JTRUE = 13;    // if r[a] goto c（逻辑值）
+    static final int JCOND = 14;    // if !(Boolean) r[a] goto c（三元条件）
+    static final int EVAL = 15;     // r[a] = sites[c].eval(context)
+    static final int RET = 16;      // return r[a]
+    static final int CONCAT = 17;   // r[a] = r[b] + ... + r[b + c - 1]（字符串拼接）
+
+    private static final String[] NAMES = {"CONST", "VAR", "PROP", "INDEX", "CALL", "ARITH", "CMP",
+            "NOT", "BOOL", "JMP", "JNULL", "JNONNULL", "JFALSE", "JTRUE", "JCOND", "EVAL", "RET", "CONCAT"};
+
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+    private final Expression source;
+    private final int[] code;
+    private final Object[] consts;
+    private final Object[] sites;
+    private final int registers;
+
+    InstructionExpression(Expression source, int[] code, Object[] consts, Object[] sites, int registers) {
+        this.source = source;
+        this.code = code;
+        this.consts = consts;
+        this.sites = sites;
+        this.registers = registers;
+    }
+
+    /**
+     * 编译（将语法树编译为指令程序）
+     *
+     * @param expression 语法树
+     */
+    public static InstructionExpression compile(Expression expression) {
+        if (expression instanceof InstructionExpression) {
+            return (InstructionExpression) expression;
+        }
+
+        return new InstructionCompiler().compile(expression);
+    }
+
+    /**
+     * 获取源语法树
+     */
+    public Expression getSource() {
+        return source;
+    }
+
+    /**
+     * 获取寄存器数量
+     */
+    public int getRegisters() {
+        return registers;
+    }
+
+    @Override
+    public Object eval(Function context) {
+        if (BudgetContext.find(context) != null) {
+            //预算检查在语法树节点上进行
+            return source.eval(context);
+        }
+
+        final Frames frames = FRAMES.get();
+        final Object[] r = frames.acquire(registers);
+        final int[] code = this.code;
+
+        try {
+            int pc = 0;
+
+            while (true) {
+                final int op = code[pc];
+                final int a = code[pc + 1];
+                final int b = code[pc + 2];
+                final int c = code[pc + 3];
+                pc += 4;
+
+                switch (op) {
+                    case CONST:
+                        r[a] = consts[b];
+                        break;
+                    case VAR:
+                        r[a] = context.apply(consts[b]);
+                        break;
+                    case PROP:
+                        r[a] = PropertyNode.getValue(r[a], consts[b]);
+                        break;
+                    case INDEX:
+                        r[a] = PropertyNode.getValue(r[a], r[b]);
+                        break;
+                    case CALL: {
+                        MethodNode site = (MethodNode) sites[c];
+                        Object[] args = new Object[site.getArgs().size()];
+                        System.arraycopy(r, b, args, 0, args.length);
+                        r[a] = site.invoke(r[a], args);
+                        break;
+                    }
+                    case ARITH:
+                        r[a] = ((ArithmeticNode) sites[c]).compute(r[a], r[b]);
+                        break;
+                    case CMP:
+                        r[a] = ((ComparisonNode) sites[c]).compare(r[a], r[b]);
+                        break;
+                    case NOT:
+                        r[a] = !LogicalNode.toBoolean(r[a]);
+                        break;
+                    case BOOL:
+                        r[a] = LogicalNode.toBoolean(r[a]);
+                        break;
+                    case JMP:
+                        pc = c;
+                        break;
+                    case JNULL:
+                        if (r[a] == null) {
+                            pc = c;
+                        }
+                        break;
+                    case JNONNULL:
+                        if (r[a] != null) {
+                            pc = c;
+                        }
+                        break;
+                    case JFALSE:
+                        if (!LogicalNode.toBoolean(r[a])) {
+                            pc = c;
+                        }
+                        break;
+                    case JTRUE:
+                        if (LogicalNode.toBoolean(r[a])) {
+                            pc = c;
+                        }
+                        break;
+                    case JCOND: {
+                        Boolean cond = (Boolean) r[a];
+                        if (cond == null) {
+                            throw new EvaluationException("Ternary condition is null");
+                        }
+                        if (!cond) {
+                            pc = c;
+                        }
+                        break;
+                    }
+                    case EVAL:
+                        r[a] = ((Expression) sites[c]).eval(context);
+                        break;
+                    case RET:
+                        return r[a];
+                    case CONCAT:
+                        r[a] = ConcatNode.concat(r, b, c);
+                        break;
+                    default:
+                        throw new IllegalStateException("Invalid instruction: " + op);
+                }
+            }
+        } finally {
+            frames.release(registers);
+        }
+    }
+
+    /**
+     * 反汇编（输出指令清单，用于调试）
+     */
+    public String disassemble() {
+        StringBuilder buf = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc += 4) {
+            int op = code[pc];
+            buf.append(pc / 4).append(": ").append(NAMES[op]);
+
+            switch (op) {
+                case CONST:
+                case VAR:
+                case PROP:
+                    buf.append(" r").append(code[pc + 1]).append(", ").append(new ConstantNode(consts[code[pc + 2]]));
+                    break;
+                case INDEX:
+                    buf.append(" r").append(code[pc + 1]).append(", r").append(code[pc + 2]);
+                    break;
+                case CALL:
+                case ARITH:
+                case CMP:
+                    buf.append(" r").append(code[pc + 1]).append(", r").append(code[pc + 2]).append(", #").append(code[pc + 3]);
+                    break;
+                case JMP:
+                    buf.append(' ').append(code[pc + 3] / 4);
+                    break;
+                case JNULL:
+                case JNONNULL:
+                case JFALSE:
+                case JTRUE:
+                case JCOND:
+                    buf.append(" r").append(code[pc + 1]).append(", ").append(code[pc + 3] / 4);
+                    break;
+                case EVAL:
+                    buf.append(" r").append(code[pc + 1]).append(", #").append(code[pc + 3]);
+                    break;
+                case CONCAT:
+                    buf.append(" r").append(code[pc + 1]).append(", r").append(code[pc + 2]).append(", ").append(code[pc + 3]);
+                    break;
+                default:
+                    buf.append(" r").append(code[pc + 1]);
+                    break;
+            }
+
+            buf.append('\n');
+        }
+
+        return buf.toString();
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+
+    /**
+     * 寄存器帧（线程内复用；按调用深度分配，支持重入）
+     */
+    private static class Frames {
+        private Object[][] stack = new Object[4][];
+        private int depth;
+
+        Object[] acquire(int size) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+
+            Object[] frame = stack[depth];
+            if (frame == null || frame.length < size) {
+                frame = new Object[Math.max(size, 8)];
+                stack[depth] = frame;
+            }
+
+            depth++;
+            return frame;
+        }
+
+        void release(int size) {
+            Arrays.fill(stack[--depth], 0, size, null);
+        }
+    }
+}
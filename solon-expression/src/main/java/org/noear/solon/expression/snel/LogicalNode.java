@@ -16,20 +16,28 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
 import org.noear.solon.expression.exception.EvaluationException;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
 
 /**
  * 逻辑表达式节点（如 AND, OR, NOT）
  *
+ * <p>同一运算符的连续 AND / OR 链按多元节点存储（如 `a OR b OR c` 为一个节点三个操作数），求值为循环并短路。
+ * getLeft / getRight 仍按左结合的二元结构返回（左侧为前缀视图），与原二叉树等价</p>
+ *
  * @author noear
  * @since 3.1
+ * @since 4.1
  */
 public class LogicalNode implements Expression<Boolean> {
-    private LogicalOp operator; // 逻辑运算符，如 "AND", "OR"
-    private Expression left;  // 左子节点
-    private Expression right; // 右子节点
+    private final LogicalOp operator; // 逻辑运算符，如 "AND", "OR"
+    private final Expression[] operands; // 操作数（二元构建时为 left, right）
+    private final int size; // 有效操作数数量（前缀视图共享 operands）
 
     /**
      * 获取操作符
@@ -39,36 +47,82 @@ public class LogicalNode implements Expression<Boolean> {
     }
 
     /**
-     * 获取左节点
+     * 获取左节点（多元时为除最后一个操作数之外的前缀视图）
      */
     public Expression getLeft() {
-        return left;
+        if (size > 2) {
+            return new LogicalNode(operator, operands, size - 1);
+        } else {
+            return operands[0];
+        }
     }
 
     /**
-     * 获取右节点
+     * 获取右节点（多元时为最后一个操作数）
      */
     public Expression getRight() {
-        return right;
+        return operands[size - 1];
+    }
+
+    /**
+     * 获取所有操作数（NOT 时只有一个）
+     *
+     * @since 4.1
+     */
+    public List<Expression> getOperands() {
+        if (operator == LogicalOp.NOT) {
+            return Collections.singletonList(operands[0]);
+        } else {
+            return Collections.unmodifiableList(Arrays.asList(operands).subList(0, size));
+        }
     }
 
     public LogicalNode(LogicalOp operator, Expression left, Expression right) {
+        this(operator, new Expression[]{left, right}, 2);
+    }
+
+    /**
+     * 多元构建（AND / OR，至少两个操作数）
+     *
+     * @since 4.1
+     */
+    public LogicalNode(LogicalOp operator, List<? extends Expression> operands) {
+        this(operator, operands.toArray(new Expression[0]), operands.size());
+
+        if (operator == LogicalOp.NOT || size < 2) {
+            throw new IllegalArgumentException("Invalid logical operands: " + operator + " x" + size);
+        }
+    }
+
+    private LogicalNode(LogicalOp operator, Expression[] operands, int size) {
         this.operator = operator;
-        this.left = left;
-        this.right = right;
+        this.operands = operands;
+        this.size = size;
     }
 
     @Override
     public Boolean eval(Function context) {
-        boolean leftValue = getOptimizeValue(left, context);
-        boolean rightValue = getOptimizeValue(right, context);
+        BudgetContext budget = BudgetContext.find(context);
+        if (budget != null) {
+            budget.step();
+        }
 
         if (operator == LogicalOp.AND) {
-            return leftValue && rightValue;
+            for (int i = 0; i < size; i++) {
+                if (getOptimizeValue(operands[i], context) == false) {
+                    return false;
+                }
+            }
+            return true;
         } else if (operator == LogicalOp.OR) {
-            return leftValue || rightValue;
+            for (int i = 0; i < size; i++) {
+                if (getOptimizeValue(operands[i], context)) {
+                    return true;
+                }
+            }
+            return false;
         } else {
-            return leftValue == false;
+            return getOptimizeValue(operands[0], context) == false;
         }
     }
 
@@ -80,8 +134,15 @@ public class LogicalNode implements Expression<Boolean> {
             return false;
         }
 
-        Object value = expression.eval(context);
+        return toBoolean(expression.eval(context));
+    }
 
+    /**
+     * 转为逻辑值（布尔直接使用；字符串非空、数字大于0、非null对象为真）
+     *
+     * @since 4.1
+     */
+    public static boolean toBoolean(Object value) {
         if (value instanceof Boolean) {
             //布尔
             return (Boolean) value;
@@ -99,6 +160,17 @@ public class LogicalNode implements Expression<Boolean> {
 
     @Override
     public String toString() {
-        return "(" + left + " " + operator.getCode() + " " + right + ")";
+        //按左结合的二元结构输出：((a OR b) OR c)
+        StringBuilder buf = new StringBuilder();
+        for (int i = 1; i < size; i++) {
+            buf.append("(");
+        }
+
+        buf.append(operands[0]);
+        for (int i = 1; i < size; i++) {
+            buf.append(" ").append(operator.getCode()).append(" ").append(operands[i]).append(")");
+        }
+
+        return buf.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.DelegatingContext;
+import org.noear.solon.expression.util.LRUCache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 记忆化表达式（纯表达式按所读变量值的组合缓存结果）
+ *
+ * <p>纯表达式：不含 Bean、模板及非内置节点，方法调用需在纯方法名单内。变量值作为缓存键的一部分，应为不可变的值对象</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class MemoizedExpression implements Expression {
+    private static final Object NULL = new Object();
+
+    private final Expression source;
+    private final String[] variables;
+    private final LRUCache<Key, Object> cache;
+
+    private MemoizedExpression(Expression source, String[] variables, int capacity) {
+        this.source = source;
+        this.variables = variables;
+        this.cache = new LRUCache<>(capacity);
+    }
+
+    /**
+     * 记忆化（非纯表达式时，返回原表达式）
+     *
+     * @param expression 表达式
+     * @param capacity   缓存容量
+     */
+    public static Expression of(Expression expression, int capacity) {
+        return of(expression, capacity, Collections.emptySet());
+    }
+
+    /**
+     * 记忆化（非纯表达式时，返回原表达式）
+     *
+     * @param expression  表达式
+     * @param capacity    缓存容量
+     * @param pureMethods 纯方法名单（方法名）
+     */
+    public static Expression of(Expression expression, int capacity, Set<String> pureMethods) {
+        Set<String> variables = extractVariables(expression, pureMethods);
+        if (variables == null) {
+            return expression;
+        } else {
+            return new MemoizedExpression(expression, variables.toArray(new String[0]), capacity);
+        }
+    }
+
+    /**
+     * 提取纯表达式读取的变量（非纯表达式时返回 null）
+     *
+     * @param expression  表达式
+     * @param pureMethods 纯方法名单（方法名）
+     */
+    public static Set<String> extractVariables(Expression expression, Set<String> pureMethods) {
+        Set<String> variables = new LinkedHashSet<>();
+
+        for (Expression node : NodeUtil.flatten(expression)) {
+            if (node instanceof VariableNode) {
+                variables.add(((VariableNode) node).getName());
+            } else if (node instanceof MethodNode) {
+                if (pureMethods.contains(((MethodNode) node).getMethodName()) == false) {
+                    return null;
+                }
+            } else if (node instanceof FunctionNode) {
+                if (((FunctionNode) node).getFunction().isPure() == false) {
+                    return null;
+                }
+            } else if (node instanceof BeanNode || node instanceof TemplateNode || node instanceof CollectionNode) {
+                return null;
+            } else if (NodeUtil.children(node) == null) {
+                return null;
+            }
+        }
+
+        return variables;
+    }
+
+    /**
+     * 获取源表达式
+     */
+    public Expression getSource() {
+        return source;
+    }
+
+    /**
+     * 获取所读变量
+     */
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+
+    /**
+     * 获取缓存数量
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    @Override
+    public Object eval(Function context) {
+        Object[] values = new Object[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            values[i] = context.apply(variables[i]);
+        }
+
+        Key key = new Key(values);
+        Object result = cache.get(key);
+        if (result == null) {
+            //不缓存异常（已取的变量值直接复用，不再二次读取）
+            result = source.eval(new FetchedContext(context, variables, values));
+            cache.put(key, result == null ? NULL : result);
+            return result;
+        } else {
+            return result == NULL ? null : result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+
+    /**
+     * 已取值上下文（所读变量按已取的值返回，其它名字与各指导委托给原上下文）
+     */
+    private static class FetchedContext extends DelegatingContext {
+        private final String[] names;
+        private final Object[] values;
+
+        @SuppressWarnings("unchecked")
+        FetchedContext(Function delegate, String[] names, Object[] values) {
+            super(delegate);
+            this.names = names;
+            this.values = values;
+        }
+
+        @Override
+        public Object apply(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return values[i];
+                }
+            }
+
+            return delegate.apply(name);
+        }
+    }
+
+    /**
+     * 缓存键（变量值组合）
+     */
+    private static class Key {
+        private final Object[] values;
+        private final int hash;
+
+        Key(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(values, ((Key) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
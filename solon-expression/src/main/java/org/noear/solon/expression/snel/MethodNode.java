@@ -16,8 +16,10 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
 import org.noear.solon.expression.exception.EvaluationException;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
@@ -60,10 +62,42 @@ public class MethodNode implements Expression {
         this.args = args;
     }
 
+    MethodNode(Expression target, String methodName, List<Expression> args, boolean safe) {
+        this(target, methodName, args);
+        this.safe = safe;
+    }
+
     public boolean isSafe() {
         return safe;
     }
 
+    /**
+     * 获取目标
+     *
+     * @since 4.1
+     */
+    public Expression getTarget() {
+        return target;
+    }
+
+    /**
+     * 获取方法名
+     *
+     * @since 4.1
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * 获取参数
+     *
+     * @since 4.1
+     */
+    public List<Expression> getArgs() {
+        return args;
+    }
+
     @Override
     public Object eval(Function context) {
         // 先求值 target
@@ -78,6 +112,25 @@ public class MethodNode implements Expression {
             argValues[i] = args.get(i).eval(context);
         }
 
+        BudgetContext budget = BudgetContext.find(context);
+        if (budget != null) {
+            budget.step();
+            budget.checkDeadline();
+
+            Object result = invoke(targetValue, argValues);
+            budget.checkValue(result);
+            return result;
+        } else {
+            return invoke(targetValue, argValues);
+        }
+    }
+
+    /**
+     * 调用（目标与参数已求值）
+     *
+     * @since 4.1
+     */
+    public Object invoke(Object targetValue, Object[] argValues) {
         try {
             Class<?> targetClass;
             if (targetValue instanceof Class<?>) {
@@ -95,7 +148,7 @@ public class MethodNode implements Expression {
             // 查找方法（ReflectionUtil 会自动处理可变参数）
             Method method = ReflectionUtil.getInstance().getMethod(targetClass, methodName, argTypes);
             if (method == null) {
-                throw new EvaluationException("Method not found: " + methodName);
+                throw EvaluationException.expected("Method not found: " + methodName, null);
             }
 
             // 准备调用参数（ReflectionUtil 处理可变参数）
@@ -108,8 +161,13 @@ public class MethodNode implements Expression {
             } else {
                 return method.invoke(targetValue, invokeArgs);
             }
+        } catch (EvaluationException e) {
+            //已是评估异常，不再包装
+            throw e;
+        } catch (InvocationTargetException e) {
+            throw EvaluationException.expected("Failed to invoke method: " + methodName, e.getTargetException());
         } catch (Throwable e) {
-            throw new EvaluationException("Failed to invoke method: " + methodName, e);
+            throw EvaluationException.expected("Failed to invoke method: " + methodName, e);
         }
     }
 
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * 节点工具（遍历内置节点的子节点）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public final class NodeUtil {
+    private NodeUtil() {
+    }
+
+    /**
+     * 获取直接子节点（叶子节点返回空列表；非内置节点返回 null，表示不透明）
+     *
+     * @param node 节点
+     */
+    public static List<Expression> children(Expression node) {
+        if (node instanceof ConstantNode || node instanceof VariableNode || node instanceof ParameterNode
+                || node instanceof BeanNode || node instanceof TypeNode || node instanceof TemplateNode) {
+            return Collections.emptyList();
+        } else if (node instanceof PropertyNode) {
+            PropertyNode n = (PropertyNode) node;
+            return Arrays.asList(n.getTarget(), n.getProperty());
+        } else if (node instanceof SafeNavigationNode) {
+            return Collections.singletonList(((SafeNavigationNode) node).getTarget());
+        } else if (node instanceof MethodNode) {
+            MethodNode n = (MethodNode) node;
+            List<Expression> list = new ArrayList<>(n.getArgs().size() + 1);
+            list.add(n.getTarget());
+            list.addAll(n.getArgs());
+            return list;
+        } else if (node instanceof FunctionNode) {
+            return ((FunctionNode) node).getArgs();
+        } else if (node instanceof CollectionNode) {
+            //方括号内的表达式按元素求值，不作为子节点
+            return Collections.singletonList(((CollectionNode) node).getSource());
+        } else if (node instanceof ArithmeticNode) {
+            ArithmeticNode n = (ArithmeticNode) node;
+            return Arrays.asList(n.getLeft(), n.getRight());
+        } else if (node instanceof ComparisonNode) {
+            ComparisonNode n = (ComparisonNode) node;
+            return Arrays.asList(n.getLeft(), n.getRight());
+        } else if (node instanceof ElvisNode) {
+            ElvisNode n = (ElvisNode) node;
+            return Arrays.asList(n.getLeft(), n.getRight());
+        } else if (node instanceof LogicalNode) {
+            List<Expression> list = new ArrayList<>(((LogicalNode) node).getOperands());
+            list.removeIf(e -> e == null);
+            return list;
+        } else if (node instanceof TernaryNode) {
+            TernaryNode n = (TernaryNode) node;
+            return Arrays.asList(n.getCondition(), n.getTrueExpression(), n.getFalseExpression());
+        } else if (node instanceof ConcatNode) {
+            return ((ConcatNode) node).getParts();
+        } else if (node instanceof ParameterizedExpression) {
+            return Collections.singletonList(((ParameterizedExpression) node).getShape());
+        } else if (node instanceof InstructionExpression) {
+            return Collections.singletonList(((InstructionExpression) node).getSource());
+        } else if (node instanceof ClosureExpression) {
+            return Collections.singletonList(((ClosureExpression) node).getSource());
+        } else if (node instanceof TieredExpression) {
+            return Collections.singletonList(((TieredExpression) node).getSource());
+        } else if (node instanceof MemoizedExpression) {
+            return Collections.singletonList(((MemoizedExpression) node).getSource());
+        } else if (node instanceof BoundExpression) {
+            return Collections.singletonList(((BoundExpression) node).getBound());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * 是否可重建（确切的内置节点类型；子类可能改写了评估逻辑，作为不透明节点）
+     */
+    public static boolean isRebuildable(Expression node) {
+        Class<?> type = node.getClass();
+
+        return type == PropertyNode.class || type == SafeNavigationNode.class || type == MethodNode.class
+                || type == FunctionNode.class || type == CollectionNode.class || type == ArithmeticNode.class || type == ComparisonNode.class || type == ElvisNode.class
+                || type == LogicalNode.class || type == TernaryNode.class || type == ConcatNode.class
+                || type == ParameterizedExpression.class;
+    }
+
+    /**
+     * 以新的子节点重建（子节点未变化时返回原节点）
+     *
+     * @param node     节点（需可重建）
+     * @param children 新的子节点（与 children(node) 一一对应）
+     */
+    public static Expression rebuild(Expression node, List<Expression> children) {
+        List<Expression> old = children(node);
+        if (old == null || old.size() != children.size()) {
+            throw new IllegalArgumentException("Cannot rebuild node: " + node);
+        }
+
+        boolean changed = false;
+        for (int i = 0; i < old.size(); i++) {
+            if (old.get(i) != children.get(i)) {
+                changed = true;
+                break;
+            }
+        }
+
+        if (changed == false) {
+            return node;
+        }
+
+        if (node instanceof PropertyNode) {
+            return new PropertyNode(children.get(0), children.get(1), ((PropertyNode) node).isSafe());
+        } else if (node instanceof SafeNavigationNode) {
+            return new SafeNavigationNode(children.get(0), ((SafeNavigationNode) node).getPropertyName());
+        } else if (node instanceof MethodNode) {
+            MethodNode n = (MethodNode) node;
+            return new MethodNode(children.get(0), n.getMethodName(), new ArrayList<>(children.subList(1, children.size())), n.isSafe());
+        } else if (node instanceof FunctionNode) {
+            FunctionNode n = (FunctionNode) node;
+            return new FunctionNode(n.getName(), n.getFunction(), new ArrayList<>(children));
+        } else if (node instanceof CollectionNode) {
+            CollectionNode n = (CollectionNode) node;
+            return new CollectionNode(children.get(0), n.getStages(), n.getTerminal());
+        } else if (node instanceof ArithmeticNode) {
+            return new ArithmeticNode(((ArithmeticNode) node).getOperator(), children.get(0), children.get(1));
+        } else if (node instanceof ComparisonNode) {
+            return new ComparisonNode(((ComparisonNode) node).getOperator(), children.get(0), children.get(1));
+        } else if (node instanceof ElvisNode) {
+            return new ElvisNode(children.get(0), children.get(1));
+        } else if (node instanceof LogicalNode) {
+            LogicalOp op = ((LogicalNode) node).getOperator();
+            if (op == LogicalOp.NOT) {
+                return new LogicalNode(op, children.get(0), null);
+            } else {
+                return new LogicalNode(op, children);
+            }
+        } else if (node instanceof TernaryNode) {
+            return new TernaryNode((Expression<Boolean>) children.get(0), children.get(1), children.get(2));
+        } else if (node instanceof ConcatNode) {
+            return new ConcatNode(children);
+        } else if (node instanceof ParameterizedExpression) {
+            return new ParameterizedExpression(children.get(0), ((ParameterizedExpression) node).getParams());
+        } else {
+            //包装表达式（指令、闭包、分层、记忆化、绑定），返回重写后的源表达式
+            return children.get(0);
+        }
+    }
+
+    /**
+     * 自底向上变换（先变换子节点，再以重建后的节点调用变换函数；非递归，适合很深的语法树）
+     *
+     * @param root     根节点
+     * @param function 变换函数（返回原节点表示不变）
+     */
+    public static Expression transform(Expression root, UnaryOperator<Expression> function) {
+        if (root == null) {
+            return null;
+        }
+
+        List<Frame> stack = new ArrayList<>();
+        stack.add(new Frame(root));
+
+        while (true) {
+            Frame frame = stack.get(stack.size() - 1);
+
+            if (frame.results.size() < frame.children.size()) {
+                Expression child = frame.children.get(frame.results.size());
+                if (child == null) {
+                    frame.results.add(null);
+                } else {
+                    stack.add(new Frame(child));
+                }
+                continue;
+            }
+
+            stack.remove(stack.size() - 1);
+
+            Expression node = frame.node;
+            if (frame.children.size() > 0) {
+                node = rebuild(node, frame.results);
+            }
+            node = function.apply(node);
+
+            if (stack.isEmpty()) {
+                return node;
+            } else {
+                stack.get(stack.size() - 1).results.add(node);
+            }
+        }
+    }
+
+    private static class Frame {
+        final Expression node;
+        final List<Expression> children;
+        final List<Expression> results;
+
+        Frame(Expression node) {
+            this.node = node;
+
+            List<Expression> tmp = null;
+            if (isRebuildable(node) || node instanceof InstructionExpression
+                    || node instanceof ClosureExpression || node instanceof TieredExpression
+                    || node instanceof MemoizedExpression || node instanceof BoundExpression) {
+                tmp = children(node);
+            }
+
+            this.children = (tmp == null ? Collections.emptyList() : tmp);
+            this.results = new ArrayList<>(this.children.size());
+        }
+    }
+
+    /**
+     * 获取所有节点（先序，非递归；适合很深的语法树）
+     *
+     * @param root 根节点
+     */
+    public static List<Expression> flatten(Expression root) {
+        List<Expression> list = new ArrayList<>();
+        List<Expression> stack = new ArrayList<>();
+        stack.add(root);
+
+        while (stack.size() > 0) {
+            Expression node = stack.remove(stack.size() - 1);
+            if (node == null) {
+                continue;
+            }
+
+            list.add(node);
+
+            List<Expression> children = children(node);
+            if (children != null) {
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.add(children.get(i));
+                }
+            }
+        }
+
+        return list;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.util.function.Function;
+
+/**
+ * 参数表达式节点（参数化解析时，代替字面量常量；值由 ParameterizedExpression 经评估上下文传入）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class ParameterNode implements Expression {
+    private final int index;
+
+    public ParameterNode(int index) {
+        this.index = index;
+    }
+
+    /**
+     * 获取参数位置
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public Object eval(Function context) {
+        Object[] params = ParameterizedExpression.findParams(context);
+        if (params == null) {
+            throw new EvaluationException("Unbound parameter: ?" + index);
+        }
+
+        return params[index];
+    }
+
+    @Override
+    public String toString() {
+        return "?" + index;
+    }
+}
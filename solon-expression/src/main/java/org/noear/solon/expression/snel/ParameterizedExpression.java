@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.DelegatingContext;
+
+import java.util.function.Function;
+
+/**
+ * 参数化表达式（共享形态语法树，绑定本次的字面量参数）
+ *
+ * <p>参数经评估上下文传给形态语法树中的 ParameterNode（不使用线程变量）</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class ParameterizedExpression implements Expression {
+    private final Expression shape;
+    private final Object[] params;
+    private Expression bound;
+
+    public ParameterizedExpression(Expression shape, Object[] params) {
+        this.shape = shape;
+        this.params = params;
+    }
+
+    /**
+     * 获取形态语法树（字面量为 ParameterNode，只在本表达式评估时有值；转换器等需要常量的场景，使用 bind()）
+     */
+    public Expression getShape() {
+        return shape;
+    }
+
+    /**
+     * 获取字面量参数
+     */
+    public Object[] getParams() {
+        return params;
+    }
+
+    /**
+     * 绑定为普通语法树（ParameterNode 替换为本次参数的 ConstantNode；可单独评估或转换）
+     */
+    public Expression bind() {
+        Expression tmp = bound;
+        if (tmp == null) {
+            tmp = NodeUtil.transform(shape, node -> {
+                if (node instanceof ParameterNode) {
+                    return new ConstantNode(params[((ParameterNode) node).getIndex()]);
+                } else {
+                    return node;
+                }
+            });
+            bound = tmp;
+        }
+
+        return tmp;
+    }
+
+    @Override
+    public Object eval(Function context) {
+        return shape.eval(new ParameterContext(context, params));
+    }
+
+    @Override
+    public String toString() {
+        return bind().toString();
+    }
+
+    /**
+     * 查找参数（沿委托上下文查找最近的参数上下文；没有时为 null）
+     */
+    static Object[] findParams(Function context) {
+        while (context instanceof DelegatingContext) {
+            if (context instanceof ParameterContext) {
+                return ((ParameterContext) context).params;
+            }
+
+            context = ((DelegatingContext) context).getDelegate();
+        }
+
+        return null;
+    }
+
+    /**
+     * 参数上下文（携带本次参数；变量与各指导委托给原上下文）
+     */
+    private static class ParameterContext extends DelegatingContext {
+        private final Object[] params;
+
+        @SuppressWarnings("unchecked")
+        ParameterContext(Function delegate, Object[] params) {
+            super(delegate);
+            this.params = params;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 部分求值（将已知变量替换为常量，折叠常量并剪除逻辑、三元、Elvis 的确定分支，得到只依赖其余变量的剩余表达式）
+ *
+ * <p>适合同一规则按租户配置、特性开关等先特化一次，之后每次请求只评估剩余表达式。方法调用与非纯函数不折叠（可能有副作用）；
+ * 折叠时出错的节点原样保留（留到运行时报错）</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public final class PartialEvaluator {
+    private static final Function EMPTY_CONTEXT = name -> null;
+
+    private PartialEvaluator() {
+    }
+
+    /**
+     * 部分求值
+     *
+     * @param expression    表达式
+     * @param knownBindings 已知变量（按 containsKey 判断是否已知，值可以为 null）
+     */
+    public static Expression partialEval(Expression expression, Map<String, ?> knownBindings) {
+        return NodeUtil.transform(expression, node -> reduce(node, knownBindings));
+    }
+
+    private static Expression reduce(Expression node, Map<String, ?> knownBindings) {
+        if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            if (knownBindings.containsKey(name)) {
+                return new ConstantNode(knownBindings.get(name));
+            } else {
+                return node;
+            }
+        }
+
+        if (isFoldable(node) && isConstantChildren(node)) {
+            try {
+                return new ConstantNode(node.eval(EMPTY_CONTEXT));
+            } catch (RuntimeException e) {
+                return node;
+            }
+        }
+
+        if (node.getClass() == LogicalNode.class) {
+            return reduceLogical((LogicalNode) node);
+        } else if (node.getClass() == TernaryNode.class) {
+            TernaryNode n = (TernaryNode) node;
+            if (n.getCondition() instanceof ConstantNode) {
+                Object cond = ((ConstantNode) n.getCondition()).getValue();
+                if (cond instanceof Boolean) {
+                    return (Boolean) cond ? n.getTrueExpression() : n.getFalseExpression();
+                }
+            }
+        } else if (node.getClass() == ElvisNode.class) {
+            ElvisNode n = (ElvisNode) node;
+            if (n.getLeft() instanceof ConstantNode) {
+                return ((ConstantNode) n.getLeft()).getValue() != null ? n.getLeft() : n.getRight();
+            } else if (isConstant(n.getRight(), null)) {
+                return n.getLeft();
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * 剪除逻辑链中的常量（AND 遇假、OR 遇真即截断其后操作数；前面没有非常量时直接确定结果；中性常量移除）
+     */
+    private static Expression reduceLogical(LogicalNode node) {
+        LogicalOp op = node.getOperator();
+        if (op == LogicalOp.NOT) {
+            return node;
+        }
+
+        boolean neutral = (op == LogicalOp.AND);
+        List<Expression> operands = new ArrayList<>();
+
+        for (Expression operand : node.getOperands()) {
+            if (operand instanceof ConstantNode) {
+                if (LogicalNode.toBoolean(((ConstantNode) operand).getValue()) != neutral) {
+                    if (operands.isEmpty()) {
+                        return new ConstantNode(!neutral);
+                    } else {
+                        //前面的操作数仍会被完整评估（可能有副作用），保留它们，只截断其后
+                        operands.add(new ConstantNode(!neutral));
+                        return new LogicalNode(op, operands);
+                    }
+                }
+            } else {
+                operands.add(operand);
+            }
+        }
+
+        if (operands.size() == node.getOperands().size()) {
+            return node;
+        } else if (operands.isEmpty()) {
+            return new ConstantNode(neutral);
+        } else if (operands.size() == 1) {
+            Expression operand = operands.get(0);
+            if (operand instanceof LogicalNode || operand instanceof ComparisonNode) {
+                return operand;
+            } else {
+                //保留逻辑值转换
+                operands.add(new ConstantNode(neutral));
+            }
+        }
+
+        return new LogicalNode(op, operands);
+    }
+
+    /**
+     * 可折叠的节点（确切的内置类型；方法调用不折叠）
+     */
+    private static boolean isFoldable(Expression node) {
+        Class<?> type = node.getClass();
+
+        return type == ArithmeticNode.class || type == ComparisonNode.class || type == ConcatNode.class
+                || type == PropertyNode.class || type == SafeNavigationNode.class || type == LogicalNode.class
+                || type == TernaryNode.class || type == ElvisNode.class
+                || (type == FunctionNode.class && ((FunctionNode) node).getFunction().isPure());
+    }
+
+    private static boolean isConstantChildren(Expression node) {
+        for (Expression child : NodeUtil.children(node)) {
+            if (child != null && child instanceof ConstantNode == false) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isConstant(Expression node, Object value) {
+        if (node instanceof ConstantNode) {
+            Object v = ((ConstantNode) node).getValue();
+            return v == null ? value == null : v.equals(value);
+        } else {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.util.LRUCache;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 正则匹配器（MATCHES 使用；完整匹配，与 String.matches 一致）
+ *
+ * <p>纯字面量、前缀（abc.*）、后缀（.*abc）、包含（.*abc.*）及字面量分支（a|b|c）不经过正则引擎；
+ * 其它模式编译为 Pattern。动态模式经有界缓存复用</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+abstract class PatternMatcher {
+    private static final LRUCache<String, PatternMatcher> cached = new LRUCache<>(256);
+
+    /**
+     * 是否完整匹配
+     */
+    abstract boolean matches(String input);
+
+    /**
+     * 获取（经缓存）
+     */
+    static PatternMatcher cached(String regex) {
+        return cached.computeIfAbsent(regex, PatternMatcher::compile);
+    }
+
+    /**
+     * 编译（模式无效时抛出 PatternSyntaxException）
+     */
+    static PatternMatcher compile(String regex) {
+        String body = regex;
+
+        //完整匹配时，首尾锚点是多余的
+        if (body.startsWith("^")) {
+            body = body.substring(1);
+        }
+        if (body.endsWith("$") && isEscaped(body, body.length() - 1) == false) {
+            body = body.substring(0, body.length() - 1);
+        }
+
+        String literal = literal(body);
+        if (literal != null) {
+            return new Literal(literal);
+        }
+
+        boolean anyStart = body.startsWith(".*");
+        boolean anyEnd = body.endsWith(".*") && body.length() >= (anyStart ? 4 : 2);
+        if (anyStart || anyEnd) {
+            String middle = body.substring(anyStart ? 2 : 0, anyEnd ? body.length() - 2 : body.length());
+            literal = literal(middle);
+            if (literal != null) {
+                if (anyStart && anyEnd) {
+                    if (noLineBreak(literal, 0, literal.length())) {
+                        return new Contains(literal);
+                    }
+                } else if (anyStart) {
+                    return new Suffix(literal);
+                } else {
+                    return new Prefix(literal);
+                }
+            }
+        }
+
+        Set<String> alternatives = alternatives(body);
+        if (alternatives != null) {
+            return new Alternatives(alternatives);
+        }
+
+        return new Regex(Pattern.compile(regex));
+    }
+
+    /**
+     * 解析为字面量（含正则元字符时返回 null；允许转义的标点）
+     */
+    private static String literal(String text) {
+        StringBuilder buf = null;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '\\') {
+                if (i + 1 >= text.length()) {
+                    return null;
+                }
+
+                char next = text.charAt(++i);
+                if (Character.isLetterOrDigit(next)) {
+                    //\d、\w、\Q 等
+                    return null;
+                }
+
+                if (buf == null) {
+                    buf = new StringBuilder(text.length());
+                    buf.append(text, 0, i - 1);
+                }
+                buf.append(next);
+            } else if ("^$.|?*+()[]{}".indexOf(c) >= 0) {
+                return null;
+            } else if (buf != null) {
+                buf.append(c);
+            }
+        }
+
+        return buf == null ? text : buf.toString();
+    }
+
+    /**
+     * 解析为字面量分支（如 a|b|c 或 (a|b|c)；否则返回 null）
+     */
+    private static Set<String> alternatives(String text) {
+        if (text.startsWith("(?:") && text.endsWith(")")) {
+            text = text.substring(3, text.length() - 1);
+        } else if (text.startsWith("(") && text.endsWith(")")) {
+            text = text.substring(1, text.length() - 1);
+        }
+
+        if (text.indexOf('|') < 0) {
+            return null;
+        }
+
+        Set<String> set = new HashSet<>();
+        for (String part : text.split("\\|", -1)) {
+            String literal = literal(part);
+            if (literal == null) {
+                return null;
+            }
+            set.add(literal);
+        }
+
+        return set;
+    }
+
+    /**
+     * 是否不含行终止符（. 不匹配行终止符）
+     */
+    static boolean noLineBreak(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEscaped(String text, int idx) {
+        int count = 0;
+        for (int i = idx - 1; i >= 0 && text.charAt(i) == '\\'; i--) {
+            count++;
+        }
+        return count % 2 == 1;
+    }
+
+    /// /////////////////
+
+    static class Literal extends PatternMatcher {
+        private final String literal;
+
+        Literal(String literal) {
+            this.literal = literal;
+        }
+
+        @Override
+        boolean matches(String input) {
+            return literal.equals(input);
+        }
+
+        @Override
+        public String toString() {
+            return "Literal(" + literal + ")";
+        }
+    }
+
+    static class Prefix extends PatternMatcher {
+        private final String prefix;
+
+        Prefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        boolean matches(String input) {
+            return input.startsWith(prefix) && noLineBreak(input, prefix.length(), input.length());
+        }
+
+        @Override
+        public String toString() {
+            return "Prefix(" + prefix + ")";
+        }
+    }
+
+    static class Suffix extends PatternMatcher {
+        private final String suffix;
+
+        Suffix(String suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        boolean matches(String input) {
+            return input.endsWith(suffix) && noLineBreak(input, 0, input.length() - suffix.length());
+        }
+
+        @Override
+        public String toString() {
+            return "Suffix(" + suffix + ")";
+        }
+    }
+
+    static class Contains extends PatternMatcher {
+        private final String part;
+
+        Contains(String part) {
+            this.part = part;
+        }
+
+        @Override
+        boolean matches(String input) {
+            return noLineBreak(input, 0, input.length()) && input.contains(part);
+        }
+
+        @Override
+        public String toString() {
+            return "Contains(" + part + ")";
+        }
+    }
+
+    static class Alternatives extends PatternMatcher {
+        private final Set<String> alternatives;
+
+        Alternatives(Set<String> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Override
+        boolean matches(String input) {
+            return alternatives.contains(input);
+        }
+
+        @Override
+        public String toString() {
+            return "Alternatives" + Arrays.toString(alternatives.toArray());
+        }
+    }
+
+    static class Regex extends PatternMatcher {
+        private final Pattern pattern;
+
+        Regex(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean matches(String input) {
+            return pattern.matcher(input).matches();
+        }
+
+        @Override
+        public String toString() {
+            return "Regex(" + pattern + ")";
+        }
+    }
+}
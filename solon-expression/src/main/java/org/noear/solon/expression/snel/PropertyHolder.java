@@ -17,6 +17,7 @@ package org.noear.solon.expression.snel;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 
 /**
  * 属性持有者
@@ -33,6 +34,19 @@ public class PropertyHolder {
         this.field = field;
     }
 
+    /**
+     * 获取属性类型（泛型）
+     *
+     * @since 4.1
+     */
+    public Type getGenericType() {
+        if (method == null) {
+            return field.getGenericType();
+        } else {
+            return method.getGenericReturnType();
+        }
+    }
+
     /**
      * 获取属性值
      */
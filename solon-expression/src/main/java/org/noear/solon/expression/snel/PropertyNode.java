@@ -16,6 +16,7 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.BudgetContext;
 import org.noear.solon.expression.exception.EvaluationException;
 
 import java.util.List;
@@ -47,40 +48,65 @@ public class PropertyNode implements Expression {
         this.safe = true;
     }
 
+    PropertyNode(Expression target, Expression property, boolean safe) {
+        this(target, property);
+        this.safe = safe;
+    }
+
     public boolean isSafe() {
         return safe;
     }
 
     @Override
     public Object eval(Function context) {
+        BudgetContext budget = BudgetContext.find(context);
+        if (budget != null) {
+            budget.step();
+        }
+
         Object targetValue = target.eval(context);
         if (targetValue == null) {
             return null; // 目标为 null 时返回 null
         }
 
         Object propertyValue = property.eval(context);
-        if (propertyValue == null) {
-            return null; // 属性为 null 时返回 null
+
+        return getValue(targetValue, propertyValue);
+    }
+
+    /**
+     * 获取属性值（目标与属性已求值；任一为 null 时返回 null）
+     *
+     * @since 4.1
+     */
+    public static Object getValue(Object targetValue, Object propertyValue) {
+        if (targetValue == null || propertyValue == null) {
+            return null;
         }
 
         // 处理集合类型的整数索引访问
         if (targetValue instanceof List && propertyValue instanceof Number) {
+            List<?> list = (List<?>) targetValue;
             int index = ((Number) propertyValue).intValue();
-            try {
-                return ((List<?>) targetValue).get(index);
-            } catch (IndexOutOfBoundsException e) {
+            if (index < 0 || index >= list.size()) {
                 return null; // 索引越界时返回 null
             }
+
+            return list.get(index);
         }
 
         // 处理数组类型的整数索引访问
         if (targetValue.getClass().isArray() && propertyValue instanceof Number) {
             int index = ((Number) propertyValue).intValue();
-            try {
-                return java.lang.reflect.Array.get(targetValue, index);
-            } catch (ArrayIndexOutOfBoundsException e) {
+            if (index < 0 || index >= java.lang.reflect.Array.getLength(targetValue)) {
                 return null; // 索引越界时返回 null
             }
+
+            if (targetValue instanceof Object[]) {
+                return ((Object[]) targetValue)[index];
+            } else {
+                return java.lang.reflect.Array.get(targetValue, index);
+            }
         }
 
         // 处理 Map 或 Java Bean 属性访问
@@ -99,6 +125,15 @@ public class PropertyNode implements Expression {
         return target;
     }
 
+    /**
+     * 获取属性（属性名常量或索引表达式）
+     *
+     * @since 4.1
+     */
+    public Expression getProperty() {
+        return property;
+    }
+
     /**
      * 获取属性名
      */
@@ -114,7 +149,7 @@ public class PropertyNode implements Expression {
      * 获取 Java Bean 属性值
      */
 
-    private Object getPropertyValue(Object target, String propName) {
+    private static Object getPropertyValue(Object target, String propName) {
         final PropertyHolder property;
         if (target instanceof Class) {
             property = ReflectionUtil.getInstance().getProperty((Class<?>) target, propName);
@@ -125,7 +160,7 @@ public class PropertyNode implements Expression {
         try {
             return property.getValue(target);
         } catch (Throwable e) {
-            throw new EvaluationException("Failed to access property: " + propName, e);
+            throw EvaluationException.expected("Failed to access property: " + propName, e);
         }
     }
 
@@ -16,6 +16,7 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.exception.EvaluationException;
+import org.noear.solon.expression.util.LRUCache;
 
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
@@ -51,7 +52,11 @@ public class ReflectionUtil {
         return instance;
     }
 
+    //缺失缓存的容量（名字可能来自外部输入，缺失项有界淘汰）
+    private static final int MISSING_CAPACITY = 1024;
+
     private final Map<MethodKey, Method> cache = new ConcurrentHashMap<>();
+    private final LRUCache<MethodKey, Boolean> methodMissing = new LRUCache<>(MISSING_CAPACITY);
     private final Map<Class<?>, Method[]> methodsCache = new ConcurrentHashMap<>();
 
     private Method[] getMethods(Class<?> clazz) {
@@ -60,7 +65,25 @@ public class ReflectionUtil {
 
     public Method getMethod(Class<?> clazz, String methodName, Class<?>[] argTypes) {
         MethodKey key = new MethodKey(clazz, methodName, argTypes);
-        return cache.computeIfAbsent(key, k -> findMethod(clazz, methodName, argTypes));
+
+        Method method = cache.get(key);
+        if (method != null) {
+            return method;
+        }
+
+        //找不到时也缓存（避免反复扫描；有界）
+        if (methodMissing.get(key) != null) {
+            return null;
+        }
+
+        method = findMethod(clazz, methodName, argTypes);
+        if (method == null) {
+            methodMissing.put(key, Boolean.TRUE);
+        } else {
+            cache.putIfAbsent(key, method);
+        }
+
+        return method;
     }
 
 
@@ -201,32 +224,60 @@ public class ReflectionUtil {
 
     /// //////////////////////////////
     private  final Map<String, PropertyHolder> PROPERTY_CACHE = new ConcurrentHashMap<>();
+    private  final LRUCache<String, Boolean> PROPERTY_MISSING = new LRUCache<>(MISSING_CAPACITY);
 
 
     /**
      * 获取属性
      */
     public  PropertyHolder getProperty(Class<?> clazz, String propName) {
+        PropertyHolder holder = findProperty(clazz, propName);
+
+        if (holder == null) {
+            throw EvaluationException.expected("Missing property: " + propName, null);
+        }
+
+        return holder;
+    }
+
+    /**
+     * 查找属性（缺失时返回 null）
+     *
+     * @since 4.1
+     */
+    public  PropertyHolder findProperty(Class<?> clazz, String propName) {
         String key = clazz.getName() + ":" + propName;
 
-        return PROPERTY_CACHE.computeIfAbsent(key, k -> {
+        PropertyHolder holder = PROPERTY_CACHE.get(key);
+        if (holder != null) {
+            return holder;
+        }
+
+        //缺失也缓存（避免反复反射查找；有界）
+        if (PROPERTY_MISSING.get(key) != null) {
+            return null;
+        }
+
+        try {
+            String name = "get" + capitalize(propName);
+            Method method = clazz.getMethod(name);
+            accessibleAsTrue(method);
+
+            holder = new PropertyHolder(method, null);
+        } catch (NoSuchMethodException e) {
             try {
-                String name = "get" + capitalize(propName);
-                Method method = clazz.getMethod(name);
-                accessibleAsTrue(method);
-
-                return new PropertyHolder(method, null);
-            } catch (NoSuchMethodException e) {
-                try {
-                    Field field = clazz.getField(propName);
-                    accessibleAsTrue(field);
-
-                    return new PropertyHolder(null, field);
-                } catch (NoSuchFieldException ex) {
-                    throw new EvaluationException("Missing property: " + propName, e);
-                }
+                Field field = clazz.getField(propName);
+                accessibleAsTrue(field);
+
+                holder = new PropertyHolder(null, field);
+            } catch (NoSuchFieldException ex) {
+                PROPERTY_MISSING.put(key, Boolean.TRUE);
+                return null;
             }
-        });
+        }
+
+        PropertyHolder old = PROPERTY_CACHE.putIfAbsent(key, holder);
+        return old == null ? holder : old;
     }
 
     /**
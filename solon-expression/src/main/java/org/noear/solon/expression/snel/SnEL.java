@@ -16,9 +16,12 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.AsyncContext;
 
+import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -39,6 +42,84 @@ public interface SnEL {
         return parse(expr, true);
     }
 
+    /**
+     * 参数化解析（按剥离字面量后的表达式形态缓存，适合字面量多变的生成式表达式）
+     */
+    static Expression parseParameterized(String expr) {
+        return SnelParser.getInstance().forEval().parseParameterized(expr);
+    }
+
+    /**
+     * 分层解析（先解释执行，热点表达式在后台编译为闭包树）
+     */
+    static Expression parseTiered(String expr) {
+        return SnelParser.getInstance().forEval().parseTiered(expr);
+    }
+
+    /**
+     * 绑定（按环境一次性解析 @bean、T() 类型与模板指导，之后评估只需提供变量）
+     *
+     * @param expr        表达式
+     * @param environment 环境（一般为 EnhanceContext）
+     */
+    static Expression bind(String expr, Object environment) {
+        return ExpressionBinder.bind(parse(expr), environment);
+    }
+
+    /**
+     * 类型化编译（按根类型静态解析属性与方法路径并预绑定访问器；路径不存在时抛出 CompilationException）
+     *
+     * @param expr     表达式
+     * @param rootType 根类型（变量为根对象的属性）
+     */
+    static <T> TypedExpression<T> compile(String expr, Class<T> rootType) {
+        return TypedCompiler.compile(parse(expr), rootType);
+    }
+
+    /**
+     * 按变量声明类型编译（静态类型推断，不匹配的运算抛出 CompilationException，并选择特化的节点实现）
+     *
+     * @param expr   表达式
+     * @param schema 变量声明类型
+     */
+    static Expression compile(String expr, Map<String, ? extends Type> schema) {
+        return TypeInference.infer(parse(expr), schema).check().specialize();
+    }
+
+    /**
+     * 异步评估（变量与 Bean 异步解析，相互独立的子树并发获取）
+     *
+     * @param expr    表达式
+     * @param context 异步上下文
+     */
+    static CompletableFuture<Object> evalAsync(String expr, AsyncContext context) {
+        return AsyncEvaluator.evalAsync(parse(expr), context);
+    }
+
+    /**
+     * 部分求值（已知变量替换为常量，折叠并剪除确定分支，返回剩余表达式）
+     *
+     * @param expr          表达式
+     * @param knownBindings 已知变量
+     */
+    static Expression partialEval(String expr, Map<String, ?> knownBindings) {
+        return PartialEvaluator.partialEval(parse(expr), knownBindings);
+    }
+
+    /**
+     * 依赖分析（根变量、属性路径、${} 属性键、Bean 与 T() 类型）
+     */
+    static ExpressionDependencies dependencies(String expr) {
+        return ExpressionDependencies.analyze(parse(expr));
+    }
+
+    /**
+     * 模板依赖分析
+     */
+    static ExpressionDependencies dependenciesTmpl(String expr) {
+        return ExpressionDependencies.analyze(parseTmpl(expr));
+    }
+
 
     /// /////////////////
 
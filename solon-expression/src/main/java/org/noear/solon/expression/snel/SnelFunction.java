@@ -0,0 +1,267 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * 表达式函数（固定参数个数，解析时按名字与参数个数绑定，评估时直接调用，不经过反射）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public abstract class SnelFunction {
+    /**
+     * 可变参数
+     */
+    public static final int VARARGS = -1;
+
+    private final int arity;
+    private boolean pure = true;
+    private volatile String name;
+
+    protected SnelFunction(int arity) {
+        this.arity = arity;
+    }
+
+    /**
+     * 获取参数个数（VARARGS 表示可变参数）
+     */
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * 是否为纯函数（相同参数总是得到相同结果；非纯函数不参与常量折叠与缓存）
+     */
+    public boolean isPure() {
+        return pure;
+    }
+
+    /**
+     * 标记为非纯函数（如 now()、random()）
+     */
+    public SnelFunction impure() {
+        this.pure = false;
+        return this;
+    }
+
+    /**
+     * 获取函数名（首次注册时的名字；未注册时为 null）
+     */
+    public String getName() {
+        return name;
+    }
+
+    void named(String name) {
+        if (this.name == null) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * 调用（0 个参数；固定参数个数的函数按需重写对应的 callN）
+     */
+    public Object call0() {
+        throw unsupported(0);
+    }
+
+    /**
+     * 调用（1 个参数）
+     */
+    public Object call1(Object a) {
+        throw unsupported(1);
+    }
+
+    /**
+     * 调用（2 个参数）
+     */
+    public Object call2(Object a, Object b) {
+        throw unsupported(2);
+    }
+
+    /**
+     * 调用（3 个参数）
+     */
+    public Object call3(Object a, Object b, Object c) {
+        throw unsupported(3);
+    }
+
+    /**
+     * 调用（可变参数或超过 3 个参数时使用）
+     */
+    public Object call(Object[] args) {
+        throw unsupported(args.length);
+    }
+
+    /**
+     * 按参数个数分派（可变参数或超过 3 个参数走 call，其它走对应的 callN）
+     */
+    Object invoke(Object[] args) {
+        if (arity == VARARGS) {
+            return call(args);
+        }
+
+        switch (args.length) {
+            case 0:
+                return call0();
+            case 1:
+                return call1(args[0]);
+            case 2:
+                return call2(args[0], args[1]);
+            case 3:
+                return call3(args[0], args[1], args[2]);
+            default:
+                return call(args);
+        }
+    }
+
+    private EvaluationException unsupported(int argc) {
+        return new EvaluationException("Function '" + (name == null ? getClass().getName() : name) + "' does not accept " + argc + " argument(s)");
+    }
+
+    /// /////////////////
+
+    public static SnelFunction of(Supplier<?> fn) {
+        return new SnelFunction(0) {
+            @Override
+            public Object call0() {
+                return fn.get();
+            }
+        };
+    }
+
+    public static SnelFunction of(Function<Object, ?> fn) {
+        return new SnelFunction(1) {
+            @Override
+            public Object call1(Object a) {
+                return fn.apply(a);
+            }
+        };
+    }
+
+    public static SnelFunction of(BiFunction<Object, Object, ?> fn) {
+        return new SnelFunction(2) {
+            @Override
+            public Object call2(Object a, Object b) {
+                return fn.apply(a, b);
+            }
+        };
+    }
+
+    public static SnelFunction of(Function3 fn) {
+        return new SnelFunction(3) {
+            @Override
+            public Object call3(Object a, Object b, Object c) {
+                return fn.apply(a, b, c);
+            }
+        };
+    }
+
+    /**
+     * 可变参数函数
+     */
+    public static SnelFunction varargs(Function<Object[], ?> fn) {
+        return new SnelFunction(VARARGS) {
+            @Override
+            public Object call(Object[] args) {
+                return fn.apply(args);
+            }
+        };
+    }
+
+    /**
+     * 数值函数（整数参数走 long 特化，其它数值走 double 特化；参数为 null 时返回 null）
+     */
+    public static SnelFunction ofNumber(LongUnaryOperator longFn, DoubleUnaryOperator doubleFn) {
+        return new SnelFunction(1) {
+            @Override
+            public Object call1(Object a) {
+                if (a == null) {
+                    return null;
+                }
+
+                Number n = toNumber(a);
+                if (isIntegral(n)) {
+                    return narrow(longFn.applyAsLong(n.longValue()), n instanceof Integer);
+                } else {
+                    return doubleFn.applyAsDouble(n.doubleValue());
+                }
+            }
+        };
+    }
+
+    /**
+     * 数值函数（两个参数都是整数时走 long 特化，否则走 double 特化；参数为 null 时返回 null）
+     */
+    public static SnelFunction ofNumber(LongBinaryOperator longFn, DoubleBinaryOperator doubleFn) {
+        return new SnelFunction(2) {
+            @Override
+            public Object call2(Object a, Object b) {
+                if (a == null || b == null) {
+                    return null;
+                }
+
+                Number x = toNumber(a);
+                Number y = toNumber(b);
+                if (isIntegral(x) && isIntegral(y)) {
+                    return narrow(longFn.applyAsLong(x.longValue(), y.longValue()), x instanceof Integer && y instanceof Integer);
+                } else {
+                    return doubleFn.applyAsDouble(x.doubleValue(), y.doubleValue());
+                }
+            }
+        };
+    }
+
+    static Number toNumber(Object value) {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+
+    static boolean isIntegral(Number n) {
+        return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte;
+    }
+
+    /**
+     * 整数输入时尽量保持 Integer 结果（溢出时返回 Long）
+     */
+    private static Object narrow(long value, boolean asInt) {
+        if (asInt && value == (int) value) {
+            return (int) value;
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * 三参数函数
+     */
+    @FunctionalInterface
+    public interface Function3 {
+        Object apply(Object a, Object b, Object c);
+    }
+}
@@ -30,6 +30,7 @@ public class SnelParser {
 
     private final EvaluateParser evaluateParser;
     private final TemplateParser templateParser;
+    private final FunctionRegistry functions;
 
     protected final char MARK_START_EXPRESSION; // 默认 '#'
     protected final char MARK_START_PROPERTIES; // 默认 '$'
@@ -52,6 +53,8 @@ public class SnelParser {
         this.MARK_BRACE_CLOSE = braceCloseMark;
 
         //后
+        this.functions = new FunctionRegistry();
+
         this.evaluateParser = new EvaluateParser(this, cahceCapacity);
         this.templateParser = new TemplateParser(this, cahceCapacity);
     }
@@ -72,6 +75,15 @@ public class SnelParser {
         return templateParser;
     }
 
+    /**
+     * 函数注册表（默认为空，`name(args)` 按变量方法调用；注册应在解析前完成）
+     *
+     * @since 4.1
+     */
+    public FunctionRegistry getFunctions() {
+        return functions;
+    }
+
     /**
      * 是否有占位符
      */
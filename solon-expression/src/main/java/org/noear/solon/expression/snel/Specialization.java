@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+/**
+ * 节点特化状态（序号与节点内部状态值一一对应）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public enum Specialization {
+    /**
+     * 未定（仍在采样）
+     */
+    UNINIT,
+    /**
+     * int
+     */
+    INT,
+    /**
+     * long（比较时含 int 混合）
+     */
+    LONG,
+    /**
+     * double
+     */
+    DOUBLE,
+    /**
+     * 字符串（算术时为拼接）
+     */
+    STRING,
+    /**
+     * 通用（未特化或类型守卫失败）
+     */
+    GENERIC,
+    ;
+
+    private static final Specialization[] VALUES = values();
+
+    static Specialization of(int spec) {
+        return VALUES[spec];
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.util.LRUCache;
+
+import java.lang.reflect.Array;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * 标准函数库（字符串、数学、日期、集合、聚合）
+ *
+ * @author noear
+ * @since 4.1
+ */
+final class StandardFunctions {
+    private static final LRUCache<String, DateTimeFormatter> formatters = new LRUCache<>(64);
+
+    private StandardFunctions() {
+    }
+
+    static void register(FunctionRegistry registry) {
+        registerString(registry);
+        registerMath(registry);
+        registerDate(registry);
+        registerCollection(registry);
+        registerAggregate(registry);
+    }
+
+    /// /////////////////
+
+    private static void registerString(FunctionRegistry r) {
+        r.register("lower", SnelFunction.of(s -> s == null ? null : s.toString().toLowerCase()));
+        r.register("upper", SnelFunction.of(s -> s == null ? null : s.toString().toUpperCase()));
+        r.register("trim", SnelFunction.of(s -> s == null ? null : s.toString().trim()));
+        r.register("str", SnelFunction.of(s -> s == null ? null : s.toString()));
+
+        r.register("substring", SnelFunction.of((s, b) -> s == null ? null : s.toString().substring(toInt(b))));
+        r.register("substring", SnelFunction.of((s, b, e) -> s == null ? null : s.toString().substring(toInt(b), toInt(e))));
+        r.register("replace", SnelFunction.of((s, a, b) -> s == null ? null : s.toString().replace(a.toString(), String.valueOf(b))));
+        r.register("startsWith", SnelFunction.of((s, p) -> s != null && s.toString().startsWith(p.toString())));
+        r.register("endsWith", SnelFunction.of((s, p) -> s != null && s.toString().endsWith(p.toString())));
+        r.register("indexOf", SnelFunction.of((s, p) -> s == null ? -1 : s.toString().indexOf(p.toString())));
+        r.register("isBlank", SnelFunction.of(s -> s == null || s.toString().trim().isEmpty()));
+
+        r.register("split", SnelFunction.of((s, sep) -> {
+            if (s == null) {
+                return null;
+            } else {
+                return Arrays.asList(s.toString().split(Pattern.quote(sep.toString()), -1));
+            }
+        }));
+
+        r.register("concat", SnelFunction.varargs(args -> {
+            StringBuilder buf = new StringBuilder();
+            for (Object arg : args) {
+                if (arg != null) {
+                    buf.append(arg);
+                }
+            }
+            return buf.toString();
+        }));
+
+        r.register("coalesce", SnelFunction.varargs(args -> {
+            for (Object arg : args) {
+                if (arg != null) {
+                    return arg;
+                }
+            }
+            return null;
+        }));
+    }
+
+    private static void registerMath(FunctionRegistry r) {
+        r.register("abs", SnelFunction.ofNumber((long x) -> Math.abs(x), (double x) -> Math.abs(x)));
+        r.register("min", SnelFunction.ofNumber((long x, long y) -> Math.min(x, y), (double x, double y) -> Math.min(x, y)));
+        r.register("max", SnelFunction.ofNumber((long x, long y) -> Math.max(x, y), (double x, double y) -> Math.max(x, y)));
+        r.register("floor", SnelFunction.ofNumber((long x) -> x, (double x) -> Math.floor(x)));
+        r.register("ceil", SnelFunction.ofNumber((long x) -> x, (double x) -> Math.ceil(x)));
+
+        r.register("round", SnelFunction.of(x -> {
+            if (x == null) {
+                return null;
+            }
+
+            Number n = SnelFunction.toNumber(x);
+            if (SnelFunction.isIntegral(n)) {
+                return n;
+            } else {
+                return Math.round(n.doubleValue());
+            }
+        }));
+
+        r.register("sqrt", SnelFunction.of(x -> x == null ? null : Math.sqrt(SnelFunction.toNumber(x).doubleValue())));
+        r.register("pow", SnelFunction.of((x, y) -> {
+            if (x == null || y == null) {
+                return null;
+            } else {
+                return Math.pow(SnelFunction.toNumber(x).doubleValue(), SnelFunction.toNumber(y).doubleValue());
+            }
+        }));
+
+        r.register("random", SnelFunction.of(() -> ThreadLocalRandom.current().nextDouble()).impure());
+    }
+
+    private static void registerDate(FunctionRegistry r) {
+        r.register("now", SnelFunction.of(() -> new Date()).impure());
+        r.register("timestamp", SnelFunction.of(() -> System.currentTimeMillis()).impure());
+        r.register("today", SnelFunction.of(() -> LocalDate.now()).impure());
+
+        r.register("formatDate", SnelFunction.of((d, pattern) -> {
+            if (d == null) {
+                return null;
+            }
+
+            return formatter(pattern.toString()).format(toTemporal(d));
+        }));
+
+        r.register("parseDate", SnelFunction.of((s, pattern) -> {
+            if (s == null) {
+                return null;
+            }
+
+            TemporalAccessor parsed = formatter(pattern.toString()).parse(s.toString());
+            LocalDateTime dateTime;
+            if (parsed.isSupported(ChronoField.HOUR_OF_DAY)) {
+                dateTime = LocalDateTime.from(parsed);
+            } else {
+                dateTime = LocalDate.from(parsed).atStartOfDay();
+            }
+            return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+        }));
+    }
+
+    private static void registerCollection(FunctionRegistry r) {
+        r.register("size", SnelFunction.of(x -> size(x)));
+        r.register("length", SnelFunction.of(x -> size(x)));
+        r.register("isEmpty", SnelFunction.of(x -> x == null || size(x) == 0));
+
+        r.register("contains", SnelFunction.of((x, item) -> {
+            if (x == null) {
+                return false;
+            } else if (x instanceof CharSequence) {
+                return item != null && x.toString().contains(item.toString());
+            } else if (x instanceof Collection) {
+                return ((Collection<?>) x).contains(item);
+            } else if (x instanceof Map) {
+                return ((Map<?, ?>) x).containsKey(item);
+            } else if (x.getClass().isArray()) {
+                for (int i = 0, len = Array.getLength(x); i < len; i++) {
+                    Object e = Array.get(x, i);
+                    if (e == null ? item == null : e.equals(item)) {
+                        return true;
+                    }
+                }
+                return false;
+            } else {
+                throw new IllegalArgumentException("Not a string or collection: " + x.getClass().getName());
+            }
+        }));
+
+        r.register("first", SnelFunction.of(x -> element(x, true)));
+        r.register("last", SnelFunction.of(x -> element(x, false)));
+
+        r.register("join", SnelFunction.of((x, sep) -> {
+            if (x == null) {
+                return null;
+            }
+
+            StringBuilder buf = new StringBuilder();
+            String separator = String.valueOf(sep);
+            for (Object item : toList(x)) {
+                if (buf.length() > 0) {
+                    buf.append(separator);
+                }
+                buf.append(item);
+            }
+            return buf.toString();
+        }));
+
+        r.register("list", SnelFunction.varargs(args -> new ArrayList<>(Arrays.asList(args))));
+    }
+
+    private static void registerAggregate(FunctionRegistry r) {
+        r.register("sum", new AggregateFunction(AggregateFunction.SUM));
+        r.register("avg", new AggregateFunction(AggregateFunction.AVG));
+        r.register("min", new AggregateFunction(AggregateFunction.MIN));
+        r.register("max", new AggregateFunction(AggregateFunction.MAX));
+        r.register("count", new AggregateFunction(AggregateFunction.COUNT));
+    }
+
+    /// /////////////////
+
+    private static int toInt(Object value) {
+        return SnelFunction.toNumber(value).intValue();
+    }
+
+    private static int size(Object x) {
+        if (x == null) {
+            return 0;
+        } else if (x instanceof CharSequence) {
+            return ((CharSequence) x).length();
+        } else if (x instanceof Collection) {
+            return ((Collection<?>) x).size();
+        } else if (x instanceof Map) {
+            return ((Map<?, ?>) x).size();
+        } else if (x.getClass().isArray()) {
+            return Array.getLength(x);
+        } else {
+            throw new IllegalArgumentException("Not a string or collection: " + x.getClass().getName());
+        }
+    }
+
+    private static Object element(Object x, boolean first) {
+        if (x == null) {
+            return null;
+        } else if (x instanceof List) {
+            List<?> list = (List<?>) x;
+            return list.isEmpty() ? null : list.get(first ? 0 : list.size() - 1);
+        } else if (x.getClass().isArray()) {
+            int len = Array.getLength(x);
+            return len == 0 ? null : Array.get(x, first ? 0 : len - 1);
+        } else if (x instanceof Collection) {
+            Object last = null;
+            for (Iterator<?> it = ((Collection<?>) x).iterator(); it.hasNext(); ) {
+                last = it.next();
+                if (first) {
+                    break;
+                }
+            }
+            return last;
+        } else {
+            throw new IllegalArgumentException("Not a collection: " + x.getClass().getName());
+        }
+    }
+
+    private static Collection<?> toList(Object x) {
+        if (x instanceof Collection) {
+            return (Collection<?>) x;
+        } else if (x.getClass().isArray()) {
+            List<Object> list = new ArrayList<>();
+            for (int i = 0, len = Array.getLength(x); i < len; i++) {
+                list.add(Array.get(x, i));
+            }
+            return list;
+        } else {
+            throw new IllegalArgumentException("Not a collection: " + x.getClass().getName());
+        }
+    }
+
+    private static DateTimeFormatter formatter(String pattern) {
+        return formatters.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+    }
+
+    private static TemporalAccessor toTemporal(Object d) {
+        if (d instanceof Date) {
+            return Instant.ofEpochMilli(((Date) d).getTime()).atZone(ZoneId.systemDefault());
+        } else if (d instanceof Number) {
+            return Instant.ofEpochMilli(((Number) d).longValue()).atZone(ZoneId.systemDefault());
+        } else if (d instanceof TemporalAccessor) {
+            return (TemporalAccessor) d;
+        } else {
+            throw new IllegalArgumentException("Not a date: " + d.getClass().getName());
+        }
+    }
+}
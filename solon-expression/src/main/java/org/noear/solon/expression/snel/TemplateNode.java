@@ -18,6 +18,7 @@ package org.noear.solon.expression.snel;
 import org.noear.solon.expression.Expression;
 import org.noear.solon.expression.guidance.PropertiesGuidance;
 import org.noear.solon.expression.guidance.ReturnGuidance;
+import org.noear.solon.expression.util.LRUCache;
 
 import java.util.List;
 import java.util.Properties;
@@ -30,13 +31,22 @@ import java.util.function.Function;
  * @since 3.1
  */
 public class TemplateNode implements Expression<String> {
+    //嵌套模板绑定缓存容量
+    private static final int NESTED_CAPACITY = 64;
+
     private final SnelParser parser;
     private final List<TemplateFragment> fragments;
     private TemplateFragment constantFragment;
+    private final Binding binding;
 
     public TemplateNode(SnelParser parser, List<TemplateFragment> fragments) {
+        this(parser, fragments, null);
+    }
+
+    private TemplateNode(SnelParser parser, List<TemplateFragment> fragments, Binding binding) {
         this.parser = parser;
         this.fragments = fragments;
+        this.binding = binding;
 
         if (fragments.size() == 1 && fragments.get(0).getMarker() == TemplateMarker.TEXT) {
             //优化常量性能
@@ -44,8 +54,76 @@ public class TemplateNode implements Expression<String> {
         }
     }
 
+    SnelParser getParser() {
+        return parser;
+    }
+
+    /**
+     * 获取片段
+     *
+     * @since 4.1
+     */
+    public List<TemplateFragment> getFragments() {
+        return fragments;
+    }
+
+    /**
+     * 是否已绑定
+     *
+     * @since 4.1
+     */
+    public boolean isBound() {
+        return binding != null;
+    }
+
+    /**
+     * 绑定环境（指导标记与属性只读取一次，表达式片段预先解析并绑定）
+     *
+     * @param environment 环境（一般为 EnhanceContext）
+     * @since 4.1
+     */
+    public TemplateNode bind(Object environment) {
+        Binding tmp = new Binding();
+        tmp.environment = environment;
+
+        if (environment instanceof ReturnGuidance) {
+            tmp.allowReturnNull = ((ReturnGuidance) environment).allowReturnNull();
+        }
+
+        if (environment instanceof PropertiesGuidance) {
+            PropertiesGuidance guidance = ((PropertiesGuidance) environment);
+            tmp.propsObject = guidance.getProperties();
+            tmp.allowPropertyDefault = guidance.allowPropertyDefault();
+            tmp.allowPropertyNesting = guidance.allowPropertyNesting();
+            tmp.allowTextAsProperty = guidance.allowTextAsProperty();
+
+            if (tmp.allowPropertyNesting) {
+                tmp.nested = new LRUCache<>(NESTED_CAPACITY);
+            }
+        }
+
+        tmp.expressions = new Expression[fragments.size()];
+        for (int i = 0; i < fragments.size(); i++) {
+            TemplateFragment fragment = fragments.get(i);
+            if (fragment.getMarker() == TemplateMarker.EXPRESSION) {
+                tmp.expressions[i] = ExpressionBinder.bind(parser.forEval().parse(fragment.getContent()), environment);
+            }
+        }
+
+        return new TemplateNode(parser, fragments, tmp);
+    }
+
     @Override
     public String eval(Function context) {
+        if (binding != null) {
+            return render(context,
+                    binding.allowReturnNull,
+                    binding.allowPropertyDefault,
+                    binding.allowPropertyNesting,
+                    binding.allowTextAsProperty,
+                    binding.propsObject == null ? context : binding.propsObject);
+        }
+
         boolean allowReturnNull = false;
         boolean allowPropertyDefault = true;
         boolean allowPropertyNesting = false;
@@ -69,7 +147,10 @@ public class TemplateNode implements Expression<String> {
             propsObject = context;
         }
 
-        /// ///////////////
+        return render(context, allowReturnNull, allowPropertyDefault, allowPropertyNesting, allowTextAsProperty, propsObject);
+    }
+
+    private String render(Function context, boolean allowReturnNull, boolean allowPropertyDefault, boolean allowPropertyNesting, boolean allowTextAsProperty, Object propsObject) {
 
         if (constantFragment != null) {
             if (allowTextAsProperty) {
@@ -87,7 +168,8 @@ public class TemplateNode implements Expression<String> {
         } else {
 
             StringBuilder result = new StringBuilder();
-            for (TemplateFragment fragment : fragments) {
+            for (int i = 0; i < fragments.size(); i++) {
+                TemplateFragment fragment = fragments.get(i);
                 if (fragment.getMarker() == TemplateMarker.TEXT) {
                     if (allowTextAsProperty) {
                         //如果文本作为属性表达式用
@@ -106,7 +188,11 @@ public class TemplateNode implements Expression<String> {
                     if (fragment.getMarker() == TemplateMarker.PROPERTIES) {
                         value = evalProps(fragment, propsObject, allowPropertyDefault, allowPropertyNesting, context, result);
                     } else {
-                        value = parser.forEval().parse(fragment.getContent()).eval(context);
+                        if (binding == null) {
+                            value = parser.forEval().parse(fragment.getContent()).eval(context);
+                        } else {
+                            value = binding.expressions[i].eval(context);
+                        }
                         result.append(value);
                     }
 
@@ -125,7 +211,13 @@ public class TemplateNode implements Expression<String> {
 
         if (value != null && allowPropertyNesting) {
             //模板里可能会（动态）再套模型
-            value = parser.forTmpl().parse(value).eval(context);
+            if (binding == null) {
+                value = parser.forTmpl().parse(value).eval(context);
+            } else {
+                //属性值一般不变，按值缓存绑定结果（免得每次求值都重新绑定）
+                value = (String) binding.nested.computeIfAbsent(value,
+                        k -> ExpressionBinder.bind(parser.forTmpl().parse(k), binding.environment)).eval(context);
+            }
         }
 
         if (value != null && result != null) {
@@ -156,4 +248,18 @@ public class TemplateNode implements Expression<String> {
             return value;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 绑定状态
+     */
+    private static class Binding {
+        Object environment;
+        Object propsObject;
+        boolean allowReturnNull = false;
+        boolean allowPropertyDefault = true;
+        boolean allowPropertyNesting = false;
+        boolean allowTextAsProperty = false;
+        Expression[] expressions;
+        LRUCache<String, Expression> nested;
+    }
+}
@@ -37,6 +37,33 @@ public class TernaryNode implements Expression {
         this.falseExpression = falseExpression;
     }
 
+    /**
+     * 获取条件表达式
+     *
+     * @since 4.1
+     */
+    public Expression<Boolean> getCondition() {
+        return condition;
+    }
+
+    /**
+     * 获取条件为真时的表达式
+     *
+     * @since 4.1
+     */
+    public Expression getTrueExpression() {
+        return trueExpression;
+    }
+
+    /**
+     * 获取条件为假时的表达式
+     *
+     * @since 4.1
+     */
+    public Expression getFalseExpression() {
+        return falseExpression;
+    }
+
     @Override
     public Object eval(Function context) {
         // 计算条件表达式
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * 分层表达式（先由语法树解释执行并计数，同时完成节点类型特化；达到阈值后在后台编译为闭包树，再原子切换）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class TieredExpression implements Expression {
+    private static final int STATE_INTERPRETED = 0;
+    private static final int STATE_COMPILING = 1;
+    private static final int STATE_COMPILED = 2;
+    private static final int STATE_FAILED = 3;
+
+    private static final AtomicIntegerFieldUpdater<TieredExpression> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(TieredExpression.class, "state");
+
+    private static volatile Executor defaultExecutor;
+
+    private final Expression source;
+    private final int threshold;
+    private final Executor executor;
+
+    private volatile Expression delegate;
+    private volatile int state;
+    private int count; //不需要精确，允许竞争丢失计数
+
+    /**
+     * @param source    语法树
+     * @param threshold 编译阈值（评估次数；小于1时，首次评估即编译）
+     * @param executor  编译执行器（为 null 时，使用默认的有界执行器）
+     */
+    public TieredExpression(Expression source, int threshold, Executor executor) {
+        this.source = source;
+        this.threshold = threshold;
+        this.executor = (executor == null ? getDefaultExecutor() : executor);
+        this.delegate = source;
+    }
+
+    /**
+     * 获取源语法树
+     */
+    public Expression getSource() {
+        return source;
+    }
+
+    /**
+     * 获取评估次数（编译后不再计数）
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 是否已编译
+     */
+    public boolean isCompiled() {
+        return state == STATE_COMPILED;
+    }
+
+    @Override
+    public Object eval(Function context) {
+        Expression target = delegate;
+
+        if (target == source && state == STATE_INTERPRETED) {
+            if (++count >= threshold) {
+                promote();
+            }
+        }
+
+        return target.eval(context);
+    }
+
+    /**
+     * 提升（提交后台编译；执行器拒绝时，重新计数后再试）
+     */
+    private void promote() {
+        if (STATE.compareAndSet(this, STATE_INTERPRETED, STATE_COMPILING)) {
+            try {
+                executor.execute(this::compile);
+            } catch (RejectedExecutionException e) {
+                count = 0;
+                state = STATE_INTERPRETED;
+            }
+        }
+    }
+
+    private void compile() {
+        try {
+            delegate = ClosureExpression.compile(source);
+            state = STATE_COMPILED;
+        } catch (Throwable e) {
+            //编译失败，保持解释执行
+            state = STATE_FAILED;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+
+    /**
+     * 获取默认执行器（单个守护线程，有界队列；满时拒绝）
+     */
+    public static Executor getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            synchronized (TieredExpression.class) {
+                if (defaultExecutor == null) {
+                    ThreadPoolExecutor tmp = new ThreadPoolExecutor(1, 1,
+                            60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(256),
+                            r -> {
+                                Thread t = new Thread(r, "snel-tiered-compiler");
+                                t.setDaemon(true);
+                                return t;
+                            },
+                            new ThreadPoolExecutor.AbortPolicy());
+                    tmp.allowCoreThreadTimeOut(true);
+                    defaultExecutor = tmp;
+                }
+            }
+        }
+
+        return defaultExecutor;
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.CompilationException;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 静态类型推断（按字面量、变量声明类型与方法返回类型推断各节点的结果类型；报告不匹配的运算，并选择特化的节点实现）
+ *
+ * <p>特化：int / long / double 算术与比较、字符串拼接与相等比较（预设特化状态，不再采样）。
+ * 类型守卫仍然保留，实际值与声明不符时退回通用路径</p>
+ *
+ * @author noear
+ * @since 4.1
+ */
+public final class TypeInference {
+    private final Expression source;
+    private final Map<String, ? extends Type> schema;
+    private final Map<Expression, Type> types = new IdentityHashMap<>();
+    private final List<String> problems = new ArrayList<>();
+    private boolean collecting = true;
+
+    private TypeInference(Expression source, Map<String, ? extends Type> schema) {
+        this.source = source;
+        this.schema = schema;
+    }
+
+    /**
+     * 推断
+     *
+     * @param expression 表达式
+     * @param schema     变量声明类型（未声明的变量为未知类型）
+     */
+    public static TypeInference infer(Expression expression, Map<String, ? extends Type> schema) {
+        TypeInference inference = new TypeInference(expression, schema);
+
+        //先序的逆序：子节点先于父节点
+        List<Expression> nodes = NodeUtil.flatten(expression);
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Expression node = nodes.get(i);
+            inference.types.put(node, inference.inferNode(node));
+        }
+
+        inference.collecting = false;
+        return inference;
+    }
+
+    /**
+     * 获取节点的推断类型（已装箱；未知时为 Object，null 常量为 Void）
+     */
+    public Class<?> getType(Expression node) {
+        return TypeUtil.rawClass(getGenericType(node));
+    }
+
+    /**
+     * 获取节点的推断类型（含泛型）
+     */
+    public Type getGenericType(Expression node) {
+        Type type = types.get(node);
+        return type == null ? Object.class : type;
+    }
+
+    /**
+     * 获取结果类型
+     */
+    public Class<?> getResultType() {
+        return getType(source);
+    }
+
+    /**
+     * 获取发现的问题（不匹配的运算、不存在的属性或方法）
+     */
+    public List<String> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * 检查（有问题时抛出 CompilationException）
+     */
+    public TypeInference check() {
+        if (problems.size() > 0) {
+            throw new CompilationException("Type check failed: " + String.join("; ", problems));
+        }
+
+        return this;
+    }
+
+    /**
+     * 特化（返回新的语法树，不修改源表达式）
+     */
+    public Expression specialize() {
+        return NodeUtil.transform(source, this::specializeNode);
+    }
+
+    /// /////////////////
+
+    private Type inferNode(Expression node) {
+        if (node instanceof ConstantNode) {
+            Object value = ((ConstantNode) node).getValue();
+            return value == null ? Void.class : value.getClass();
+        } else if (node instanceof VariableNode) {
+            Type type = schema.get(((VariableNode) node).getName());
+            return type == null ? Object.class : type;
+        } else if (node instanceof TypeNode) {
+            return Class.class;
+        } else if (node instanceof PropertyNode) {
+            PropertyNode n = (PropertyNode) node;
+            Object property = n.getProperty() instanceof ConstantNode ? ((ConstantNode) n.getProperty()).getValue() : null;
+            if (property instanceof Number) {
+                return TypeUtil.elementType(getGenericType(n.getTarget()));
+            } else if (property instanceof String) {
+                return inferProperty(getGenericType(n.getTarget()), (String) property);
+            } else {
+                return Object.class;
+            }
+        } else if (node instanceof SafeNavigationNode) {
+            SafeNavigationNode n = (SafeNavigationNode) node;
+            return inferProperty(getGenericType(n.getTarget()), n.getPropertyName());
+        } else if (node instanceof MethodNode) {
+            return inferMethod((MethodNode) node);
+        } else if (node instanceof ArithmeticNode) {
+            return inferArithmetic((ArithmeticNode) node);
+        } else if (node instanceof ComparisonNode) {
+            checkComparison((ComparisonNode) node);
+            return Boolean.class;
+        } else if (node instanceof LogicalNode) {
+            return Boolean.class;
+        } else if (node instanceof ConcatNode) {
+            return String.class;
+        } else if (node instanceof CollectionNode) {
+            switch (((CollectionNode) node).getTerminal()) {
+                case LIST:
+                    return List.class;
+                case COUNT:
+                    return Integer.class;
+                case EXISTS:
+                case EMPTY:
+                    return Boolean.class;
+                default:
+                    return Object.class;
+            }
+        } else if (node instanceof TernaryNode) {
+            TernaryNode n = (TernaryNode) node;
+            Class<?> cond = getType(n.getCondition());
+            if (TypeUtil.isKnown(cond) && cond != Boolean.class) {
+                problem("Ternary condition is not boolean: " + cond.getSimpleName() + " in " + node);
+            }
+            return common(getGenericType(n.getTrueExpression()), getGenericType(n.getFalseExpression()));
+        } else if (node instanceof ElvisNode) {
+            ElvisNode n = (ElvisNode) node;
+            return common(getGenericType(n.getLeft()), getGenericType(n.getRight()));
+        } else if (node instanceof InstructionExpression || node instanceof ClosureExpression || node instanceof TieredExpression
+                || node instanceof MemoizedExpression || node instanceof BoundExpression) {
+            return getGenericType(NodeUtil.children(node).get(0));
+        } else {
+            return Object.class;
+        }
+    }
+
+    private Type inferProperty(Type targetType, String name) {
+        if (Map.class.isAssignableFrom(TypeUtil.rawClass(targetType))) {
+            return TypeUtil.typeArgument(targetType, 1);
+        }
+
+        try {
+            PropertyHolder holder = TypedCompiler.resolveProperty(targetType, name);
+            return holder == null ? Object.class : TypeUtil.resolve(targetType, holder.getGenericType());
+        } catch (CompilationException e) {
+            problem(e.getMessage());
+            return Object.class;
+        }
+    }
+
+    private Type inferMethod(MethodNode node) {
+        Type ownerType = getGenericType(node.getTarget());
+        Class<?> owner = TypeUtil.rawClass(ownerType);
+        if (TypeUtil.isKnown(owner) == false || owner == Class.class) {
+            return Object.class;
+        }
+
+        List<Expression> args = node.getArgs();
+        Class<?>[] argTypes = new Class<?>[args.size()];
+        for (int i = 0; i < argTypes.length; i++) {
+            argTypes[i] = getType(args.get(i));
+            if (argTypes[i] == Object.class) {
+                return Object.class;
+            }
+        }
+
+        Method method = ReflectionUtil.getInstance().getMethod(owner, node.getMethodName(), argTypes);
+        if (method == null) {
+            problem("Unknown method: " + owner.getName() + "." + node.getMethodName());
+            return Object.class;
+        } else {
+            return TypeUtil.resolve(ownerType, method.getGenericReturnType());
+        }
+    }
+
+    private Type inferArithmetic(ArithmeticNode node) {
+        if (node.getLeft() instanceof TemplateNode || node.getRight() instanceof TemplateNode) {
+            return Object.class;
+        }
+
+        Class<?> l = getType(node.getLeft());
+        Class<?> r = getType(node.getRight());
+
+        if (node.getOperator() == ArithmeticOp.ADD && (l == String.class || r == String.class)) {
+            return String.class;
+        }
+
+        if (isNotNumber(l) || isNotNumber(r)) {
+            problem("Operator '" + node.getOperator().getCode() + "' not applicable: "
+                    + l.getSimpleName() + " and " + r.getSimpleName() + " in " + node);
+            return Object.class;
+        }
+
+        if (l == Double.class || r == Double.class) {
+            return Double.class;
+        } else if (TypeUtil.isKnown(l) == false || TypeUtil.isKnown(r) == false) {
+            return Object.class;
+        } else if (l == Float.class || r == Float.class) {
+            return Float.class;
+        } else if (l == Long.class || r == Long.class) {
+            return Long.class;
+        } else if (isInt(l) && isInt(r)) {
+            return Integer.class;
+        } else {
+            return Object.class;
+        }
+    }
+
+    private void checkComparison(ComparisonNode node) {
+        if (node.getLeft() instanceof TemplateNode || node.getRight() instanceof TemplateNode) {
+            return;
+        }
+
+        Class<?> l = getType(node.getLeft());
+        Class<?> r = getType(node.getRight());
+        String code = node.getOperator().getCode();
+
+        switch (node.getOperator()) {
+            case gt:
+            case gte:
+            case lt:
+            case lte:
+                if ((TypeUtil.isKnown(l) && Number.class.isAssignableFrom(l) == false)
+                        || (TypeUtil.isKnown(r) && Number.class.isAssignableFrom(r) == false)) {
+                    problem("Operator '" + code + "' not applicable: " + l.getSimpleName() + " and " + r.getSimpleName() + " in " + node);
+                }
+                break;
+            case eq:
+            case neq:
+                if (TypeUtil.isKnown(l) && TypeUtil.isKnown(r) && isComparable(l, r) == false) {
+                    problem("Operator '" + code + "' compares incompatible types: " + l.getSimpleName() + " and " + r.getSimpleName() + " in " + node);
+                }
+                break;
+            case in:
+            case nin:
+                if (TypeUtil.isKnown(r) && Collection.class.isAssignableFrom(r) == false) {
+                    problem("Operator '" + code + "' requires a collection: " + r.getSimpleName() + " in " + node);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static boolean isComparable(Class<?> l, Class<?> r) {
+        if (Number.class.isAssignableFrom(l) && Number.class.isAssignableFrom(r)) {
+            return true;
+        } else {
+            return l.isAssignableFrom(r) || r.isAssignableFrom(l) || l.isInterface() || r.isInterface();
+        }
+    }
+
+    private static boolean isNotNumber(Class<?> type) {
+        return type == Void.class || (type != Object.class && Number.class.isAssignableFrom(type) == false);
+    }
+
+    private static boolean isInt(Class<?> type) {
+        return type == Integer.class || type == Short.class || type == Byte.class;
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return isInt(type) || type == Long.class;
+    }
+
+    private static Type common(Type a, Type b) {
+        return a.equals(b) ? a : Object.class;
+    }
+
+    private void problem(String message) {
+        if (collecting) {
+            problems.add(message);
+        }
+    }
+
+    /// /////////////////
+
+    private Expression specializeNode(Expression node) {
+        if (types.containsKey(node) == false) {
+            //重建的节点（子节点已有类型）
+            types.put(node, inferNode(node));
+        }
+
+        Class<?> type = node.getClass();
+        Expression result = node;
+
+        if (type == ArithmeticNode.class) {
+            ArithmeticNode n = (ArithmeticNode) node;
+            int kind = arithmeticKind(n);
+            if (kind != ArithmeticNode.SPEC_UNINIT) {
+                ArithmeticNode tmp = new ArithmeticNode(n.getOperator(), n.getLeft(), n.getRight());
+                tmp.presetSpecialization(kind);
+                result = tmp;
+            }
+        } else if (type == ComparisonNode.class) {
+            ComparisonNode n = (ComparisonNode) node;
+            int kind = comparisonKind(n);
+            if (kind != ComparisonNode.SPEC_UNINIT) {
+                ComparisonNode tmp = new ComparisonNode(n.getOperator(), n.getLeft(), n.getRight());
+                tmp.presetSpecialization(kind);
+                result = tmp;
+            }
+        }
+
+        if (result != node) {
+            types.put(result, types.get(node));
+        }
+
+        return result;
+    }
+
+    private int arithmeticKind(ArithmeticNode node) {
+        Class<?> l = getType(node.getLeft());
+        Class<?> r = getType(node.getRight());
+
+        if (node.getOperator() == ArithmeticOp.ADD && l == String.class) {
+            return ArithmeticNode.SPEC_CONCAT;
+        } else if (l == Integer.class && r == Integer.class) {
+            return ArithmeticNode.SPEC_INT;
+        } else if (l == Long.class && r == Long.class) {
+            return ArithmeticNode.SPEC_LONG;
+        } else if (l == Double.class && r == Double.class) {
+            return ArithmeticNode.SPEC_DOUBLE;
+        } else {
+            return ArithmeticNode.SPEC_UNINIT;
+        }
+    }
+
+    private int comparisonKind(ComparisonNode node) {
+        Class<?> l = getType(node.getLeft());
+        Class<?> r = getType(node.getRight());
+
+        if (l == Integer.class && r == Integer.class) {
+            return ComparisonNode.SPEC_INT;
+        } else if (isIntegral(l) && isIntegral(r)) {
+            return ComparisonNode.SPEC_LONG;
+        } else if (l == Double.class && r == Double.class) {
+            return ComparisonNode.SPEC_DOUBLE;
+        } else if (l == String.class && r == String.class
+                && (node.getOperator() == ComparisonOp.eq || node.getOperator() == ComparisonOp.neq)) {
+            return ComparisonNode.SPEC_STRING;
+        } else {
+            return ComparisonNode.SPEC_UNINIT;
+        }
+    }
+}
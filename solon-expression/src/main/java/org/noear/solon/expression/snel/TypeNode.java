@@ -16,6 +16,8 @@
 package org.noear.solon.expression.snel;
 
 import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.context.DelegatingContext;
+import org.noear.solon.expression.context.EnhanceContext;
 import org.noear.solon.expression.guidance.TypeGuidance;
 
 import java.util.function.Function;
@@ -28,27 +30,62 @@ import java.util.function.Function;
  */
 public class TypeNode implements Expression<Class<?>> {
     private final String className;
-    private Class<?> type;
+    private volatile TypeCached cached; //按类型指导缓存（语法树可能被不同的上下文共享）
 
     public TypeNode(String className) {
         this.className = className;
     }
 
+    /**
+     * 获取类名
+     *
+     * @since 4.1
+     */
+    public String getClassName() {
+        return className;
+    }
+
     @Override
     public Class<?> eval(Function context) {
-        if (type == null) {
-            if (context instanceof TypeGuidance) {
-                type = ((TypeGuidance) context).getType(className);
-            } else {
-                throw new IllegalStateException("The current context is not supported: 'T(.)'");
+        if (context instanceof TypeGuidance) {
+            Object guidance = context;
+            while (guidance instanceof DelegatingContext) {
+                //委托上下文一般按评估新建，按其目标缓存
+                guidance = ((DelegatingContext) guidance).getDelegate();
+            }
+
+            if (guidance != null && guidance.getClass() == EnhanceContext.class) {
+                //增强上下文一般按请求新建，按其内部的类型指导缓存
+                TypeGuidance inner = ((EnhanceContext) guidance).getTypeGuidance();
+                if (inner != null) {
+                    guidance = inner;
+                }
+            }
+
+            TypeCached tmp = cached;
+            if (tmp == null || tmp.guidance != guidance) {
+                tmp = new TypeCached(guidance, ((TypeGuidance) context).getType(className));
+                cached = tmp;
             }
-        }
 
-        return type;
+            return tmp.type;
+        } else {
+            throw new IllegalStateException("The current context is not supported: 'T(.)'");
+        }
     }
 
     @Override
     public String toString() {
         return "T(" + className + ")";
     }
-}
\ No newline at end of file
+
+    private static class TypeCached {
+        final Object guidance;
+        final Class<?> type;
+
+        TypeCached(Object guidance, Class<?> type) {
+            this.guidance = guidance;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 静态类型工具（原始类、装箱、泛型参数与类型变量解析）
+ *
+ * @author noear
+ * @since 4.1
+ */
+final class TypeUtil {
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<>();
+
+    static {
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(void.class, Void.class);
+    }
+
+    private TypeUtil() {
+    }
+
+    /**
+     * 获取原始类（已装箱；未知时为 Object）
+     */
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return box((Class<?>) type);
+        } else if (type instanceof ParameterizedType) {
+            return rawClass(((ParameterizedType) type).getRawType());
+        } else if (type instanceof GenericArrayType) {
+            Class<?> component = rawClass(((GenericArrayType) type).getGenericComponentType());
+            return java.lang.reflect.Array.newInstance(component, 0).getClass();
+        } else if (type instanceof WildcardType) {
+            Type[] upper = ((WildcardType) type).getUpperBounds();
+            return upper.length == 1 ? rawClass(upper[0]) : Object.class;
+        } else {
+            return Object.class;
+        }
+    }
+
+    /**
+     * 装箱
+     */
+    static Class<?> box(Class<?> type) {
+        if (type.isPrimitive()) {
+            return WRAPPERS.get(type);
+        } else {
+            return type;
+        }
+    }
+
+    /**
+     * 是否为已知类型（非 Object、非 Void）
+     */
+    static boolean isKnown(Type type) {
+        Class<?> raw = rawClass(type);
+        return raw != Object.class && raw != Void.class;
+    }
+
+    /**
+     * 获取泛型参数（没有时为 Object）
+     */
+    static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] args = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < args.length) {
+                return args[index];
+            }
+        }
+
+        return Object.class;
+    }
+
+    /**
+     * 获取元素类型（数组或 List；其它为 Object）
+     */
+    static Type elementType(Type type) {
+        if (type instanceof GenericArrayType) {
+            return ((GenericArrayType) type).getGenericComponentType();
+        } else if (type instanceof Class && ((Class<?>) type).isArray()) {
+            return ((Class<?>) type).getComponentType();
+        } else if (List.class.isAssignableFrom(rawClass(type))) {
+            return typeArgument(type, 0);
+        } else {
+            return Object.class;
+        }
+    }
+
+    /**
+     * 解析成员类型中所有者的类型变量（如 Box&lt;Item&gt; 的 T getValue() 解析为 Item；解析不了时为 Object）
+     *
+     * @param owner  所有者类型
+     * @param member 成员的泛型类型
+     */
+    static Type resolve(Type owner, Type member) {
+        if (member instanceof TypeVariable) {
+            if (owner instanceof ParameterizedType) {
+                TypeVariable<?>[] vars = rawClassNoBox(owner).getTypeParameters();
+                Type[] args = ((ParameterizedType) owner).getActualTypeArguments();
+                for (int i = 0; i < vars.length && i < args.length; i++) {
+                    if (vars[i].getName().equals(((TypeVariable<?>) member).getName())) {
+                        return args[i];
+                    }
+                }
+            }
+
+            return Object.class;
+        } else {
+            return member;
+        }
+    }
+
+    private static Class<?> rawClassNoBox(Type type) {
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else {
+            return (Class<?>) type;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+import org.noear.solon.expression.exception.CompilationException;
+import org.noear.solon.expression.exception.EvaluationException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 类型化编译器（按根类型静态解析属性与方法路径，预绑定访问器；解析不了的路径保留动态访问）
+ *
+ * @author noear
+ * @since 4.1
+ */
+class TypedCompiler {
+    private final Class<?> rootType;
+    private final Map<Expression, Type> types = new IdentityHashMap<>();
+
+    private TypedCompiler(Class<?> rootType) {
+        this.rootType = rootType;
+    }
+
+    /**
+     * 编译（路径不存在时抛出 CompilationException）
+     *
+     * @param expression 表达式
+     * @param rootType   根类型（变量为根对象的属性）
+     */
+    static <T> TypedExpression<T> compile(Expression expression, Class<T> rootType) {
+        TypedCompiler compiler = new TypedCompiler(rootType);
+        Expression compiled = NodeUtil.transform(expression, compiler::compileNode);
+        return new TypedExpression<>(expression, compiled, rootType, compiler.typeOf(compiled));
+    }
+
+    private Type typeOf(Expression node) {
+        Type type = types.get(node);
+        return type == null ? Object.class : type;
+    }
+
+    private Expression compileNode(Expression node) {
+        Expression result = node;
+        Type type = Object.class;
+
+        if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            PropertyHolder holder = resolveProperty(rootType, name);
+            result = new RootPropertyNode(name, holder);
+            if (holder != null) {
+                type = holder.getGenericType();
+            }
+        } else if (node instanceof ConstantNode) {
+            Object value = ((ConstantNode) node).getValue();
+            type = (value == null ? Void.class : value.getClass());
+        } else if (node.getClass() == PropertyNode.class) {
+            PropertyNode n = (PropertyNode) node;
+            Type targetType = typeOf(n.getTarget());
+            Object property = n.getProperty() instanceof ConstantNode ? ((ConstantNode) n.getProperty()).getValue() : null;
+
+            if (property instanceof String) {
+                BoundPropertyNode bound = bindProperty(n.getTarget(), targetType, (String) property,
+                        (n.isSafe() ? "?.[" : "[") + n.getProperty() + "]");
+                if (bound != null) {
+                    result = bound;
+                    type = bound.type;
+                } else if (Map.class.isAssignableFrom(TypeUtil.rawClass(targetType))) {
+                    type = TypeUtil.typeArgument(targetType, 1);
+                }
+            } else if (property instanceof Number) {
+                type = TypeUtil.elementType(targetType);
+            }
+        } else if (node.getClass() == SafeNavigationNode.class) {
+            SafeNavigationNode n = (SafeNavigationNode) node;
+            BoundPropertyNode bound = bindProperty(n.getTarget(), typeOf(n.getTarget()), n.getPropertyName(), "?." + n.getPropertyName());
+            if (bound != null) {
+                result = bound;
+                type = bound.type;
+            }
+        } else if (node.getClass() == MethodNode.class) {
+            MethodNode n = (MethodNode) node;
+            BoundMethodNode bound = bindMethod(n);
+            if (bound != null) {
+                result = bound;
+                type = TypeUtil.resolve(typeOf(n.getTarget()), bound.method.getGenericReturnType());
+            }
+        } else if (node instanceof ComparisonNode || node instanceof LogicalNode) {
+            type = Boolean.class;
+        } else if (node instanceof ConcatNode) {
+            type = String.class;
+        }
+
+        types.put(result, type);
+        return result;
+    }
+
+    /**
+     * 解析属性（静态类型未知或为 Map 时返回 null；属性不存在时抛出编译异常）
+     */
+    static PropertyHolder resolveProperty(Type ownerType, String name) {
+        Class<?> owner = TypeUtil.rawClass(ownerType);
+        if (TypeUtil.isKnown(owner) == false || Map.class.isAssignableFrom(owner)) {
+            return null;
+        }
+
+        try {
+            return ReflectionUtil.getInstance().getProperty(owner, name);
+        } catch (EvaluationException e) {
+            throw new CompilationException("Unknown property: " + owner.getName() + "." + name);
+        }
+    }
+
+    private static BoundPropertyNode bindProperty(Expression target, Type targetType, String name, String suffix) {
+        PropertyHolder holder = resolveProperty(targetType, name);
+        if (holder == null) {
+            return null;
+        }
+
+        Type type = TypeUtil.resolve(targetType, holder.getGenericType());
+        return new BoundPropertyNode(target, name, holder, TypeUtil.rawClass(targetType), type, suffix);
+    }
+
+    /**
+     * 绑定方法（目标或参数的静态类型未知时返回 null；方法不存在时抛出编译异常）
+     */
+    private BoundMethodNode bindMethod(MethodNode node) {
+        Class<?> owner = TypeUtil.rawClass(typeOf(node.getTarget()));
+        if (TypeUtil.isKnown(owner) == false || owner == Class.class) {
+            return null;
+        }
+
+        List<Expression> args = node.getArgs();
+        Class<?>[] argTypes = new Class<?>[args.size()];
+        for (int i = 0; i < argTypes.length; i++) {
+            Type argType = typeOf(args.get(i));
+            Class<?> raw = TypeUtil.rawClass(argType);
+            if (raw == Object.class) {
+                return null;
+            }
+            argTypes[i] = raw;
+        }
+
+        Method method = ReflectionUtil.getInstance().getMethod(owner, node.getMethodName(), argTypes);
+        if (method == null) {
+            throw new CompilationException("Unknown method: " + owner.getName() + "." + node.getMethodName());
+        }
+
+        return new BoundMethodNode(node, owner, method);
+    }
+
+    /// /////////////////
+
+    /**
+     * 根对象上下文
+     */
+    static class RootContext implements Function<String, Object> {
+        final Object root;
+
+        RootContext(Object root) {
+            this.root = root;
+        }
+
+        @Override
+        public Object apply(String name) {
+            return PropertyNode.getValue(root, name);
+        }
+    }
+
+    /**
+     * 根对象属性（预绑定访问器；非根对象上下文时，按变量获取）
+     */
+    static class RootPropertyNode implements Expression {
+        private final String name;
+        private final PropertyHolder holder;
+
+        RootPropertyNode(String name, PropertyHolder holder) {
+            this.name = name;
+            this.holder = holder;
+        }
+
+        @Override
+        public Object eval(Function context) {
+            if (context instanceof RootContext) {
+                Object root = ((RootContext) context).root;
+                if (root == null || holder == null) {
+                    return PropertyNode.getValue(root, name);
+                } else {
+                    return getValue(holder, root, name);
+                }
+            } else {
+                return context.apply(name);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * 预绑定的属性（目标不是静态类型的实例时，按动态访问）
+     */
+    static class BoundPropertyNode implements Expression {
+        private final Expression target;
+        private final String name;
+        private final PropertyHolder holder;
+        private final Class<?> owner;
+        private final Type type;
+        private final String suffix; //输出形式与源节点一致
+
+        BoundPropertyNode(Expression target, String name, PropertyHolder holder, Class<?> owner, Type type, String suffix) {
+            this.target = target;
+            this.name = name;
+            this.holder = holder;
+            this.owner = owner;
+            this.type = type;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public Object eval(Function context) {
+            Object targetValue = target.eval(context);
+            if (targetValue == null) {
+                return null;
+            }
+
+            if (owner.isInstance(targetValue)) {
+                return getValue(holder, targetValue, name);
+            } else {
+                return PropertyNode.getValue(targetValue, name);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return target + suffix;
+        }
+    }
+
+    /**
+     * 预绑定的方法（目标不是静态类型的实例时，按动态调用）
+     */
+    static class BoundMethodNode implements Expression {
+        private final MethodNode source;
+        private final Class<?> owner;
+        private final Method method;
+        private final Expression[] args;
+
+        BoundMethodNode(MethodNode source, Class<?> owner, Method method) {
+            this.source = source;
+            this.owner = owner;
+            this.method = method;
+            this.args = source.getArgs().toArray(new Expression[0]);
+        }
+
+        @Override
+        public Object eval(Function context) {
+            Object targetValue = source.getTarget().eval(context);
+            if (targetValue == null) {
+                return null;
+            }
+
+            Object[] argValues = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argValues[i] = args[i].eval(context);
+            }
+
+            if (owner.isInstance(targetValue) == false) {
+                return source.invoke(targetValue, argValues);
+            }
+
+            try {
+                return method.invoke(targetValue, ReflectionUtil.getInstance().prepareInvokeArgs(method, argValues));
+            } catch (InvocationTargetException e) {
+                throw EvaluationException.expected("Failed to invoke method: " + method.getName(), e.getTargetException());
+            } catch (EvaluationException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw EvaluationException.expected("Failed to invoke method: " + method.getName(), e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return source.toString();
+        }
+    }
+
+    private static Object getValue(PropertyHolder holder, Object target, String name) {
+        try {
+            return holder.getValue(target);
+        } catch (Throwable e) {
+            throw EvaluationException.expected("Failed to access property: " + name, e);
+        }
+    }
+}
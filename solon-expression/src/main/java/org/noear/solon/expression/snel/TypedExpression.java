@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2025 noear.org and authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.noear.solon.expression.snel;
+
+import org.noear.solon.expression.Expression;
+
+import java.lang.reflect.Type;
+import java.util.function.Function;
+
+/**
+ * 类型化表达式（按根类型静态解析路径并预绑定访问器；变量为根对象的属性）
+ *
+ * @author noear
+ * @since 4.1
+ */
+public class TypedExpression<T> implements Expression {
+    private final Expression source;
+    private final Expression compiled;
+    private final Class<T> rootType;
+    private final Type resultType;
+
+    TypedExpression(Expression source, Expression compiled, Class<T> rootType, Type resultType) {
+        this.source = source;
+        this.compiled = compiled;
+        this.rootType = rootType;
+        this.resultType = resultType;
+    }
+
+    /**
+     * 以根对象评估
+     *
+     * @param root 根对象
+     */
+    public Object evalRoot(T root) {
+        return compiled.eval(new TypedCompiler.RootContext(root));
+    }
+
+    /**
+     * 评估（变量从上下文获取，不使用根对象访问器）
+     */
+    @Override
+    public Object eval(Function context) {
+        return compiled.eval(context);
+    }
+
+    /**
+     * 获取源表达式
+     */
+    public Expression getSource() {
+        return source;
+    }
+
+    /**
+     * 获取根类型
+     */
+    public Class<T> getRootType() {
+        return rootType;
+    }
+
+    /**
+     * 获取结果类型（静态推断；未知时为 Object）
+     */
+    public Class<?> getResultType() {
+        return TypeUtil.rawClass(resultType);
+    }
+
+    /**
+     * 获取结果类型（含泛型）
+     */
+    public Type getGenericResultType() {
+        return resultType;
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.noear.solon.expression.util;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceArray;
@@ -31,6 +33,7 @@ import java.util.function.Function;
 public class LRUCache<K, V> {
     private final int capacity;
     private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ConcurrentHashMap<K, Loading<V>> loadings = new ConcurrentHashMap<>();
     private final NodeList<K, V> accessOrder = new NodeList<>();
     private final ReentrantLock evictionLock = new ReentrantLock();
 
@@ -74,19 +77,47 @@ public class LRUCache<K, V> {
         }
     }
 
+    /**
+     * 获取或计算（计算在 map 锁之外进行；相同 key 的并发请求共享同一个在途计算）
+     */
     public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
-        Node<K, V> node = data.computeIfAbsent(key, k -> {
-            V val = mappingFunction.apply(k);
-            if (val == null) return null;
-            sizeCounter.incrementAndGet();
-            return new Node<>(k, val);
-        });
-
+        Node<K, V> node = data.get(key);
         if (node != null) {
             recordAccess(node);
             return node.value;
         }
-        return null;
+
+        Loading<V> loading = new Loading<>();
+        Loading<V> inflight = loadings.putIfAbsent(key, loading);
+        if (inflight != null) {
+            if (inflight.owner == Thread.currentThread()) {
+                throw new IllegalStateException("Recursive computation for key: " + key);
+            }
+
+            return inflight.await();
+        }
+
+        try {
+            V val;
+            node = data.get(key); //二次确认（可能刚被其它在途计算写入）
+            if (node != null) {
+                recordAccess(node);
+                val = node.value;
+            } else {
+                val = mappingFunction.apply(key);
+                if (val != null) {
+                    put(key, val);
+                }
+            }
+
+            loading.future.complete(val);
+            return val;
+        } catch (RuntimeException | Error e) {
+            loading.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(key, loading);
+        }
     }
 
     public void remove(K key) {
@@ -173,6 +204,26 @@ public class LRUCache<K, V> {
         }
     }
 
+    private static class Loading<V> {
+        final Thread owner = Thread.currentThread();
+        final CompletableFuture<V> future = new CompletableFuture<>();
+
+        V await() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw e;
+                }
+            }
+        }
+    }
+
     private static class NodeList<K, V> {
         private Node<K, V> head, tail;
 